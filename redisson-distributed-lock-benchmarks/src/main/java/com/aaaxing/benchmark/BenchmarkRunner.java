@@ -0,0 +1,33 @@
+package com.aaaxing.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 在IDE中运行全部基准测试，默认开启gc分析器输出每次操作的内存分配量（gc.alloc.rate.norm）
+ *
+ * <br>命令行运行：mvn -pl redisson-distributed-lock-benchmarks -am package && java -jar
+ * redisson-distributed-lock-benchmarks/target/benchmarks.jar -prof gc
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder builder = new OptionsBuilder();
+        if (args.length > 0) {
+            builder.include(args[0]);
+        } else {
+            // 未指定时不运行需要真实redis的基准测试
+            builder.include("com.aaaxing.benchmark").exclude(FairLockBenchmark.class.getSimpleName());
+        }
+        Options options = builder
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
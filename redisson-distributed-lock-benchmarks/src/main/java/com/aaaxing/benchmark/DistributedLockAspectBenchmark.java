@@ -0,0 +1,69 @@
+package com.aaaxing.benchmark;
+
+import com.aaaxing.benchmark.support.BenchmarkJoinPoint;
+import com.aaaxing.benchmark.support.BenchmarkSupport;
+import com.aaaxing.benchmark.support.LocalRedissonClient;
+import com.aaaxing.benchmark.support.LockedService;
+import com.aaaxing.distributed.lock.aspect.DistributedLockAspect;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 切面完整路径基准测试：解析锁定义、转换锁名、加锁、执行方法、释放锁
+ *
+ * <br>baseline为不经过切面直接执行方法的耗时，与其他结果相减即为切面带来的额外开销
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistributedLockAspectBenchmark {
+    private DistributedLockAspect aspect;
+    private ProceedingJoinPoint noPlaceholder;
+    private ProceedingJoinPoint onePlaceholder;
+    private ProceedingJoinPoint nestedPlaceholder;
+    private ProceedingJoinPoint manyPlaceholders;
+
+    @Setup
+    public void setup() {
+        LockedService service = new LockedService();
+        LockedService.Order order = new LockedService.Order();
+        aspect = BenchmarkSupport.distributedLockAspect(LocalRedissonClient.create());
+        noPlaceholder = new BenchmarkJoinPoint(service, "noPlaceholder");
+        onePlaceholder = new BenchmarkJoinPoint(service, "onePlaceholder", 1001L);
+        nestedPlaceholder = new BenchmarkJoinPoint(service, "nestedPlaceholder", order);
+        manyPlaceholders = new BenchmarkJoinPoint(service, "manyPlaceholders", "tenant", order, "type", "request");
+    }
+
+    @Benchmark
+    public Object baseline() throws Throwable {
+        return onePlaceholder.proceed();
+    }
+
+    @Benchmark
+    public Object noPlaceholder() throws Throwable {
+        return aspect.lockAspect(noPlaceholder);
+    }
+
+    @Benchmark
+    public Object onePlaceholder() throws Throwable {
+        return aspect.lockAspect(onePlaceholder);
+    }
+
+    @Benchmark
+    public Object nestedPlaceholder() throws Throwable {
+        return aspect.lockAspect(nestedPlaceholder);
+    }
+
+    @Benchmark
+    public Object manyPlaceholders() throws Throwable {
+        return aspect.lockAspect(manyPlaceholders);
+    }
+}
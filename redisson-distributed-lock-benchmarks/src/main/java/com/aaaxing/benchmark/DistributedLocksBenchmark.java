@@ -0,0 +1,60 @@
+package com.aaaxing.benchmark;
+
+import com.aaaxing.benchmark.support.LocalRedissonClient;
+import com.aaaxing.distributed.lock.utils.DistributedLocks;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DistributedLocks工具类基准测试：各锁类型的一次加锁与释放锁
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistributedLocksBenchmark {
+    private static final String LOCK_NAME = "benchmark";
+
+    @Setup
+    public void setup() {
+        DistributedLocks.setRedisson(LocalRedissonClient.create());
+        DistributedLocks.setPrefix("lock:");
+    }
+
+    @Benchmark
+    public void lockUnlock() {
+        DistributedLocks.lock(LOCK_NAME);
+        DistributedLocks.unlock(LOCK_NAME);
+    }
+
+    @Benchmark
+    public boolean tryLockUnlock() {
+        boolean locked = DistributedLocks.tryLock(LOCK_NAME);
+        DistributedLocks.unlock(LOCK_NAME);
+        return locked;
+    }
+
+    @Benchmark
+    public void fairLockUnlock() {
+        DistributedLocks.lockFairLock(LOCK_NAME);
+        DistributedLocks.unlockFairLock(LOCK_NAME);
+    }
+
+    @Benchmark
+    public void readLockUnlock() {
+        DistributedLocks.lockReadLock(LOCK_NAME);
+        DistributedLocks.unLockReadLock(LOCK_NAME);
+    }
+
+    @Benchmark
+    public void writeLockUnlock() {
+        DistributedLocks.lockWriteLock(LOCK_NAME);
+        DistributedLocks.unlockWriteLock(LOCK_NAME);
+    }
+}
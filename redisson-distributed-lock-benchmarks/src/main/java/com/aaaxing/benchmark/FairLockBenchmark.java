@@ -0,0 +1,89 @@
+package com.aaaxing.benchmark;
+
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
+import com.aaaxing.distributed.lock.strategy.LockStrategy;
+import com.aaaxing.distributed.lock.strategy.RedissonLockProvider;
+import org.openjdk.jmh.annotations.*;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+
+/**
+ * 公平锁基准测试：同一把锁有大量等待者时，redisson公平锁与取号公平锁的一次加锁与释放锁
+ *
+ * <br>需要真实的redis，地址通过系统属性指定，默认redis://127.0.0.1:6379：
+ * java -Dredis.address=redis://127.0.0.1:6379 -jar benchmarks.jar FairLockBenchmark
+ * <br>waiters个后台线程持续竞争同一把锁，使锁的等待队列保持在waiters左右；测量线程的加锁等待时间包含排队时间，
+ * 对比时关注redis的CPU占用与每次加锁的耗时分布
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class FairLockBenchmark {
+    private static final String LOCK_NAME = "benchmark:fair";
+
+    @Param({"REDISSON", "TICKET"})
+    public DistributedLockProperties.FairLock fairLock;
+
+    @Param({"16", "128", "512"})
+    public int waiters;
+
+    private RedissonClient redisson;
+    private LockStrategy lockStrategy;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final List<Thread> threads = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        Config config = new Config();
+        config.useSingleServer()
+                .setAddress(System.getProperty("redis.address", "redis://127.0.0.1:6379"))
+                .setConnectionPoolSize(Math.max(64, waiters))
+                .setSubscriptionConnectionPoolSize(Math.max(50, waiters / 4));
+        redisson = Redisson.create(config);
+        DistributedLockProperties properties = new DistributedLockProperties();
+        properties.setFairLock(fairLock);
+        lockStrategy = new RedissonLockProvider(redisson, properties, null).getLockStrategy(Type.FAIR_LOCK);
+
+        running.set(true);
+        for (int i = 0; i < waiters; i++) {
+            Thread thread = new Thread(() -> {
+                while (running.get()) {
+                    lockUnlock();
+                }
+            }, "fair-lock-waiter-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        threads.clear();
+        redisson.shutdown();
+    }
+
+    @Benchmark
+    public void lockUnlock() {
+        lockStrategy.lock(LOCK_NAME, -1, TimeUnit.SECONDS);
+        lockStrategy.unlock(LOCK_NAME);
+    }
+}
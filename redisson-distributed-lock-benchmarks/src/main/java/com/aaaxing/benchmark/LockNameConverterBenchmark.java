@@ -0,0 +1,63 @@
+package com.aaaxing.benchmark;
+
+import com.aaaxing.benchmark.support.BenchmarkJoinPoint;
+import com.aaaxing.benchmark.support.BenchmarkSupport;
+import com.aaaxing.benchmark.support.LockedService;
+import com.aaaxing.distributed.lock.converter.LockNameCoreConverter;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 锁名转换基准测试：无占位符、单占位符、多层级占位符、多占位符
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LockNameConverterBenchmark {
+    private LockNameCoreConverter converter;
+    private ProceedingJoinPoint noPlaceholder;
+    private ProceedingJoinPoint onePlaceholder;
+    private ProceedingJoinPoint nestedPlaceholder;
+    private ProceedingJoinPoint manyPlaceholders;
+
+    @Setup
+    public void setup() {
+        LockedService service = new LockedService();
+        LockedService.Order order = new LockedService.Order();
+        converter = BenchmarkSupport.lockNameCoreConverter();
+        noPlaceholder = new BenchmarkJoinPoint(service, "noPlaceholder");
+        onePlaceholder = new BenchmarkJoinPoint(service, "onePlaceholder", 1001L);
+        nestedPlaceholder = new BenchmarkJoinPoint(service, "nestedPlaceholder", order);
+        manyPlaceholders = new BenchmarkJoinPoint(service, "manyPlaceholders", "tenant", order, "type", "request");
+    }
+
+    @Benchmark
+    public String noPlaceholder() {
+        return converter.convertLockName("benchmark", noPlaceholder);
+    }
+
+    @Benchmark
+    public String onePlaceholder() {
+        return converter.convertLockName("benchmark:{id}", onePlaceholder);
+    }
+
+    @Benchmark
+    public String nestedPlaceholder() {
+        return converter.convertLockName("benchmark:{order.user.address.id}", nestedPlaceholder);
+    }
+
+    @Benchmark
+    public String manyPlaceholders() {
+        return converter.convertLockName(
+                "benchmark:{tenant}:{order.productId}:{order.user.id}:{order.user.address.id}:{type}:{requestId}",
+                manyPlaceholders);
+    }
+}
@@ -0,0 +1,163 @@
+package com.aaaxing.benchmark.support;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.aspectj.lang.reflect.SourceLocation;
+import org.aspectj.runtime.internal.AroundClosure;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * 基准测试用连接点，直接反射调用目标方法，模拟spring-aop传给切面的ProceedingJoinPoint
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public final class BenchmarkJoinPoint implements ProceedingJoinPoint {
+    private final Object target;
+    private final Object[] args;
+    private final BenchmarkMethodSignature signature;
+
+    public BenchmarkJoinPoint(Object target, String methodName, Object... args) {
+        Method method = null;
+        for (Method candidate : ReflectionUtils.getUniqueDeclaredMethods(target.getClass())) {
+            if (candidate.getName().equals(methodName)) {
+                method = candidate;
+            }
+        }
+        if (method == null) {
+            throw new IllegalArgumentException("No method named " + methodName + " in " + target.getClass());
+        }
+        this.target = target;
+        this.args = args;
+        this.signature = new BenchmarkMethodSignature(method);
+    }
+
+    @Override
+    public Object proceed() throws Throwable {
+        return proceed(args);
+    }
+
+    @Override
+    public Object proceed(Object[] args) throws Throwable {
+        return signature.method.invoke(target, args);
+    }
+
+    @Override
+    public void set$AroundClosure(AroundClosure arc) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toShortString() {
+        return signature.toShortString();
+    }
+
+    @Override
+    public String toLongString() {
+        return signature.toLongString();
+    }
+
+    @Override
+    public Object getThis() {
+        return target;
+    }
+
+    @Override
+    public Object getTarget() {
+        return target;
+    }
+
+    @Override
+    public Object[] getArgs() {
+        return args;
+    }
+
+    @Override
+    public Signature getSignature() {
+        return signature;
+    }
+
+    @Override
+    public SourceLocation getSourceLocation() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getKind() {
+        return METHOD_EXECUTION;
+    }
+
+    @Override
+    public StaticPart getStaticPart() {
+        throw new UnsupportedOperationException();
+    }
+
+    private static final class BenchmarkMethodSignature implements MethodSignature {
+        private final Method method;
+        private final String[] parameterNames;
+
+        BenchmarkMethodSignature(Method method) {
+            this.method = method;
+            this.parameterNames = new DefaultParameterNameDiscoverer().getParameterNames(method);
+        }
+
+        @Override
+        public Class getReturnType() {
+            return method.getReturnType();
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public Class[] getParameterTypes() {
+            return method.getParameterTypes();
+        }
+
+        @Override
+        public String[] getParameterNames() {
+            return parameterNames;
+        }
+
+        @Override
+        public Class[] getExceptionTypes() {
+            return method.getExceptionTypes();
+        }
+
+        @Override
+        public String toShortString() {
+            return method.getName();
+        }
+
+        @Override
+        public String toLongString() {
+            return method.toGenericString();
+        }
+
+        @Override
+        public String getName() {
+            return method.getName();
+        }
+
+        @Override
+        public int getModifiers() {
+            return method.getModifiers();
+        }
+
+        @Override
+        public Class getDeclaringType() {
+            return method.getDeclaringClass();
+        }
+
+        @Override
+        public String getDeclaringTypeName() {
+            return method.getDeclaringClass().getName();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.aaaxing.benchmark.support;
+
+import com.aaaxing.distributed.lock.aspect.DistributedLockAspect;
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
+import com.aaaxing.distributed.lock.converter.DefaultLockNamePreConverter;
+import com.aaaxing.distributed.lock.converter.LockNameCoreConverter;
+import com.aaaxing.distributed.lock.metrics.LockMetrics;
+import com.aaaxing.distributed.lock.strategy.LockStrategyRegistry;
+import org.redisson.api.RedissonClient;
+
+/**
+ * 在spring容器之外组装starter组件，与自动装配的默认配置一致
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public final class BenchmarkSupport {
+    private BenchmarkSupport() {
+    }
+
+    public static LockNameCoreConverter lockNameCoreConverter() {
+        return new LockNameCoreConverter(new DistributedLockProperties(), new DefaultLockNamePreConverter());
+    }
+
+    public static LockStrategyRegistry lockStrategyRegistry(RedissonClient redisson) {
+        return new LockStrategyRegistry(redisson, new DistributedLockProperties());
+    }
+
+    public static DistributedLockAspect distributedLockAspect(RedissonClient redisson) {
+        return new DistributedLockAspect(lockNameCoreConverter(), lockStrategyRegistry(redisson), LockMetrics.NOOP);
+    }
+}
@@ -0,0 +1,101 @@
+package com.aaaxing.benchmark.support;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内锁状态，按持有者id（与redisson一致默认为线程id）实现可重入的互斥/共享锁
+ *
+ * <br>仅用于离线基准测试，不实现锁持有时间过期
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+final class LocalLockState {
+    static final long WAIT_FOREVER = -1;
+
+    private long writeOwner;
+    private int writeHolds;
+    private final Map<Long, Integer> readHolds = new HashMap<>();
+
+    synchronized boolean acquireWrite(long owner, long waitTime, TimeUnit unit) throws InterruptedException {
+        long remaining = waitTime == WAIT_FOREVER ? Long.MAX_VALUE : unit.toNanos(waitTime);
+        long deadline = System.nanoTime() + remaining;
+        while ((writeHolds > 0 && writeOwner != owner) || !readHolds.isEmpty()) {
+            if (remaining <= 0) {
+                return false;
+            }
+            if (waitTime == WAIT_FOREVER) {
+                wait();
+            } else {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+        }
+        writeOwner = owner;
+        writeHolds++;
+        return true;
+    }
+
+    synchronized boolean acquireRead(long owner, long waitTime, TimeUnit unit) throws InterruptedException {
+        long remaining = waitTime == WAIT_FOREVER ? Long.MAX_VALUE : unit.toNanos(waitTime);
+        long deadline = System.nanoTime() + remaining;
+        while (writeHolds > 0 && writeOwner != owner) {
+            if (remaining <= 0) {
+                return false;
+            }
+            if (waitTime == WAIT_FOREVER) {
+                wait();
+            } else {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+        }
+        readHolds.merge(owner, 1, Integer::sum);
+        return true;
+    }
+
+    synchronized void releaseWrite(long owner) {
+        if (writeHolds == 0 || writeOwner != owner) {
+            throw new IllegalMonitorStateException("attempt to unlock lock, not locked by current owner: " + owner);
+        }
+        if (--writeHolds == 0) {
+            writeOwner = 0;
+            notifyAll();
+        }
+    }
+
+    synchronized void releaseRead(long owner) {
+        Integer holds = readHolds.get(owner);
+        if (holds == null) {
+            throw new IllegalMonitorStateException("attempt to unlock read lock, not locked by current owner: " + owner);
+        }
+        if (holds == 1) {
+            readHolds.remove(owner);
+            notifyAll();
+        } else {
+            readHolds.put(owner, holds - 1);
+        }
+    }
+
+    synchronized boolean forceRelease() {
+        boolean locked = writeHolds > 0 || !readHolds.isEmpty();
+        writeHolds = 0;
+        writeOwner = 0;
+        readHolds.clear();
+        notifyAll();
+        return locked;
+    }
+
+    synchronized boolean isLocked() {
+        return writeHolds > 0 || !readHolds.isEmpty();
+    }
+
+    synchronized int getHoldCount(long owner, boolean read) {
+        if (read) {
+            return readHolds.getOrDefault(owner, 0);
+        }
+        return writeOwner == owner ? writeHolds : 0;
+    }
+}
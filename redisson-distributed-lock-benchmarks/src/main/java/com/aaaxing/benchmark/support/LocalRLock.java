@@ -0,0 +1,221 @@
+package com.aaaxing.benchmark.support;
+
+import org.redisson.api.RFuture;
+import org.redisson.api.RLock;
+import org.redisson.misc.RedissonPromise;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+
+/**
+ * 进程内RLock替身
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+final class LocalRLock implements RLock {
+    private final String name;
+    private final LocalLockState state;
+    private final boolean read;
+
+    LocalRLock(String name, LocalLockState state, boolean read) {
+        this.name = name;
+        this.state = state;
+        this.read = read;
+    }
+
+    private boolean acquire(long owner, long waitTime, TimeUnit unit) throws InterruptedException {
+        return read ? state.acquireRead(owner, waitTime, unit) : state.acquireWrite(owner, waitTime, unit);
+    }
+
+    private void release(long owner) {
+        if (read) {
+            state.releaseRead(owner);
+        } else {
+            state.releaseWrite(owner);
+        }
+    }
+
+    private static long currentOwner() {
+        return Thread.currentThread().getId();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void lock() {
+        lock(-1, null);
+    }
+
+    @Override
+    public void lock(long leaseTime, TimeUnit unit) {
+        try {
+            acquire(currentOwner(), LocalLockState.WAIT_FOREVER, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        acquire(currentOwner(), LocalLockState.WAIT_FOREVER, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void lockInterruptibly(long leaseTime, TimeUnit unit) throws InterruptedException {
+        lockInterruptibly();
+    }
+
+    @Override
+    public boolean tryLock() {
+        try {
+            return acquire(currentOwner(), 0, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, TimeUnit unit) throws InterruptedException {
+        return acquire(currentOwner(), waitTime, unit);
+    }
+
+    @Override
+    public boolean tryLock(long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        return acquire(currentOwner(), waitTime, unit);
+    }
+
+    @Override
+    public void unlock() {
+        release(currentOwner());
+    }
+
+    @Override
+    public Condition newCondition() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean forceUnlock() {
+        return state.forceRelease();
+    }
+
+    @Override
+    public boolean isLocked() {
+        return state.isLocked();
+    }
+
+    @Override
+    public boolean isHeldByThread(long threadId) {
+        return state.getHoldCount(threadId, read) > 0;
+    }
+
+    @Override
+    public boolean isHeldByCurrentThread() {
+        return isHeldByThread(currentOwner());
+    }
+
+    @Override
+    public int getHoldCount() {
+        return state.getHoldCount(currentOwner(), read);
+    }
+
+    @Override
+    public long remainTimeToLive() {
+        return isLocked() ? -1 : -2;
+    }
+
+    @Override
+    public RFuture<Boolean> forceUnlockAsync() {
+        return RedissonPromise.newSucceededFuture(forceUnlock());
+    }
+
+    @Override
+    public RFuture<Void> unlockAsync() {
+        return unlockAsync(currentOwner());
+    }
+
+    @Override
+    public RFuture<Void> unlockAsync(long threadId) {
+        try {
+            release(threadId);
+            return RedissonPromise.newSucceededFuture(null);
+        } catch (Exception e) {
+            return RedissonPromise.newFailedFuture(e);
+        }
+    }
+
+    @Override
+    public RFuture<Boolean> tryLockAsync() {
+        return tryLockAsync(0, -1, TimeUnit.MILLISECONDS, currentOwner());
+    }
+
+    @Override
+    public RFuture<Void> lockAsync() {
+        return lockAsync(-1, TimeUnit.MILLISECONDS, currentOwner());
+    }
+
+    @Override
+    public RFuture<Void> lockAsync(long threadId) {
+        return lockAsync(-1, TimeUnit.MILLISECONDS, threadId);
+    }
+
+    @Override
+    public RFuture<Void> lockAsync(long leaseTime, TimeUnit unit) {
+        return lockAsync(leaseTime, unit, currentOwner());
+    }
+
+    @Override
+    public RFuture<Void> lockAsync(long leaseTime, TimeUnit unit, long threadId) {
+        try {
+            acquire(threadId, LocalLockState.WAIT_FOREVER, TimeUnit.MILLISECONDS);
+            return RedissonPromise.newSucceededFuture(null);
+        } catch (Exception e) {
+            return RedissonPromise.newFailedFuture(e);
+        }
+    }
+
+    @Override
+    public RFuture<Boolean> tryLockAsync(long threadId) {
+        return tryLockAsync(0, -1, TimeUnit.MILLISECONDS, threadId);
+    }
+
+    @Override
+    public RFuture<Boolean> tryLockAsync(long waitTime, TimeUnit unit) {
+        return tryLockAsync(waitTime, -1, unit, currentOwner());
+    }
+
+    @Override
+    public RFuture<Boolean> tryLockAsync(long waitTime, long leaseTime, TimeUnit unit) {
+        return tryLockAsync(waitTime, leaseTime, unit, currentOwner());
+    }
+
+    @Override
+    public RFuture<Boolean> tryLockAsync(long waitTime, long leaseTime, TimeUnit unit, long threadId) {
+        try {
+            return RedissonPromise.newSucceededFuture(acquire(threadId, waitTime, unit));
+        } catch (Exception e) {
+            return RedissonPromise.newFailedFuture(e);
+        }
+    }
+
+    @Override
+    public RFuture<Integer> getHoldCountAsync() {
+        return RedissonPromise.newSucceededFuture(getHoldCount());
+    }
+
+    @Override
+    public RFuture<Boolean> isLockedAsync() {
+        return RedissonPromise.newSucceededFuture(isLocked());
+    }
+
+    @Override
+    public RFuture<Long> remainTimeToLiveAsync() {
+        return RedissonPromise.newSucceededFuture(remainTimeToLive());
+    }
+}
@@ -0,0 +1,69 @@
+package com.aaaxing.benchmark.support;
+
+import org.redisson.api.RLock;
+import org.redisson.api.RReadWriteLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内RedissonClient替身，使基准测试无需启动redis即可运行
+ *
+ * <br>仅支持getLock、getFairLock、getReadWriteLock及生命周期方法，其余方法抛出UnsupportedOperationException。
+ * 与redisson一致，每次getLock都会创建新的锁对象，同名锁共享同一份锁状态。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public final class LocalRedissonClient {
+    private LocalRedissonClient() {
+    }
+
+    public static RedissonClient create() {
+        ConcurrentHashMap<String, LocalLockState> states = new ConcurrentHashMap<>();
+        Config config = new Config();
+
+        return (RedissonClient) Proxy.newProxyInstance(LocalRedissonClient.class.getClassLoader(),
+                new Class<?>[]{RedissonClient.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getLock":
+                        case "getFairLock":
+                            return getLock(states, (String) args[0], false);
+                        case "getReadWriteLock":
+                            String name = (String) args[0];
+                            return new RReadWriteLock() {
+                                @Override
+                                public RLock readLock() {
+                                    return getLock(states, name, true);
+                                }
+
+                                @Override
+                                public RLock writeLock() {
+                                    return getLock(states, name, false);
+                                }
+                            };
+                        case "getConfig":
+                            return config;
+                        case "isShutdown":
+                        case "isShuttingDown":
+                            return false;
+                        case "shutdown":
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "LocalRedissonClient";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static RLock getLock(ConcurrentHashMap<String, LocalLockState> states, String name, boolean read) {
+        return new LocalRLock(name, states.computeIfAbsent(name, k -> new LocalLockState()), read);
+    }
+}
@@ -0,0 +1,46 @@
+package com.aaaxing.benchmark.support;
+
+import com.aaaxing.distributed.lock.annotation.DistributedLock;
+
+/**
+ * 基准测试用的加锁业务方法，覆盖无占位符、单占位符、多层级占位符与多占位符的锁名
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class LockedService {
+
+    @DistributedLock("benchmark")
+    public Object noPlaceholder() {
+        return null;
+    }
+
+    @DistributedLock("benchmark:{id}")
+    public Object onePlaceholder(Long id) {
+        return id;
+    }
+
+    @DistributedLock("benchmark:{order.user.address.id}")
+    public Object nestedPlaceholder(Order order) {
+        return order;
+    }
+
+    @DistributedLock("benchmark:{tenant}:{order.productId}:{order.user.id}:{order.user.address.id}:{type}:{requestId}")
+    public Object manyPlaceholders(String tenant, Order order, String type, String requestId) {
+        return order;
+    }
+
+    public static class Order {
+        private Long productId = 20001L;
+        private User user = new User();
+    }
+
+    public static class User {
+        private Long id = 10001L;
+        private Address address = new Address();
+    }
+
+    public static class Address {
+        private Integer id = 30001;
+    }
+}
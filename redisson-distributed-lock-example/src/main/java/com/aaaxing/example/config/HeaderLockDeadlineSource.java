@@ -0,0 +1,36 @@
+package com.aaaxing.example.config;
+
+import com.aaaxing.distributed.lock.strategy.LockDeadlineSource;
+import com.aaaxing.distributed.lock.strategy.ThreadLocalLockDeadlineSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自定义调用截止时间来源
+ * 从网关传递的请求头X-Request-Deadline（截止时间的毫秒时间戳）读取剩余时间，没有该请求头时读取线程变量
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+@Component
+public class HeaderLockDeadlineSource implements LockDeadlineSource {
+    private static final String DEADLINE_HEADER = "X-Request-Deadline";
+    private final ThreadLocalLockDeadlineSource threadLocalSource = new ThreadLocalLockDeadlineSource();
+
+    @Override
+    public long remainingNanos() {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        String deadline = attributes == null ? null : attributes.getRequest().getHeader(DEADLINE_HEADER);
+        if (deadline == null) {
+            return threadLocalSource.remainingNanos();
+        }
+        try {
+            return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(deadline) - System.currentTimeMillis());
+        } catch (NumberFormatException e) {
+            return NO_DEADLINE;
+        }
+    }
+}
@@ -33,6 +33,7 @@ public class OrderController {
 //    @DistributedLock(name = "saveOrder:{productId}", type = Type.WRITE_LOCK)
 //    @DistributedLock(name = "saveOrder:{productId}", type = Type.LOCK, mode = Mode.TRY_LOCK, leaseTime = 60, waitTime = 2,
 //            timeUnit = TimeUnit.SECONDS, autoUnlock = true, tryLockFailMsg = "访问用户过多，请您稍后再试~")
+//    @DistributedLock(name = "saveOrder:{order.requestId}", mode = Mode.IDEMPOTENT, resultTtl = 600)
     public Map<String, Object> save(@RequestBody Order order) throws InterruptedException {
         log.info("The order logic begins. productId: {}, requestId: {}", order.getProductId(), order.getRequestId());
 
@@ -61,7 +62,7 @@ public class OrderController {
     }
 
     @GetMapping("/order/{id}")
-    @DistributedLock(name = "order", type = Type.READ_LOCK)
+    @DistributedLock(name = "order:{id}", type = Type.HIERARCHICAL_READ_LOCK)
     public Map<String, Object> get(@PathVariable Long id) throws InterruptedException {
 
         // Thread.sleep(10000);
@@ -75,7 +76,7 @@ public class OrderController {
     }
 
     @PutMapping("/order/{id}")
-    @DistributedLock(name = "order", type = Type.WRITE_LOCK)
+    @DistributedLock(name = "order:{id}", type = Type.HIERARCHICAL_WRITE_LOCK, deadline = true)
     public Map<String, Object> update(@PathVariable Long id, @RequestBody Order order) throws InterruptedException {
 
         Thread.sleep(10000);
@@ -70,6 +70,80 @@ public @interface DistributedLock {
      */
     TimeUnit timeUnit() default TimeUnit.SECONDS;
 
+    /**
+     * 是否开启本地排队（两级锁），不支持读锁
+     * <p>
+     *     <br/>开启后同一JVM内的竞争者先在本地锁上排队，每个JVM只有一个线程竞争redis锁；
+     *     <br/>释放时若有本地等待者，redis锁直接移交给下一个本地等待者，不再解锁、重新加锁。
+     *     <br/>适用于单节点内大量线程竞争同一热点锁的场景，可降低redis请求量与等待延迟。
+     *     <br/>连续移交次数上限可通过application.properties配置：distributed-lock.local-queue-max-handoffs=16
+     * </p>
+     */
+    boolean localQueue() default false;
+
+    /**
+     * 是否异步释放锁，开启后方法结束时发出释放请求即返回，不等待redis释放完成
+     * <p>
+     *     <br/>释放失败不再抛出status=4的异常，而是回调LockReleaseListener并计入释放失败指标；
+     *     <br/>也可通过application.properties全局开启：distributed-lock.async-unlock=true
+     *     <br/>仅对同步方法的单个锁名生效，异步方法本就异步释放，集合占位符的多个锁名仍同步释放
+     * </p>
+     */
+    boolean asyncUnlock() default false;
+
+    /**
+     * 信号量的许可总数，仅锁类型为SEMAPHORE有效，同名信号量最多有permits个方法调用同时执行
+     * <p>
+     *     <br/>许可总数在信号量首次使用时设置，已存在的信号量不会因修改此值而改变；
+     *     <br/>每个许可带有持有时间（leaseTime，-1为自动续期），持有节点宕机后许可到期自动归还
+     * </p>
+     */
+    int permits() default 1;
+
+    /**
+     * 锁分段数，大于0时转换后的锁名哈希到stripes个固定的分段锁名（前缀stripe:锁类型:分段数:序号）之一，0为不分段
+     * <p>
+     *     <br/>适用于以用户id等高基数值为锁名的场景，每种锁类型在redis中的锁键与通知频道数量固定为stripes个，
+     *     代价是不同锁名落到同一分段时互相阻塞（误冲突）；读锁与写锁共用分段；
+     *     <br/>同一资源的所有加锁处（注解与DistributedLocks.lockStriped）必须使用相同的分段数；
+     *     <br/>两个线程以相反顺序嵌套获取两个分段锁时，即使锁名不同也可能因落到同一分段而死锁，嵌套的分段锁应按固定顺序获取；
+     *     <br/>分段加锁次数与本节点观测到的误冲突次数计入指标
+     *     distributed.lock.stripe.acquisitions、distributed.lock.stripe.collisions
+     *     <br/>不支持信号量、单飞模式与集合占位符
+     * </p>
+     */
+    int stripes() default 0;
+
+    /**
+     * 锁后端熔断时的降级策略，默认不降级
+     * <p>
+     *     <br/>配置后记录锁后端请求的失败率与慢请求率，超过阈值时熔断：FAIL_FAST立即抛出status=3的异常，
+     *     LOCAL降级为JVM内的同名本地锁；熔断时长过后探测锁后端，探测成功时自动恢复；
+     *     <br/>熔断器由全部配置了degrade的锁共用，阈值可通过application.properties配置：
+     *     distributed-lock.circuit-breaker-failure-rate=50、distributed-lock.circuit-breaker-open-duration=5s等；
+     *     <br/>降级次数计入指标distributed.lock.degraded；不支持信号量与集合占位符
+     * </p>
+     */
+    Degrade degrade() default Degrade.NONE;
+
+    /**
+     * 是否按调用剩余的时间预算等待锁，默认false
+     * <p>
+     *     <br/>开启后TRY_LOCK模式的实际等待时间为waitTime与剩余时间中的较小值，LOCK模式最多等待剩余时间，
+     *     等不到锁时抛出status=5的异常；
+     *     <br/>剩余时间已耗尽时不访问redis，立即抛出status=5的异常；没有截止时间时与未开启一致；
+     *     <br/>剩余时间由LockDeadlineSource在开始加锁的线程上给出，默认读取ThreadLocalLockDeadlineSource设置的截止时间，
+     *     注册LockDeadlineSource bean可改为从请求属性或gRPC、HTTP的超时头读取；
+     *     <br/>不支持单飞模式
+     * </p>
+     */
+    boolean deadline() default false;
+
+    /**
+     * 幂等模式下方法结果的保留时间，时间单位为timeUnit，-1为使用全局配置distributed-lock.idempotent-result-ttl=10m
+     * @see Mode#IDEMPOTENT
+     */
+    long resultTtl() default -1;
 
 
     enum Type {
@@ -98,6 +172,32 @@ public @interface DistributedLock {
          * @see RReadWriteLock#writeLock()
          */
         WRITE_LOCK,
+
+        /**
+         * 移交锁：等待者在各自的键上阻塞等待（BLPOP），释放时只唤醒队首存活的等待者并直接将锁交给它，不再广播给全部等待者。
+         * 适用于跨节点大量等待者竞争同一热点锁的场景，等待期间每个等待者占用一个redis连接
+         * <br>放弃等待或宕机的等待者在其存活时间后被跳过，存活时间可通过application.properties配置：
+         * distributed-lock.handoff-waiter-ttl=5s
+         */
+        HANDOFF_LOCK,
+
+        /**
+         * 层级读锁：锁名去掉前缀后以“:”分层，如order:42对order加意向读锁（IS）、对order:42加读锁（S）
+         * <br>与层级写锁配合使用，同一层级树的读写都应使用层级锁，不与其他类型的同名锁互斥
+         */
+        HIERARCHICAL_READ_LOCK,
+
+        /**
+         * 层级写锁：对各祖先层加意向写锁（IX）、对锁名本身加写锁（X）。order:1与order:2的写锁并行，
+         * order的写锁与order下全部锁名的读写互斥，适用于单条操作与整体批量操作并存的场景
+         */
+        HIERARCHICAL_WRITE_LOCK,
+
+        /**
+         * 可过期许可信号量，限制同名资源的并发数，许可总数由permits指定。不支持本地排队、单飞模式、集合占位符与异步方法
+         * @see RedissonClient#getPermitExpirableSemaphore(String)
+         */
+        SEMAPHORE,
     }
 
     enum Mode {
@@ -112,5 +212,45 @@ public @interface DistributedLock {
          * @see DistributedLockException
          */
         TRY_LOCK,
+        /**
+         * 单飞：锁被占用时不重复执行方法，等待持有者执行完毕后直接返回其结果，适用于缓存重建等昂贵且幂等的方法
+         * <p>
+         *     <br/>同一JVM内相同锁名的并发调用共享同一次执行的结果或异常；
+         *     <br/>其他节点等待到锁后读取持有者发布到redis的结果，持有者抛出异常时不发布结果，等待者获得锁后自行执行；
+         *     <br/>结果保留时间与编解码器可通过application.properties配置：
+         *     distributed-lock.single-flight-result-ttl=5s、distributed-lock.single-flight-codec=org.redisson.codec.JsonJacksonCodec
+         *     <br/>仅支持同步方法，不支持读锁与集合占位符
+         * </p>
+         */
+        SINGLE_FLIGHT,
+        /**
+         * 幂等：方法在锁内执行成功后，在释放锁前以锁名保存结果，保留时间内相同锁名的调用直接返回结果，不再加锁、执行方法，
+         * 适用于客户端以相同请求id重试的提交类方法
+         * <p>
+         *     <br/>先查本地近缓存，未命中再查redis；等待到锁后再查一次，等待期间其他调用已完成时直接返回其结果；
+         *     <br/>方法抛出异常时不保存结果，之后的调用重新执行；
+         *     <br/>结果保留时间由resultTtl指定，近缓存大小与保留时间可通过application.properties配置：
+         *     distributed-lock.idempotent-near-cache-size=1024、distributed-lock.idempotent-near-cache-ttl=10s，
+         *     编解码器与单飞模式相同；近缓存的结果在调用之间共享同一个对象，方法返回值应不可变
+         *     <br/>仅支持同步方法，不支持读锁、信号量与集合占位符
+         * </p>
+         */
+        IDEMPOTENT,
+    }
+
+    enum Degrade {
+        /**
+         * 不降级，锁后端慢或不可用时等待其超时
+         */
+        NONE,
+        /**
+         * 熔断期间加锁立即抛出status=3的异常，适用于必须严格互斥的锁
+         * @see DistributedLockException
+         */
+        FAIL_FAST,
+        /**
+         * 熔断期间降级为JVM内的同名本地锁，只在本节点内互斥，适用于可接受尽力互斥的锁
+         */
+        LOCAL,
     }
 }
@@ -2,24 +2,45 @@
 package com.aaaxing.distributed.lock.aspect;
 
 import com.aaaxing.distributed.lock.annotation.DistributedLock;
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
 import com.aaaxing.distributed.lock.converter.LockNameCoreConverter;
+import com.aaaxing.distributed.lock.converter.LockNameTemplate;
 import com.aaaxing.distributed.lock.exception.DistributedLockException;
+import com.aaaxing.distributed.lock.metrics.LockMeters;
+import com.aaaxing.distributed.lock.metrics.LockMetrics;
+import com.aaaxing.distributed.lock.strategy.BatchLockStrategy;
+import com.aaaxing.distributed.lock.strategy.DegradableLockStrategy;
+import com.aaaxing.distributed.lock.strategy.IdempotentResults;
+import com.aaaxing.distributed.lock.strategy.LockDeadlineSource;
+import com.aaaxing.distributed.lock.strategy.LockFutures;
+import com.aaaxing.distributed.lock.strategy.LockOwnerIds;
+import com.aaaxing.distributed.lock.strategy.LockReleaseListener;
+import com.aaaxing.distributed.lock.strategy.LockStrategy;
+import com.aaaxing.distributed.lock.strategy.LockStrategyRegistry;
+import com.aaaxing.distributed.lock.strategy.SemaphoreStrategy;
+import com.aaaxing.distributed.lock.strategy.SingleFlightResults;
+import com.aaaxing.distributed.lock.strategy.StripedLockStrategy;
+import com.aaaxing.distributed.lock.strategy.ThreadLocalLockDeadlineSource;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.redisson.api.RLock;
-import org.redisson.api.RReadWriteLock;
-import org.redisson.api.RedissonClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 import static com.aaaxing.distributed.lock.annotation.DistributedLock.*;
 
@@ -33,15 +54,71 @@ import static com.aaaxing.distributed.lock.annotation.DistributedLock.*;
 @Aspect
 @Component
 public class DistributedLockAspect {
+    /**
+     * 异步加锁方法的执行器bean名称，未注册时使用ForkJoinPool.commonPool()
+     */
+    public static final String ASYNC_EXECUTOR_BEAN_NAME = "distributedLockAsyncExecutor";
     private static final Logger LOGGER = LoggerFactory.getLogger(DistributedLockAspect.class);
     private final LockNameCoreConverter lockNameCoreConverter;
+    private final LockStrategyRegistry lockStrategyRegistry;
+    private final LockMetrics lockMetrics;
+    private final boolean asyncUnlock;
+    private final LockReleaseListener releaseListener;
+    private final LockDeadlineSource deadlineSource;
+    private final Executor asyncExecutor;
+    private final long idempotentResultTtlMillis;
+    private final ConcurrentHashMap<Method, DistributedLockDefinition> lockDefinitions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+
+    public DistributedLockAspect(LockNameCoreConverter lockNameCoreConverter,
+                                 LockStrategyRegistry lockStrategyRegistry, LockMetrics lockMetrics) {
+        this(lockNameCoreConverter, lockStrategyRegistry, lockMetrics, new DistributedLockProperties(), null);
+    }
 
-    public DistributedLockAspect(LockNameCoreConverter lockNameCoreConverter) {
-        this.lockNameCoreConverter = lockNameCoreConverter;
+    /**
+     * @param properties 分布式锁配置
+     * @param releaseListener 异步释放锁失败监听器，为null时仅打印告警日志
+     */
+    public DistributedLockAspect(LockNameCoreConverter lockNameCoreConverter,
+                                 LockStrategyRegistry lockStrategyRegistry, LockMetrics lockMetrics,
+                                 DistributedLockProperties properties, LockReleaseListener releaseListener) {
+        this(lockNameCoreConverter, lockStrategyRegistry, lockMetrics, properties, releaseListener,
+                new ThreadLocalLockDeadlineSource());
+    }
+
+    /**
+     * @param properties 分布式锁配置
+     * @param releaseListener 异步释放锁失败监听器，为null时仅打印告警日志
+     * @param deadlineSource 调用截止时间来源，开启了deadline的锁按其给出的剩余时间等待
+     */
+    public DistributedLockAspect(LockNameCoreConverter lockNameCoreConverter,
+                                 LockStrategyRegistry lockStrategyRegistry, LockMetrics lockMetrics,
+                                 DistributedLockProperties properties, LockReleaseListener releaseListener,
+                                 LockDeadlineSource deadlineSource) {
+        this(lockNameCoreConverter, lockStrategyRegistry, lockMetrics, properties, releaseListener, deadlineSource,
+                null);
     }
 
-    @Autowired(required = false)
-    private RedissonClient redisson;
+    /**
+     * @param properties 分布式锁配置
+     * @param releaseListener 异步释放锁失败监听器，为null时仅打印告警日志
+     * @param deadlineSource 调用截止时间来源，开启了deadline的锁按其给出的剩余时间等待
+     * @param asyncExecutor 返回CompletableFuture/CompletionStage的方法等待到锁后调用方法的执行器，
+     *                      为null时使用ForkJoinPool.commonPool()
+     */
+    public DistributedLockAspect(LockNameCoreConverter lockNameCoreConverter,
+                                 LockStrategyRegistry lockStrategyRegistry, LockMetrics lockMetrics,
+                                 DistributedLockProperties properties, LockReleaseListener releaseListener,
+                                 LockDeadlineSource deadlineSource, Executor asyncExecutor) {
+        this.lockNameCoreConverter = lockNameCoreConverter;
+        this.lockStrategyRegistry = lockStrategyRegistry;
+        this.lockMetrics = lockMetrics;
+        this.asyncUnlock = properties.isAsyncUnlock();
+        this.releaseListener = releaseListener;
+        this.deadlineSource = deadlineSource;
+        this.asyncExecutor = asyncExecutor == null ? ForkJoinPool.commonPool() : asyncExecutor;
+        this.idempotentResultTtlMillis = properties.getIdempotentResultTtl().toMillis();
+    }
 
     @Around("@annotation(com.aaaxing.distributed.lock.annotation.DistributedLock)")
     public Object lockAspect(ProceedingJoinPoint joinPoint) throws Throwable {
@@ -50,20 +127,47 @@ public class DistributedLockAspect {
             LOGGER.debug("Entered the aspect of distributedLock.");
         }
 
-        DistributedLock annotation = getAndCheckLockAnnotation(joinPoint);
+        DistributedLockDefinition definition = getLockDefinition(joinPoint);
 
-        if (redisson == null) {
+        if (!lockStrategyRegistry.isAvailable()) {
             throw new DistributedLockException(1, "Required Redisson dependency for distributed lock was not found.");
         }
 
-        String lockName = lockNameCoreConverter.convertLockName(annotation.name(), joinPoint);
+        if (definition.isMultiple()) {
+            return lockAll(joinPoint, definition);
+        }
+
+        String lockName = lockNameCoreConverter.convertLockName(definition.getNameTemplate(), joinPoint);
+
+        if (Type.SEMAPHORE.equals(definition.getType())) {
+            return withPermit(joinPoint, lockName, definition);
+        }
+
+        switch (definition.getAsyncType()) {
+            case COMPLETION_STAGE:
+                return lockCompletionStage(joinPoint, lockName, definition);
+            case MONO:
+                return ReactiveLockSupport.lockMono(joinPoint, asyncLockOperations(lockName, definition));
+            case FLUX:
+                return ReactiveLockSupport.lockFlux(joinPoint, asyncLockOperations(lockName, definition));
+            default:
+                break;
+        }
+
+        if (Mode.SINGLE_FLIGHT.equals(definition.getMode())) {
+            return singleFlight(joinPoint, lockName, definition);
+        }
+
+        if (Mode.IDEMPOTENT.equals(definition.getMode())) {
+            return idempotent(joinPoint, lockName, definition);
+        }
 
-        lock(lockName, annotation);
+        long acquiredAt = lock(lockName, definition);
         Object proceed;
         try {
             proceed = joinPoint.proceed();
         } finally {
-            unlock(lockName, annotation);
+            unlock(lockName, definition, acquiredAt);
         }
 
         if (LOGGER.isDebugEnabled()) {
@@ -72,13 +176,40 @@ public class DistributedLockAspect {
         return proceed;  
     }
 
-    private DistributedLock getAndCheckLockAnnotation(ProceedingJoinPoint joinPoint) {
+    /**
+     * 获取方法的锁定义，每个方法仅解析、校验一次
+     *
+     * @param method 加锁方法
+     * @return 锁定义
+     */
+    public DistributedLockDefinition getLockDefinition(Method method) {
+        DistributedLockDefinition definition = lockDefinitions.get(method);
+        if (definition == null) {
+            definition = lockDefinitions.computeIfAbsent(method, this::createLockDefinition);
+        }
+        return definition;
+    }
+
+    private DistributedLockDefinition getLockDefinition(ProceedingJoinPoint joinPoint) {
 
-        DistributedLock annotation;
+        Method method;
 
         try {
             MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-            Method method = signature.getMethod();
+            method = signature.getMethod();
+        } catch (Exception e) {
+            throw new DistributedLockException(0, "An exception occurred while get distributed lock annotation.",
+                    e.getCause());
+        }
+
+        return getLockDefinition(method);
+    }
+
+    private DistributedLockDefinition createLockDefinition(Method method) {
+
+        DistributedLock annotation;
+
+        try {
             annotation = AnnotationUtils.getAnnotation(method, DistributedLock.class);
             Objects.requireNonNull(annotation);
 
@@ -87,127 +218,610 @@ public class DistributedLockAspect {
                     e.getCause());
         }
 
-        if (annotation.leaseTime() < -1) {
-            throw new DistributedLockException(0, "The leaseTime value of the distributed lock annotation is invalid.");
+        LockNameTemplate nameTemplate = lockNameCoreConverter.getTemplate(method, annotation.name());
+        LockStrategy lockStrategy = annotation.localQueue()
+                ? lockStrategyRegistry.getLocalQueueLockStrategy(annotation.type())
+                : lockStrategyRegistry.getLockStrategy(annotation.type());
+        LockMeters meters = lockMetrics.meters(annotation.type(), annotation.mode(), annotation.name());
+        if (annotation.stripes() > 0 && lockStrategy != null) {
+            lockStrategy = new StripedLockStrategy(lockStrategy, annotation.type(), annotation.stripes(),
+                    lockStrategyRegistry.getLockStripes(), meters);
         }
-        if (annotation.waitTime() < 0) {
-            throw new DistributedLockException(0, "The waitTime value of the distributed lock annotation is invalid.");
+        if (!Degrade.NONE.equals(annotation.degrade()) && lockStrategy != null) {
+            LockStrategy fallback = Degrade.LOCAL.equals(annotation.degrade())
+                    ? lockStrategyRegistry.getFallbackLockStrategy(annotation.type()) : null;
+            lockStrategy = new DegradableLockStrategy(lockStrategy, fallback, lockStrategyRegistry.getCircuitBreaker(),
+                    meters);
         }
-
-        return annotation;
+        return new DistributedLockDefinition(method, annotation, nameTemplate, lockStrategy, meters,
+                asyncUnlock || annotation.asyncUnlock());
     }
 
     /**
      * 加锁
      *
      * @param lockName 锁名
-     * @param annotation 锁注解
+     * @param definition 锁定义
+     * @return 加锁完成的时间（纳秒），未启用指标时为0
      */
-    private void lock(String lockName, DistributedLock annotation) {
-        Type type = annotation.type();
-        Mode mode = annotation.mode();
-        long leaseTime = annotation.leaseTime();
-        long waitTime = annotation.waitTime();
-        TimeUnit timeUnit = annotation.timeUnit();
-        String tryLockFailMsg = annotation.tryLockFailMsg();
+    private long lock(String lockName, DistributedLockDefinition definition) {
+        LockStrategy lockStrategy = definition.getLockStrategy();
+        LockMeters meters = definition.getMeters();
+        long start = meters.isEnabled() ? System.nanoTime() : 0L;
 
         try {
 
-            if (Type.LOCK.equals(type)) {
+            long waitNanos = deadlineWaitNanos(definition);
+            if (waitNanos >= 0 || Mode.TRY_LOCK.equals(definition.getMode())) {
+                boolean locked = waitNanos >= 0
+                        ? lockStrategy.tryLock(lockName, waitNanos, leaseNanos(definition), TimeUnit.NANOSECONDS)
+                        : lockStrategy.tryLock(lockName, definition.getWaitTime(), definition.getLeaseTime(),
+                        definition.getTimeUnit());
+                if (!locked) {
+                    meters.tryLockFailed();
+                    throw new DistributedLockException(5, definition.getTryLockFailMsg());
+                }
+            } else {
+                lockStrategy.lock(lockName, definition.getLeaseTime(), definition.getTimeUnit());
+            }
+
+        } catch (Exception e) {
+            if (e instanceof DistributedLockException) {
+                throw (DistributedLockException) e;
+            }
+            throw new DistributedLockException(3, "An exception occurred while lock.", e.getCause());
+        }
 
-                RLock lock = redisson.getLock(lockName);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Lock succeed, {}-{}-{}", definition.getType(), definition.getMode(), lockName);
+        }
+        return recordWait(meters, start);
+    }
 
-                if (Mode.LOCK.equals(mode)) {
-                    lock.lock(leaseTime, timeUnit);
-                } else if (Mode.TRY_LOCK.equals(mode)
-                        && !lock.tryLock(waitTime, leaseTime, timeUnit)) {
-                    throw new DistributedLockException(5, tryLockFailMsg);
-                }
+    /**
+     * 释放锁
+     *
+     * @param lockName 锁名
+     * @param definition 锁定义
+     * @param acquiredAt 加锁完成的时间
+     */
+    private void unlock(String lockName, DistributedLockDefinition definition, long acquiredAt) {
 
-            } else if (Type.FAIR_LOCK.equals(type)) {
+        if (!definition.isAutoUnlock()) {
+            return;
+        }
+        LockMeters meters = definition.getMeters();
+        recordHold(meters, acquiredAt);
 
-                RLock fairLock = redisson.getFairLock(lockName);
+        if (definition.isAsyncUnlock()) {
+            releaseAsync(lockName, definition);
+            return;
+        }
 
-                if (Mode.LOCK.equals(mode)) {
-                    fairLock.lock(leaseTime, timeUnit);
-                } else if (Mode.TRY_LOCK.equals(mode)
-                        && !fairLock.tryLock(waitTime, leaseTime, timeUnit)) {
-                    throw new DistributedLockException(5, tryLockFailMsg);
-                }
+        try {
+            definition.getLockStrategy().unlock(lockName);
+        } catch (Exception e) {
+            meters.unlockFailed();
+            throw new DistributedLockException(4, "An exception occurred while unlock.", e.getCause());
+        }
 
-            } else if (Type.READ_LOCK.equals(type)) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Unlock succeed, {}-{}-{}", definition.getType(), definition.getMode(), lockName);
+        }
+    }
 
-                RReadWriteLock lock = redisson.getReadWriteLock(lockName);
-                RLock readLock = lock.readLock();
+    /**
+     * 异步释放锁，不等待释放完成；失败时计入释放失败指标并回调监听器，不抛出异常
+     */
+    private void releaseAsync(String lockName, DistributedLockDefinition definition) {
+        CompletableFuture<Void> future;
+        try {
+            future = definition.getLockStrategy().releaseAsync(lockName);
+        } catch (Exception e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
 
-                if (Mode.LOCK.equals(mode)) {
-                    readLock.lock(leaseTime, timeUnit);
-                } else if (Mode.TRY_LOCK.equals(mode)
-                        && !readLock.tryLock(waitTime, leaseTime, timeUnit)) {
-                    throw new DistributedLockException(5, tryLockFailMsg);
+        future.whenComplete((unlocked, e) -> {
+            if (e == null) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Unlock succeed, {}-{}-{}", definition.getType(), definition.getMode(), lockName);
                 }
+                return;
+            }
+            releaseFailed(lockName, definition, e);
+        });
+    }
+
+    /**
+     * 异步释放失败：计入释放失败指标并回调监听器，未注册监听器时打印告警日志
+     */
+    private void releaseFailed(String lockName, DistributedLockDefinition definition, Throwable e) {
+        definition.getMeters().unlockFailed();
+        Throwable cause = LockFutures.unwrap(e);
+        if (releaseListener == null) {
+            LOGGER.warn("An exception occurred while unlock asynchronously: {}", lockName, cause);
+            return;
+        }
+        try {
+            releaseListener.onReleaseFailed(lockName, cause);
+        } catch (Exception listenerError) {
+            LOGGER.warn("An exception occurred in the lock release listener.", listenerError);
+        }
+    }
 
-            } else if (Type.WRITE_LOCK.equals(type)) {
+    /**
+     * 锁名包含集合占位符的方法加锁：展开后的全部锁名一次往返原子地加锁、释放
+     */
+    private Object lockAll(ProceedingJoinPoint joinPoint, DistributedLockDefinition definition) throws Throwable {
+        List<String> lockNames = lockNameCoreConverter.convertLockNames(definition.getNameTemplate(), joinPoint);
+        BatchLockStrategy batchLockStrategy = lockStrategyRegistry.getBatchLockStrategy();
+        LockMeters meters = definition.getMeters();
+        long start = meters.isEnabled() ? System.nanoTime() : 0L;
 
-                RReadWriteLock lock = redisson.getReadWriteLock(lockName);
-                RLock writeLock = lock.writeLock();
+        try {
+            long waitNanos = deadlineWaitNanos(definition);
+            if (waitNanos >= 0 || Mode.TRY_LOCK.equals(definition.getMode())) {
+                boolean locked = waitNanos >= 0
+                        ? batchLockStrategy.tryLockAll(lockNames, waitNanos, leaseNanos(definition),
+                        TimeUnit.NANOSECONDS)
+                        : batchLockStrategy.tryLockAll(lockNames, definition.getWaitTime(), definition.getLeaseTime(),
+                        definition.getTimeUnit());
+                if (!locked) {
+                    meters.tryLockFailed();
+                    throw new DistributedLockException(5, definition.getTryLockFailMsg());
+                }
+            } else {
+                batchLockStrategy.lockAll(lockNames, definition.getLeaseTime(), definition.getTimeUnit());
+            }
+        } catch (Exception e) {
+            if (e instanceof DistributedLockException) {
+                throw (DistributedLockException) e;
+            }
+            throw new DistributedLockException(3, "An exception occurred while lock.", e.getCause());
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Lock succeed, {}-{}-{}", definition.getType(), definition.getMode(), lockNames);
+        }
+        long acquiredAt = recordWait(meters, start);
 
-                if (Mode.LOCK.equals(mode)) {
-                    writeLock.lock(leaseTime, timeUnit);
-                } else if (Mode.TRY_LOCK.equals(mode)
-                        && !writeLock.tryLock(waitTime, leaseTime, timeUnit)) {
-                    throw new DistributedLockException(5, tryLockFailMsg);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (definition.isAutoUnlock()) {
+                recordHold(meters, acquiredAt);
+                try {
+                    batchLockStrategy.unlockAll(lockNames);
+                } catch (Exception e) {
+                    meters.unlockFailed();
+                    throw new DistributedLockException(4, "An exception occurred while unlock.", e.getCause());
+                }
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Unlock succeed, {}-{}-{}", definition.getType(), definition.getMode(), lockNames);
                 }
             }
+        }
+    }
+
+    /**
+     * 信号量：获取许可后执行方法，结束时凭许可id释放许可，异常与加锁、释放锁一致
+     */
+    private Object withPermit(ProceedingJoinPoint joinPoint, String name, DistributedLockDefinition definition)
+            throws Throwable {
+        SemaphoreStrategy semaphoreStrategy = lockStrategyRegistry.getSemaphoreStrategy();
+        if (semaphoreStrategy == null) {
+            throw new DistributedLockException(1, "The lock provider does not support the SEMAPHORE type.");
+        }
+        LockMeters meters = definition.getMeters();
+        long start = meters.isEnabled() ? System.nanoTime() : 0L;
+        String permitId;
 
+        try {
+            long waitNanos = deadlineWaitNanos(definition);
+            if (waitNanos >= 0 || Mode.TRY_LOCK.equals(definition.getMode())) {
+                permitId = waitNanos >= 0
+                        ? semaphoreStrategy.tryAcquire(name, definition.getPermits(), waitNanos,
+                        leaseNanos(definition), TimeUnit.NANOSECONDS)
+                        : semaphoreStrategy.tryAcquire(name, definition.getPermits(), definition.getWaitTime(),
+                        definition.getLeaseTime(), definition.getTimeUnit());
+                if (permitId == null) {
+                    meters.tryLockFailed();
+                    throw new DistributedLockException(5, definition.getTryLockFailMsg());
+                }
+            } else {
+                permitId = semaphoreStrategy.acquire(name, definition.getPermits(), definition.getLeaseTime(),
+                        definition.getTimeUnit());
+            }
         } catch (Exception e) {
             if (e instanceof DistributedLockException) {
                 throw (DistributedLockException) e;
             }
             throw new DistributedLockException(3, "An exception occurred while lock.", e.getCause());
         }
-
         if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Lock succeed, {}-{}-{}", type, mode, lockName);
+            LOGGER.debug("Acquire permit succeed, {}-{}-{}", definition.getMode(), name, permitId);
+        }
+        long acquiredAt = recordWait(meters, start);
+
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (definition.isAutoUnlock()) {
+                recordHold(meters, acquiredAt);
+                if (definition.isAsyncUnlock()) {
+                    semaphoreStrategy.releaseAsync(name, permitId).whenComplete((released, e) -> {
+                        if (e != null) {
+                            releaseFailed(name, definition, e);
+                        }
+                    });
+                } else {
+                    try {
+                        semaphoreStrategy.release(name, permitId);
+                    } catch (Exception e) {
+                        meters.unlockFailed();
+                        throw new DistributedLockException(4, "An exception occurred while unlock.", e.getCause());
+                    }
+                }
+            }
         }
     }
 
     /**
-     * 释放锁
+     * 单飞模式：同一JVM内相同锁名的并发调用只有一个执行（领头者），其余等待并共享其结果或异常
+     */
+    private Object singleFlight(ProceedingJoinPoint joinPoint, String lockName, DistributedLockDefinition definition)
+            throws Throwable {
+        Flight flight = new Flight();
+        Flight current = flights.putIfAbsent(lockName, flight);
+        if (current != null) {
+            if (current.leader == Thread.currentThread()) {
+                // 领头者重入，直接执行
+                return joinPoint.proceed();
+            }
+            try {
+                return current.result.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+
+        try {
+            Object value = leadFlight(joinPoint, lockName, definition);
+            flight.result.complete(value);
+            return value;
+        } catch (Throwable e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(lockName, flight);
+        }
+    }
+
+    /**
+     * 领头者跨节点单飞：锁空闲时加锁执行，并在释放锁前发布结果；锁被其他节点持有时等待到锁，读取其发布的结果，没有结果时自行执行
      *
-     * @param lockName 锁名
-     * @param annotation 锁注解
-     */
-    private void unlock(String lockName, DistributedLock annotation) {
-        Type type = annotation.type();
-        Mode mode = annotation.mode();
-        boolean unlock = annotation.autoUnlock();
-
-        try {
-
-            if (unlock) {
-                if (Type.LOCK.equals(type)) {
-                    RLock lock = redisson.getLock(lockName);
-                    lock.unlock();
-                } else if (Type.FAIR_LOCK.equals(type)) {
-                    RLock fairLock = redisson.getFairLock(lockName);
-                    fairLock.unlock();
-                } else if (Type.READ_LOCK.equals(type)) {
-                    RReadWriteLock lock = redisson.getReadWriteLock(lockName);
-                    lock.readLock().unlock();
-                } else if (Type.WRITE_LOCK.equals(type)) {
-                    RReadWriteLock lock = redisson.getReadWriteLock(lockName);
-                    lock.writeLock().unlock();
+     * <br>只有观察到锁被占用的调用才读取结果，加锁执行前清除上一次的结果，因此不会读到早于本次调用的执行结果。
+     * 锁提供者没有结果存储（仅在单个JVM内加锁）时，等待到锁后自行执行
+     */
+    private Object leadFlight(ProceedingJoinPoint joinPoint, String lockName, DistributedLockDefinition definition)
+            throws Throwable {
+        SingleFlightResults results = lockStrategyRegistry.getSingleFlightResults();
+        LockMeters meters = definition.getMeters();
+        long start = meters.isEnabled() ? System.nanoTime() : 0L;
+        boolean locked;
+
+        try {
+            locked = definition.getLockStrategy().tryLock(lockName, 0, definition.getLeaseTime(),
+                    definition.getTimeUnit());
+        } catch (Exception e) {
+            throw new DistributedLockException(3, "An exception occurred while lock.", e.getCause());
+        }
+
+        long acquiredAt;
+        if (locked) {
+            acquiredAt = recordWait(meters, start);
+            if (results != null) {
+                try {
+                    results.clear(lockName);
+                } catch (Exception e) {
+                    LOGGER.warn("Failed to clear the single flight result of lock: {}", lockName, e);
+                }
+            }
+        } else {
+            acquiredAt = lock(lockName, definition);
+        }
+        if (!locked && results != null) {
+            SingleFlightResults.Result published;
+            try {
+                published = results.get(lockName);
+            } catch (Exception e) {
+                LOGGER.warn("Failed to read the single flight result of lock: {}", lockName, e);
+                published = null;
+            }
+            if (published != null) {
+                unlock(lockName, definition, acquiredAt);
+                return published.getValue();
+            }
+        }
+
+        Object value;
+        try {
+            value = joinPoint.proceed();
+            if (results != null) {
+                try {
+                    results.publish(lockName, value);
+                } catch (Exception e) {
+                    LOGGER.warn("Failed to publish the single flight result of lock: {}", lockName, e);
                 }
             }
+        } finally {
+            unlock(lockName, definition, acquiredAt);
+        }
+        return value;
+    }
+
+    /**
+     * 幂等模式：已保存结果时直接返回，不加锁；否则加锁，等待到锁后再查一次结果，仍没有时执行方法并在释放锁前保存结果
+     *
+     * <br>结果先于释放锁写入，之后等待到锁的调用总能读到结果；读取、保存结果失败时只打印告警日志，按未保存处理
+     */
+    private Object idempotent(ProceedingJoinPoint joinPoint, String lockName, DistributedLockDefinition definition)
+            throws Throwable {
+        IdempotentResults results = lockStrategyRegistry.getIdempotentResults();
+        IdempotentResults.Result saved = getIdempotentResult(results, lockName);
+        if (saved != null) {
+            return saved.getValue();
+        }
+
+        long acquiredAt = lock(lockName, definition);
+        try {
+            saved = getIdempotentResult(results, lockName);
+            if (saved != null) {
+                return saved.getValue();
+            }
+            Object value = joinPoint.proceed();
+            long ttlMillis = definition.getResultTtl() == -1 ? idempotentResultTtlMillis
+                    : definition.getTimeUnit().toMillis(definition.getResultTtl());
+            try {
+                results.put(lockName, value, ttlMillis);
+            } catch (Exception e) {
+                LOGGER.warn("Failed to save the idempotent result of lock: {}", lockName, e);
+            }
+            return value;
+        } finally {
+            unlock(lockName, definition, acquiredAt);
+        }
+    }
 
+    private static IdempotentResults.Result getIdempotentResult(IdempotentResults results, String lockName) {
+        try {
+            return results.get(lockName);
         } catch (Exception e) {
-            throw new DistributedLockException(4, "An exception occurred while unlock.", e.getCause());
+            LOGGER.warn("Failed to read the idempotent result of lock: {}", lockName, e);
+            return null;
         }
+    }
 
-        if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Unlock succeed, {}-{}-{}", type, mode, lockName);
+    /**
+     * 返回CompletableFuture/CompletionStage的方法加锁：异步加锁成功后调用方法，在返回结果完成时异步释放锁，不阻塞调用线程
+     *
+     * <br>加锁立即完成时在调用线程上调用方法；需要等待锁时交给异步执行器调用，不在完成加锁的redisson IO线程上执行方法体，
+     * 以免方法体中的阻塞操作拖住其他redis请求。执行器拒绝执行时释放锁，返回结果以拒绝异常失败
+     */
+    private CompletableFuture<Object> lockCompletionStage(ProceedingJoinPoint joinPoint, String lockName,
+                                                          DistributedLockDefinition definition) {
+        long ownerId = LockOwnerIds.next();
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        CompletableFuture<Long> locking = lockAsync(lockName, definition, ownerId);
+
+        BiConsumer<Long, Throwable> proceed = (acquiredAt, lockError) -> {
+            if (lockError != null) {
+                result.completeExceptionally(lockError);
+                return;
+            }
+
+            CompletionStage<?> stage;
+            try {
+                stage = (CompletionStage<?>) joinPoint.proceed();
+            } catch (Throwable e) {
+                stage = failedFuture(e);
+            }
+            if (stage == null) {
+                stage = CompletableFuture.completedFuture(null);
+            }
+
+            stage.whenComplete((value, error) -> unlockAsync(lockName, definition, ownerId, acquiredAt)
+                    .whenComplete((unlocked, unlockError) -> {
+                        if (error != null) {
+                            if (unlockError != null) {
+                                error.addSuppressed(unlockError);
+                            }
+                            result.completeExceptionally(error);
+                        } else if (unlockError != null) {
+                            result.completeExceptionally(unlockError);
+                        } else {
+                            result.complete(value);
+                        }
+                    }));
+        };
+
+        if (locking.isDone()) {
+            locking.whenComplete(proceed);
+            return result;
+        }
+        locking.whenCompleteAsync(proceed, asyncExecutor).whenComplete((ignored, dispatchError) -> {
+            if (dispatchError == null || result.isDone()) {
+                return;
+            }
+            locking.whenComplete((acquiredAt, lockError) -> {
+                if (lockError != null) {
+                    result.completeExceptionally(lockError);
+                    return;
+                }
+                Throwable error = LockFutures.unwrap(dispatchError);
+                unlockAsync(lockName, definition, ownerId, acquiredAt).whenComplete((unlocked, unlockError) -> {
+                    if (unlockError != null) {
+                        error.addSuppressed(unlockError);
+                    }
+                    result.completeExceptionally(error);
+                });
+            });
+        });
+        return result;
+    }
+
+    private ReactiveLockSupport.LockOperations asyncLockOperations(String lockName,
+                                                                   DistributedLockDefinition definition) {
+        return new ReactiveLockSupport.LockOperations() {
+            @Override
+            public CompletableFuture<Long> lock(long ownerId) {
+                return lockAsync(lockName, definition, ownerId);
+            }
+
+            @Override
+            public CompletableFuture<Void> unlock(long ownerId, long acquiredAt) {
+                return unlockAsync(lockName, definition, ownerId, acquiredAt);
+            }
+        };
+    }
+
+    /**
+     * 以持有者id异步加锁，异常与同步加锁一致：尝试加锁失败为status=5，其他为status=3
+     *
+     * @return 加锁完成的时间（纳秒），未启用指标时为0
+     */
+    private CompletableFuture<Long> lockAsync(String lockName, DistributedLockDefinition definition, long ownerId) {
+        LockStrategy lockStrategy = definition.getLockStrategy();
+        LockMeters meters = definition.getMeters();
+        long start = meters.isEnabled() ? System.nanoTime() : 0L;
+        CompletableFuture<Void> future;
+        long waitNanos;
+        try {
+            waitNanos = deadlineWaitNanos(definition);
+        } catch (DistributedLockException e) {
+            CompletableFuture<Long> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+
+        if (waitNanos >= 0 || Mode.TRY_LOCK.equals(definition.getMode())) {
+            CompletableFuture<Boolean> locking = waitNanos >= 0
+                    ? lockStrategy.tryLockAsync(lockName, waitNanos, leaseNanos(definition), TimeUnit.NANOSECONDS,
+                    ownerId)
+                    : lockStrategy.tryLockAsync(lockName, definition.getWaitTime(), definition.getLeaseTime(),
+                    definition.getTimeUnit(), ownerId);
+            future = locking.thenApply(locked -> {
+                if (!locked) {
+                    meters.tryLockFailed();
+                    throw new DistributedLockException(5, definition.getTryLockFailMsg());
+                }
+                return null;
+            });
+        } else {
+            future = lockStrategy.lockAsync(lockName, definition.getLeaseTime(), definition.getTimeUnit(), ownerId);
+        }
+
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        future.whenComplete((locked, e) -> {
+            if (e == null) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Lock succeed, {}-{}-{}", definition.getType(), definition.getMode(), lockName);
+                }
+                result.complete(recordWait(meters, start));
+                return;
+            }
+            Throwable cause = LockFutures.unwrap(e);
+            result.completeExceptionally(cause instanceof DistributedLockException ? cause
+                    : new DistributedLockException(3, "An exception occurred while lock.", cause));
+        });
+        return result;
+    }
+
+    /**
+     * 以持有者id异步释放锁，异常为status=4
+     */
+    private CompletableFuture<Void> unlockAsync(String lockName, DistributedLockDefinition definition, long ownerId,
+                                                long acquiredAt) {
+
+        if (!definition.isAutoUnlock()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        LockMeters meters = definition.getMeters();
+        recordHold(meters, acquiredAt);
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        definition.getLockStrategy().unlockAsync(lockName, ownerId).whenComplete((unlocked, e) -> {
+            if (e == null) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Unlock succeed, {}-{}-{}", definition.getType(), definition.getMode(), lockName);
+                }
+                result.complete(null);
+                return;
+            }
+            meters.unlockFailed();
+            result.completeExceptionally(new DistributedLockException(4, "An exception occurred while unlock.",
+                    LockFutures.unwrap(e)));
+        });
+        return result;
+    }
+
+    /**
+     * 开启deadline时本次调用的等待时间：TRY_LOCK为waitTime与剩余时间的较小值，LOCK为剩余时间；
+     * 剩余时间已耗尽时不访问锁后端，立即抛出status=5的异常
+     *
+     * @return 等待时间（纳秒），未开启deadline或没有截止时间时为-1
+     */
+    private long deadlineWaitNanos(DistributedLockDefinition definition) {
+        if (!definition.isDeadline()) {
+            return -1;
+        }
+        long remaining = deadlineSource.remainingNanos();
+        if (remaining == LockDeadlineSource.NO_DEADLINE) {
+            return -1;
+        }
+        if (remaining <= 0) {
+            definition.getMeters().tryLockFailed();
+            throw new DistributedLockException(5, definition.getTryLockFailMsg());
+        }
+        return Mode.TRY_LOCK.equals(definition.getMode())
+                ? Math.min(remaining, definition.getTimeUnit().toNanos(definition.getWaitTime())) : remaining;
+    }
+
+    private static long leaseNanos(DistributedLockDefinition definition) {
+        return definition.getLeaseTime() == -1 ? -1 : definition.getTimeUnit().toNanos(definition.getLeaseTime());
+    }
+
+    /**
+     * 记录加锁等待时间
+     *
+     * @return 加锁完成的时间（纳秒），未启用指标时为0
+     */
+    private static long recordWait(LockMeters meters, long start) {
+        if (!meters.isEnabled()) {
+            return 0L;
+        }
+        long acquiredAt = System.nanoTime();
+        meters.recordWait(acquiredAt - start);
+        return acquiredAt;
+    }
+
+    private static void recordHold(LockMeters meters, long acquiredAt) {
+        if (meters.isEnabled()) {
+            meters.recordHold(System.nanoTime() - acquiredAt);
         }
     }
 
-}
\ No newline at end of file
+    private static CompletableFuture<Object> failedFuture(Throwable e) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    /**
+     * 同一JVM内一次正在执行的单飞调用
+     */
+    private static final class Flight {
+        private final Thread leader = Thread.currentThread();
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+    }
+}
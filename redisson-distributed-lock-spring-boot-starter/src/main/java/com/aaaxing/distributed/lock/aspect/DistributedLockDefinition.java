@@ -0,0 +1,294 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.aspect;
+
+import com.aaaxing.distributed.lock.annotation.DistributedLock;
+import com.aaaxing.distributed.lock.converter.LockNameTemplate;
+import com.aaaxing.distributed.lock.exception.DistributedLockException;
+import com.aaaxing.distributed.lock.metrics.LockMeters;
+import com.aaaxing.distributed.lock.strategy.LockStrategy;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.*;
+
+/**
+ * 分布式锁定义
+ *
+ * <br>由方法上的@DistributedLock注解解析而来，每个方法仅解析、校验一次，创建后不可变
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public final class DistributedLockDefinition {
+    private final Method method;
+    private final String name;
+    private final Type type;
+    private final Mode mode;
+    private final long leaseTime;
+    private final boolean autoUnlock;
+    private final String tryLockFailMsg;
+    private final long waitTime;
+    private final TimeUnit timeUnit;
+    private final boolean localQueue;
+    private final boolean asyncUnlock;
+    private final int permits;
+    private final int stripes;
+    private final Degrade degrade;
+    private final boolean deadline;
+    private final long resultTtl;
+    private final AsyncType asyncType;
+    private final LockNameTemplate nameTemplate;
+    private final LockStrategy lockStrategy;
+    private final LockMeters meters;
+
+    public DistributedLockDefinition(Method method, DistributedLock annotation, LockNameTemplate nameTemplate,
+                                     LockStrategy lockStrategy, LockMeters meters) {
+        this(method, annotation, nameTemplate, lockStrategy, meters, annotation.asyncUnlock());
+    }
+
+    /**
+     * @param asyncUnlock 是否异步释放锁，注解或全局配置开启即为true，仅对同步方法的单个锁名生效
+     */
+    public DistributedLockDefinition(Method method, DistributedLock annotation, LockNameTemplate nameTemplate,
+                                     LockStrategy lockStrategy, LockMeters meters, boolean asyncUnlock) {
+        if (annotation.leaseTime() < -1) {
+            throw new DistributedLockException(0, "The leaseTime value of the distributed lock annotation is invalid. "
+                    + "method: " + method);
+        }
+        if (annotation.waitTime() < 0) {
+            throw new DistributedLockException(0, "The waitTime value of the distributed lock annotation is invalid. "
+                    + "method: " + method);
+        }
+        boolean readLock = Type.READ_LOCK.equals(annotation.type())
+                || Type.HIERARCHICAL_READ_LOCK.equals(annotation.type());
+        if (annotation.localQueue() && readLock) {
+            throw new DistributedLockException(0, "The localQueue of the distributed lock annotation does not support "
+                    + "READ_LOCK and HIERARCHICAL_READ_LOCK. method: " + method);
+        }
+        if (Mode.SINGLE_FLIGHT.equals(annotation.mode())) {
+            if (readLock || nameTemplate.isMultiple() || AsyncType.of(method.getReturnType()) != AsyncType.NONE) {
+                throw new DistributedLockException(0, "The SINGLE_FLIGHT mode of the distributed lock annotation only "
+                        + "supports synchronous methods without read lock types and collection placeholder. method: "
+                        + method);
+            }
+        }
+        if (Mode.IDEMPOTENT.equals(annotation.mode())) {
+            if (readLock || Type.SEMAPHORE.equals(annotation.type()) || nameTemplate.isMultiple()
+                    || AsyncType.of(method.getReturnType()) != AsyncType.NONE) {
+                throw new DistributedLockException(0, "The IDEMPOTENT mode of the distributed lock annotation only "
+                        + "supports synchronous methods without read lock types, SEMAPHORE type and collection "
+                        + "placeholder. method: " + method);
+            }
+            if (annotation.resultTtl() == 0 || annotation.resultTtl() < -1) {
+                throw new DistributedLockException(0, "The resultTtl value of the distributed lock annotation is "
+                        + "invalid. method: " + method);
+            }
+        }
+        if (Type.SEMAPHORE.equals(annotation.type())) {
+            if (annotation.permits() < 1) {
+                throw new DistributedLockException(0, "The permits value of the distributed lock annotation is invalid. "
+                        + "method: " + method);
+            }
+            if (annotation.localQueue() || Mode.SINGLE_FLIGHT.equals(annotation.mode())
+                    || AsyncType.of(method.getReturnType()) != AsyncType.NONE) {
+                throw new DistributedLockException(0, "The SEMAPHORE type of the distributed lock annotation only "
+                        + "supports synchronous methods without localQueue and SINGLE_FLIGHT mode. method: " + method);
+            }
+        }
+        if (annotation.stripes() < 0) {
+            throw new DistributedLockException(0, "The stripes value of the distributed lock annotation is invalid. "
+                    + "method: " + method);
+        }
+        if (annotation.stripes() > 0 && (Type.SEMAPHORE.equals(annotation.type())
+                || Type.HIERARCHICAL_READ_LOCK.equals(annotation.type())
+                || Type.HIERARCHICAL_WRITE_LOCK.equals(annotation.type())
+                || Mode.SINGLE_FLIGHT.equals(annotation.mode()) || nameTemplate.isMultiple())) {
+            throw new DistributedLockException(0, "The stripes of the distributed lock annotation does not support "
+                    + "SEMAPHORE and hierarchical lock types, SINGLE_FLIGHT mode and collection placeholder. method: "
+                    + method);
+        }
+        if (!Degrade.NONE.equals(annotation.degrade())
+                && (Type.SEMAPHORE.equals(annotation.type()) || nameTemplate.isMultiple())) {
+            throw new DistributedLockException(0, "The degrade of the distributed lock annotation does not support "
+                    + "SEMAPHORE type and collection placeholder. method: " + method);
+        }
+        if (annotation.deadline() && Mode.SINGLE_FLIGHT.equals(annotation.mode())) {
+            throw new DistributedLockException(0, "The deadline of the distributed lock annotation does not support "
+                    + "SINGLE_FLIGHT mode. method: " + method);
+        }
+        if (nameTemplate.isMultiple()) {
+            if (!Type.LOCK.equals(annotation.type()) || annotation.localQueue()
+                    || AsyncType.of(method.getReturnType()) != AsyncType.NONE) {
+                throw new DistributedLockException(0, "The collection placeholder [*] of the distributed lock annotation "
+                        + "only supports synchronous methods with LOCK type and without localQueue. method: " + method);
+            }
+        }
+
+        this.method = method;
+        this.name = annotation.name();
+        this.type = annotation.type();
+        this.mode = annotation.mode();
+        this.leaseTime = annotation.leaseTime();
+        this.autoUnlock = annotation.autoUnlock();
+        this.tryLockFailMsg = annotation.tryLockFailMsg();
+        this.waitTime = annotation.waitTime();
+        this.timeUnit = annotation.timeUnit();
+        this.localQueue = annotation.localQueue();
+        this.asyncType = AsyncType.of(method.getReturnType());
+        this.asyncUnlock = asyncUnlock && asyncType == AsyncType.NONE && !nameTemplate.isMultiple();
+        this.permits = annotation.permits();
+        this.stripes = annotation.stripes();
+        this.degrade = annotation.degrade();
+        this.deadline = annotation.deadline();
+        this.resultTtl = annotation.resultTtl();
+        this.nameTemplate = nameTemplate;
+        this.lockStrategy = lockStrategy;
+        this.meters = meters;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public long getLeaseTime() {
+        return leaseTime;
+    }
+
+    public boolean isAutoUnlock() {
+        return autoUnlock;
+    }
+
+    public String getTryLockFailMsg() {
+        return tryLockFailMsg;
+    }
+
+    public long getWaitTime() {
+        return waitTime;
+    }
+
+    public TimeUnit getTimeUnit() {
+        return timeUnit;
+    }
+
+    public boolean isLocalQueue() {
+        return localQueue;
+    }
+
+    /**
+     * 同步方法是否异步释放锁
+     */
+    public boolean isAsyncUnlock() {
+        return asyncUnlock;
+    }
+
+    /**
+     * 信号量的许可总数，仅锁类型为SEMAPHORE有效
+     */
+    public int getPermits() {
+        return permits;
+    }
+
+    /**
+     * 锁分段数，0为不分段
+     */
+    public int getStripes() {
+        return stripes;
+    }
+
+    /**
+     * 锁后端熔断时的降级策略
+     */
+    public Degrade getDegrade() {
+        return degrade;
+    }
+
+    /**
+     * 是否按调用剩余的时间预算等待锁
+     */
+    public boolean isDeadline() {
+        return deadline;
+    }
+
+    /**
+     * 幂等模式下方法结果的保留时间，-1为使用全局配置
+     */
+    public long getResultTtl() {
+        return resultTtl;
+    }
+
+    public AsyncType getAsyncType() {
+        return asyncType;
+    }
+
+    /**
+     * 锁名是否包含集合占位符，展开为多个锁名
+     */
+    public boolean isMultiple() {
+        return nameTemplate.isMultiple();
+    }
+
+    public LockNameTemplate getNameTemplate() {
+        return nameTemplate;
+    }
+
+    /**
+     * 锁类型对应的锁策略，配置了stripes时为分段锁策略；redisson不可用或锁类型为SEMAPHORE时为null
+     */
+    public LockStrategy getLockStrategy() {
+        return lockStrategy;
+    }
+
+    /**
+     * 锁指标，未启用指标时为LockMeters.NOOP
+     */
+    public LockMeters getMeters() {
+        return meters;
+    }
+
+    /**
+     * 方法的异步返回类型，异步方法在返回结果完成时才释放锁
+     */
+    public enum AsyncType {
+        /** 同步方法 */
+        NONE,
+        /** 返回CompletableFuture或CompletionStage */
+        COMPLETION_STAGE,
+        /** 返回reactor的Mono */
+        MONO,
+        /** 返回reactor的Flux */
+        FLUX;
+
+        private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Mono",
+                AsyncType.class.getClassLoader());
+
+        static AsyncType of(Class<?> returnType) {
+            if (CompletionStage.class.isAssignableFrom(returnType)
+                    && returnType.isAssignableFrom(CompletableFuture.class)) {
+                return COMPLETION_STAGE;
+            }
+            if (REACTOR_PRESENT && "reactor.core.publisher.Mono".equals(returnType.getName())) {
+                return MONO;
+            }
+            if (REACTOR_PRESENT && "reactor.core.publisher.Flux".equals(returnType.getName())) {
+                return FLUX;
+            }
+            return NONE;
+        }
+    }
+}
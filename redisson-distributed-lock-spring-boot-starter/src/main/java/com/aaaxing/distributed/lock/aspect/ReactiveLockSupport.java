@@ -0,0 +1,100 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.aspect;
+
+import com.aaaxing.distributed.lock.strategy.LockOwnerIds;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 响应式方法加锁支持
+ *
+ * <br>每次订阅以新的持有者id异步加锁，加锁成功后调用方法并订阅其返回的Mono/Flux，在其完成、出错或取消时异步释放锁。
+ * 仅在类路径存在reactor-core时加载。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+final class ReactiveLockSupport {
+    private ReactiveLockSupport() {
+    }
+
+    static Mono<Object> lockMono(ProceedingJoinPoint joinPoint, LockOperations operations) {
+        return Mono.usingWhen(acquire(operations), held -> proceedMono(joinPoint),
+                held -> Mono.fromFuture(operations.unlock(held.ownerId, held.acquiredAt)));
+    }
+
+    static Flux<Object> lockFlux(ProceedingJoinPoint joinPoint, LockOperations operations) {
+        return Flux.usingWhen(acquire(operations), held -> proceedFlux(joinPoint),
+                held -> Mono.fromFuture(operations.unlock(held.ownerId, held.acquiredAt)));
+    }
+
+    /**
+     * 异步加锁，加锁完成前被取消时，在加锁完成后立即释放，避免遗留无人持有的锁
+     */
+    private static Mono<HeldLock> acquire(LockOperations operations) {
+        return Mono.create(sink -> {
+            long ownerId = LockOwnerIds.next();
+            CompletableFuture<Long> future = operations.lock(ownerId);
+            sink.onCancel(() -> future.whenComplete((acquiredAt, e) -> {
+                if (e == null) {
+                    operations.unlock(ownerId, acquiredAt);
+                }
+            }));
+            future.whenComplete((acquiredAt, e) -> {
+                if (e != null) {
+                    sink.error(e);
+                } else {
+                    sink.success(new HeldLock(ownerId, acquiredAt));
+                }
+            });
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Mono<Object> proceedMono(ProceedingJoinPoint joinPoint) {
+        try {
+            Mono<Object> mono = (Mono<Object>) joinPoint.proceed();
+            return mono == null ? Mono.empty() : mono;
+        } catch (Throwable e) {
+            return Mono.error(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Publisher<Object> proceedFlux(ProceedingJoinPoint joinPoint) {
+        try {
+            Flux<Object> flux = (Flux<Object>) joinPoint.proceed();
+            return flux == null ? Flux.empty() : flux;
+        } catch (Throwable e) {
+            return Flux.error(e);
+        }
+    }
+
+    /**
+     * 异步加锁、释放锁操作
+     */
+    interface LockOperations {
+        /**
+         * 以持有者id异步加锁
+         *
+         * @return 加锁完成的时间（纳秒），未启用指标时为0
+         */
+        CompletableFuture<Long> lock(long ownerId);
+
+        CompletableFuture<Void> unlock(long ownerId, long acquiredAt);
+    }
+
+    private static final class HeldLock {
+        private final long ownerId;
+        private final long acquiredAt;
+
+        HeldLock(long ownerId, long acquiredAt) {
+            this.ownerId = ownerId;
+            this.acquiredAt = acquiredAt;
+        }
+    }
+}
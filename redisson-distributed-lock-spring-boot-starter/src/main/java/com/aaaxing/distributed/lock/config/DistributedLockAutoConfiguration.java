@@ -5,13 +5,44 @@ import com.aaaxing.distributed.lock.aspect.DistributedLockAspect;
 import com.aaaxing.distributed.lock.converter.DefaultLockNamePreConverter;
 import com.aaaxing.distributed.lock.converter.LockNameCoreConverter;
 import com.aaaxing.distributed.lock.converter.LockNamePreConverter;
+import com.aaaxing.distributed.lock.exception.DistributedLockException;
+import com.aaaxing.distributed.lock.initializer.DistributedLockMethodInitializer;
+import com.aaaxing.distributed.lock.initializer.DistributedLockWarmUpHealthIndicator;
+import com.aaaxing.distributed.lock.initializer.DistributedLockWarmUpInitializer;
 import com.aaaxing.distributed.lock.initializer.DistributedLocksInitializer;
+import com.aaaxing.distributed.lock.metrics.LockMetrics;
+import com.aaaxing.distributed.lock.metrics.MicrometerLockMetrics;
+import com.aaaxing.distributed.lock.strategy.LocalLockProvider;
+import com.aaaxing.distributed.lock.strategy.LockDeadlineSource;
+import com.aaaxing.distributed.lock.strategy.LockProvider;
+import com.aaaxing.distributed.lock.strategy.LockReleaseListener;
+import com.aaaxing.distributed.lock.strategy.LockRenewalListener;
+import com.aaaxing.distributed.lock.strategy.LockStrategyRegistry;
+import com.aaaxing.distributed.lock.strategy.RedissonLockProvider;
+import com.aaaxing.distributed.lock.strategy.ShardedLockProvider;
+import com.aaaxing.distributed.lock.strategy.ThreadLocalLockDeadlineSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.redisson.config.SingleServerConfig;
 import org.redisson.spring.starter.RedissonAutoConfiguration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * 分布式锁自动装配类
@@ -19,7 +50,9 @@ import org.springframework.context.annotation.Configuration;
  * @date 2024-04-10
  */
 @Configuration
-@AutoConfigureAfter(RedissonAutoConfiguration.class)
+@AutoConfigureAfter(value = RedissonAutoConfiguration.class, name = {
+        "org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration",
+        "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration"})
 @EnableConfigurationProperties(DistributedLockProperties.class)
 public class DistributedLockAutoConfiguration {
 
@@ -29,6 +62,12 @@ public class DistributedLockAutoConfiguration {
         return new DefaultLockNamePreConverter();
     }
 
+    @Bean
+    @ConditionalOnMissingBean
+    public LockDeadlineSource lockDeadlineSource() {
+        return new ThreadLocalLockDeadlineSource();
+    }
+
     @Bean
     public LockNameCoreConverter lockNameCoreConverter(DistributedLockProperties distributedLockProperties,
                                                        LockNamePreConverter lockNamePreConverter) {
@@ -36,12 +75,128 @@ public class DistributedLockAutoConfiguration {
     }
 
     @Bean
-    public DistributedLockAspect distributedLockAspect(LockNameCoreConverter lockNameCoreConverter) {
-        return new DistributedLockAspect(lockNameCoreConverter);
+    public LockStrategyRegistry lockStrategyRegistry(ObjectProvider<LockProvider> lockProvider,
+                                                     ObjectProvider<RedissonClient> redisson,
+                                                     DistributedLockProperties distributedLockProperties,
+                                                     ObjectProvider<LockRenewalListener> renewalListener,
+                                                     ResourceLoader resourceLoader) {
+        // 优先使用自定义的LockProvider bean，其次按distributed-lock.provider选择内置的锁提供者
+        LockProvider provider = lockProvider.getIfAvailable(() -> {
+            switch (distributedLockProperties.getProvider()) {
+                case LOCAL:
+                    return new LocalLockProvider();
+                case SHARDED:
+                    return ShardedLockProvider.ofRedisson(shardClients(distributedLockProperties, resourceLoader),
+                            distributedLockProperties, renewalListener.getIfAvailable());
+                default:
+                    RedissonClient redissonClient = redisson.getIfAvailable();
+                    return redissonClient == null ? null : new RedissonLockProvider(redissonClient,
+                            distributedLockProperties, renewalListener.getIfAvailable());
+            }
+        });
+        return new LockStrategyRegistry(provider, distributedLockProperties);
+    }
+
+    @Bean
+    public DistributedLockAspect distributedLockAspect(LockNameCoreConverter lockNameCoreConverter,
+                                                       LockStrategyRegistry lockStrategyRegistry,
+                                                       ObjectProvider<LockMetrics> lockMetrics,
+                                                       DistributedLockProperties distributedLockProperties,
+                                                       ObjectProvider<LockReleaseListener> releaseListener,
+                                                       LockDeadlineSource lockDeadlineSource,
+                                                       @Qualifier(DistributedLockAspect.ASYNC_EXECUTOR_BEAN_NAME)
+                                                       ObjectProvider<Executor> asyncExecutor) {
+        return new DistributedLockAspect(lockNameCoreConverter, lockStrategyRegistry,
+                lockMetrics.getIfAvailable(() -> LockMetrics.NOOP), distributedLockProperties,
+                releaseListener.getIfAvailable(), lockDeadlineSource, asyncExecutor.getIfAvailable());
     }
 
     @Bean
     public DistributedLocksInitializer distributedLocksInitializer() {
         return new DistributedLocksInitializer();
     }
-}
\ No newline at end of file
+
+    @Bean
+    public DistributedLockMethodInitializer distributedLockMethodInitializer() {
+        return new DistributedLockMethodInitializer();
+    }
+
+    @Bean
+    public DistributedLockWarmUpInitializer distributedLockWarmUpInitializer() {
+        return new DistributedLockWarmUpInitializer();
+    }
+
+    /**
+     * 按distributed-lock.shards为每个分片创建redisson客户端
+     */
+    private static Map<String, RedissonClient> shardClients(DistributedLockProperties properties,
+                                                            ResourceLoader resourceLoader) {
+        if (properties.getShards().isEmpty()) {
+            throw new DistributedLockException(1, "The sharded lock provider requires distributed-lock.shards.");
+        }
+        Map<String, RedissonClient> clients = new LinkedHashMap<>();
+        try {
+            for (DistributedLockProperties.Shard shard : properties.getShards()) {
+                String name = shard.getName() != null ? shard.getName()
+                        : shard.getConfig() != null ? shard.getConfig() : shard.getAddress();
+                if (name == null || clients.containsKey(name)) {
+                    throw new DistributedLockException(1, "The lock shard requires a unique name, address or config: "
+                            + name);
+                }
+                clients.put(name, Redisson.create(shardConfig(shard, resourceLoader)));
+            }
+        } catch (RuntimeException e) {
+            clients.values().forEach(RedissonClient::shutdown);
+            throw e;
+        }
+        return clients;
+    }
+
+    private static Config shardConfig(DistributedLockProperties.Shard shard, ResourceLoader resourceLoader) {
+        if (shard.getConfig() != null) {
+            try (InputStream in = resourceLoader.getResource(shard.getConfig()).getInputStream()) {
+                return Config.fromYAML(in);
+            } catch (IOException e) {
+                throw new DistributedLockException(1, "Failed to read the lock shard config: " + shard.getConfig(), e);
+            }
+        }
+        Config config = new Config();
+        SingleServerConfig server = config.useSingleServer()
+                .setAddress(shard.getAddress())
+                .setDatabase(shard.getDatabase());
+        if (shard.getPassword() != null) {
+            server.setPassword(shard.getPassword());
+        }
+        return config;
+    }
+
+    /**
+     * 存在MeterRegistry时发布分布式锁指标
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnBean(type = "io.micrometer.core.instrument.MeterRegistry")
+    static class LockMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public LockMetrics lockMetrics(MeterRegistry meterRegistry) {
+            return new MicrometerLockMetrics(meterRegistry);
+        }
+    }
+
+    /**
+     * 存在actuator时发布预热健康检查，预热完成前为OUT_OF_SERVICE
+     */
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.health.HealthIndicator")
+    static class WarmUpHealthConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public DistributedLockWarmUpHealthIndicator distributedLockWarmUpHealthIndicator(
+                DistributedLockWarmUpInitializer distributedLockWarmUpInitializer) {
+            return new DistributedLockWarmUpHealthIndicator(distributedLockWarmUpInitializer);
+        }
+    }
+}
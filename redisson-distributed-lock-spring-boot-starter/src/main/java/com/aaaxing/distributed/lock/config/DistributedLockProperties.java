@@ -1,8 +1,13 @@
 // Copyright 2024 axing
 package com.aaaxing.distributed.lock.config;
 
+import org.redisson.client.codec.Codec;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 分布式锁配置属性类
  *
@@ -17,6 +22,137 @@ public class DistributedLockProperties {
      */
     private String prefix = "lock:";
 
+    /**
+     * 锁提供者：redisson（默认）为基于redis的分布式锁；local为JVM内存中的锁，不访问redis，适用于单实例部署与单元测试；
+     * sharded为按锁名一致性哈希分片到shards配置的多个redis
+     */
+    private Provider provider = Provider.REDISSON;
+
+    /**
+     * 分片锁提供者的分片，每个分片创建一个redisson客户端
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * 分片锁提供者每个分片在一致性哈希环上的虚拟节点数
+     */
+    private int shardVirtualNodes = 160;
+
+    /**
+     * 本地排队锁在本地线程之间连续移交redis锁的最大次数，达到后释放redis锁，避免其他节点饥饿
+     */
+    private int localQueueMaxHandoffs = 16;
+
+    /**
+     * 是否开启线程内重入快速路径：线程已持有自动续期的同名锁时，嵌套的加锁、释放只在本地计数，不再访问redis。
+     * 默认关闭：嵌套的加锁不再确认redis中的锁仍由本线程持有，锁因续期失败或过期丢失后嵌套的加锁仍会成功
+     */
+    private boolean localReentrancy = false;
+
+    /**
+     * 是否全局开启异步释放锁，等同于所有注解的asyncUnlock为true
+     */
+    private boolean asyncUnlock = false;
+
+    /**
+     * 是否批量续期：自动续期的可重入锁与公平锁由一个后台任务每轮一次批量请求续期；关闭（默认）时由redisson看门狗逐个续期。
+     * 持有大量锁的节点可开启以减少续期请求，代价是全部锁的续期依赖同一个后台线程与同一个批量请求，其阻塞或失败时这些锁一起过期
+     */
+    private boolean batchRenewal = false;
+
+    /**
+     * 公平锁的实现：redisson（默认）为redisson的公平锁；ticket为本组件基于取号、叫号计数器的公平锁，
+     * 加锁、释放与清理放弃的号码均为常数时间，适用于同一把锁有大量等待者的场景
+     */
+    private FairLock fairLock = FairLock.REDISSON;
+
+    /**
+     * 共享通知频道数：大于0时可重入锁释放时把锁名发布到按锁名哈希的固定数量的共享频道之一，每个JVM对每个频道只保持一个长期订阅，
+     * 不再为每把锁订阅、退订各自的频道，适用于锁名很多的场景；0（默认）为redisson的可重入锁。各节点须一致
+     */
+    private int sharedChannels = 0;
+
+    /**
+     * 移交锁等待者的存活时间：等待者每隔约1/3存活时间刷新一次，超过存活时间未刷新（放弃等待或宕机）的等待者在移交时被跳过；
+     * 同时作为移交后新持有者确认接收锁的期限，最小为3秒
+     */
+    private Duration handoffWaiterTtl = Duration.ofSeconds(5);
+
+    /**
+     * 单飞模式下执行结果在redis中的保留时间，其他节点在此时间内取得锁时直接使用结果
+     */
+    private Duration singleFlightResultTtl = Duration.ofSeconds(5);
+
+    /**
+     * 单飞模式与幂等模式下执行结果的编解码器，需有无参构造器；未配置时使用redisson配置的编解码器
+     */
+    private Class<? extends Codec> singleFlightCodec;
+
+    /**
+     * 合并执行（DistributedLocks.submit）单轮加锁最多执行的任务数
+     */
+    private int combinerMaxBatchSize = 64;
+
+    /**
+     * 合并执行单轮加锁的最长持锁时间，超过后执行完当前任务即释放锁，让其他节点有机会获得锁
+     */
+    private Duration combinerMaxBatchTime = Duration.ofMillis(10);
+
+    /**
+     * 是否启动预热（默认关闭）：容器启动后在后台预先加载锁脚本、建立redis连接并走一遍各锁类型的加锁、释放锁，
+     * 预热完成前健康检查（存在actuator时）为OUT_OF_SERVICE。预热会向redis写入并释放临时锁，按需开启
+     */
+    private boolean warmUp = false;
+
+    /**
+     * 启动预热时对每个redis节点并发往返的次数，与redisson的最小空闲连接数一致即可建立全部最小空闲连接
+     */
+    private int warmUpConnections = 32;
+
+    /**
+     * 锁后端熔断的失败率阈值（百分比）：统计窗口内锁后端请求的失败比例达到此值时熔断，仅对配置了degrade的锁生效
+     */
+    private int circuitBreakerFailureRate = 50;
+
+    /**
+     * 慢请求阈值：单次往返的锁后端请求（释放锁、等待时间为0的尝试加锁）超过此耗时计为慢请求，探测超过此耗时也视为失败
+     */
+    private Duration circuitBreakerSlowCallDuration = Duration.ofMillis(500);
+
+    /**
+     * 锁后端熔断的慢请求率阈值（百分比）
+     */
+    private int circuitBreakerSlowCallRate = 50;
+
+    /**
+     * 统计窗口内的请求数达到此值后才计算失败率与慢请求率
+     */
+    private int circuitBreakerMinimumCalls = 20;
+
+    /**
+     * 熔断的统计窗口
+     */
+    private Duration circuitBreakerWindow = Duration.ofSeconds(10);
+
+    /**
+     * 熔断时长，过后探测锁后端，探测成功时恢复，否则继续熔断
+     */
+    private Duration circuitBreakerOpenDuration = Duration.ofSeconds(5);
+
+    /**
+     * 幂等模式下方法结果的默认保留时间，注解的resultTtl为-1时使用
+     */
+    private Duration idempotentResultTtl = Duration.ofMinutes(10);
+
+    /**
+     * 幂等模式本地近缓存最多保留的结果数，0为不使用近缓存
+     */
+    private int idempotentNearCacheSize = 1024;
+
+    /**
+     * 幂等模式的结果在本地近缓存中的最长保留时间
+     */
+    private Duration idempotentNearCacheTtl = Duration.ofSeconds(10);
 
 
     public String getPrefix() {
@@ -26,4 +162,297 @@ public class DistributedLockProperties {
     public void setPrefix(String prefix) {
         this.prefix = prefix;
     }
+
+    public Provider getProvider() {
+        return provider;
+    }
+
+    public void setProvider(Provider provider) {
+        this.provider = provider;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public int getShardVirtualNodes() {
+        return shardVirtualNodes;
+    }
+
+    public void setShardVirtualNodes(int shardVirtualNodes) {
+        this.shardVirtualNodes = shardVirtualNodes;
+    }
+
+    public int getLocalQueueMaxHandoffs() {
+        return localQueueMaxHandoffs;
+    }
+
+    public void setLocalQueueMaxHandoffs(int localQueueMaxHandoffs) {
+        this.localQueueMaxHandoffs = localQueueMaxHandoffs;
+    }
+
+    public boolean isLocalReentrancy() {
+        return localReentrancy;
+    }
+
+    public void setLocalReentrancy(boolean localReentrancy) {
+        this.localReentrancy = localReentrancy;
+    }
+
+    public boolean isAsyncUnlock() {
+        return asyncUnlock;
+    }
+
+    public void setAsyncUnlock(boolean asyncUnlock) {
+        this.asyncUnlock = asyncUnlock;
+    }
+
+    public boolean isBatchRenewal() {
+        return batchRenewal;
+    }
+
+    public void setBatchRenewal(boolean batchRenewal) {
+        this.batchRenewal = batchRenewal;
+    }
+
+    public FairLock getFairLock() {
+        return fairLock;
+    }
+
+    public void setFairLock(FairLock fairLock) {
+        this.fairLock = fairLock;
+    }
+
+    public int getSharedChannels() {
+        return sharedChannels;
+    }
+
+    public void setSharedChannels(int sharedChannels) {
+        this.sharedChannels = sharedChannels;
+    }
+
+    public Duration getHandoffWaiterTtl() {
+        return handoffWaiterTtl;
+    }
+
+    public void setHandoffWaiterTtl(Duration handoffWaiterTtl) {
+        this.handoffWaiterTtl = handoffWaiterTtl;
+    }
+
+    public Duration getSingleFlightResultTtl() {
+        return singleFlightResultTtl;
+    }
+
+    public void setSingleFlightResultTtl(Duration singleFlightResultTtl) {
+        this.singleFlightResultTtl = singleFlightResultTtl;
+    }
+
+    public Class<? extends Codec> getSingleFlightCodec() {
+        return singleFlightCodec;
+    }
+
+    public void setSingleFlightCodec(Class<? extends Codec> singleFlightCodec) {
+        this.singleFlightCodec = singleFlightCodec;
+    }
+
+    public int getCombinerMaxBatchSize() {
+        return combinerMaxBatchSize;
+    }
+
+    public void setCombinerMaxBatchSize(int combinerMaxBatchSize) {
+        this.combinerMaxBatchSize = combinerMaxBatchSize;
+    }
+
+    public Duration getCombinerMaxBatchTime() {
+        return combinerMaxBatchTime;
+    }
+
+    public void setCombinerMaxBatchTime(Duration combinerMaxBatchTime) {
+        this.combinerMaxBatchTime = combinerMaxBatchTime;
+    }
+
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    public int getWarmUpConnections() {
+        return warmUpConnections;
+    }
+
+    public void setWarmUpConnections(int warmUpConnections) {
+        this.warmUpConnections = warmUpConnections;
+    }
+
+    public int getCircuitBreakerFailureRate() {
+        return circuitBreakerFailureRate;
+    }
+
+    public void setCircuitBreakerFailureRate(int circuitBreakerFailureRate) {
+        this.circuitBreakerFailureRate = circuitBreakerFailureRate;
+    }
+
+    public Duration getCircuitBreakerSlowCallDuration() {
+        return circuitBreakerSlowCallDuration;
+    }
+
+    public void setCircuitBreakerSlowCallDuration(Duration circuitBreakerSlowCallDuration) {
+        this.circuitBreakerSlowCallDuration = circuitBreakerSlowCallDuration;
+    }
+
+    public int getCircuitBreakerSlowCallRate() {
+        return circuitBreakerSlowCallRate;
+    }
+
+    public void setCircuitBreakerSlowCallRate(int circuitBreakerSlowCallRate) {
+        this.circuitBreakerSlowCallRate = circuitBreakerSlowCallRate;
+    }
+
+    public int getCircuitBreakerMinimumCalls() {
+        return circuitBreakerMinimumCalls;
+    }
+
+    public void setCircuitBreakerMinimumCalls(int circuitBreakerMinimumCalls) {
+        this.circuitBreakerMinimumCalls = circuitBreakerMinimumCalls;
+    }
+
+    public Duration getCircuitBreakerWindow() {
+        return circuitBreakerWindow;
+    }
+
+    public void setCircuitBreakerWindow(Duration circuitBreakerWindow) {
+        this.circuitBreakerWindow = circuitBreakerWindow;
+    }
+
+    public Duration getCircuitBreakerOpenDuration() {
+        return circuitBreakerOpenDuration;
+    }
+
+    public void setCircuitBreakerOpenDuration(Duration circuitBreakerOpenDuration) {
+        this.circuitBreakerOpenDuration = circuitBreakerOpenDuration;
+    }
+
+    public Duration getIdempotentResultTtl() {
+        return idempotentResultTtl;
+    }
+
+    public void setIdempotentResultTtl(Duration idempotentResultTtl) {
+        this.idempotentResultTtl = idempotentResultTtl;
+    }
+
+    public int getIdempotentNearCacheSize() {
+        return idempotentNearCacheSize;
+    }
+
+    public void setIdempotentNearCacheSize(int idempotentNearCacheSize) {
+        this.idempotentNearCacheSize = idempotentNearCacheSize;
+    }
+
+    public Duration getIdempotentNearCacheTtl() {
+        return idempotentNearCacheTtl;
+    }
+
+    public void setIdempotentNearCacheTtl(Duration idempotentNearCacheTtl) {
+        this.idempotentNearCacheTtl = idempotentNearCacheTtl;
+    }
+
+    /**
+     * 内置的锁提供者
+     */
+    public enum Provider {
+        /** 基于redisson的分布式锁 */
+        REDISSON,
+        /** JVM内存中的锁 */
+        LOCAL,
+        /** 按锁名一致性哈希分片到多个redis */
+        SHARDED,
+    }
+
+    /**
+     * 公平锁的实现
+     */
+    public enum FairLock {
+        /** redisson的公平锁 */
+        REDISSON,
+        /** 基于取号、叫号计数器的公平锁 */
+        TICKET,
+    }
+
+    /**
+     * 锁分片，配置address（单节点）或config（redisson的yaml配置文件）之一
+     */
+    public static class Shard {
+
+        /**
+         * 分片名称，决定分片在哈希环上的位置，默认为address或config；更换地址时保持名称不变可避免锁名改变归属
+         */
+        private String name;
+
+        /**
+         * 单节点redis地址，如redis://127.0.0.1:6379
+         */
+        private String address;
+
+        /**
+         * 单节点redis密码
+         */
+        private String password;
+
+        /**
+         * 单节点redis数据库
+         */
+        private int database;
+
+        /**
+         * redisson的yaml配置文件位置，如classpath:redisson-shard-1.yml，配置后忽略address、password、database
+         */
+        private String config;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public void setAddress(String address) {
+            this.address = address;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getDatabase() {
+            return database;
+        }
+
+        public void setDatabase(int database) {
+            this.database = database;
+        }
+
+        public String getConfig() {
+            return config;
+        }
+
+        public void setConfig(String config) {
+            this.config = config;
+        }
+    }
 }
@@ -3,20 +3,18 @@ package com.aaaxing.distributed.lock.converter;
 
 import com.aaaxing.distributed.lock.config.DistributedLockProperties;
 import com.aaaxing.distributed.lock.exception.DistributedLockException;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.reflect.FieldUtils;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.reflect.CodeSignature;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.stereotype.Component;
 
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
-import java.util.HashMap;
+import java.lang.reflect.Method;
+import java.util.List;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 锁名核心转换器
@@ -27,9 +25,10 @@ import java.util.regex.Pattern;
 @Component
 public class LockNameCoreConverter {
     private static final Logger LOGGER = LoggerFactory.getLogger(LockNameCoreConverter.class);
-    private static final Pattern PATTERN = Pattern.compile("\\{(.*?)}");
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
     private final DistributedLockProperties distributedLockProperties;
     private final LockNamePreConverter lockNamePreConverter;
+    private final ConcurrentHashMap<Method, LockNameTemplate> templateCache = new ConcurrentHashMap<>();
 
     public LockNameCoreConverter(DistributedLockProperties properties, LockNamePreConverter lockNamePreConverter) {
         this.distributedLockProperties = properties;
@@ -45,7 +44,67 @@ public class LockNameCoreConverter {
      * @return 替换占位符后的名称
      */
     public String convertLockName(String rawLockName, ProceedingJoinPoint joinPoint) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        return convertLockName(getTemplate(method, rawLockName), joinPoint);
+    }
 
+    /**
+     * 使用预编译的锁名模板转换锁名称
+     *
+     * @param template 锁名模板
+     * @param joinPoint
+     * @return 替换占位符后的名称
+     */
+    public String convertLockName(LockNameTemplate template, ProceedingJoinPoint joinPoint) {
+
+        LockNameTemplate effectiveTemplate = preConvert(template, joinPoint);
+        String lockName;
+
+        try {
+            lockName = effectiveTemplate.render(joinPoint.getArgs());
+        } catch (DistributedLockException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DistributedLockException(2, "An exception occurred while convert lock name.", e.getCause());
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Lock name converted: {} -> {}", template.getRawLockName(), lockName);
+        }
+        return lockName;
+    }
+
+    /**
+     * 使用预编译的锁名模板转换锁名称，集合占位符展开为多个锁名
+     *
+     * @param template 锁名模板
+     * @param joinPoint
+     * @return 替换占位符后排序去重的名称
+     * @see LockNameTemplate#renderAll(Object[])
+     */
+    public List<String> convertLockNames(LockNameTemplate template, ProceedingJoinPoint joinPoint) {
+
+        LockNameTemplate effectiveTemplate = preConvert(template, joinPoint);
+        List<String> lockNames;
+
+        try {
+            lockNames = effectiveTemplate.renderAll(joinPoint.getArgs());
+        } catch (DistributedLockException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DistributedLockException(2, "An exception occurred while convert lock name.", e.getCause());
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Lock names converted: {} -> {}", template.getRawLockName(), lockNames);
+        }
+        return lockNames;
+    }
+
+    /**
+     * 执行锁名预转换器，预转换器未改变锁名时直接使用预编译模板，否则只解析预转换器替换的部分
+     */
+    private LockNameTemplate preConvert(LockNameTemplate template, ProceedingJoinPoint joinPoint) {
+
+        String rawLockName = template.getRawLockName();
         String lockName;
 
         try {
@@ -57,83 +116,41 @@ public class LockNameCoreConverter {
         }
 
         try {
-            String prefix = distributedLockProperties.getPrefix();
-            if (StringUtils.isNotBlank(prefix)) {
-                lockName = prefix + lockName;
-            }
-            HashMap<String, Object> paramMap = null;
-            Object tempObj = null;
-
-            Matcher matcher = PATTERN.matcher(lockName);
-            while (matcher.find()) {
-                if (paramMap == null) {
-                    String[] paramNames = ((CodeSignature) joinPoint.getSignature()).getParameterNames();
-                    Object[] args = joinPoint.getArgs();
-
-                    paramMap = new HashMap<>((int) Math.ceil(paramNames.length / 0.75));
-
-                    for (int i = 0; i < paramNames.length; i++) {
-                        if (!(args[i] instanceof HttpServletRequest || args[i] instanceof HttpServletResponse)) {
-                            paramMap.put(paramNames[i], args[i]);
-                            tempObj = args[i];
-                        }
-                    }
-                }
-                // 匹配整个大括号及其内容
-                String match = matcher.group();
-                // 仅匹配大括号内的内容
-                String field = matcher.group(1);
-
-                if (!field.contains(".")) {
-                    if (paramMap.containsKey(field)) {
-                        Object o = paramMap.get(field);
-                        String fieldValue = String.valueOf(o);
-                        lockName = lockName.replace(match, fieldValue);
-                    } else if (paramMap.size() == 1){
-                        Object o = tempObj == null ? null : getFieldValue(tempObj, field);
-                        String fieldValue = String.valueOf(o);
-                        lockName = lockName.replace(match, fieldValue);
-                    } else {
-                        lockName = lockName.replace(match, "null");
-                    }
-                } else {
-                    String[] split = field.split("\\.");
-                    Object o = paramMap.get(split[0]);
-                    for (int i = 1; i < split.length; i++) {
-                        if (o == null) {
-                            break;
-                        }
-                        o = getFieldValue(o, split[i]);
-                    }
-                    String fieldValue = String.valueOf(o);
-                    lockName = lockName.replace(match, fieldValue);
-                }
-            }
+            return rawLockName.equals(lockName) ? template : template.derive(lockName);
+        } catch (DistributedLockException e) {
+            throw e;
         } catch (Exception e) {
             throw new DistributedLockException(2, "An exception occurred while convert lock name.", e.getCause());
         }
-        if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Lock name converted: {} -> {}", rawLockName, lockName);
-        }
-        return lockName;
     }
 
     /**
-     * 获取对象的字段值
+     * 获取方法的锁名模板，每个方法仅编译一次
      *
-     * @param obj 对象
-     * @param field 字段名
-     * @return 字段值
+     * @param method 加锁方法
+     * @param rawLockName 原始锁名称，包含{field}占位符
+     * @return 锁名模板
      */
-    private Object getFieldValue(Object obj, String field) {
-        Object value = null;
+    public LockNameTemplate getTemplate(Method method, String rawLockName) {
+        LockNameTemplate template = templateCache.get(method);
+        if (template == null) {
+            template = templateCache.computeIfAbsent(method, m -> compile(m, rawLockName));
+        }
+        if (!template.getRawLockName().equals(rawLockName)) {
+            // 同一方法使用了不同的锁名，不缓存
+            template = compile(method, rawLockName);
+        }
+        return template;
+    }
+
+    private LockNameTemplate compile(Method method, String rawLockName) {
         try {
-            value = FieldUtils.readDeclaredField(obj, field,true);
+            return LockNameTemplate.compile(rawLockName, distributedLockProperties.getPrefix(),
+                    PARAMETER_NAME_DISCOVERER.getParameterNames(method), method.getParameterTypes());
+        } catch (DistributedLockException e) {
+            throw e;
         } catch (Exception e) {
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Failed to get field[{}] value for obj[{}].", field, obj, e);
-            }
+            throw new DistributedLockException(2, "An exception occurred while compile lock name: " + rawLockName, e);
         }
-        return value;
     }
 }
@@ -0,0 +1,685 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.converter;
+
+import com.aaaxing.distributed.lock.exception.DistributedLockException;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 锁名模板
+ *
+ * <br>将包含{field}占位符的锁名预编译为字面量片段、参数下标与字段访问链，每次转换只需填充一个StringBuilder，
+ * 不再进行正则匹配、参数Map构建与字段查找。转换结果与逐次解析占位符的结果一致。
+ *
+ * <br>占位符的某一层级以[*]结尾时为集合占位符，如{order.items[*].sku}，该层级的集合或数组中每个元素展开为一个锁名，
+ * 一个锁名中最多包含一个集合占位符。
+ *
+ * <br>与逐次解析一致，按参数的运行时值排除HttpServletRequest、HttpServletResponse参数：模板按声明类型预先排除，
+ * 运行时值与声明类型不符（如Object参数传入了request）时，按实际排除的参数另外编译并缓存。
+ * 锁名预转换器改变锁名时（如将{@userId}替换为每个请求的用户id），预转换前后的锁名只在中间一段不同：
+ * 该段之前、之后部分的编译结果按其在原始锁名中的位置缓存，每次转换只解析替换进来的文本，不按预转换后的锁名缓存；
+ * 各占位符的编译结果在同一方法的模板之间共用。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public final class LockNameTemplate {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LockNameTemplate.class);
+    private static final String NULL = "null";
+    private static final String EXPANSION = "[*]";
+    /**
+     * 预转换替换区间的编译结果、按运行时排除参数编译的模板的最大缓存数，超过时清空重新缓存
+     */
+    private static final int MAX_CACHED_TEMPLATES = 256;
+
+    /**
+     * 原始锁名称，包含{field}占位符，不含前缀
+     */
+    private final String rawLockName;
+    private final String prefix;
+    private final String[] parameterNames;
+    private final Class<?>[] parameterTypes;
+    private final Segment[] segments;
+    /**
+     * 无占位符时的完整锁名
+     */
+    private final String constantLockName;
+    /**
+     * 集合占位符片段的下标，无集合占位符时为-1
+     */
+    private final int expansionIndex;
+    private final int estimatedLength;
+    /**
+     * 编译时排除的参数下标
+     */
+    private final BitSet excluded;
+    /**
+     * 运行时值可能是servlet对象的参数下标，无占位符或按运行时排除参数编译的模板为空
+     */
+    private final int[] servletCandidates;
+    /**
+     * 占位符的编译结果，由排除参数相同的模板共用
+     */
+    private final ConcurrentHashMap<String, Segment> placeholders;
+    /**
+     * 预转换替换区间之前、之后部分的编译结果，键为两部分的长度，由同一方法的模板共用
+     */
+    private final ConcurrentHashMap<Long, Split> derived;
+    /**
+     * 运行时排除的参数对应的模板
+     */
+    private final ConcurrentHashMap<BitSet, LockNameTemplate> variants = new ConcurrentHashMap<>();
+
+    private LockNameTemplate(String rawLockName, String prefix, String[] parameterNames, Class<?>[] parameterTypes,
+                             Segment[] segments, int estimatedLength, BitSet excluded, int[] servletCandidates,
+                             ConcurrentHashMap<String, Segment> placeholders,
+                             ConcurrentHashMap<Long, Split> derived) {
+        this.rawLockName = rawLockName;
+        this.prefix = prefix;
+        this.parameterNames = parameterNames;
+        this.parameterTypes = parameterTypes;
+        this.segments = segments;
+        this.estimatedLength = estimatedLength;
+        this.excluded = excluded;
+        this.placeholders = placeholders;
+        this.derived = derived;
+        this.constantLockName = segments.length == 1 && segments[0] instanceof LiteralSegment
+                ? ((LiteralSegment) segments[0]).text : null;
+        int expansion = -1;
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i] instanceof ValueSegment && ((ValueSegment) segments[i]).expandAt >= 0) {
+                expansion = i;
+            }
+        }
+        this.expansionIndex = expansion;
+        this.servletCandidates = servletCandidates;
+    }
+
+    /**
+     * 编译锁名模板
+     *
+     * @param rawLockName 原始锁名称，包含{field}占位符
+     * @param prefix 锁名前缀，可为空
+     * @param parameterNames 方法参数名，无法获取时为null
+     * @param parameterTypes 方法参数类型
+     * @return 锁名模板
+     */
+    public static LockNameTemplate compile(String rawLockName, String prefix, String[] parameterNames,
+                                           Class<?>[] parameterTypes) {
+        BitSet excluded = new BitSet();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (isServletType(parameterTypes[i])) {
+                excluded.set(i);
+            }
+            if (maybeServlet(parameterTypes[i])) {
+                candidates.add(i);
+            }
+        }
+        return compile(rawLockName, prefix, parameterNames, parameterTypes, excluded,
+                candidates.stream().mapToInt(Integer::intValue).toArray(), new ConcurrentHashMap<>(),
+                new ConcurrentHashMap<>());
+    }
+
+    /**
+     * @param excluded 排除的参数下标
+     * @param servletCandidates 运行时值可能是servlet对象的参数下标
+     * @param placeholders 占位符的编译结果缓存
+     * @param derived 预转换替换区间的编译结果缓存
+     */
+    private static LockNameTemplate compile(String rawLockName, String prefix, String[] parameterNames,
+                                            Class<?>[] parameterTypes, BitSet excluded, int[] servletCandidates,
+                                            ConcurrentHashMap<String, Segment> placeholders,
+                                            ConcurrentHashMap<Long, Split> derived) {
+        List<Segment> segments = new ArrayList<>();
+        int placeholderCount = parse(prefixed(rawLockName, prefix), segments, false, parameterNames, parameterTypes,
+                excluded, placeholders);
+        return create(rawLockName, prefix, parameterNames, parameterTypes, segments, placeholderCount, excluded,
+                servletCandidates, placeholders, derived);
+    }
+
+    private static LockNameTemplate create(String rawLockName, String prefix, String[] parameterNames,
+                                           Class<?>[] parameterTypes, List<Segment> segments, int placeholderCount,
+                                           BitSet excluded, int[] servletCandidates,
+                                           ConcurrentHashMap<String, Segment> placeholders,
+                                           ConcurrentHashMap<Long, Split> derived) {
+        if (segments.isEmpty()) {
+            segments.add(new LiteralSegment(""));
+        }
+        int estimatedLength = 16 * placeholderCount;
+        int expansions = 0;
+        for (Segment segment : segments) {
+            if (segment instanceof LiteralSegment) {
+                estimatedLength += ((LiteralSegment) segment).text.length();
+            } else if (segment instanceof ValueSegment && ((ValueSegment) segment).expandAt >= 0
+                    && ++expansions > 1) {
+                throw new DistributedLockException(2, "Only one collection placeholder [*] is supported in lock name: "
+                        + rawLockName);
+            }
+        }
+        return new LockNameTemplate(rawLockName, prefix, parameterNames, parameterTypes, mergeLiterals(segments),
+                estimatedLength, excluded, placeholderCount > 0 ? servletCandidates : new int[0], placeholders,
+                derived);
+    }
+
+    /**
+     * 解析锁名，依次追加字面量片段与占位符片段
+     *
+     * @param strict 为true时遇到无法配对的'{'返回-1，用于单独解析锁名中的一段
+     * @return 占位符数量
+     */
+    private static int parse(String lockName, List<Segment> segments, boolean strict, String[] parameterNames,
+                             Class<?>[] parameterTypes, BitSet excluded,
+                             ConcurrentHashMap<String, Segment> placeholders) {
+        int placeholderCount = 0;
+        int literalStart = 0;
+        int from = 0;
+
+        while (true) {
+            int open = lockName.indexOf('{', from);
+            if (open < 0) {
+                break;
+            }
+            int close = findClose(lockName, open + 1);
+            if (close < 0) {
+                if (strict) {
+                    return -1;
+                }
+                // 与正则"\{(.*?)}"一致：该位置无法匹配时从下一个字符继续查找
+                from = open + 1;
+                continue;
+            }
+            if (open > literalStart) {
+                segments.add(new LiteralSegment(lockName.substring(literalStart, open)));
+            }
+            String placeholder = lockName.substring(open + 1, close);
+            Segment segment = placeholders.get(placeholder);
+            if (segment == null) {
+                segment = compilePlaceholder(placeholder, parameterNames, parameterTypes, excluded);
+                placeholders.putIfAbsent(placeholder, segment);
+            }
+            segments.add(segment);
+            placeholderCount++;
+            literalStart = close + 1;
+            from = close + 1;
+        }
+        if (literalStart < lockName.length()) {
+            segments.add(new LiteralSegment(lockName.substring(literalStart)));
+        }
+        return placeholderCount;
+    }
+
+    /**
+     * 以相同的方法参数信息编译预转换后的锁名，用于锁名预转换器改变了原始锁名的场景
+     *
+     * <br>预转换前后的锁名去掉相同的开头与结尾后，剩下的一段为预转换器替换的区间，边界落在占位符内时移到占位符之外；
+     * 开头与结尾的编译结果按两者的长度缓存，每次只解析替换进来的文本。替换进来的文本包含无法配对的'{'时完整编译，不缓存
+     *
+     * @param rawLockName 预转换后的锁名称
+     * @return 锁名模板
+     */
+    public LockNameTemplate derive(String rawLockName) {
+        String original = prefixed(this.rawLockName, prefix);
+        String converted = prefixed(rawLockName, prefix);
+        int max = Math.min(original.length(), converted.length());
+        int head = 0;
+        while (head < max && original.charAt(head) == converted.charAt(head)) {
+            head++;
+        }
+        int tail = 0;
+        while (tail < max - head
+                && original.charAt(original.length() - 1 - tail) == converted.charAt(converted.length() - 1 - tail)) {
+            tail++;
+        }
+        int open = original.lastIndexOf('{', head - 1);
+        if (open >= 0 && original.lastIndexOf('}', head - 1) < open) {
+            head = open;
+        }
+        int tailStart = original.length() - tail;
+        int close = original.indexOf('}', tailStart);
+        if (close >= 0) {
+            int nextOpen = original.indexOf('{', tailStart);
+            if (nextOpen < 0 || nextOpen > close) {
+                tail = original.length() - close - 1;
+            }
+        }
+
+        List<Segment> replaced = new ArrayList<>();
+        int replacedCount = parse(converted.substring(head, converted.length() - tail), replaced, true,
+                parameterNames, parameterTypes, excluded, placeholders);
+        if (replacedCount < 0) {
+            return compile(rawLockName, prefix, parameterNames, parameterTypes, excluded, servletCandidates,
+                    placeholders, derived);
+        }
+        long key = (long) head << 32 | tail;
+        Split split = derived.get(key);
+        if (split == null) {
+            split = new Split(original.substring(0, head), original.substring(original.length() - tail),
+                    parameterNames, parameterTypes, excluded, placeholders);
+            putBounded(derived, key, split);
+        }
+        List<Segment> segments = new ArrayList<>(split.head.size() + replaced.size() + split.tail.size());
+        segments.addAll(split.head);
+        segments.addAll(replaced);
+        segments.addAll(split.tail);
+        return create(rawLockName, prefix, parameterNames, parameterTypes, segments,
+                split.placeholderCount + replacedCount, excluded, servletCandidates, placeholders, derived);
+    }
+
+    /**
+     * 使用方法参数填充模板
+     *
+     * @param args 方法参数
+     * @return 替换占位符后的锁名称
+     */
+    public String render(Object[] args) {
+        LockNameTemplate template = forArgs(args);
+        if (template != this) {
+            return template.render(args);
+        }
+        if (constantLockName != null) {
+            return constantLockName;
+        }
+        if (expansionIndex >= 0) {
+            throw new DistributedLockException(2, "The lock name contains a collection placeholder and expands to "
+                    + "multiple lock names: " + rawLockName);
+        }
+        StringBuilder builder = new StringBuilder(estimatedLength);
+        for (Segment segment : segments) {
+            segment.appendTo(builder, args);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 使用方法参数填充模板，集合占位符的每个元素展开为一个锁名
+     *
+     * @param args 方法参数
+     * @return 排序去重后的锁名称，集合为null或为空时返回空列表；无集合占位符时只有一个锁名
+     */
+    public List<String> renderAll(Object[] args) {
+        if (expansionIndex < 0) {
+            return Collections.singletonList(render(args));
+        }
+        LockNameTemplate template = forArgs(args);
+        if (template != this) {
+            return template.renderAll(args);
+        }
+        StringBuilder head = new StringBuilder(estimatedLength);
+        for (int i = 0; i < expansionIndex; i++) {
+            segments[i].appendTo(head, args);
+        }
+        StringBuilder tail = new StringBuilder();
+        for (int i = expansionIndex + 1; i < segments.length; i++) {
+            segments[i].appendTo(tail, args);
+        }
+
+        TreeSet<String> lockNames = new TreeSet<>();
+        StringBuilder builder = new StringBuilder(estimatedLength);
+        for (Object value : ((ValueSegment) segments[expansionIndex]).expand(args)) {
+            builder.setLength(0);
+            builder.append(head);
+            appendValue(builder, value);
+            builder.append(tail);
+            lockNames.add(builder.toString());
+        }
+        return new ArrayList<>(lockNames);
+    }
+
+    public String getRawLockName() {
+        return rawLockName;
+    }
+
+    public boolean hasPlaceholder() {
+        return constantLockName == null;
+    }
+
+    /**
+     * 是否包含集合占位符，展开为多个锁名
+     */
+    public boolean isMultiple() {
+        return expansionIndex >= 0;
+    }
+
+    /**
+     * 选择与参数运行时值相符的模板：参数是否为servlet对象与编译时的排除一致时为本模板，否则按实际排除的参数编译
+     */
+    private LockNameTemplate forArgs(Object[] args) {
+        boolean matched = true;
+        for (int index : servletCandidates) {
+            if (isServlet(args[index]) != excluded.get(index)) {
+                matched = false;
+                break;
+            }
+        }
+        if (matched) {
+            return this;
+        }
+        BitSet actual = new BitSet();
+        for (int index : servletCandidates) {
+            if (isServlet(args[index])) {
+                actual.set(index);
+            }
+        }
+        LockNameTemplate template = variants.get(actual);
+        if (template == null) {
+            template = compile(rawLockName, prefix, parameterNames, parameterTypes, actual, new int[0],
+                    new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+            putBounded(variants, actual, template);
+        }
+        return template;
+    }
+
+    private static <K, V> void putBounded(ConcurrentHashMap<K, V> cache, K key, V value) {
+        if (cache.size() >= MAX_CACHED_TEMPLATES) {
+            cache.clear();
+        }
+        cache.putIfAbsent(key, value);
+    }
+
+    private static String prefixed(String rawLockName, String prefix) {
+        return StringUtils.isNotBlank(prefix) ? prefix + rawLockName : rawLockName;
+    }
+
+    /**
+     * 预转换替换区间的编译结果数量，用于测试
+     */
+    int derivedCount() {
+        return derived.size();
+    }
+
+    /**
+     * 查找与'{'配对的'}'，'.'不匹配行终止符，因此跨行时视为不匹配
+     */
+    private static int findClose(String lockName, int from) {
+        for (int i = from; i < lockName.length(); i++) {
+            char c = lockName.charAt(i);
+            if (c == '}') {
+                return i;
+            }
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static Segment compilePlaceholder(String field, String[] parameterNames, Class<?>[] parameterTypes,
+                                              BitSet excluded) {
+        if (parameterNames == null) {
+            // 占位符可能由锁名预转换器替换，因此延迟到实际填充时再失败
+            return new UnresolvableSegment("Unable to discover the parameter names for placeholder {" + field
+                    + "}, please compile with debug information or the -parameters flag.");
+        }
+
+        // 去掉集合标记[*]，记录其所在层级
+        int expansion = -1;
+        String[] split = field.split("\\.");
+        for (int i = 0; i < split.length; i++) {
+            if (split[i].endsWith(EXPANSION)) {
+                if (expansion >= 0) {
+                    throw new DistributedLockException(2, "Only one [*] is supported in placeholder {" + field + "}");
+                }
+                expansion = i;
+                split[i] = split[i].substring(0, split[i].length() - EXPANSION.length());
+            }
+        }
+        if (expansion >= 0) {
+            field = String.join(".", split);
+        }
+
+        int included = 0;
+        int lastIncluded = -1;
+        int matched = -1;
+        String root = field.contains(".") ? field.split("\\.")[0] : field;
+        for (int i = 0; i < parameterNames.length; i++) {
+            if (excluded.get(i)) {
+                continue;
+            }
+            included++;
+            lastIncluded = i;
+            if (parameterNames[i].equals(root)) {
+                matched = i;
+            }
+        }
+
+        if (!field.contains(".")) {
+            if (matched >= 0) {
+                return new ValueSegment(matched, new FieldAccessor[0], expansion);
+            } else if (included == 1) {
+                return new ValueSegment(lastIncluded, new FieldAccessor[]{
+                        new FieldAccessor(field, parameterTypes[lastIncluded])}, expansion < 0 ? -1 : 1);
+            }
+            return new LiteralSegment(NULL);
+        }
+
+        if (matched < 0) {
+            return new LiteralSegment(NULL);
+        }
+        split = field.split("\\.");
+        FieldAccessor[] chain = new FieldAccessor[split.length - 1];
+        Class<?> declaredType = expansion == 0 ? Object.class : parameterTypes[matched];
+        for (int i = 1; i < split.length; i++) {
+            FieldAccessor accessor = new FieldAccessor(split[i], declaredType);
+            chain[i - 1] = accessor;
+            // 集合元素的类型在运行时解析
+            declaredType = i == expansion ? Object.class : accessor.declaredFieldType();
+        }
+        return new ValueSegment(matched, chain, expansion);
+    }
+
+    private static boolean isServletType(Class<?> type) {
+        return HttpServletRequest.class.isAssignableFrom(type) || HttpServletResponse.class.isAssignableFrom(type);
+    }
+
+    private static boolean isServlet(Object value) {
+        return value instanceof HttpServletRequest || value instanceof HttpServletResponse;
+    }
+
+    /**
+     * 参数的运行时值是否可能是servlet对象：基本类型、数组与非servlet的final类不可能
+     */
+    private static boolean maybeServlet(Class<?> type) {
+        return !type.isPrimitive() && !type.isArray()
+                && (!Modifier.isFinal(type.getModifiers()) || isServletType(type));
+    }
+
+    private static Segment[] mergeLiterals(List<Segment> segments) {
+        List<Segment> merged = new ArrayList<>(segments.size());
+        for (Segment segment : segments) {
+            int last = merged.size() - 1;
+            if (segment instanceof LiteralSegment && last >= 0 && merged.get(last) instanceof LiteralSegment) {
+                merged.set(last, new LiteralSegment(((LiteralSegment) merged.get(last)).text
+                        + ((LiteralSegment) segment).text));
+            } else {
+                merged.add(segment);
+            }
+        }
+        return merged.toArray(new Segment[0]);
+    }
+
+    /**
+     * 预转换替换区间之前、之后部分的编译结果
+     */
+    private static final class Split {
+        private final List<Segment> head = new ArrayList<>();
+        private final List<Segment> tail = new ArrayList<>();
+        private final int placeholderCount;
+
+        Split(String head, String tail, String[] parameterNames, Class<?>[] parameterTypes, BitSet excluded,
+              ConcurrentHashMap<String, Segment> placeholders) {
+            this.placeholderCount = parse(head, this.head, false, parameterNames, parameterTypes, excluded,
+                    placeholders) + parse(tail, this.tail, false, parameterNames, parameterTypes, excluded,
+                    placeholders);
+        }
+    }
+
+    private interface Segment {
+        void appendTo(StringBuilder builder, Object[] args);
+    }
+
+    private static final class LiteralSegment implements Segment {
+        private final String text;
+
+        LiteralSegment(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void appendTo(StringBuilder builder, Object[] args) {
+            builder.append(text);
+        }
+    }
+
+    private static final class UnresolvableSegment implements Segment {
+        private final String message;
+
+        UnresolvableSegment(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public void appendTo(StringBuilder builder, Object[] args) {
+            throw new DistributedLockException(2, message);
+        }
+    }
+
+    private static void appendValue(StringBuilder builder, Object value) {
+        if (value instanceof String) {
+            builder.append((String) value);
+        } else if (value instanceof Long) {
+            builder.append(((Long) value).longValue());
+        } else if (value instanceof Integer) {
+            builder.append(((Integer) value).intValue());
+        } else {
+            builder.append(value);
+        }
+    }
+
+    /**
+     * 参数值片段：取出参数下标对应的参数，再沿字段访问链逐级取值
+     */
+    private static final class ValueSegment implements Segment {
+        private final int index;
+        private final FieldAccessor[] chain;
+        /**
+         * 集合占位符在访问链中展开的位置，即取完前expandAt级字段后展开，-1为不展开
+         */
+        private final int expandAt;
+
+        ValueSegment(int index, FieldAccessor[] chain, int expandAt) {
+            this.index = index;
+            this.chain = chain;
+            this.expandAt = expandAt;
+        }
+
+        @Override
+        public void appendTo(StringBuilder builder, Object[] args) {
+            appendValue(builder, resolve(args[index], 0, chain.length));
+        }
+
+        List<Object> expand(Object[] args) {
+            Object container = resolve(args[index], 0, expandAt);
+            List<Object> values = new ArrayList<>();
+            if (container instanceof Iterable) {
+                for (Object element : (Iterable<?>) container) {
+                    values.add(resolve(element, expandAt, chain.length));
+                }
+            } else if (container != null && container.getClass().isArray()) {
+                for (int i = 0; i < Array.getLength(container); i++) {
+                    values.add(resolve(Array.get(container, i), expandAt, chain.length));
+                }
+            } else if (container != null) {
+                values.add(resolve(container, expandAt, chain.length));
+            }
+            return values;
+        }
+
+        private Object resolve(Object value, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (value == null) {
+                    break;
+                }
+                value = chain[i].get(value);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 字段访问器
+     *
+     * <br>只读取对象运行时类型自身声明的字段（不含父类字段）；按声明类型预先解析，运行时类型不同时重新解析并缓存
+     */
+    private static final class FieldAccessor {
+        private final String name;
+        private volatile Resolved resolved;
+
+        FieldAccessor(String name, Class<?> declaredType) {
+            this.name = name;
+            this.resolved = resolve(declaredType);
+        }
+
+        Object get(Object target) {
+            Class<?> type = target.getClass();
+            Resolved current = resolved;
+            if (current.type != type) {
+                current = resolve(type);
+                resolved = current;
+            }
+            if (current.field != null) {
+                try {
+                    return current.field.get(target);
+                } catch (Exception e) {
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("Failed to get field[{}] value for obj[{}].", name, target, e);
+                    }
+                    return null;
+                }
+            }
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Failed to get field[{}] value for obj[{}], field not found.", name, target);
+            }
+            return null;
+        }
+
+        Class<?> declaredFieldType() {
+            Field field = resolved.field;
+            return field == null ? Object.class : field.getType();
+        }
+
+        private Resolved resolve(Class<?> type) {
+            Field field = null;
+            try {
+                field = type.getDeclaredField(name);
+                field.setAccessible(true);
+            } catch (Exception e) {
+                field = null;
+            }
+            return new Resolved(type, field);
+        }
+    }
+
+    private static final class Resolved {
+        private final Class<?> type;
+        private final Field field;
+
+        Resolved(Class<?> type, Field field) {
+            this.type = type;
+            this.field = field;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.initializer;
+
+import com.aaaxing.distributed.lock.annotation.DistributedLock;
+import com.aaaxing.distributed.lock.aspect.DistributedLockAspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ClassUtils;
+
+import javax.annotation.Resource;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 分布式锁方法初始化器
+ *
+ * <br>容器启动时扫描所有标注了@DistributedLock的方法，预先解析锁定义并编译锁名模板，注解参数错误时容器启动失败。
+ * 仅由自动配置注册，不标注@Component，避免被组件扫描再注册一次、重复扫描全部bean
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class DistributedLockMethodInitializer implements SmartInitializingSingleton {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DistributedLockMethodInitializer.class);
+    @Resource
+    private ApplicationContext applicationContext;
+    @Resource
+    private DistributedLockAspect distributedLockAspect;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int count = 0;
+        for (String beanName : applicationContext.getBeanNamesForType(Object.class, true, false)) {
+            for (Method method : findLockMethods(beanName).keySet()) {
+                // 解析并校验锁定义，注解参数错误时启动失败
+                distributedLockAspect.getLockDefinition(method);
+                count++;
+            }
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Initialized {} distributed lock methods.", count);
+        }
+    }
+
+    private Map<Method, DistributedLock> findLockMethods(String beanName) {
+        try {
+            Class<?> beanType = applicationContext.getType(beanName);
+            if (beanType == null) {
+                return Collections.emptyMap();
+            }
+            return MethodIntrospector.selectMethods(ClassUtils.getUserClass(beanType),
+                    (MethodIntrospector.MetadataLookup<DistributedLock>) method ->
+                            AnnotationUtils.getAnnotation(method, DistributedLock.class));
+        } catch (Throwable e) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Could not resolve distributed lock methods for bean[{}].", beanName, e);
+            }
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.initializer;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * 分布式锁预热健康检查，预热完成前为OUT_OF_SERVICE，用作就绪探针时流量在预热完成后才进入
+ *
+ * @author axing
+ * @date 2026-10-18
+ * @see DistributedLockWarmUpInitializer
+ */
+public class DistributedLockWarmUpHealthIndicator implements HealthIndicator {
+    private final DistributedLockWarmUpInitializer warmUpInitializer;
+
+    /**
+     * @param warmUpInitializer 分布式锁预热初始化器
+     */
+    public DistributedLockWarmUpHealthIndicator(DistributedLockWarmUpInitializer warmUpInitializer) {
+        this.warmUpInitializer = warmUpInitializer;
+    }
+
+    @Override
+    public Health health() {
+        if (!warmUpInitializer.isCompleted()) {
+            return Health.outOfService().withDetail("warmUp", "in progress").build();
+        }
+        Throwable failure = warmUpInitializer.getFailure();
+        // 预热失败不影响加锁，不再阻止流量进入
+        return failure == null ? Health.up().withDetail("warmUp", "completed").build()
+                : Health.up().withDetail("warmUp", "failed: " + failure).build();
+    }
+}
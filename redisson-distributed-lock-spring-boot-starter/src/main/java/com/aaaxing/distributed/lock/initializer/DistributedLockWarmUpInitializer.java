@@ -0,0 +1,101 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.initializer;
+
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
+import com.aaaxing.distributed.lock.strategy.LockStrategyRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import javax.annotation.Resource;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式锁预热初始化器
+ *
+ * <br>容器启动后在后台线程预热锁提供者（加载锁脚本、建立redis连接等），不阻塞启动；
+ * 预热完成（成功或失败）前健康检查为OUT_OF_SERVICE，就绪探针以此等待预热完成。预热失败只打印告警日志，加锁不受影响。
+ * 默认关闭，可通过application.properties开启：distributed-lock.warm-up=true
+ * <br>仅由自动配置注册，不标注@Component，避免被组件扫描再注册一次
+ *
+ * @author axing
+ * @date 2026-10-18
+ * @see com.aaaxing.distributed.lock.strategy.LockProvider#warmUp()
+ */
+public class DistributedLockWarmUpInitializer implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DistributedLockWarmUpInitializer.class);
+    @Resource
+    private LockStrategyRegistry lockStrategyRegistry;
+    @Resource
+    private DistributedLockProperties distributedLockProperties;
+    private final CountDownLatch completed = new CountDownLatch(1);
+    private volatile boolean running;
+    private volatile Throwable failure;
+
+    @Override
+    public void start() {
+        running = true;
+        if (!distributedLockProperties.isWarmUp() || !lockStrategyRegistry.isAvailable()) {
+            completed.countDown();
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "distributed-lock-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 预热是否已完成，预热失败或未开启预热也视为完成
+     */
+    public boolean isCompleted() {
+        return completed.getCount() == 0;
+    }
+
+    /**
+     * 获取预热失败的原因
+     *
+     * @return 预热失败的原因，预热成功或未完成时为null
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * 等待预热完成
+     *
+     * @param timeout 等待时间
+     * @param unit 时间单位
+     * @return 是否在等待时间内完成
+     * @throws InterruptedException 等待时被中断
+     */
+    public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        return completed.await(timeout, unit);
+    }
+
+    private void warmUp() {
+        long start = System.nanoTime();
+        try {
+            lockStrategyRegistry.warmUp();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Warmed up the distributed lock provider in {}ms.",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+        } catch (Throwable e) {
+            failure = e;
+            LOGGER.warn("Failed to warm up the distributed lock provider.", e);
+        } finally {
+            completed.countDown();
+        }
+    }
+}
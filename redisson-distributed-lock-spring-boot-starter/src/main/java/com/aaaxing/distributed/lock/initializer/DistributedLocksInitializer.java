@@ -2,8 +2,10 @@
 package com.aaaxing.distributed.lock.initializer;
 
 import com.aaaxing.distributed.lock.config.DistributedLockProperties;
+import com.aaaxing.distributed.lock.metrics.LockMetrics;
+import com.aaaxing.distributed.lock.strategy.LockStrategyRegistry;
 import com.aaaxing.distributed.lock.utils.DistributedLocks;
-import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
@@ -18,13 +20,16 @@ import javax.annotation.Resource;
 @Component
 public class DistributedLocksInitializer {
     @Resource
-    private RedissonClient redisson;
+    private LockStrategyRegistry lockStrategyRegistry;
     @Resource
     private DistributedLockProperties distributedLockProperties;
+    @Resource
+    private ObjectProvider<LockMetrics> lockMetrics;
 
     @PostConstruct
     public void init() {
-        DistributedLocks.setRedisson(redisson);
+        DistributedLocks.setLockStrategyRegistry(lockStrategyRegistry);
         DistributedLocks.setPrefix(distributedLockProperties.getPrefix());
+        DistributedLocks.setLockMetrics(lockMetrics.getIfAvailable(() -> LockMetrics.NOOP));
     }
 }
@@ -0,0 +1,81 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.metrics;
+
+/**
+ * 一组锁类型、锁模式、锁名模板对应的指标
+ *
+ * <br>未启用时{@link #isEnabled()}返回false，调用方据此跳过计时，不产生任何额外开销。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public interface LockMeters {
+    /**
+     * 不记录任何指标
+     */
+    LockMeters NOOP = new LockMeters() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void recordWait(long nanos) {
+        }
+
+        @Override
+        public void recordHold(long nanos) {
+        }
+
+        @Override
+        public void tryLockFailed() {
+        }
+
+        @Override
+        public void unlockFailed() {
+        }
+    };
+
+    boolean isEnabled();
+
+    /**
+     * 记录加锁成功前的等待时间
+     *
+     * @param nanos 纳秒
+     */
+    void recordWait(long nanos);
+
+    /**
+     * 记录锁持有时间
+     *
+     * @param nanos 纳秒
+     */
+    void recordHold(long nanos);
+
+    /**
+     * 记录尝试加锁失败（status=5）
+     */
+    void tryLockFailed();
+
+    /**
+     * 记录解锁异常（status=4）
+     */
+    void unlockFailed();
+
+    /**
+     * 记录一次分段锁加锁
+     *
+     * @param collision 分段是否正被本节点以其他锁名持有（误冲突）
+     * @see com.aaaxing.distributed.lock.strategy.LockStripes
+     */
+    default void recordStripe(boolean collision) {
+    }
+
+    /**
+     * 记录一次熔断期间的降级加锁（快速失败或降级为本地锁）
+     *
+     * @see com.aaaxing.distributed.lock.strategy.DegradableLockStrategy
+     */
+    default void degraded() {
+    }
+}
@@ -0,0 +1,36 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.metrics;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Mode;
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+
+/**
+ * 分布式锁指标
+ *
+ * <br>按锁类型、锁模式与锁名模板（注解的原始name，而非转换后的锁名）获取指标，调用方在初始化时获取一次并缓存，
+ * 以控制指标基数并避免每次加锁时查找。未启用指标时使用{@link #NOOP}。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public interface LockMetrics {
+    /**
+     * 不记录任何指标
+     */
+    LockMetrics NOOP = (type, mode, name) -> LockMeters.NOOP;
+
+    /**
+     * DistributedLocks工具类使用的锁名标签，工具类的锁名由调用方传入，不作为标签
+     */
+    String FACADE_NAME = "DistributedLocks";
+
+    /**
+     * 获取指标
+     *
+     * @param type 锁类型
+     * @param mode 锁模式
+     * @param name 锁名模板
+     * @return 指标
+     */
+    LockMeters meters(Type type, Mode mode, String name);
+}
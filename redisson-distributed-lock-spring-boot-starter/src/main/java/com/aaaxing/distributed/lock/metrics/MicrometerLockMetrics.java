@@ -0,0 +1,123 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Mode;
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+
+/**
+ * 基于Micrometer的分布式锁指标
+ *
+ * <ul>
+ *     <li>distributed.lock.wait：加锁等待时间</li>
+ *     <li>distributed.lock.hold：锁持有时间</li>
+ *     <li>distributed.lock.try.failed：尝试加锁失败次数（status=5）</li>
+ *     <li>distributed.lock.unlock.failed：解锁异常次数（status=4）</li>
+ *     <li>distributed.lock.stripe.acquisitions：分段锁加锁次数，仅配置了stripes的锁</li>
+ *     <li>distributed.lock.stripe.collisions：分段锁误冲突次数（分段正被本节点以其他锁名持有），与加锁次数之比为误冲突率</li>
+ *     <li>distributed.lock.degraded：锁后端熔断期间的降级加锁次数，仅配置了degrade的锁</li>
+ * </ul>
+ * 标签为type（锁类型）、mode（锁模式）、name（锁名模板）。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class MicrometerLockMetrics implements LockMetrics {
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, LockMeters> meters = new ConcurrentHashMap<>();
+
+    public MicrometerLockMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public LockMeters meters(Type type, Mode mode, String name) {
+        return meters.computeIfAbsent(type + ":" + mode + ":" + name, key -> new MicrometerLockMeters(type, mode, name));
+    }
+
+    private final class MicrometerLockMeters implements LockMeters {
+        private final Timer wait;
+        private final Timer hold;
+        private final Counter tryLockFailed;
+        private final Counter unlockFailed;
+        private final Tags tags;
+        private volatile Counter stripeAcquisitions;
+        private volatile Counter stripeCollisions;
+        private volatile Counter degraded;
+
+        MicrometerLockMeters(Type type, Mode mode, String name) {
+            Tags tags = Tags.of("type", type.name(), "mode", mode.name(), "name", name);
+            this.wait = Timer.builder("distributed.lock.wait").description("Time spent waiting to acquire the lock")
+                    .tags(tags).register(meterRegistry);
+            this.hold = Timer.builder("distributed.lock.hold").description("Time the lock is held")
+                    .tags(tags).register(meterRegistry);
+            this.tryLockFailed = Counter.builder("distributed.lock.try.failed")
+                    .description("Number of tryLock attempts that failed to acquire the lock")
+                    .tags(tags).register(meterRegistry);
+            this.unlockFailed = Counter.builder("distributed.lock.unlock.failed")
+                    .description("Number of unlock errors").tags(tags).register(meterRegistry);
+            this.tags = tags;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public void recordWait(long nanos) {
+            wait.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void recordHold(long nanos) {
+            hold.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void tryLockFailed() {
+            tryLockFailed.increment();
+        }
+
+        @Override
+        public void unlockFailed() {
+            unlockFailed.increment();
+        }
+
+        /**
+         * 分段计数器在首次使用时注册，未配置stripes的锁不产生这两个指标
+         */
+        @Override
+        public void recordStripe(boolean collision) {
+            if (stripeAcquisitions == null) {
+                // 重复注册返回同一计数器；先赋值collisions，其他线程看到acquisitions时collisions已可用
+                stripeCollisions = Counter.builder("distributed.lock.stripe.collisions")
+                        .description("Number of striped lock acquisitions whose stripe was held for another lock name")
+                        .tags(tags).register(meterRegistry);
+                stripeAcquisitions = Counter.builder("distributed.lock.stripe.acquisitions")
+                        .description("Number of striped lock acquisitions").tags(tags).register(meterRegistry);
+            }
+            stripeAcquisitions.increment();
+            if (collision) {
+                stripeCollisions.increment();
+            }
+        }
+
+        @Override
+        public void degraded() {
+            if (degraded == null) {
+                degraded = Counter.builder("distributed.lock.degraded")
+                        .description("Number of acquisitions degraded while the lock backend circuit breaker is open")
+                        .tags(tags).register(meterRegistry);
+            }
+            degraded.increment();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量锁策略，获取或释放多个可重入锁，锁的持有者为当前线程
+ *
+ * <br>实现需保证多批锁名交叉时不会死锁，如按锁名排序加锁或全部原子加锁
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public interface BatchLockStrategy {
+
+    /**
+     * 阻塞加锁，直到全部锁名加锁成功
+     *
+     * @param lockNames 锁名
+     * @param leaseTime 锁持有时间，-1为自动续期
+     * @param unit 时间单位
+     */
+    void lockAll(Collection<String> lockNames, long leaseTime, TimeUnit unit);
+
+    /**
+     * 尝试加锁，在等待时间内全部锁名加锁成功返回true，失败时不持有任何锁
+     *
+     * @param lockNames 锁名
+     * @param waitTime 等待时间
+     * @param leaseTime 锁持有时间，-1为自动续期
+     * @param unit 时间单位
+     * @return 是否加锁成功
+     * @throws InterruptedException 等待时被中断
+     */
+    boolean tryLockAll(Collection<String> lockNames, long waitTime, long leaseTime, TimeUnit unit)
+            throws InterruptedException;
+
+    /**
+     * 释放全部锁名
+     *
+     * @param lockNames 锁名
+     * @throws IllegalMonitorStateException 存在不由当前线程持有的锁，其余锁仍会释放
+     */
+    void unlockAll(Collection<String> lockNames);
+}
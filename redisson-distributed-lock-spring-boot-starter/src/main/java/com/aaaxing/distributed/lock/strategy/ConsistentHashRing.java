@@ -0,0 +1,123 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 带虚拟节点的一致性哈希环
+ *
+ * <br>每个节点按名称在环上放置若干虚拟节点，键路由到顺时针方向的第一个虚拟节点。
+ * 增减节点时只有相邻区间的键改变归属，约为键总数的1/节点数；节点的位置只取决于名称，与配置顺序无关。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public final class ConsistentHashRing<T> {
+    private final List<String> names;
+    private final List<T> nodes;
+    private final long[] points;
+    private final int[] owners;
+
+    /**
+     * @param nodes 节点名称与节点，按名称排序后编号
+     * @param virtualNodes 每个节点的虚拟节点数
+     */
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("The consistent hash ring requires at least one node.");
+        }
+        TreeMap<String, T> sorted = new TreeMap<>(nodes);
+        this.names = new ArrayList<>(sorted.keySet());
+        this.nodes = new ArrayList<>(sorted.values());
+
+        TreeMap<Long, Integer> ring = new TreeMap<>();
+        int replicas = Math.max(1, virtualNodes);
+        for (int i = 0; i < names.size(); i++) {
+            for (int j = 0; j < replicas; j++) {
+                // 哈希冲突时保留名称靠前的节点，结果与配置顺序无关
+                ring.putIfAbsent(hash(names.get(i) + "#" + j), i);
+            }
+        }
+        this.points = new long[ring.size()];
+        this.owners = new int[ring.size()];
+        int k = 0;
+        for (Map.Entry<Long, Integer> entry : ring.entrySet()) {
+            points[k] = entry.getKey();
+            owners[k] = entry.getValue();
+            k++;
+        }
+    }
+
+    /**
+     * 键所属节点的编号，编号按节点名称排序
+     *
+     * @param key 键
+     * @return 节点编号
+     */
+    public int indexOf(String key) {
+        long h = hash(key);
+        int low = 0;
+        int high = points.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (points[mid] < h) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return owners[low == points.length ? 0 : low];
+    }
+
+    /**
+     * 键所属的节点
+     *
+     * @param key 键
+     * @return 节点
+     */
+    public T route(String key) {
+        return nodes.get(indexOf(key));
+    }
+
+    /**
+     * 按编号获取节点
+     */
+    public T get(int index) {
+        return nodes.get(index);
+    }
+
+    /**
+     * 按编号获取节点名称
+     */
+    public String nameOf(int index) {
+        return names.get(index);
+    }
+
+    /**
+     * 节点数
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * 64位FNV-1a哈希，再以murmur3的finalizer打散，使相近的键均匀分布在环上
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,375 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.exception.DistributedLockException;
+import com.aaaxing.distributed.lock.metrics.LockMeters;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 可降级锁策略：记录锁后端请求的耗时与失败到熔断器，熔断期间加锁快速失败（status=3），或降级为JVM内的同名本地锁
+ *
+ * <br>降级加锁的锁由本地锁释放，按持有者记录，同一持有者的嵌套加锁按后进先出释放到各自加锁时的后端；
+ * 释放锁总是请求原后端，不受熔断影响。降级期间只在本节点内互斥。
+ * 熔断恢复后，同名锁仍有降级的本地持有时，新的加锁先获取本地锁再请求后端，与这些持有者在本节点内仍然互斥，
+ * 直到本地持有全部释放
+ *
+ * @author axing
+ * @date 2026-10-18
+ * @see LockCircuitBreaker
+ */
+public class DegradableLockStrategy implements LockStrategy {
+    private final LockStrategy delegate;
+    private final LockStrategy fallback;
+    private final LockCircuitBreaker circuitBreaker;
+    private final LockMeters meters;
+    /**
+     * 降级加锁的持有记录；仅在存在降级持有时记录其内嵌套的后端加锁
+     */
+    private final ConcurrentHashMap<Hold, Deque<Held>> holds = new ConcurrentHashMap<>();
+    /**
+     * 各锁名持有本地锁的次数，仅在ConcurrentHashMap.merge、computeIfPresent中修改
+     */
+    private final ConcurrentHashMap<String, Integer> fallbackHolds = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate 被装饰的锁策略
+     * @param fallback 熔断期间使用的本地锁策略，为null时熔断期间快速失败
+     * @param circuitBreaker 锁后端熔断器
+     * @param meters 记录降级次数的指标
+     */
+    public DegradableLockStrategy(LockStrategy delegate, LockStrategy fallback, LockCircuitBreaker circuitBreaker,
+                                  LockMeters meters) {
+        this.delegate = delegate;
+        this.fallback = fallback;
+        this.circuitBreaker = circuitBreaker;
+        this.meters = meters;
+    }
+
+    @Override
+    public void lock(String lockName, long leaseTime, TimeUnit unit) {
+        long ownerId = Thread.currentThread().getId();
+        if (!circuitBreaker.allowRequest()) {
+            degrade(lockName).lock(lockName, leaseTime, unit);
+            push(lockName, ownerId, Held.FALLBACK);
+            return;
+        }
+        boolean guarded = isGuarded(lockName);
+        if (guarded) {
+            fallback.lock(lockName, leaseTime, unit);
+        }
+        boolean locked = false;
+        try {
+            delegate.lock(lockName, leaseTime, unit);
+            locked = true;
+        } catch (RuntimeException e) {
+            recordFailure(e);
+            throw e;
+        } finally {
+            if (guarded && !locked) {
+                fallback.unlock(lockName);
+            }
+        }
+        circuitBreaker.recordSuccess(-1);
+        pushDelegate(lockName, ownerId, guarded);
+    }
+
+    @Override
+    public boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        long ownerId = Thread.currentThread().getId();
+        if (!circuitBreaker.allowRequest()) {
+            boolean locked = degrade(lockName).tryLock(lockName, waitTime, leaseTime, unit);
+            if (locked) {
+                push(lockName, ownerId, Held.FALLBACK);
+            }
+            return locked;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(waitTime);
+        boolean guarded = isGuarded(lockName);
+        if (guarded && !fallback.tryLock(lockName, waitTime, leaseTime, unit)) {
+            return false;
+        }
+        long start = System.nanoTime();
+        boolean locked = false;
+        try {
+            locked = guarded ? delegate.tryLock(lockName, remaining(waitTime, deadline), toNanos(leaseTime, unit),
+                    TimeUnit.NANOSECONDS) : delegate.tryLock(lockName, waitTime, leaseTime, unit);
+        } catch (RuntimeException e) {
+            recordFailure(e);
+            throw e;
+        } finally {
+            if (guarded && !locked) {
+                fallback.unlock(lockName);
+            }
+        }
+        circuitBreaker.recordSuccess(waitTime == 0 ? System.nanoTime() - start : -1);
+        if (locked) {
+            pushDelegate(lockName, ownerId, guarded);
+        }
+        return locked;
+    }
+
+    @Override
+    public void unlock(String lockName) {
+        Held held = pop(lockName, Thread.currentThread().getId());
+        if (held == Held.FALLBACK) {
+            fallback.unlock(lockName);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            delegate.unlock(lockName);
+        } catch (RuntimeException e) {
+            recordFailure(e);
+            throw e;
+        } finally {
+            if (held == Held.BOTH) {
+                fallback.unlock(lockName);
+            }
+        }
+        circuitBreaker.recordSuccess(System.nanoTime() - start);
+    }
+
+    @Override
+    public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+        if (!circuitBreaker.allowRequest()) {
+            return degradeAsync(lockName).thenCompose(strategy -> strategy.lockAsync(lockName, leaseTime, unit,
+                    ownerId)).thenRun(() -> push(lockName, ownerId, Held.FALLBACK));
+        }
+        if (isGuarded(lockName)) {
+            return fallback.lockAsync(lockName, leaseTime, unit, ownerId)
+                    .thenCompose(v -> guarded(lockName, ownerId, record(delegate.lockAsync(lockName, leaseTime, unit,
+                            ownerId), 0, false).thenApply(locked -> true)))
+                    .thenApply(locked -> null);
+        }
+        return record(delegate.lockAsync(lockName, leaseTime, unit, ownerId), 0, false)
+                .thenRun(() -> pushDelegate(lockName, ownerId, false));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                                   long ownerId) {
+        if (!circuitBreaker.allowRequest()) {
+            return degradeAsync(lockName).thenCompose(strategy -> strategy.tryLockAsync(lockName, waitTime,
+                    leaseTime, unit, ownerId)).thenApply(locked -> {
+                        if (locked) {
+                            push(lockName, ownerId, Held.FALLBACK);
+                        }
+                        return locked;
+                    });
+        }
+        if (isGuarded(lockName)) {
+            long deadline = System.nanoTime() + unit.toNanos(waitTime);
+            return fallback.tryLockAsync(lockName, waitTime, leaseTime, unit, ownerId).thenCompose(held -> {
+                if (!held) {
+                    return CompletableFuture.completedFuture(false);
+                }
+                long start = System.nanoTime();
+                return guarded(lockName, ownerId, record(delegate.tryLockAsync(lockName, remaining(waitTime, deadline),
+                        toNanos(leaseTime, unit), TimeUnit.NANOSECONDS, ownerId), start, waitTime == 0));
+            });
+        }
+        long start = System.nanoTime();
+        return record(delegate.tryLockAsync(lockName, waitTime, leaseTime, unit, ownerId), start, waitTime == 0)
+                .thenApply(locked -> {
+                    if (locked) {
+                        pushDelegate(lockName, ownerId, false);
+                    }
+                    return locked;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> unlockAsync(String lockName, long ownerId) {
+        Held held = pop(lockName, ownerId);
+        if (held == Held.FALLBACK) {
+            return fallback.unlockAsync(lockName, ownerId);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<Void> released = record(delegate.unlockAsync(lockName, ownerId), start, true);
+        if (held == Held.BOTH) {
+            return released.whenComplete((v, e) -> fallback.unlockAsync(lockName, ownerId));
+        }
+        return released;
+    }
+
+    @Override
+    public CompletableFuture<Void> releaseAsync(String lockName) {
+        Held held = pop(lockName, Thread.currentThread().getId());
+        if (held == Held.FALLBACK) {
+            return fallback.releaseAsync(lockName);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<Void> released = record(delegate.releaseAsync(lockName), start, true);
+        if (held == Held.BOTH) {
+            // 本地锁以当前线程为持有者，在当前线程释放
+            fallback.releaseAsync(lockName);
+        }
+        return released;
+    }
+
+    /**
+     * 同名锁是否仍有降级的本地持有，有则在本地锁下请求后端
+     */
+    private boolean isGuarded(String lockName) {
+        return !fallbackHolds.isEmpty() && fallbackHolds.containsKey(lockName);
+    }
+
+    /**
+     * 持有本地锁时的后端加锁：加锁成功记录为同时持有，未加锁或失败时释放本地锁
+     */
+    private CompletableFuture<Boolean> guarded(String lockName, long ownerId, CompletableFuture<Boolean> locking) {
+        return locking.whenComplete((locked, e) -> {
+            if (e != null || !locked) {
+                fallback.unlockAsync(lockName, ownerId);
+            }
+        }).thenApply(locked -> {
+            if (locked) {
+                push(lockName, ownerId, Held.BOTH);
+            }
+            return locked;
+        });
+    }
+
+    /**
+     * 获取本地锁后剩余的等待时间（纳秒），负数的等待时间原样保留
+     */
+    private static long remaining(long waitTime, long deadline) {
+        return waitTime < 0 ? waitTime : Math.max(0, deadline - System.nanoTime());
+    }
+
+    private static long toNanos(long leaseTime, TimeUnit unit) {
+        return leaseTime == -1 ? -1 : unit.toNanos(leaseTime);
+    }
+
+    /**
+     * 熔断期间的锁策略：记录一次降级，未配置本地锁时快速失败
+     */
+    private LockStrategy degrade(String lockName) {
+        meters.degraded();
+        if (fallback == null) {
+            throw new DistributedLockException(3, "The lock backend circuit breaker is open, lock: " + lockName);
+        }
+        return fallback;
+    }
+
+    private CompletableFuture<LockStrategy> degradeAsync(String lockName) {
+        try {
+            return CompletableFuture.completedFuture(degrade(lockName));
+        } catch (DistributedLockException e) {
+            CompletableFuture<LockStrategy> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * 记录异步请求的结果
+     *
+     * @param start 请求开始时间（纳秒）
+     * @param timed 是否统计是否慢请求
+     */
+    private <T> CompletableFuture<T> record(CompletableFuture<T> future, long start, boolean timed) {
+        return future.whenComplete((result, e) -> {
+            if (e != null) {
+                recordFailure(e);
+            } else {
+                circuitBreaker.recordSuccess(timed ? System.nanoTime() - start : -1);
+            }
+        });
+    }
+
+    /**
+     * 锁后端的失败计入熔断器；非持有者释放锁与中断不是锁后端的失败
+     */
+    private void recordFailure(Throwable e) {
+        Throwable cause = LockFutures.unwrap(e);
+        if (!(cause instanceof IllegalMonitorStateException) && !(cause instanceof InterruptedException)) {
+            circuitBreaker.recordFailure();
+        }
+    }
+
+    /**
+     * 记录后端加锁；同时持有本地锁时总是记录，否则仅在存在降级持有时记录其内嵌套的后端加锁，释放时按后进先出回到后端
+     */
+    private void pushDelegate(String lockName, long ownerId, boolean guarded) {
+        if (guarded) {
+            push(lockName, ownerId, Held.BOTH);
+        } else if (!holds.isEmpty() && holds.containsKey(new Hold(lockName, ownerId))) {
+            push(lockName, ownerId, Held.DELEGATE);
+        }
+    }
+
+    private void push(String lockName, long ownerId, Held held) {
+        if (held != Held.DELEGATE) {
+            fallbackHolds.merge(lockName, 1, Integer::sum);
+        }
+        holds.computeIfAbsent(new Hold(lockName, ownerId), key -> new ArrayDeque<>()).push(held);
+    }
+
+    /**
+     * 取出持有者最近一次加锁持有的锁
+     *
+     * @return 持有的锁，没有记录时为后端
+     */
+    private Held pop(String lockName, long ownerId) {
+        if (holds.isEmpty()) {
+            return Held.DELEGATE;
+        }
+        Hold hold = new Hold(lockName, ownerId);
+        Deque<Held> backends = holds.get(hold);
+        if (backends == null) {
+            return Held.DELEGATE;
+        }
+        Held held = backends.pop();
+        if (backends.isEmpty()) {
+            holds.remove(hold);
+        }
+        if (held != Held.DELEGATE) {
+            fallbackHolds.computeIfPresent(lockName, (name, count) -> count == 1 ? null : count - 1);
+        }
+        return held;
+    }
+
+    /**
+     * 一次加锁持有的锁：降级的本地锁、后端、熔断恢复后同时持有两者
+     */
+    private enum Held {
+        FALLBACK, DELEGATE, BOTH
+    }
+
+    /**
+     * 锁名与持有者
+     */
+    private static final class Hold {
+        private final String lockName;
+        private final long ownerId;
+
+        Hold(String lockName, long ownerId) {
+            this.lockName = lockName;
+            this.ownerId = ownerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Hold)) {
+                return false;
+            }
+            Hold hold = (Hold) o;
+            return ownerId == hold.ownerId && lockName.equals(hold.lockName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lockName, ownerId);
+        }
+    }
+}
@@ -0,0 +1,644 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 移交锁策略：释放时只唤醒下一个等待者，并直接将锁交给它
+ *
+ * <br>redisson的可重入锁每次释放都在锁的频道上发布消息，所有订阅的等待者同时重试，只有一个能成功，热点锁上重试请求成倍放大。
+ * 本策略的等待者在锁的等待队列（list）中排队，并在各自的等待键上阻塞等待（BLPOP）；释放时从队首取出第一个存活的等待者，
+ * 在同一个lua脚本中将锁设置为其持有并返回其id，再向其等待键推送一个元素唤醒它，其他等待者不受打扰。
+ * 脚本只访问KEYS中声明的锁、等待队列与存活期限，唤醒是对等待键的单独请求；唤醒丢失时等待者在BLPOP超时后重试加锁，
+ * 由加锁脚本发现锁已移交给它。
+ *
+ * <br>等待者每隔存活时间的1/3（至少1秒，BLPOP的超时以秒为单位）刷新一次存活期限；放弃等待的等待者删除自己的存活期限，
+ * 宕机的等待者在存活期限后过期，移交时均被跳过，每个等待者至多被跳过一次。
+ * 锁移交时的过期时间不超过等待者存活时间，新持有者收到通知后再设置其持有时间，移交给刚宕机的等待者时锁也不会一直被占用到持有时间结束。
+ *
+ * <br>每个等待者的BLPOP占用redisson连接池中的一个连接直到返回，本地等待者多于连接池（connectionPoolSize，默认64）时会耗尽连接。
+ * 因此等待先在本地队列中排队：同一JVM内同名锁同一时刻只有本地队首进入redis的等待队列并执行BLPOP，
+ * 队首加锁成功或放弃等待后，本地队列依次交给下一个等待者。BLPOP占用的连接数至多为同时有等待者的锁名数，
+ * 竞争中的移交锁名数应小于连接池大小；加锁前先不排队尝试一次，持有者重入时不会排在本地等待者之后。
+ *
+ * <br>锁的存储结构与redisson可重入锁（RLock）一致，自动续期的锁由批量续期服务续期。
+ * 等待队列、存活期限与等待键带有锁名的hash tag，redis集群下与锁位于同一slot。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class HandoffLockStrategy implements LockStrategy {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HandoffLockStrategy.class);
+
+    /**
+     * 等待者存活时间的最小值，保证BLPOP的超时（至少1秒）内至少刷新3次
+     */
+    public static final long MIN_WAITER_TTL_MILLIS = 3000;
+
+    private static final AtomicLong WAITER_SEQUENCE = new AtomicLong();
+
+    /**
+     * 等待者存活期限hash中记录已移交、尚未被接收的等待者id的字段，等待者id不以冒号开头，不会与其冲突
+     */
+    private static final String GRANTED_FIELD = ":granted";
+
+    /**
+     * 移交：从队首取出第一个存活的等待者，将锁设置为其持有并记录为已移交，handed为其id；队列为空时删除存活期限。
+     * 需先定义now（当前时间毫秒）、ttl（等待者存活时间毫秒）、handed（初始为false）
+     */
+    private static final String HANDOFF = ""
+            + "while true do "
+            + "local id = redis.call('lpop', KEYS[2]); "
+            + "if not id then "
+            + "redis.call('del', KEYS[3]); "
+            + "break; "
+            + "end; "
+            + "local waiter = redis.call('hget', KEYS[3], id); "
+            + "if waiter then "
+            + "redis.call('hdel', KEYS[3], id); "
+            + "local expiresAt, lease, owner = string.match(waiter, '^(%d+):(%d+):(.+)$'); "
+            + "if tonumber(expiresAt) > now then "
+            + "redis.call('hset', KEYS[1], owner, 1); "
+            + "redis.call('pexpire', KEYS[1], math.min(tonumber(lease), ttl)); "
+            + "redis.call('hset', KEYS[3], '" + GRANTED_FIELD + "', id); "
+            + "redis.call('pexpire', KEYS[3], ttl); "
+            + "handed = id; "
+            + "break; "
+            + "end; "
+            + "end; "
+            + "end; ";
+
+    /**
+     * 返回结果，移交时附带接收者的id，由调用方唤醒它。需先定义handed
+     */
+    private static String result(String status) {
+        return "if handed then return {" + status + ", handed}; end; return {" + status + "}; ";
+    }
+
+    /**
+     * KEYS[1]：锁名，KEYS[2]：等待队列，KEYS[3]：等待者存活期限；
+     * ARGV[1]：锁持有时间（毫秒），ARGV[2]：持有者，ARGV[3]：等待者id，ARGV[4]：当前时间（毫秒），
+     * ARGV[5]：等待者存活时间（毫秒），ARGV[6]：未加锁时是否排队（0为不排队）。
+     * 返回{状态[, 接收移交的等待者id]}，状态：加锁成功（含已移交给本等待者）为0，未加锁且不排队为-1，已排队为1
+     */
+    private static final LockScript ACQUIRE_SCRIPT = new LockScript(""
+            + "local now = tonumber(ARGV[4]); "
+            + "local ttl = tonumber(ARGV[5]); "
+            + "local handed = false; "
+            // 锁已移交给本等待者（唤醒丢失或在BLPOP超时后到达）
+            + "if (redis.call('hget', KEYS[3], '" + GRANTED_FIELD + "') == ARGV[3]) then "
+            + "redis.call('hdel', KEYS[3], '" + GRANTED_FIELD + "'); "
+            + "if (redis.call('hexists', KEYS[1], ARGV[2]) == 1) then "
+            + "redis.call('pexpire', KEYS[1], ARGV[1]); "
+            + "return {0}; "
+            + "end; "
+            + "end; "
+            + "if (redis.call('hexists', KEYS[1], ARGV[2]) == 1) then "
+            + "redis.call('hincrby', KEYS[1], ARGV[2], 1); "
+            + "redis.call('pexpire', KEYS[1], ARGV[1]); "
+            + "return {0}; "
+            + "end; "
+            // 锁已过期而队列中仍有等待者时，先移交给队首（可能就是本等待者）
+            + "if (redis.call('exists', KEYS[1]) == 0) then "
+            + HANDOFF
+            + "if handed == ARGV[3] then "
+            + "redis.call('hdel', KEYS[3], '" + GRANTED_FIELD + "'); "
+            + "redis.call('pexpire', KEYS[1], ARGV[1]); "
+            + "return {0}; "
+            + "end; "
+            + "if (redis.call('exists', KEYS[1]) == 0) then "
+            + "redis.call('hset', KEYS[1], ARGV[2], 1); "
+            + "redis.call('pexpire', KEYS[1], ARGV[1]); "
+            + "return {0}; "
+            + "end; "
+            + "end; "
+            + "if ARGV[6] == '0' then "
+            + result("-1")
+            + "end; "
+            + "if (redis.call('hexists', KEYS[3], ARGV[3]) == 0) then "
+            + "redis.call('rpush', KEYS[2], ARGV[3]); "
+            + "end; "
+            + "redis.call('hset', KEYS[3], ARGV[3], (now + ttl) .. ':' .. ARGV[1] .. ':' .. ARGV[2]); "
+            + "redis.call('pexpire', KEYS[2], ttl); "
+            + "redis.call('pexpire', KEYS[3], ttl); "
+            + result("1"));
+
+    /**
+     * KEYS同加锁脚本；ARGV[1]：锁持有时间（毫秒），ARGV[2]：持有者，ARGV[3]：当前时间（毫秒），ARGV[4]：等待者存活时间（毫秒）。
+     * 返回{状态[, 接收移交的等待者id]}，状态：不由该持有者持有为-1，仍持有（重入）为0，释放为1
+     */
+    private static final LockScript RELEASE_SCRIPT = new LockScript(""
+            + "if (redis.call('hexists', KEYS[1], ARGV[2]) == 0) then "
+            + "return {-1}; "
+            + "end; "
+            + "if (redis.call('hincrby', KEYS[1], ARGV[2], -1) > 0) then "
+            + "redis.call('pexpire', KEYS[1], ARGV[1]); "
+            + "return {0}; "
+            + "end; "
+            + "redis.call('del', KEYS[1]); "
+            + "redis.call('hdel', KEYS[3], '" + GRANTED_FIELD + "'); "
+            + "local now = tonumber(ARGV[3]); "
+            + "local ttl = tonumber(ARGV[4]); "
+            + "local handed = false; "
+            + HANDOFF
+            + result("1"));
+
+    /**
+     * KEYS同加锁脚本；ARGV[1]：持有者，ARGV[2]：等待者id，ARGV[3]：当前时间（毫秒），ARGV[4]：等待者存活时间（毫秒）。
+     * 删除存活期限（队列中的id在移交时跳过）；锁已移交给本等待者但尚未接收时，移交给下一个等待者。
+     * 返回{1[, 接收移交的等待者id]}
+     */
+    private static final LockScript ABANDON_SCRIPT = new LockScript(""
+            + "redis.call('hdel', KEYS[3], ARGV[2]); "
+            + "local handed = false; "
+            + "if (redis.call('hget', KEYS[3], '" + GRANTED_FIELD + "') == ARGV[2]) then "
+            + "redis.call('hdel', KEYS[3], '" + GRANTED_FIELD + "'); "
+            + "if (redis.call('hexists', KEYS[1], ARGV[1]) == 1) then "
+            + "redis.call('del', KEYS[1]); "
+            + "local now = tonumber(ARGV[3]); "
+            + "local ttl = tonumber(ARGV[4]); "
+            + HANDOFF
+            + "end; "
+            + "end; "
+            + result("1"));
+
+    /**
+     * KEYS[1]：锁名；ARGV[1]：锁持有时间（毫秒），ARGV[2]：持有者。
+     * 确认接收移交的锁，设置持有时间；锁已过期返回0
+     */
+    private static final LockScript ACCEPT_SCRIPT = new LockScript(""
+            + "if (redis.call('hexists', KEYS[1], ARGV[2]) == 1) then "
+            + "redis.call('pexpire', KEYS[1], ARGV[1]); "
+            + "return 1; "
+            + "end; "
+            + "return 0;");
+
+    /**
+     * KEYS[1]：接收移交的等待者的等待键；ARGV[1]：等待者存活时间（毫秒）。推送一个元素唤醒阻塞在其上的等待者
+     */
+    private static final LockScript WAKE_SCRIPT = new LockScript(""
+            + "redis.call('rpush', KEYS[1], 1); "
+            + "redis.call('pexpire', KEYS[1], ARGV[1]); "
+            + "return 1;");
+
+    /**
+     * 本类使用的全部lua脚本，启动预热时预先加载
+     */
+    static final List<LockScript> SCRIPTS = Arrays.asList(ACQUIRE_SCRIPT, RELEASE_SCRIPT, ABANDON_SCRIPT, ACCEPT_SCRIPT,
+            WAKE_SCRIPT);
+
+    private final RedissonClient redisson;
+    private final LockRenewalService renewalService;
+    private final long waiterTtlMillis;
+    private final long pollSeconds;
+    /**
+     * 本地队列，队首为在redis中等待的加锁，其余在本地等待；仅在ConcurrentHashMap.compute中修改
+     */
+    private final ConcurrentHashMap<String, Deque<Acquisition>> localQueues = new ConcurrentHashMap<>();
+
+    /**
+     * @param redisson redisson客户端
+     * @param renewalService 批量续期服务，续期自动续期的锁
+     * @param waiterTtlMillis 等待者存活时间（毫秒），小于MIN_WAITER_TTL_MILLIS时取MIN_WAITER_TTL_MILLIS
+     */
+    public HandoffLockStrategy(RedissonClient redisson, LockRenewalService renewalService, long waiterTtlMillis) {
+        this.redisson = redisson;
+        this.renewalService = renewalService;
+        this.waiterTtlMillis = Math.max(MIN_WAITER_TTL_MILLIS, waiterTtlMillis);
+        this.pollSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(this.waiterTtlMillis / 3));
+    }
+
+    @Override
+    public void lock(String lockName, long leaseTime, TimeUnit unit) {
+        LockFutures.join(lockAsync(lockName, leaseTime, unit, Thread.currentThread().getId()));
+    }
+
+    @Override
+    public boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        Acquisition acquisition = new Acquisition(lockName, unit.toNanos(waitTime), leaseTime, unit,
+                Thread.currentThread().getId());
+        try {
+            return LockFutures.get(acquisition.start());
+        } catch (InterruptedException e) {
+            acquisition.cancel();
+            throw e;
+        }
+    }
+
+    @Override
+    public void unlock(String lockName) {
+        LockFutures.join(unlockAsync(lockName, Thread.currentThread().getId()));
+    }
+
+    @Override
+    public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+        return new Acquisition(lockName, -1, leaseTime, unit, ownerId).start().thenApply(locked -> null);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                                   long ownerId) {
+        return new Acquisition(lockName, unit.toNanos(waitTime), leaseTime, unit, ownerId).start();
+    }
+
+    @Override
+    public CompletableFuture<Void> unlockAsync(String lockName, long ownerId) {
+        renewalService.release(lockName, ownerId);
+        String owner = renewalService.getOwnerField(ownerId);
+        return RELEASE_SCRIPT.<List<Object>>evalAsync(script(), lockName, RScript.Mode.READ_WRITE,
+                RScript.ReturnType.MULTI, keys(lockName), renewalService.getLeaseMillis(), owner,
+                System.currentTimeMillis(), waiterTtlMillis)
+                .thenApply(reply -> {
+                    wake(lockName, reply);
+                    if (status(reply) < 0) {
+                        throw new IllegalMonitorStateException("attempt to unlock lock, not locked by current owner: "
+                                + owner + ", lock: " + lockName);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * 唤醒脚本返回的接收移交的等待者。唤醒失败时等待者在BLPOP超时后重试加锁，由加锁脚本发现锁已移交给它
+     */
+    private void wake(String lockName, List<Object> reply) {
+        if (reply.size() < 2) {
+            return;
+        }
+        String waiterKey = waiterPrefix(lockName) + reply.get(1);
+        WAKE_SCRIPT.evalAsync(script(), waiterKey, RScript.Mode.READ_WRITE, RScript.ReturnType.INTEGER,
+                Collections.singletonList(waiterKey), waiterTtlMillis)
+                .whenComplete((value, e) -> {
+                    if (e != null) {
+                        LOGGER.debug("Failed to wake the waiter of handoff lock: {}", lockName, e);
+                    }
+                });
+    }
+
+    /**
+     * 放弃等待：删除等待者的存活期限，锁已移交给它但尚未接收时移交给下一个等待者
+     *
+     * @param lockName 锁名
+     * @param owner 持有者字段
+     * @param waiterId 等待者id
+     * @return 异步结果
+     */
+    CompletableFuture<Void> abandonAsync(String lockName, String owner, String waiterId) {
+        return ABANDON_SCRIPT.<List<Object>>evalAsync(script(), lockName, RScript.Mode.READ_WRITE,
+                RScript.ReturnType.MULTI, keys(lockName), owner, waiterId, System.currentTimeMillis(),
+                waiterTtlMillis).thenAccept(reply -> wake(lockName, reply));
+    }
+
+    /**
+     * 加入本地队列
+     *
+     * @return 是否为队首
+     */
+    private boolean enqueueLocally(Acquisition acquisition) {
+        boolean[] head = new boolean[1];
+        localQueues.compute(acquisition.lockName, (name, queue) -> {
+            Deque<Acquisition> current = queue == null ? new ArrayDeque<>() : queue;
+            head[0] = current.isEmpty();
+            current.addLast(acquisition);
+            return current;
+        });
+        return head[0];
+    }
+
+    /**
+     * 离开本地队列，最后一个离开时移除队列
+     *
+     * @return 队首离开时的新队首，否则为null
+     */
+    private Acquisition dequeueLocally(Acquisition acquisition) {
+        Acquisition[] next = new Acquisition[1];
+        localQueues.computeIfPresent(acquisition.lockName, (name, queue) -> {
+            boolean head = queue.peekFirst() == acquisition;
+            if (queue.remove(acquisition) && head) {
+                next[0] = queue.peekFirst();
+            }
+            return queue.isEmpty() ? null : queue;
+        });
+        return next[0];
+    }
+
+    private static long status(List<Object> reply) {
+        return (Long) reply.get(0);
+    }
+
+    private RScript script() {
+        return redisson.getScript(StringCodec.INSTANCE);
+    }
+
+    /**
+     * 与redisson的命名方式一致，附加的键带有锁名的hash tag
+     */
+    private static String suffixName(String lockName, String suffix) {
+        return lockName.contains("{") ? lockName + ":" + suffix : "{" + lockName + "}:" + suffix;
+    }
+
+    private static List<Object> keys(String lockName) {
+        return Arrays.asList(lockName, queueName(lockName), waitersName(lockName));
+    }
+
+    private static String queueName(String lockName) {
+        return suffixName(lockName, "handoff_queue");
+    }
+
+    private static String waitersName(String lockName) {
+        return suffixName(lockName, "handoff_waiters");
+    }
+
+    private static String waiterPrefix(String lockName) {
+        return suffixName(lockName, "handoff:");
+    }
+
+    /**
+     * 一次加锁：排队后在自己的等待键上阻塞等待，收到移交或等待超时（刷新存活期限）后继续
+     *
+     * <br>同一时刻至多有一个请求在进行中；waiting为true表示BLPOP进行中且尚未放弃，由其完成回调或放弃操作之一将其置为false；
+     * parked为true表示在本地队列中等待，由成为队首或放弃等待之一将其置为false
+     */
+    private final class Acquisition {
+        private final String lockName;
+        private final List<Object> keys;
+        private final String owner;
+        private final long ownerId;
+        private final String waiterId;
+        private final String waiterKey;
+        private final long leaseTime;
+        private final long leaseMillis;
+        private final long waitNanos;
+        private final long deadline;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        private final AtomicBoolean waiting = new AtomicBoolean();
+        private final AtomicBoolean parked = new AtomicBoolean();
+        private volatile boolean cancelled;
+        private volatile ScheduledFuture<?> timer;
+        private volatile ScheduledFuture<?> parkTimer;
+
+        /**
+         * @param waitNanos 等待时间（纳秒），负数为一直等待
+         */
+        Acquisition(String lockName, long waitNanos, long leaseTime, TimeUnit unit, long ownerId) {
+            this.lockName = lockName;
+            this.owner = renewalService.getOwnerField(ownerId);
+            this.ownerId = ownerId;
+            this.waiterId = owner + ":" + WAITER_SEQUENCE.incrementAndGet();
+            this.waiterKey = waiterPrefix(lockName) + waiterId;
+            this.keys = keys(lockName);
+            this.leaseTime = leaseTime;
+            this.leaseMillis = leaseTime == -1 ? renewalService.getLeaseMillis() : unit.toMillis(leaseTime);
+            this.waitNanos = waitNanos;
+            this.deadline = System.nanoTime() + Math.max(0, waitNanos);
+        }
+
+        CompletableFuture<Boolean> start() {
+            attempt(false);
+            return result;
+        }
+
+        /**
+         * 放弃等待；请求进行中时在其完成后放弃或释放锁
+         */
+        void cancel() {
+            cancelled = true;
+            unpark();
+            if (waiting.compareAndSet(true, false)) {
+                abandon();
+            }
+            // 放弃前刚好加锁成功时释放
+            result.thenAccept(locked -> {
+                if (locked) {
+                    unlockAsync(lockName, ownerId);
+                }
+            });
+        }
+
+        /**
+         * @param queue 未加锁时是否进入redis的等待队列，仅本地队首排队
+         */
+        private void attempt(boolean queue) {
+            ACQUIRE_SCRIPT.<List<Object>>evalAsync(script(), lockName, RScript.Mode.READ_WRITE,
+                    RScript.ReturnType.MULTI, keys, leaseMillis, owner, waiterId, System.currentTimeMillis(),
+                    waiterTtlMillis, queue ? 1 : 0)
+                    .whenComplete((reply, e) -> {
+                        if (e != null) {
+                            fail(e);
+                            return;
+                        }
+                        wake(lockName, reply);
+                        long status = status(reply);
+                        if (status == 0) {
+                            acquired();
+                        } else if (status > 0) {
+                            await();
+                        } else if (waitNanos == 0) {
+                            finish(false);
+                        } else {
+                            park();
+                        }
+                    });
+        }
+
+        /**
+         * 在本地队列中排队，成为队首时进入redis的等待队列
+         */
+        private void park() {
+            parked.set(true);
+            if (enqueueLocally(this)) {
+                promote();
+                return;
+            }
+            if (waitNanos > 0) {
+                parkTimer = HandoffScheduler.EXECUTOR.schedule(this::unpark,
+                        Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            if (cancelled) {
+                unpark();
+            }
+        }
+
+        /**
+         * 成为本地队首；已放弃或等待时间已耗尽时直接结束，由下一个等待者成为队首
+         */
+        private void promote() {
+            if (!parked.compareAndSet(true, false)) {
+                return;
+            }
+            cancelParkTimer();
+            if (cancelled || waitNanos > 0 && deadline - System.nanoTime() <= 0) {
+                finish(false);
+            } else {
+                attempt(true);
+            }
+        }
+
+        /**
+         * 在本地队列中放弃等待
+         */
+        private void unpark() {
+            if (parked.compareAndSet(true, false)) {
+                cancelParkTimer();
+                finish(false);
+            }
+        }
+
+        private void await() {
+            long remaining = waitNanos < 0 ? Long.MAX_VALUE : deadline - System.nanoTime();
+            if (cancelled || remaining <= 0) {
+                abandon();
+                return;
+            }
+            waiting.set(true);
+            if (cancelled) {
+                cancel();
+                return;
+            }
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(remaining);
+            if (remainingMillis < TimeUnit.SECONDS.toMillis(pollSeconds)) {
+                // BLPOP的超时以秒为单位，不足一次轮询的等待时间由本地定时器结束
+                timer = HandoffScheduler.EXECUTOR.schedule(this::timeout, Math.max(1, remainingMillis),
+                        TimeUnit.MILLISECONDS);
+            }
+            redisson.<String>getBlockingQueue(waiterKey, StringCodec.INSTANCE).pollAsync(pollSeconds, TimeUnit.SECONDS)
+                    .toCompletableFuture().whenComplete((handoff, e) -> {
+                        cancelTimer();
+                        if (!waiting.compareAndSet(true, false)) {
+                            // 已放弃等待，此后收到的移交仅在仍记录为移交给本等待者时转交给下一个等待者；
+                            // 不按持有者释放，以免扣减该持有者此后重新加锁的持有次数
+                            if (e == null && handoff != null) {
+                                abandonAsync().whenComplete((v, ex) -> {
+                                    if (ex != null) {
+                                        LOGGER.debug("Failed to abandon the late handoff of lock: {}", lockName, ex);
+                                    }
+                                });
+                            }
+                        } else if (e != null) {
+                            fail(e);
+                        } else if (handoff == null) {
+                            attempt(true);
+                        } else {
+                            accept();
+                        }
+                    });
+        }
+
+        private void timeout() {
+            if (waiting.compareAndSet(true, false)) {
+                abandon();
+            }
+        }
+
+        /**
+         * 锁移交时的过期时间不超过等待者存活时间，持有时间更长时需确认接收
+         */
+        private void accept() {
+            if (leaseMillis <= waiterTtlMillis) {
+                acquired();
+                return;
+            }
+            ACCEPT_SCRIPT.<Long>evalAsync(script(), lockName, RScript.Mode.READ_WRITE, RScript.ReturnType.INTEGER,
+                    Collections.singletonList(lockName), leaseMillis, owner)
+                    .whenComplete((value, e) -> {
+                        if (e != null) {
+                            fail(e);
+                        } else if (value == 1) {
+                            acquired();
+                        } else {
+                            // 确认前锁已过期，重新排队
+                            attempt(true);
+                        }
+                    });
+        }
+
+        private void acquired() {
+            if (cancelled) {
+                unlockAsync(lockName, ownerId);
+                finish(false);
+                return;
+            }
+            if (leaseTime == -1) {
+                renewalService.register(lockName, ownerId);
+            } else {
+                renewalService.retain(lockName, ownerId);
+            }
+            finish(true);
+        }
+
+        private void abandon() {
+            abandonAsync().whenComplete((value, e) -> {
+                if (e != null) {
+                    // 存活期限到期后会被跳过
+                    LOGGER.debug("Failed to abandon the waiter of handoff lock: {}", lockName, e);
+                }
+                finish(false);
+            });
+        }
+
+        private CompletableFuture<Void> abandonAsync() {
+            return HandoffLockStrategy.this.abandonAsync(lockName, owner, waiterId);
+        }
+
+        private void fail(Throwable e) {
+            abandonAsync();
+            result.completeExceptionally(LockFutures.unwrap(e));
+            leaveLocalQueue();
+        }
+
+        private void finish(boolean locked) {
+            result.complete(locked);
+            leaveLocalQueue();
+        }
+
+        /**
+         * 离开本地队列，队首离开时由下一个等待者成为队首
+         */
+        private void leaveLocalQueue() {
+            Acquisition next = dequeueLocally(this);
+            if (next != null) {
+                next.promote();
+            }
+        }
+
+        private void cancelTimer() {
+            ScheduledFuture<?> scheduled = timer;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+
+        private void cancelParkTimer() {
+            ScheduledFuture<?> scheduled = parkTimer;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+
+    private static final class HandoffScheduler {
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "distributed-lock-handoff-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
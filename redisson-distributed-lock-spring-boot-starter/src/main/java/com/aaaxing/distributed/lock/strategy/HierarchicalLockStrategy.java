@@ -0,0 +1,438 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import org.redisson.api.RScript;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 层级锁策略：对锁名本身加读（S）或写（X）锁，对各祖先层加意向锁（IS、IX），在一个lua脚本中原子地检查、加锁
+ *
+ * <br>兼容关系：IS与IS、IX、S兼容；IX与IS、IX兼容；S与IS、S兼容；X与任何模式都不兼容。同一持有者的各模式互不冲突。
+ * 因此order:1与order:2的写锁并行，order的写锁与order下全部锁名的读写互斥，order的读锁与order下的读锁并行。
+ *
+ * <br>每层为一个hash：字段“模式”记录该层各模式的总持有次数，字段“模式|持有者”记录持有者各模式的持有次数，
+ * 字段“持有者”记录总持有次数（供批量续期服务续期）。加锁时每层只读取与所加模式冲突的模式计数并减去自己的持有，
+ * 耗时与层数成正比，与该层的持有者数无关。
+ *
+ * <br>每层另有一个存活有序集合，按客户端时间记录各持有者的存活期限，由批量续期服务推后。
+ * 加锁时先清理存活期限已过的持有者（宕机），从计数中减去其持有，每个宕机的持有者只清理一次，不会一直阻塞整棵子树。
+ * 脚本访问的各层与存活有序集合都在KEYS中声明，并以根层名为hash tag，redis集群下同一层级树的键位于同一slot。
+ *
+ * <br>冲突时订阅冲突层的通知频道等待，释放某层的某个模式时在该层的频道上发布；并以冲突层最早的存活期限兜底重试
+ *
+ * @author axing
+ * @date 2026-10-18
+ * @see LockHierarchy
+ */
+public class HierarchicalLockStrategy implements LockStrategy {
+
+    /**
+     * KEYS[1..n]：自根向下的各层，KEYS[n + i]：KEYS[i]的存活有序集合；ARGV[1]：锁持有时间（毫秒），ARGV[2]：持有者，
+     * ARGV[3]：当前时间（毫秒时间戳），ARGV[3 + i]：KEYS[i]上加锁的模式。
+     * 加锁成功返回空列表，否则返回{冲突层序号, 冲突层最早的存活期限的剩余时间}
+     */
+    private static final LockScript ACQUIRE_SCRIPT = new LockScript(""
+            + "local conflicts = {IS = {'X'}, IX = {'S', 'X'}, S = {'IX', 'X'}, X = {'IS', 'IX', 'S', 'X'}}; "
+            + "local n = #KEYS / 2; "
+            + "local now = tonumber(ARGV[3]); "
+            + "for i = 1, n do "
+            + "for _, holder in ipairs(redis.call('zrangebyscore', KEYS[n + i], '-inf', now)) do "
+            + "for _, mode in ipairs({'IS', 'IX', 'S', 'X'}) do "
+            + "local held = redis.call('hget', KEYS[i], mode .. '|' .. holder); "
+            + "if held then "
+            + "if redis.call('hincrby', KEYS[i], mode, -tonumber(held)) <= 0 then "
+            + "redis.call('hdel', KEYS[i], mode); "
+            + "end; "
+            + "redis.call('hdel', KEYS[i], mode .. '|' .. holder); "
+            + "end; "
+            + "end; "
+            + "redis.call('hdel', KEYS[i], holder); "
+            + "redis.call('zrem', KEYS[n + i], holder); "
+            + "end; "
+            + "for _, mode in ipairs(conflicts[ARGV[3 + i]]) do "
+            + "local others = tonumber(redis.call('hget', KEYS[i], mode) or '0') "
+            + "- tonumber(redis.call('hget', KEYS[i], mode .. '|' .. ARGV[2]) or '0'); "
+            + "if others > 0 then "
+            + "local earliest = redis.call('zrange', KEYS[n + i], 0, 0, 'withscores'); "
+            + "return {i, earliest[2] and math.floor(tonumber(earliest[2]) - now) or -1}; "
+            + "end; "
+            + "end; "
+            + "end; "
+            + "local lease = tonumber(ARGV[1]); "
+            + "for i = 1, n do "
+            + "local mode = ARGV[3 + i]; "
+            + "redis.call('hincrby', KEYS[i], mode, 1); "
+            + "redis.call('hincrby', KEYS[i], mode .. '|' .. ARGV[2], 1); "
+            + "redis.call('hincrby', KEYS[i], ARGV[2], 1); "
+            + "local alive = redis.call('zscore', KEYS[n + i], ARGV[2]); "
+            + "if (not alive) or tonumber(alive) < now + lease then "
+            + "redis.call('zadd', KEYS[n + i], now + lease, ARGV[2]); "
+            + "end; "
+            + "if redis.call('pttl', KEYS[i]) < lease then redis.call('pexpire', KEYS[i], lease); end; "
+            + "if redis.call('pttl', KEYS[n + i]) < lease then redis.call('pexpire', KEYS[n + i], lease); end; "
+            + "end; "
+            + "return {};");
+
+    /**
+     * KEYS[1..n]：自根向下的各层，KEYS[n + i]：KEYS[i]的存活有序集合；ARGV[1]：持有者，ARGV[1 + i]：KEYS[i]上释放的模式，
+     * ARGV[1 + n + i]：KEYS[i]的通知频道。返回不由该持有者以对应模式持有的层数
+     */
+    private static final LockScript RELEASE_SCRIPT = new LockScript(""
+            + "local n = #KEYS / 2; "
+            + "local missing = 0; "
+            + "for i = 1, n do "
+            + "local mode = ARGV[i + 1]; "
+            + "local field = mode .. '|' .. ARGV[1]; "
+            + "if redis.call('hexists', KEYS[i], field) == 0 then "
+            + "missing = missing + 1; "
+            + "else "
+            + "if redis.call('hincrby', KEYS[i], mode, -1) <= 0 then redis.call('hdel', KEYS[i], mode); end; "
+            + "if redis.call('hincrby', KEYS[i], field, -1) <= 0 then "
+            + "redis.call('hdel', KEYS[i], field); "
+            + "redis.call('publish', ARGV[1 + n + i], mode); "
+            + "end; "
+            + "if redis.call('hincrby', KEYS[i], ARGV[1], -1) <= 0 then "
+            + "redis.call('hdel', KEYS[i], ARGV[1]); "
+            + "redis.call('zrem', KEYS[n + i], ARGV[1]); "
+            + "end; "
+            + "if redis.call('hlen', KEYS[i]) == 0 then redis.call('del', KEYS[i], KEYS[n + i]); end; "
+            + "end; "
+            + "end; "
+            + "return missing;");
+
+    /**
+     * 本类使用的全部lua脚本，启动预热时预先加载
+     */
+    static final List<LockScript> SCRIPTS = Arrays.asList(ACQUIRE_SCRIPT, RELEASE_SCRIPT);
+
+    private final RedissonClient redisson;
+    private final LockRenewalService renewalService;
+    private final LockHierarchy hierarchy;
+    private final String mode;
+    private final String intentionMode;
+
+    /**
+     * @param redisson redisson客户端
+     * @param renewalService 批量续期服务，续期自动续期的锁
+     * @param prefix 锁名前缀，不参与层级划分
+     * @param exclusive true为写锁（祖先层IX、本层X），false为读锁（祖先层IS、本层S）
+     */
+    public HierarchicalLockStrategy(RedissonClient redisson, LockRenewalService renewalService, String prefix,
+                                    boolean exclusive) {
+        this.redisson = redisson;
+        this.renewalService = renewalService;
+        this.hierarchy = new LockHierarchy(prefix);
+        this.mode = exclusive ? "X" : "S";
+        this.intentionMode = exclusive ? "IX" : "IS";
+    }
+
+    @Override
+    public void lock(String lockName, long leaseTime, TimeUnit unit) {
+        LockFutures.join(lockAsync(lockName, leaseTime, unit, Thread.currentThread().getId()));
+    }
+
+    @Override
+    public boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        Acquisition acquisition = new Acquisition(lockName, unit.toNanos(waitTime), leaseTime, unit,
+                Thread.currentThread().getId());
+        try {
+            return LockFutures.get(acquisition.start());
+        } catch (InterruptedException e) {
+            acquisition.cancel();
+            throw e;
+        }
+    }
+
+    @Override
+    public void unlock(String lockName) {
+        LockFutures.join(unlockAsync(lockName, Thread.currentThread().getId()));
+    }
+
+    @Override
+    public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+        return new Acquisition(lockName, -1, leaseTime, unit, ownerId).start().thenApply(locked -> null);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                                   long ownerId) {
+        return new Acquisition(lockName, unit.toNanos(waitTime), leaseTime, unit, ownerId).start();
+    }
+
+    @Override
+    public CompletableFuture<Void> unlockAsync(String lockName, long ownerId) {
+        List<Object> keys = keys(lockName);
+        int levels = keys.size() / 2;
+        String owner = renewalService.getOwnerField(ownerId);
+        for (int i = 0; i < levels; i++) {
+            renewalService.release((String) keys.get(i), ownerId);
+        }
+        List<Object> args = new ArrayList<>(1 + levels * 2);
+        args.add(owner);
+        args.addAll(modes(levels));
+        for (int i = 0; i < levels; i++) {
+            args.add(channelName((String) keys.get(i)));
+        }
+        return RELEASE_SCRIPT.<Long>evalAsync(script(), (String) keys.get(0), RScript.Mode.READ_WRITE,
+                RScript.ReturnType.INTEGER, keys, args.toArray()).thenApply(missing -> {
+                    if (missing != 0) {
+                        throw new IllegalMonitorStateException("attempt to unlock lock, not locked by current owner: "
+                                + owner + ", lock: " + lockName);
+                    }
+                    return null;
+                });
+    }
+
+    private RScript script() {
+        return redisson.getScript(StringCodec.INSTANCE);
+    }
+
+    /**
+     * 脚本的KEYS：自根向下各层的键，其后依次为各层的存活有序集合
+     */
+    private List<Object> keys(String lockName) {
+        List<String> levels = hierarchy.levels(lockName);
+        List<Object> keys = new ArrayList<>(levels.size() * 2);
+        for (String level : levels) {
+            keys.add(levelKey(level, "hierarchy:"));
+        }
+        for (String level : levels) {
+            keys.add(levelKey(level, "hierarchy_alive:"));
+        }
+        return keys;
+    }
+
+    /**
+     * 层的键：前缀 + 类别 + 层级路径，根层名未带hash tag时以根层名为hash tag。
+     * 层与存活有序集合以类别区分，不会与名为alive等的子层重名
+     */
+    private String levelKey(String levelName, String category) {
+        String path = hierarchy.path(levelName);
+        int index = path.indexOf(':');
+        String root = index < 0 ? path : path.substring(0, index);
+        if (!root.contains("{")) {
+            path = "{" + root + "}" + path.substring(root.length());
+        }
+        return hierarchy.prefix(levelName) + category + path;
+    }
+
+    private static String channelName(String levelKey) {
+        return "distributed_lock_hierarchy__channel:" + levelKey;
+    }
+
+    /**
+     * 各层加锁的模式：祖先层为意向模式，最后一层为本策略的模式
+     */
+    private List<String> modes(int levels) {
+        List<String> modes = new ArrayList<>(levels);
+        for (int i = 1; i < levels; i++) {
+            modes.add(intentionMode);
+        }
+        modes.add(mode);
+        return modes;
+    }
+
+    /**
+     * 一次加锁：冲突时订阅冲突层的通知频道，收到通知或到达兜底重试时间时重试加锁
+     *
+     * <br>重试在前一次请求完成后才发出，订阅等字段仅在请求回调中修改
+     */
+    private final class Acquisition implements MessageListener<String> {
+        private final String lockName;
+        private final List<Object> keys;
+        private final List<String> modes;
+        private final String owner;
+        private final long ownerId;
+        private final long leaseTime;
+        private final long leaseMillis;
+        private final long waitNanos;
+        private final long deadline;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        private final AtomicBoolean waiting = new AtomicBoolean();
+        private volatile boolean notified;
+        private volatile boolean cancelled;
+        private RTopic topic;
+        private String channel;
+        private Integer listenerId;
+        private volatile ScheduledFuture<?> timer;
+
+        /**
+         * @param waitNanos 等待时间（纳秒），负数为一直等待
+         */
+        Acquisition(String lockName, long waitNanos, long leaseTime, TimeUnit unit, long ownerId) {
+            this.lockName = lockName;
+            this.keys = keys(lockName);
+            this.owner = renewalService.getOwnerField(ownerId);
+            this.ownerId = ownerId;
+            this.modes = modes(keys.size() / 2);
+            this.leaseTime = leaseTime;
+            this.leaseMillis = leaseTime == -1 ? renewalService.getLeaseMillis() : unit.toMillis(leaseTime);
+            this.waitNanos = waitNanos;
+            this.deadline = System.nanoTime() + Math.max(0, waitNanos);
+        }
+
+        CompletableFuture<Boolean> start() {
+            attempt();
+            return result;
+        }
+
+        /**
+         * 放弃等待；加锁请求已发出时在其完成后释放
+         */
+        void cancel() {
+            cancelled = true;
+            if (waiting.compareAndSet(true, false)) {
+                cancelTimer();
+                finish(false);
+            }
+        }
+
+        @Override
+        public void onMessage(CharSequence channel, String message) {
+            notified = true;
+            wake();
+        }
+
+        private void attempt() {
+            List<Object> args = new ArrayList<>(3 + modes.size());
+            args.add(leaseMillis);
+            args.add(owner);
+            // 与续期服务一致，存活期限以客户端时间计算
+            args.add(System.currentTimeMillis());
+            args.addAll(modes);
+            ACQUIRE_SCRIPT.<List<Long>>evalAsync(script(), (String) keys.get(0), RScript.Mode.READ_WRITE,
+                    RScript.ReturnType.MULTI, keys, args.toArray()).whenComplete((conflict, e) -> {
+                        if (e != null) {
+                            fail(e);
+                        } else if (conflict == null || conflict.isEmpty()) {
+                            acquired();
+                        } else {
+                            await(conflict.get(0).intValue() - 1, conflict.get(1));
+                        }
+                    });
+        }
+
+        /**
+         * @param level 冲突层序号（自0起）
+         * @param ttl 冲突层最早的存活期限的剩余时间（毫秒），负数表示未知
+         */
+        private void await(int level, long ttl) {
+            if (waitNanos == 0) {
+                finish(false);
+                return;
+            }
+            long remaining = waitNanos < 0 ? Long.MAX_VALUE : deadline - System.nanoTime();
+            if (cancelled || remaining <= 0) {
+                finish(false);
+                return;
+            }
+            String conflictChannel = channelName((String) keys.get(level));
+            if (!conflictChannel.equals(channel)) {
+                subscribe(conflictChannel);
+                return;
+            }
+            waiting.set(true);
+            if (cancelled) {
+                cancel();
+                return;
+            }
+            long retryMillis = ttl < 0 ? leaseMillis : ttl;
+            timer = HierarchyScheduler.EXECUTOR.schedule(this::wake,
+                    Math.max(1, Math.min(retryMillis, TimeUnit.NANOSECONDS.toMillis(remaining))),
+                    TimeUnit.MILLISECONDS);
+            // 通知在请求进行中到达时立即重试
+            if (notified) {
+                wake();
+            }
+        }
+
+        private void wake() {
+            if (waiting.compareAndSet(true, false)) {
+                notified = false;
+                cancelTimer();
+                attempt();
+            }
+        }
+
+        /**
+         * 订阅冲突层的通知频道后再重试一次，覆盖订阅完成前发布的释放通知；冲突层改变时先退订原频道
+         */
+        private void subscribe(String conflictChannel) {
+            unsubscribe();
+            channel = conflictChannel;
+            topic = redisson.getTopic(conflictChannel, StringCodec.INSTANCE);
+            topic.addListenerAsync(String.class, this).toCompletableFuture().whenComplete((id, e) -> {
+                if (e != null) {
+                    fail(e);
+                    return;
+                }
+                listenerId = id;
+                notified = false;
+                attempt();
+            });
+        }
+
+        private void acquired() {
+            if (cancelled) {
+                unlockAsync(lockName, ownerId);
+                finish(false);
+                return;
+            }
+            int levels = modes.size();
+            for (int i = 0; i < levels; i++) {
+                if (leaseTime == -1) {
+                    renewalService.register((String) keys.get(i), (String) keys.get(levels + i), ownerId);
+                } else {
+                    renewalService.retain((String) keys.get(i), ownerId);
+                }
+            }
+            finish(true);
+        }
+
+        private void fail(Throwable e) {
+            unsubscribe();
+            result.completeExceptionally(LockFutures.unwrap(e));
+        }
+
+        private void finish(boolean locked) {
+            unsubscribe();
+            result.complete(locked);
+        }
+
+        private void unsubscribe() {
+            if (listenerId != null) {
+                topic.removeListenerAsync(listenerId);
+                listenerId = null;
+            }
+            channel = null;
+        }
+
+        private void cancelTimer() {
+            ScheduledFuture<?> scheduled = timer;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+
+    private static final class HierarchyScheduler {
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "distributed-lock-hierarchy-poll");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,45 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+/**
+ * 幂等（IDEMPOTENT）模式的结果存储
+ *
+ * <br>方法在锁内执行成功后，在释放锁前以锁名保存结果，保留时间内相同锁名的调用直接返回结果，不再加锁、执行方法
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public interface IdempotentResults {
+
+    /**
+     * 获取已保存的结果
+     *
+     * @param lockName 锁名
+     * @return 结果，未保存或已过期时为null
+     */
+    Result get(String lockName);
+
+    /**
+     * 保存结果
+     *
+     * @param lockName 锁名
+     * @param value 方法返回值
+     * @param ttlMillis 保留时间（毫秒）
+     */
+    void put(String lockName, Object value, long ttlMillis);
+
+    /**
+     * 已保存的结果
+     */
+    final class Result {
+        private final Object value;
+
+        public Result(Object value) {
+            this.value = value;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,438 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JVM内存中的层级锁策略，与HierarchicalLockStrategy的兼容关系一致，读锁与写锁共用一张层级锁表
+ *
+ * <br>异步加锁时锁可立即获取则在调用线程完成；需要等待时不占用线程，由释放锁的线程或持有到期、等待超时的定时任务完成
+ *
+ * @author axing
+ * @date 2026-10-18
+ * @see HierarchicalLockStrategy
+ * @see LocalLockProvider
+ */
+public class LocalHierarchicalLockStrategy implements LockStrategy {
+    private static final int IS = 0;
+    private static final int IX = 1;
+    private static final int S = 2;
+    private static final int X = 3;
+    private static final boolean[][] COMPATIBLE = {
+            {true, true, true, false},
+            {true, true, false, false},
+            {true, false, true, false},
+            {false, false, false, false},
+    };
+
+    private final Table table;
+    private final LockHierarchy hierarchy;
+    private final int mode;
+    private final int intentionMode;
+
+    LocalHierarchicalLockStrategy(Table table, String prefix, boolean exclusive) {
+        this.table = table;
+        this.hierarchy = new LockHierarchy(prefix);
+        this.mode = exclusive ? X : S;
+        this.intentionMode = exclusive ? IX : IS;
+    }
+
+    @Override
+    public void lock(String lockName, long leaseTime, TimeUnit unit) {
+        acquireUninterruptibly(lockName, Thread.currentThread().getId(), LocalLockTable.leaseNanos(leaseTime, unit),
+                -1);
+    }
+
+    @Override
+    public boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        return table.acquire(hierarchy.levels(lockName), intentionMode, mode, Thread.currentThread().getId(),
+                LocalLockTable.leaseNanos(leaseTime, unit), unit.toNanos(waitTime), true);
+    }
+
+    @Override
+    public void unlock(String lockName) {
+        table.release(hierarchy.levels(lockName), intentionMode, mode, Thread.currentThread().getId());
+    }
+
+    @Override
+    public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+        return table.acquireAsync(hierarchy.levels(lockName), intentionMode, mode, ownerId,
+                LocalLockTable.leaseNanos(leaseTime, unit), -1).thenApply(locked -> null);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                                   long ownerId) {
+        return table.acquireAsync(hierarchy.levels(lockName), intentionMode, mode, ownerId,
+                LocalLockTable.leaseNanos(leaseTime, unit), Math.max(0, unit.toNanos(waitTime)));
+    }
+
+    @Override
+    public CompletableFuture<Void> unlockAsync(String lockName, long ownerId) {
+        try {
+            table.release(hierarchy.levels(lockName), intentionMode, mode, ownerId);
+            return CompletableFuture.completedFuture(null);
+        } catch (IllegalMonitorStateException e) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    private boolean acquireUninterruptibly(String lockName, long owner, long leaseNanos, long waitNanos) {
+        try {
+            return table.acquire(hierarchy.levels(lockName), intentionMode, mode, owner, leaseNanos, waitNanos,
+                    false);
+        } catch (InterruptedException e) {
+            // 不可中断的等待不会抛出
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * 层级锁表，由一个ReentrantLock保护全部层的持有状态，释放时唤醒全部同步等待者重新检查，
+     * 并按到达顺序为能够加锁的异步等待者加锁
+     */
+    static final class Table {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        private final Map<String, Map<Long, Hold>> levels = new HashMap<>();
+        private final ArrayDeque<AsyncWaiter> waiters = new ArrayDeque<>();
+        private ScheduledFuture<?> expiryTimer;
+        private long expiryTimerAt;
+
+        boolean acquire(List<String> names, int intentionMode, int mode, long owner, long leaseNanos,
+                        long waitNanos, boolean interruptible) throws InterruptedException {
+            long deadline = waitNanos < 0 ? 0 : System.nanoTime() + waitNanos;
+            boolean interrupted = false;
+            lock.lock();
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    if (tryAcquire(names, intentionMode, mode, owner, leaseNanos, now)) {
+                        return true;
+                    }
+                    long remaining = waitNanos < 0 ? Long.MAX_VALUE : deadline - now;
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    // 等待释放，或最早到期的持有到期
+                    long timeout = Math.min(remaining, nextExpiry(names, now));
+                    try {
+                        released.awaitNanos(timeout);
+                    } catch (InterruptedException e) {
+                        if (interruptible) {
+                            throw e;
+                        }
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                lock.unlock();
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * 异步加锁，等待时不占用线程；future被调用方取消时离开等待队列
+         */
+        CompletableFuture<Boolean> acquireAsync(List<String> names, int intentionMode, int mode, long owner,
+                                                long leaseNanos, long waitNanos) {
+            AsyncWaiter waiter;
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                if (tryAcquire(names, intentionMode, mode, owner, leaseNanos, now)) {
+                    return CompletableFuture.completedFuture(true);
+                }
+                if (waitNanos == 0) {
+                    return CompletableFuture.completedFuture(false);
+                }
+                waiter = new AsyncWaiter(names, intentionMode, mode, owner, leaseNanos);
+                waiters.addLast(waiter);
+                if (waitNanos > 0) {
+                    waiter.timeout = LocalLockTable.schedule(() -> timeout(waiter), waitNanos);
+                }
+                scheduleExpiry(nextExpiryAt(names));
+            } finally {
+                lock.unlock();
+            }
+
+            waiter.future.whenComplete((locked, e) -> {
+                if (e != null) {
+                    leave(waiter);
+                }
+            });
+            return waiter.future;
+        }
+
+        void release(List<String> names, int intentionMode, int mode, long owner) {
+            List<AsyncWaiter> granted;
+            int missing = 0;
+            lock.lock();
+            try {
+                for (int i = 0; i < names.size(); i++) {
+                    Map<Long, Hold> holds = levels.get(names.get(i));
+                    Hold hold = holds == null ? null : holds.get(owner);
+                    int held = i == names.size() - 1 ? mode : intentionMode;
+                    if (hold == null || hold.counts[held] == 0) {
+                        missing++;
+                        continue;
+                    }
+                    hold.counts[held]--;
+                    if (hold.isEmpty()) {
+                        holds.remove(owner);
+                        if (holds.isEmpty()) {
+                            levels.remove(names.get(i));
+                        }
+                    }
+                }
+                granted = grant(System.nanoTime());
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            complete(granted);
+            if (missing > 0) {
+                throw new IllegalMonitorStateException("attempt to unlock lock, not locked by current owner: "
+                        + owner + ", lock: " + names.get(names.size() - 1));
+            }
+        }
+
+        /**
+         * 各层兼容时加锁，在锁内调用
+         */
+        private boolean tryAcquire(List<String> names, int intentionMode, int mode, long owner, long leaseNanos,
+                                   long now) {
+            if (!compatible(names, intentionMode, mode, owner, now)) {
+                return false;
+            }
+            long expiresAt = leaseNanos < 0 ? Long.MAX_VALUE : now + leaseNanos;
+            for (int i = 0; i < names.size(); i++) {
+                Hold hold = levels.computeIfAbsent(names.get(i), key -> new HashMap<>())
+                        .computeIfAbsent(owner, key -> new Hold());
+                hold.counts[i == names.size() - 1 ? mode : intentionMode]++;
+                hold.expiresAt = Math.max(hold.expiresAt, expiresAt);
+            }
+            scheduleExpiry(expiresAt);
+            return true;
+        }
+
+        /**
+         * 异步等待超时：最后尝试一次，仍未获取时离开等待队列
+         */
+        private void timeout(AsyncWaiter waiter) {
+            List<AsyncWaiter> granted;
+            boolean left;
+            lock.lock();
+            try {
+                granted = grant(System.nanoTime());
+                left = waiters.remove(waiter);
+            } finally {
+                lock.unlock();
+            }
+            if (left) {
+                waiter.future.complete(false);
+            }
+            complete(granted);
+        }
+
+        /**
+         * future被调用方取消或异常完成的异步等待者离开等待队列
+         */
+        private void leave(AsyncWaiter waiter) {
+            lock.lock();
+            try {
+                if (waiters.remove(waiter) && waiter.timeout != null) {
+                    waiter.timeout.cancel(false);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 最早的持有到期：清理到期的持有并为异步等待者加锁
+         */
+        private void expire() {
+            List<AsyncWaiter> granted;
+            lock.lock();
+            try {
+                expiryTimer = null;
+                long now = System.nanoTime();
+                granted = grant(now);
+                long next = Long.MAX_VALUE;
+                for (AsyncWaiter waiter : waiters) {
+                    next = Math.min(next, nextExpiryAt(waiter.names));
+                }
+                scheduleExpiry(next);
+                released.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            complete(granted);
+        }
+
+        /**
+         * 按到达顺序为能够加锁的异步等待者加锁，在锁内调用
+         *
+         * @return 加锁成功的等待者，由调用方解锁后完成
+         */
+        private List<AsyncWaiter> grant(long now) {
+            if (waiters.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<AsyncWaiter> granted = null;
+            for (Iterator<AsyncWaiter> it = waiters.iterator(); it.hasNext(); ) {
+                AsyncWaiter waiter = it.next();
+                if (tryAcquire(waiter.names, waiter.intentionMode, waiter.mode, waiter.owner, waiter.leaseNanos,
+                        now)) {
+                    it.remove();
+                    if (waiter.timeout != null) {
+                        waiter.timeout.cancel(false);
+                    }
+                    if (granted == null) {
+                        granted = new ArrayList<>(2);
+                    }
+                    granted.add(waiter);
+                }
+            }
+            return granted == null ? Collections.emptyList() : granted;
+        }
+
+        /**
+         * 完成已加锁的异步等待者；future已被取消时释放其持有
+         */
+        private void complete(List<AsyncWaiter> granted) {
+            for (AsyncWaiter waiter : granted) {
+                if (!waiter.future.complete(true)) {
+                    release(waiter.names, waiter.intentionMode, waiter.mode, waiter.owner);
+                }
+            }
+        }
+
+        /**
+         * 有异步等待者时，确保在持有到期时有定时任务为其加锁，在锁内调用
+         */
+        private void scheduleExpiry(long expiresAt) {
+            if (waiters.isEmpty() || expiresAt == Long.MAX_VALUE) {
+                return;
+            }
+            if (expiryTimer != null) {
+                if (expiryTimerAt - expiresAt <= 0) {
+                    return;
+                }
+                expiryTimer.cancel(false);
+            }
+            expiryTimerAt = expiresAt;
+            expiryTimer = LocalLockTable.schedule(this::expire, Math.max(0, expiresAt - System.nanoTime()));
+        }
+
+        /**
+         * 各层是否与其他持有者兼容，同时清理已到期的持有
+         */
+        private boolean compatible(List<String> names, int intentionMode, int mode, long owner, long now) {
+            for (int i = 0; i < names.size(); i++) {
+                Map<Long, Hold> holds = levels.get(names.get(i));
+                if (holds == null) {
+                    continue;
+                }
+                boolean[] allowed = COMPATIBLE[i == names.size() - 1 ? mode : intentionMode];
+                for (Iterator<Map.Entry<Long, Hold>> it = holds.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<Long, Hold> entry = it.next();
+                    if (entry.getValue().expiresAt - now <= 0) {
+                        it.remove();
+                    } else if (entry.getKey() != owner && !entry.getValue().allows(allowed)) {
+                        return false;
+                    }
+                }
+                if (holds.isEmpty()) {
+                    levels.remove(names.get(i));
+                }
+            }
+            return true;
+        }
+
+        private long nextExpiry(List<String> names, long now) {
+            long next = nextExpiryAt(names);
+            return next == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(1, next - now);
+        }
+
+        /**
+         * 各层持有中最早的到期时间，没有会到期的持有时为Long.MAX_VALUE
+         */
+        private long nextExpiryAt(List<String> names) {
+            long next = Long.MAX_VALUE;
+            for (String name : names) {
+                Map<Long, Hold> holds = levels.get(name);
+                if (holds != null) {
+                    for (Hold hold : holds.values()) {
+                        next = Math.min(next, hold.expiresAt);
+                    }
+                }
+            }
+            return next;
+        }
+    }
+
+    /**
+     * 一个持有者在一层上各模式的持有次数，到期时间为各次持有中最晚的
+     */
+    private static final class Hold {
+        private final int[] counts = new int[4];
+        private long expiresAt = Long.MIN_VALUE;
+
+        boolean allows(boolean[] allowed) {
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0 && !allowed[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean isEmpty() {
+            for (int count : counts) {
+                if (count > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 异步加锁的等待者，timeout为等待超时的定时任务，一直等待时为null
+     */
+    private static final class AsyncWaiter {
+        private final List<String> names;
+        private final int intentionMode;
+        private final int mode;
+        private final long owner;
+        private final long leaseNanos;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        private ScheduledFuture<?> timeout;
+
+        AsyncWaiter(List<String> names, int intentionMode, int mode, long owner, long leaseNanos) {
+            this.names = names;
+            this.intentionMode = intentionMode;
+            this.mode = mode;
+            this.owner = owner;
+            this.leaseNanos = leaseNanos;
+        }
+    }
+}
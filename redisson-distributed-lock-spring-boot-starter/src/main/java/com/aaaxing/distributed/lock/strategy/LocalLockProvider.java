@@ -0,0 +1,66 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+
+/**
+ * JVM内存中的锁提供者，不访问redis，适用于单实例部署与单元测试
+ *
+ * <br>锁名按分段由ReentrantLock保护，支持持有时间过期、公平锁与读写锁；可重入锁、公平锁、写锁与移交锁对同一锁名互斥。
+ * 信号量与锁分开存储，同名的锁与信号量互不影响。
+ * 锁仅在当前JVM内有效
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class LocalLockProvider implements LockProvider {
+    /**
+     * 默认分段数
+     */
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final Map<Type, LockStrategy> lockStrategies = new EnumMap<>(Type.class);
+    private final BatchLockStrategy batchLockStrategy;
+    private final SemaphoreStrategy semaphoreStrategy;
+
+    public LocalLockProvider() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param stripes 分段数，向上取整为2的幂
+     */
+    public LocalLockProvider(int stripes) {
+        LocalLockTable table = new LocalLockTable(stripes);
+        lockStrategies.put(Type.LOCK, new LocalLockStrategy(table, false, false));
+        lockStrategies.put(Type.FAIR_LOCK, new LocalLockStrategy(table, false, true));
+        lockStrategies.put(Type.READ_LOCK, new LocalLockStrategy(table, true, false));
+        lockStrategies.put(Type.WRITE_LOCK, new LocalLockStrategy(table, false, false));
+        // 移交锁按到达顺序交给下一个等待者，与公平锁一致
+        lockStrategies.put(Type.HANDOFF_LOCK, new LocalLockStrategy(table, false, true));
+        // 层级锁在完整锁名上分层，前缀也作为一层，不影响互斥关系
+        LocalHierarchicalLockStrategy.Table hierarchyTable = new LocalHierarchicalLockStrategy.Table();
+        lockStrategies.put(Type.HIERARCHICAL_READ_LOCK, new LocalHierarchicalLockStrategy(hierarchyTable, "", false));
+        lockStrategies.put(Type.HIERARCHICAL_WRITE_LOCK, new LocalHierarchicalLockStrategy(hierarchyTable, "", true));
+        this.batchLockStrategy = new SequentialBatchLockStrategy(lockStrategies.get(Type.LOCK));
+        this.semaphoreStrategy = new LocalSemaphoreStrategy(stripes);
+    }
+
+    @Override
+    public LockStrategy getLockStrategy(Type type) {
+        return lockStrategies.get(type);
+    }
+
+    @Override
+    public BatchLockStrategy getBatchLockStrategy() {
+        return batchLockStrategy;
+    }
+
+    @Override
+    public SemaphoreStrategy getSemaphoreStrategy() {
+        return semaphoreStrategy;
+    }
+}
@@ -0,0 +1,88 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM内存中的锁策略，由LocalLockTable加锁
+ *
+ * <br>异步加锁时锁可立即获取则在调用线程完成；需要等待时不占用线程，由释放锁的线程或持有到期、等待超时的定时任务完成
+ *
+ * @author axing
+ * @date 2026-10-18
+ * @see LocalLockProvider
+ */
+public class LocalLockStrategy implements LockStrategy {
+    private final LocalLockTable table;
+    private final boolean shared;
+    private final boolean fair;
+
+    LocalLockStrategy(LocalLockTable table, boolean shared, boolean fair) {
+        this.table = table;
+        this.shared = shared;
+        this.fair = fair;
+    }
+
+    @Override
+    public void lock(String lockName, long leaseTime, TimeUnit unit) {
+        acquireUninterruptibly(lockName, Thread.currentThread().getId(), LocalLockTable.leaseNanos(leaseTime, unit),
+                -1);
+    }
+
+    @Override
+    public boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        return table.acquire(lockName, Thread.currentThread().getId(), shared, fair,
+                LocalLockTable.leaseNanos(leaseTime, unit), unit.toNanos(waitTime), true);
+    }
+
+    @Override
+    public void unlock(String lockName) {
+        table.release(lockName, Thread.currentThread().getId(), shared);
+    }
+
+    @Override
+    public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+        return table.acquireAsync(lockName, ownerId, shared, fair, LocalLockTable.leaseNanos(leaseTime, unit), -1)
+                .thenApply(locked -> null);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                                   long ownerId) {
+        return table.acquireAsync(lockName, ownerId, shared, fair, LocalLockTable.leaseNanos(leaseTime, unit),
+                Math.max(0, unit.toNanos(waitTime)));
+    }
+
+    @Override
+    public CompletableFuture<Void> unlockAsync(String lockName, long ownerId) {
+        try {
+            table.release(lockName, ownerId, shared);
+            return CompletableFuture.completedFuture(null);
+        } catch (IllegalMonitorStateException e) {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * 锁是否被任一持有者持有
+     *
+     * @param lockName 锁名
+     * @return 是否被持有
+     */
+    public boolean isLocked(String lockName) {
+        return table.isLocked(lockName);
+    }
+
+    private boolean acquireUninterruptibly(String lockName, long owner, long leaseNanos, long waitNanos) {
+        try {
+            return table.acquire(lockName, owner, shared, fair, leaseNanos, waitNanos, false);
+        } catch (InterruptedException e) {
+            // 不可中断的等待不会抛出
+            throw new CompletionException(e);
+        }
+    }
+}
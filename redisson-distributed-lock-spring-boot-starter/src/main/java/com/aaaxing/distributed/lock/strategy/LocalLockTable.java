@@ -0,0 +1,555 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JVM内存中的锁表，按锁名分段（striped），每段由一个ReentrantLock保护该段全部锁名的状态，并以其Condition唤醒等待者
+ *
+ * <br>每个锁名记录互斥持有者（可重入锁、公平锁、写锁）与共享持有者（读锁），持有者以id标识：
+ * 同步加锁为线程id，异步加锁为LockOwnerIds分配的负数id。每次持有可指定持有时间，过期后视为已释放。
+ * 公平加锁的等待者按到达顺序排队，仅队首可获取锁。
+ *
+ * <br>同步加锁在Condition上等待；异步加锁不占用线程，等待者的future挂在锁名的等待队列上，
+ * 由释放、等待者离开与持有到期的定时任务在段锁内为其加锁，解开段锁后完成future
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+final class LocalLockTable {
+    /**
+     * 未指定持有时间（自动续期），进程存活期间一直持有直到释放
+     */
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private final Stripe[] stripes;
+
+    LocalLockTable(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * 加锁
+     *
+     * @param lockName 锁名
+     * @param owner 持有者id
+     * @param shared 是否共享（读锁）
+     * @param fair 是否公平
+     * @param leaseNanos 持有时间（纳秒），负数为不过期
+     * @param waitNanos 等待时间（纳秒），负数为一直等待
+     * @param interruptible 等待是否可中断，不可中断时在返回前恢复线程的中断标记
+     * @return 是否加锁成功
+     * @throws InterruptedException 可中断的等待被中断
+     */
+    boolean acquire(String lockName, long owner, boolean shared, boolean fair, long leaseNanos, long waitNanos,
+                    boolean interruptible) throws InterruptedException {
+        Stripe stripe = stripe(lockName);
+        long deadline = waitNanos < 0 ? 0 : System.nanoTime() + waitNanos;
+        boolean queued = false;
+        boolean interrupted = false;
+        List<AsyncWaiter> granted = Collections.emptyList();
+
+        stripe.lock.lock();
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                LockState state = stripe.states.computeIfAbsent(lockName, key -> new LockState());
+                state.expire(now);
+                long expiresAt = expiresAt(now, leaseNanos);
+                if (state.tryAcquire(owner, shared, fair, expiresAt)) {
+                    if (queued) {
+                        state.queue.remove(owner);
+                        queued = false;
+                    }
+                    scheduleExpiry(lockName, state, expiresAt);
+                    return true;
+                }
+                long remaining = waitNanos < 0 ? Long.MAX_VALUE : deadline - now;
+                if (remaining <= 0) {
+                    return false;
+                }
+                if (fair && !queued) {
+                    state.queue.addLast(owner);
+                    queued = true;
+                }
+                try {
+                    stripe.released.awaitNanos(Math.min(remaining, state.nanosUntilExpiry(now)));
+                } catch (InterruptedException e) {
+                    if (interruptible) {
+                        throw e;
+                    }
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (queued) {
+                // 超时或中断时离开队列，新的队首可能是异步等待者
+                LockState state = stripe.states.get(lockName);
+                state.queue.remove(owner);
+                granted = grant(lockName, state, System.nanoTime());
+                stripe.released.signalAll();
+                removeIfFree(stripe, lockName, state);
+            }
+            stripe.lock.unlock();
+            complete(lockName, granted);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 异步加锁，等待时不占用线程
+     *
+     * <br>future被调用方取消时离开等待队列；取消与加锁成功同时发生时释放已获取的锁
+     *
+     * @param lockName 锁名
+     * @param owner 持有者id
+     * @param shared 是否共享（读锁）
+     * @param fair 是否公平
+     * @param leaseNanos 持有时间（纳秒），负数为不过期
+     * @param waitNanos 等待时间（纳秒），负数为一直等待
+     * @return 是否加锁成功
+     */
+    CompletableFuture<Boolean> acquireAsync(String lockName, long owner, boolean shared, boolean fair,
+                                            long leaseNanos, long waitNanos) {
+        Stripe stripe = stripe(lockName);
+        AsyncWaiter waiter;
+
+        stripe.lock.lock();
+        try {
+            long now = System.nanoTime();
+            LockState state = stripe.states.computeIfAbsent(lockName, key -> new LockState());
+            state.expire(now);
+            long expiresAt = expiresAt(now, leaseNanos);
+            if (state.tryAcquire(owner, shared, fair, expiresAt)) {
+                scheduleExpiry(lockName, state, expiresAt);
+                return CompletableFuture.completedFuture(true);
+            }
+            if (waitNanos == 0) {
+                removeIfFree(stripe, lockName, state);
+                return CompletableFuture.completedFuture(false);
+            }
+            waiter = new AsyncWaiter(owner, shared, fair, leaseNanos);
+            state.waiters.addLast(waiter);
+            if (fair) {
+                state.queue.addLast(owner);
+            }
+            if (waitNanos > 0) {
+                waiter.timeout = schedule(() -> timeout(lockName, waiter), waitNanos);
+            }
+            scheduleExpiry(lockName, state, state.nearestExpiry());
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        waiter.future.whenComplete((locked, e) -> {
+            if (e != null) {
+                leave(lockName, waiter);
+            }
+        });
+        return waiter.future;
+    }
+
+    /**
+     * 释放一次持有
+     *
+     * @param lockName 锁名
+     * @param owner 持有者id
+     * @param shared 是否共享（读锁）
+     * @throws IllegalMonitorStateException 锁不由该持有者持有
+     */
+    void release(String lockName, long owner, boolean shared) {
+        Stripe stripe = stripe(lockName);
+        List<AsyncWaiter> granted;
+
+        stripe.lock.lock();
+        try {
+            LockState state = stripe.states.get(lockName);
+            if (state != null) {
+                state.expire(System.nanoTime());
+            }
+            if (state == null || !state.release(owner, shared)) {
+                throw new IllegalMonitorStateException("attempt to unlock lock, not locked by current owner: "
+                        + owner + ", lock: " + lockName);
+            }
+            granted = grant(lockName, state, System.nanoTime());
+            stripe.released.signalAll();
+            removeIfFree(stripe, lockName, state);
+        } finally {
+            stripe.lock.unlock();
+        }
+        complete(lockName, granted);
+    }
+
+    /**
+     * 锁是否被任一持有者持有
+     *
+     * @param lockName 锁名
+     * @return 是否被持有
+     */
+    boolean isLocked(String lockName) {
+        Stripe stripe = stripe(lockName);
+        stripe.lock.lock();
+        try {
+            LockState state = stripe.states.get(lockName);
+            if (state == null) {
+                return false;
+            }
+            state.expire(System.nanoTime());
+            return !state.isFree();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    static long leaseNanos(long leaseTime, TimeUnit unit) {
+        return leaseTime < 0 ? -1 : unit.toNanos(leaseTime);
+    }
+
+    /**
+     * 在本地锁共用的定时线程上延迟执行任务，用于异步等待的超时与持有到期
+     *
+     * @param task 任务，须很快结束
+     * @param delayNanos 延迟（纳秒）
+     * @return 可取消的定时任务
+     */
+    static ScheduledFuture<?> schedule(Runnable task, long delayNanos) {
+        return Timer.EXECUTOR.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Stripe stripe(String lockName) {
+        int h = lockName.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * 异步等待超时：最后尝试一次，仍未获取时离开等待队列
+     */
+    private void timeout(String lockName, AsyncWaiter waiter) {
+        Stripe stripe = stripe(lockName);
+        List<AsyncWaiter> granted = Collections.emptyList();
+        boolean left = false;
+
+        stripe.lock.lock();
+        try {
+            LockState state = stripe.states.get(lockName);
+            if (state != null && state.waiters.contains(waiter)) {
+                granted = grant(lockName, state, System.nanoTime());
+                if (state.waiters.remove(waiter)) {
+                    left = true;
+                    state.leave(waiter);
+                    granted = concat(granted, grant(lockName, state, System.nanoTime()));
+                    stripe.released.signalAll();
+                    removeIfFree(stripe, lockName, state);
+                }
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (left) {
+            waiter.future.complete(false);
+        }
+        complete(lockName, granted);
+    }
+
+    /**
+     * future被调用方取消或异常完成的异步等待者离开等待队列
+     */
+    private void leave(String lockName, AsyncWaiter waiter) {
+        Stripe stripe = stripe(lockName);
+        List<AsyncWaiter> granted = Collections.emptyList();
+
+        stripe.lock.lock();
+        try {
+            LockState state = stripe.states.get(lockName);
+            if (state != null && state.waiters.remove(waiter)) {
+                state.leave(waiter);
+                granted = grant(lockName, state, System.nanoTime());
+                stripe.released.signalAll();
+                removeIfFree(stripe, lockName, state);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        complete(lockName, granted);
+    }
+
+    /**
+     * 最早的持有到期：清理到期的持有并为异步等待者加锁
+     */
+    private void expire(String lockName) {
+        Stripe stripe = stripe(lockName);
+        List<AsyncWaiter> granted = Collections.emptyList();
+
+        stripe.lock.lock();
+        try {
+            LockState state = stripe.states.get(lockName);
+            if (state != null) {
+                state.expiryTimer = null;
+                granted = grant(lockName, state, System.nanoTime());
+                scheduleExpiry(lockName, state, state.nearestExpiry());
+                stripe.released.signalAll();
+                removeIfFree(stripe, lockName, state);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        complete(lockName, granted);
+    }
+
+    /**
+     * 按到达顺序为能够加锁的异步等待者加锁，在段锁内调用
+     *
+     * @return 加锁成功的等待者，由调用方解开段锁后完成
+     */
+    private List<AsyncWaiter> grant(String lockName, LockState state, long now) {
+        if (state.waiters.isEmpty()) {
+            return Collections.emptyList();
+        }
+        state.expire(now);
+        List<AsyncWaiter> granted = null;
+        for (Iterator<AsyncWaiter> it = state.waiters.iterator(); it.hasNext(); ) {
+            AsyncWaiter waiter = it.next();
+            long expiresAt = expiresAt(now, waiter.leaseNanos);
+            if (state.tryAcquire(waiter.owner, waiter.shared, waiter.fair, expiresAt)) {
+                it.remove();
+                state.leave(waiter);
+                scheduleExpiry(lockName, state, expiresAt);
+                if (granted == null) {
+                    granted = new ArrayList<>(2);
+                }
+                granted.add(waiter);
+            }
+        }
+        return granted == null ? Collections.emptyList() : granted;
+    }
+
+    /**
+     * 完成已加锁的异步等待者；future已被取消时释放其持有
+     */
+    private void complete(String lockName, List<AsyncWaiter> granted) {
+        for (AsyncWaiter waiter : granted) {
+            if (!waiter.future.complete(true)) {
+                release(lockName, waiter.owner, waiter.shared);
+            }
+        }
+    }
+
+    /**
+     * 有异步等待者时，确保在持有到期时有定时任务为其加锁，在段锁内调用
+     */
+    private void scheduleExpiry(String lockName, LockState state, long expiresAt) {
+        if (state.waiters.isEmpty() || expiresAt == NO_EXPIRY) {
+            return;
+        }
+        if (state.expiryTimer != null) {
+            if (state.expiryTimerAt - expiresAt <= 0) {
+                return;
+            }
+            state.expiryTimer.cancel(false);
+        }
+        state.expiryTimerAt = expiresAt;
+        state.expiryTimer = schedule(() -> expire(lockName), Math.max(0, expiresAt - System.nanoTime()));
+    }
+
+    private static List<AsyncWaiter> concat(List<AsyncWaiter> first, List<AsyncWaiter> second) {
+        if (first.isEmpty()) {
+            return second;
+        }
+        if (second.isEmpty()) {
+            return first;
+        }
+        List<AsyncWaiter> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+
+    private static long expiresAt(long now, long leaseNanos) {
+        return leaseNanos < 0 ? NO_EXPIRY : now + leaseNanos;
+    }
+
+    private static boolean isExpired(long expiresAt, long now) {
+        return expiresAt != NO_EXPIRY && expiresAt - now <= 0;
+    }
+
+    private static void removeIfFree(Stripe stripe, String lockName, LockState state) {
+        if (state.isFree() && state.queue.isEmpty() && state.waiters.isEmpty()) {
+            if (state.expiryTimer != null) {
+                state.expiryTimer.cancel(false);
+                state.expiryTimer = null;
+            }
+            stripe.states.remove(lockName);
+        }
+    }
+
+    /**
+     * 一个分段：段锁、释放条件与该段全部锁名的状态
+     */
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        private final Map<String, LockState> states = new HashMap<>();
+    }
+
+    /**
+     * 一个锁名的持有状态，仅在所属分段的锁内访问
+     */
+    private static final class LockState {
+        private long writer;
+        private int writeHolds;
+        private long writeExpiresAt;
+        private final Map<Long, Hold> readers = new HashMap<>(4);
+        private final ArrayDeque<Long> queue = new ArrayDeque<>(4);
+        private final ArrayDeque<AsyncWaiter> waiters = new ArrayDeque<>(2);
+        private ScheduledFuture<?> expiryTimer;
+        private long expiryTimerAt;
+
+        boolean tryAcquire(long owner, boolean shared, boolean fair, long expiresAt) {
+            if (shared) {
+                if (writeHolds > 0 && writer != owner) {
+                    return false;
+                }
+                Hold hold = readers.computeIfAbsent(owner, key -> new Hold());
+                hold.count++;
+                hold.expiresAt = expiresAt;
+                return true;
+            }
+            if (writeHolds > 0) {
+                if (writer != owner) {
+                    return false;
+                }
+                // 重入时与redisson一致，以本次的持有时间重新计算过期时间
+                writeHolds++;
+                writeExpiresAt = expiresAt;
+                return true;
+            }
+            if (!readers.isEmpty() || (fair && !queue.isEmpty() && queue.peekFirst() != owner)) {
+                return false;
+            }
+            writer = owner;
+            writeHolds = 1;
+            writeExpiresAt = expiresAt;
+            return true;
+        }
+
+        boolean release(long owner, boolean shared) {
+            if (shared) {
+                Hold hold = readers.get(owner);
+                if (hold == null) {
+                    return false;
+                }
+                if (--hold.count == 0) {
+                    readers.remove(owner);
+                }
+                return true;
+            }
+            if (writeHolds == 0 || writer != owner) {
+                return false;
+            }
+            if (--writeHolds == 0) {
+                writer = 0;
+            }
+            return true;
+        }
+
+        void expire(long now) {
+            if (writeHolds > 0 && isExpired(writeExpiresAt, now)) {
+                writer = 0;
+                writeHolds = 0;
+            }
+            if (!readers.isEmpty()) {
+                Iterator<Hold> iterator = readers.values().iterator();
+                while (iterator.hasNext()) {
+                    if (isExpired(iterator.next().expiresAt, now)) {
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+
+        long nanosUntilExpiry(long now) {
+            long nearest = nearestExpiry();
+            return nearest == NO_EXPIRY ? Long.MAX_VALUE : Math.max(1, nearest - now);
+        }
+
+        /**
+         * 最早的持有到期时间，没有会到期的持有时为NO_EXPIRY
+         */
+        long nearestExpiry() {
+            long nearest = writeHolds > 0 ? writeExpiresAt : NO_EXPIRY;
+            for (Hold hold : readers.values()) {
+                nearest = Math.min(nearest, hold.expiresAt);
+            }
+            return nearest;
+        }
+
+        /**
+         * 离开等待队列的异步等待者同时离开公平队列，并取消其超时任务
+         */
+        void leave(AsyncWaiter waiter) {
+            if (waiter.fair) {
+                queue.remove(waiter.owner);
+            }
+            if (waiter.timeout != null) {
+                waiter.timeout.cancel(false);
+            }
+        }
+
+        boolean isFree() {
+            return writeHolds == 0 && readers.isEmpty();
+        }
+    }
+
+    private static final class Hold {
+        private int count;
+        private long expiresAt;
+    }
+
+    /**
+     * 异步加锁的等待者，timeout为等待超时的定时任务，一直等待时为null
+     */
+    private static final class AsyncWaiter {
+        private final long owner;
+        private final boolean shared;
+        private final boolean fair;
+        private final long leaseNanos;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        private ScheduledFuture<?> timeout;
+
+        AsyncWaiter(long owner, boolean shared, boolean fair, long leaseNanos) {
+            this.owner = owner;
+            this.shared = shared;
+            this.fair = fair;
+            this.leaseNanos = leaseNanos;
+        }
+    }
+
+    private static final class Timer {
+        private static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "distributed-lock-local-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        static {
+            EXECUTOR.setRemoveOnCancelPolicy(true);
+        }
+    }
+}
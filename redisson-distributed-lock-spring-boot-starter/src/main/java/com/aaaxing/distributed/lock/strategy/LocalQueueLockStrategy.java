@@ -0,0 +1,267 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 本地排队锁策略（两级锁）
+ *
+ * <br>同一JVM内对同名锁的竞争先在本地锁上排队，每个JVM只有本地锁的持有者去竞争redis锁。
+ * 持有者释放时若还有本地等待者，则保留redis锁直接移交给下一个本地等待者，省去一次解锁、加锁的往返；
+ * 连续移交达到上限后释放redis锁，避免其他节点饥饿。
+ *
+ * <br>redis锁以本地锁条目的持有者id而非线程id加锁，因此可以在本地线程之间移交。
+ * 仅自动续期（leaseTime为-1）的锁会移交，指定了持有时间的锁每次都释放redis锁，以免移交后的持有者超出锁持有时间。
+ * 异步加锁不经过本地排队。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class LocalQueueLockStrategy implements LockStrategy {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalQueueLockStrategy.class);
+
+    private final LockStrategy delegate;
+    private final boolean fair;
+    private final int maxHandoffs;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate redis锁策略
+     * @param fair 本地排队是否公平
+     * @param maxHandoffs redis锁在本地连续移交的最大次数
+     */
+    public LocalQueueLockStrategy(LockStrategy delegate, boolean fair, int maxHandoffs) {
+        this.delegate = delegate;
+        this.fair = fair;
+        this.maxHandoffs = maxHandoffs;
+    }
+
+    @Override
+    public void lock(String lockName, long leaseTime, TimeUnit unit) {
+        Entry entry = retain(lockName);
+        boolean acquired = false;
+        try {
+            entry.localLock.lock();
+            try {
+                if (!entry.remoteHeld) {
+                    LockFutures.join(delegate.lockAsync(lockName, leaseTime, unit, entry.ownerId));
+                    entry.acquiredRemotely(leaseTime);
+                }
+                acquired = true;
+            } finally {
+                if (!acquired) {
+                    entry.localLock.unlock();
+                }
+            }
+        } finally {
+            if (!acquired) {
+                release(lockName, entry);
+            }
+        }
+    }
+
+    @Override
+    public boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(waitTime);
+        Entry entry = retain(lockName);
+        boolean acquired = false;
+        try {
+            if (!entry.localLock.tryLock(waitTime, unit)) {
+                return false;
+            }
+            try {
+                if (!entry.remoteHeld) {
+                    long remaining = Math.max(0, deadline - System.nanoTime());
+                    long lease = leaseTime == -1 ? -1 : unit.toNanos(leaseTime);
+                    CompletableFuture<Boolean> future = delegate.tryLockAsync(lockName, remaining, lease,
+                            TimeUnit.NANOSECONDS, entry.ownerId);
+                    if (!awaitRemote(lockName, entry, future)) {
+                        return false;
+                    }
+                    entry.acquiredRemotely(leaseTime);
+                }
+                acquired = true;
+                return true;
+            } finally {
+                if (!acquired) {
+                    entry.localLock.unlock();
+                }
+            }
+        } finally {
+            if (!acquired) {
+                release(lockName, entry);
+            }
+        }
+    }
+
+    @Override
+    public void unlock(String lockName) {
+        unlock(lockName, true);
+    }
+
+    /**
+     * 释放锁，需要释放redis锁时不等待其完成；本地等待者随后以相同的持有者id加锁，先于释放到达redis时只是一次重入。
+     * 释放完成前保留本地锁条目，当前线程立即重新加锁时同样沿用该持有者id
+     */
+    @Override
+    public CompletableFuture<Void> releaseAsync(String lockName) {
+        return unlock(lockName, false);
+    }
+
+    private CompletableFuture<Void> unlock(String lockName, boolean await) {
+        Entry entry = entries.get(lockName);
+        if (entry == null || !entry.localLock.isHeldByCurrentThread()) {
+            throw new IllegalMonitorStateException("attempt to unlock lock, not locked by current thread: " + lockName);
+        }
+
+        CompletableFuture<Void> result = null;
+        try {
+            if (entry.localLock.getHoldCount() == 1) {
+                entry.handoffs++;
+                boolean handoff = entry.users - entry.pending > 1 && entry.leaseTime == -1
+                        && entry.handoffs < maxHandoffs;
+                if (handoff) {
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("Hand off lock to local waiter, {}-{}", lockName, entry.handoffs);
+                    }
+                } else {
+                    entry.remoteHeld = false;
+                    result = delegate.unlockAsync(lockName, entry.ownerId);
+                    if (await) {
+                        LockFutures.join(result);
+                    } else {
+                        entries.computeIfPresent(lockName, (name, current) -> {
+                            current.pending++;
+                            return current;
+                        });
+                    }
+                }
+            }
+        } finally {
+            entry.localLock.unlock();
+            if (result == null || await) {
+                release(lockName, entry);
+            }
+        }
+        if (result == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!await) {
+            result.whenComplete((unlocked, e) -> releasePending(lockName, entry));
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+        return delegate.lockAsync(lockName, leaseTime, unit, ownerId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                                   long ownerId) {
+        return delegate.tryLockAsync(lockName, waitTime, leaseTime, unit, ownerId);
+    }
+
+    @Override
+    public CompletableFuture<Void> unlockAsync(String lockName, long ownerId) {
+        return delegate.unlockAsync(lockName, ownerId);
+    }
+
+    /**
+     * 等待redis锁的加锁结果，等待被中断时在加锁完成后立即释放，避免遗留无人持有的redis锁
+     */
+    private boolean awaitRemote(String lockName, Entry entry, CompletableFuture<Boolean> future)
+            throws InterruptedException {
+        try {
+            return LockFutures.get(future);
+        } catch (InterruptedException e) {
+            future.thenAccept(locked -> {
+                if (locked) {
+                    delegate.unlockAsync(lockName, entry.ownerId);
+                }
+            });
+            throw e;
+        }
+    }
+
+    private Entry retain(String lockName) {
+        return entries.compute(lockName, (name, entry) -> {
+            Entry retained = entry == null ? new Entry(fair) : entry;
+            retained.users++;
+            return retained;
+        });
+    }
+
+    /**
+     * 使用者离开本地锁条目，最后一个离开时移除条目；
+     * 若redis锁已移交给放弃等待的线程而无人持有，由最后离开的线程释放
+     */
+    private void release(String lockName, Entry entry) {
+        boolean[] orphaned = new boolean[1];
+        entries.computeIfPresent(lockName, (name, current) -> {
+            if (current != entry || --current.users > 0) {
+                return current;
+            }
+            orphaned[0] = current.remoteHeld;
+            return null;
+        });
+
+        if (orphaned[0]) {
+            entry.remoteHeld = false;
+            try {
+                LockFutures.join(delegate.unlockAsync(lockName, entry.ownerId));
+            } catch (Exception e) {
+                LOGGER.warn("Failed to release the orphaned lock handed off to local waiters: {}", lockName, e);
+            }
+        }
+    }
+
+    /**
+     * 异步释放完成，离开本地锁条目
+     */
+    private void releasePending(String lockName, Entry entry) {
+        entries.computeIfPresent(lockName, (name, current) -> {
+            if (current == entry) {
+                current.pending--;
+            }
+            return current;
+        });
+        release(lockName, entry);
+    }
+
+    /**
+     * 本地锁条目，remoteHeld、handoffs、leaseTime仅由本地锁持有者修改
+     */
+    private static final class Entry {
+        private final ReentrantLock localLock;
+        private final long ownerId = LockOwnerIds.next();
+        /**
+         * 使用者数量（持有者与等待者），仅在ConcurrentHashMap.compute中修改
+         */
+        private volatile int users;
+        /**
+         * 尚未完成的异步释放数量，计入users，仅在ConcurrentHashMap.compute中修改
+         */
+        private volatile int pending;
+        private volatile boolean remoteHeld;
+        private int handoffs;
+        private long leaseTime;
+
+        Entry(boolean fair) {
+            this.localLock = new ReentrantLock(fair);
+        }
+
+        void acquiredRemotely(long leaseTime) {
+            this.remoteHeld = true;
+            this.handoffs = 0;
+            this.leaseTime = leaseTime;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JVM内存中的信号量策略，与LocalLockTable相同按信号量名分段，每段由一个ReentrantLock保护并以其Condition唤醒等待者
+ *
+ * <br>许可可指定持有时间，过期后视为已归还；自动续期（leaseTime为-1）的许可一直持有直到释放。
+ * 信号量仅在当前JVM内有效，全部许可归还后移除，下次使用时重新设置许可总数
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class LocalSemaphoreStrategy implements SemaphoreStrategy {
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private final Stripe[] stripes;
+    private final AtomicLong permitIds = new AtomicLong();
+
+    /**
+     * @param stripeCount 分段数，向上取整为2的幂
+     */
+    public LocalSemaphoreStrategy(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public String acquire(String name, int permits, long leaseTime, TimeUnit unit) throws InterruptedException {
+        return acquire(name, permits, LocalLockTable.leaseNanos(leaseTime, unit), -1);
+    }
+
+    @Override
+    public String tryAcquire(String name, int permits, long waitTime, long leaseTime, TimeUnit unit)
+            throws InterruptedException {
+        return acquire(name, permits, LocalLockTable.leaseNanos(leaseTime, unit), Math.max(0, unit.toNanos(waitTime)));
+    }
+
+    @Override
+    public void release(String name, String permitId) {
+        Stripe stripe = stripe(name);
+        stripe.lock.lock();
+        try {
+            Permits state = stripe.states.get(name);
+            if (state != null) {
+                state.expire(System.nanoTime());
+            }
+            if (state == null || state.leases.remove(permitId) == null) {
+                throw new IllegalArgumentException("Permit with id " + permitId
+                        + " has already been released or doesn't exist, semaphore: " + name);
+            }
+            stripe.released.signalAll();
+            if (state.leases.isEmpty() && state.waiters == 0) {
+                stripe.states.remove(name);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * 信号量当前可用的许可数
+     *
+     * @param name 信号量名
+     * @return 可用许可数，信号量不存在时为0
+     */
+    public int availablePermits(String name) {
+        Stripe stripe = stripe(name);
+        stripe.lock.lock();
+        try {
+            Permits state = stripe.states.get(name);
+            if (state == null) {
+                return 0;
+            }
+            state.expire(System.nanoTime());
+            return state.total - state.leases.size();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * @param leaseNanos 持有时间（纳秒），负数为不过期
+     * @param waitNanos 等待时间（纳秒），负数为一直等待
+     */
+    private String acquire(String name, int permits, long leaseNanos, long waitNanos) throws InterruptedException {
+        Stripe stripe = stripe(name);
+        ReentrantLock lock = stripe.lock;
+        Map<String, Permits> table = stripe.states;
+        long deadline = waitNanos < 0 ? 0 : System.nanoTime() + waitNanos;
+
+        lock.lockInterruptibly();
+        Permits state = table.computeIfAbsent(name, key -> new Permits(permits));
+        state.waiters++;
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                state.expire(now);
+                if (state.leases.size() < state.total) {
+                    String permitId = Long.toHexString(permitIds.incrementAndGet());
+                    state.leases.put(permitId, leaseNanos < 0 ? NO_EXPIRY : now + leaseNanos);
+                    return permitId;
+                }
+                long remaining = waitNanos < 0 ? Long.MAX_VALUE : deadline - now;
+                if (remaining <= 0) {
+                    return null;
+                }
+                stripe.released.awaitNanos(Math.min(remaining, state.nanosUntilExpiry(now)));
+            }
+        } finally {
+            if (--state.waiters == 0 && state.leases.isEmpty()) {
+                table.remove(name);
+            }
+            lock.unlock();
+        }
+    }
+
+    private Stripe stripe(String name) {
+        int h = name.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * 一个分段：段锁、释放条件与该段全部信号量的状态
+     */
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition released = lock.newCondition();
+        private final Map<String, Permits> states = new HashMap<>();
+    }
+
+    /**
+     * 一个信号量的许可状态，仅在所属分段的锁内访问
+     */
+    private static final class Permits {
+        private final int total;
+        /**
+         * 许可id与过期时间
+         */
+        private final Map<String, Long> leases = new HashMap<>(4);
+        private int waiters;
+
+        Permits(int total) {
+            this.total = total;
+        }
+
+        void expire(long now) {
+            Iterator<Long> iterator = leases.values().iterator();
+            while (iterator.hasNext()) {
+                long expiresAt = iterator.next();
+                if (expiresAt != NO_EXPIRY && expiresAt - now <= 0) {
+                    iterator.remove();
+                }
+            }
+        }
+
+        long nanosUntilExpiry(long now) {
+            long nearest = NO_EXPIRY;
+            for (long expiresAt : leases.values()) {
+                nearest = Math.min(nearest, expiresAt);
+            }
+            return nearest == NO_EXPIRY ? Long.MAX_VALUE : Math.max(1, nearest - now);
+        }
+    }
+}
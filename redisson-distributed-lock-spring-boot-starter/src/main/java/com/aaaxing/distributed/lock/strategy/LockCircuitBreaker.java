@@ -0,0 +1,160 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 锁后端熔断器：按固定时间窗口统计锁后端请求的失败率与慢请求率，超过阈值时熔断
+ *
+ * <br>熔断期间allowRequest返回false，由DegradableLockStrategy快速失败或降级为本地锁；熔断时长过后，
+ * 第一个到达的请求触发一次探测（由锁提供者对专用锁名加锁、释放锁），探测成功且不慢时恢复，否则继续熔断一个熔断时长。
+ * 探测在后台完成，不占用业务请求。
+ *
+ * <br>慢请求只统计单次往返的请求（释放锁、等待时间为0的尝试加锁），阻断等待的加锁耗时包含锁竞争，只统计是否失败
+ *
+ * @author axing
+ * @date 2026-10-18
+ * @see DegradableLockStrategy
+ */
+public class LockCircuitBreaker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LockCircuitBreaker.class);
+
+    private final int failureRate;
+    private final long slowCallNanos;
+    private final int slowCallRate;
+    private final int minimumCalls;
+    private final long windowNanos;
+    private final long openNanos;
+    private final Supplier<CompletableFuture<?>> probe;
+    private final AtomicReference<Window> window;
+    private final AtomicBoolean open = new AtomicBoolean();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private volatile long openUntil;
+
+    /**
+     * @param failureRate 失败率阈值（百分比）
+     * @param slowCallNanos 慢请求阈值（纳秒）
+     * @param slowCallRate 慢请求率阈值（百分比）
+     * @param minimumCalls 窗口内请求数达到此值后才计算比率
+     * @param windowNanos 统计窗口（纳秒）
+     * @param openNanos 熔断时长（纳秒）
+     * @param probe 探测锁后端，返回的future正常完成为探测成功
+     */
+    public LockCircuitBreaker(int failureRate, long slowCallNanos, int slowCallRate, int minimumCalls,
+                              long windowNanos, long openNanos, Supplier<CompletableFuture<?>> probe) {
+        this.failureRate = failureRate;
+        this.slowCallNanos = slowCallNanos;
+        this.slowCallRate = slowCallRate;
+        this.minimumCalls = Math.max(1, minimumCalls);
+        this.windowNanos = windowNanos;
+        this.openNanos = openNanos;
+        this.probe = probe;
+        this.window = new AtomicReference<>(new Window(System.nanoTime()));
+    }
+
+    /**
+     * 是否允许请求锁后端，熔断期间返回false，熔断时长过后触发探测
+     */
+    public boolean allowRequest() {
+        if (!open.get()) {
+            return true;
+        }
+        if (System.nanoTime() - openUntil >= 0 && probing.compareAndSet(false, true)) {
+            probe();
+        }
+        return false;
+    }
+
+    /**
+     * 是否处于熔断状态
+     */
+    public boolean isOpen() {
+        return open.get();
+    }
+
+    /**
+     * 记录一次成功的请求
+     *
+     * @param nanos 请求耗时（纳秒），负数为不统计是否慢请求
+     */
+    public void recordSuccess(long nanos) {
+        record(false, nanos >= 0 && nanos > slowCallNanos);
+    }
+
+    /**
+     * 记录一次锁后端失败的请求
+     */
+    public void recordFailure() {
+        record(true, false);
+    }
+
+    private void record(boolean failure, boolean slow) {
+        long now = System.nanoTime();
+        Window current = window.get();
+        if (now - current.start >= windowNanos) {
+            Window next = new Window(now);
+            current = window.compareAndSet(current, next) ? next : window.get();
+        }
+        int calls = current.calls.incrementAndGet();
+        int failures = failure ? current.failures.incrementAndGet() : current.failures.get();
+        int slowCalls = slow ? current.slowCalls.incrementAndGet() : current.slowCalls.get();
+        if (calls >= minimumCalls && !open.get()
+                && (failures * 100L >= (long) failureRate * calls || slowCalls * 100L >= (long) slowCallRate * calls)) {
+            open(now);
+            LOGGER.warn("The lock backend circuit breaker is open, calls: {}, failures: {}, slow calls: {}.",
+                    calls, failures, slowCalls);
+        }
+    }
+
+    private void open(long now) {
+        openUntil = now + openNanos;
+        open.set(true);
+    }
+
+    private void probe() {
+        long start = System.nanoTime();
+        CompletableFuture<?> future;
+        try {
+            future = probe.get();
+        } catch (Exception e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((result, e) -> {
+            long elapsed = System.nanoTime() - start;
+            if (e == null && elapsed <= slowCallNanos) {
+                window.set(new Window(System.nanoTime()));
+                open.set(false);
+                LOGGER.info("The lock backend circuit breaker is closed after a successful probe.");
+            } else {
+                open(System.nanoTime());
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("The lock backend probe failed, elapsed: {}ms.", elapsed / 1_000_000,
+                            LockFutures.unwrap(e));
+                }
+            }
+            probing.set(false);
+        });
+    }
+
+    /**
+     * 一个统计窗口内的请求数、失败数与慢请求数
+     */
+    private static final class Window {
+        private final long start;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger slowCalls = new AtomicInteger();
+
+        Window(long start) {
+            this.start = start;
+        }
+    }
+}
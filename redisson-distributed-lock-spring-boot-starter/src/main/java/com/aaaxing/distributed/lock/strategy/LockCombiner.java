@@ -0,0 +1,170 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.exception.DistributedLockException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 锁合并执行器：把同一JVM内同名锁的大量短临界区合并到一次加锁中执行
+ *
+ * <br>提交的任务按锁名排队，每个锁名同一时刻只有一轮合并：加一次锁后在合并线程上按提交顺序执行排队的任务，
+ * 达到单轮任务数或单轮持锁时间上限后释放锁，仍有任务时再开始下一轮，其他节点在两轮之间有机会获得锁。
+ * 锁总是自动续期，以每轮新生成的持有者id加锁。
+ *
+ * <br>任务在合并线程上执行，不应再对同名锁加锁（持有者不同，会一直等待），也不应长时间阻塞
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class LockCombiner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LockCombiner.class);
+
+    private final LockStrategy lockStrategy;
+    private final int maxBatchSize;
+    private final long maxBatchNanos;
+    private final ConcurrentHashMap<String, Queue> queues = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    /**
+     * @param lockStrategy 可重入锁策略
+     * @param maxBatchSize 单轮最多执行的任务数
+     * @param maxBatchTime 单轮最长持锁时间，超过后执行完当前任务即释放锁
+     * @param unit 时间单位
+     */
+    public LockCombiner(LockStrategy lockStrategy, int maxBatchSize, long maxBatchTime, TimeUnit unit) {
+        this.lockStrategy = lockStrategy;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxBatchNanos = unit.toNanos(maxBatchTime);
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "distributed-lock-combiner-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 提交在锁内执行的任务
+     *
+     * @param lockName 锁名
+     * @param task 任务
+     * @return 任务的结果，任务抛出异常时异常完成，加锁失败时以status=3的异常完成
+     */
+    public <T> CompletableFuture<T> submit(String lockName, Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Queue queue = queues.computeIfAbsent(lockName, Queue::new);
+        queue.tasks.offer(new Task<>(task, future));
+        queue.schedule();
+        return future;
+    }
+
+    /**
+     * 停止合并线程，尚未执行的任务不再执行
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 同名锁的任务队列，active为true时有一轮合并正在加锁、执行或释放
+     */
+    private final class Queue {
+        private final String lockName;
+        private final ConcurrentLinkedQueue<Task<?>> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean active = new AtomicBoolean();
+
+        Queue(String lockName) {
+            this.lockName = lockName;
+        }
+
+        void schedule() {
+            if (!tasks.isEmpty() && active.compareAndSet(false, true)) {
+                long ownerId = LockOwnerIds.next();
+                lockStrategy.lockAsync(lockName, -1, TimeUnit.MILLISECONDS, ownerId).whenComplete((v, e) -> {
+                    if (e != null) {
+                        failQueued(LockFutures.unwrap(e));
+                        finish();
+                        return;
+                    }
+                    try {
+                        executor.execute(() -> runBatch(ownerId));
+                    } catch (RejectedExecutionException rejected) {
+                        failQueued(rejected);
+                        release(ownerId);
+                    }
+                });
+            }
+        }
+
+        private void runBatch(long ownerId) {
+            long deadline = System.nanoTime() + maxBatchNanos;
+            Task<?> task;
+            for (int i = 0; i < maxBatchSize && (task = tasks.poll()) != null; i++) {
+                task.run();
+                if (System.nanoTime() - deadline >= 0) {
+                    break;
+                }
+            }
+            release(ownerId);
+        }
+
+        private void release(long ownerId) {
+            lockStrategy.unlockAsync(lockName, ownerId).whenComplete((v, e) -> {
+                if (e != null) {
+                    LOGGER.warn("Failed to release the combined lock[{}].", lockName, LockFutures.unwrap(e));
+                }
+                finish();
+            });
+        }
+
+        /**
+         * 结束本轮，仍有任务时开始下一轮，否则移除空队列；移除后提交到本队列的任务仍由本队列执行
+         */
+        private void finish() {
+            active.set(false);
+            if (tasks.isEmpty()) {
+                queues.remove(lockName, this);
+            }
+            schedule();
+        }
+
+        private void failQueued(Throwable cause) {
+            DistributedLockException exception = new DistributedLockException(3,
+                    "Failed to lock the combined lock[" + lockName + "].", cause);
+            Task<?> task;
+            while ((task = tasks.poll()) != null) {
+                task.future.completeExceptionally(exception);
+            }
+        }
+    }
+
+    private static final class Task<T> {
+        private final Supplier<T> supplier;
+        private final CompletableFuture<T> future;
+
+        Task(Supplier<T> supplier, CompletableFuture<T> future) {
+            this.supplier = supplier;
+            this.future = future;
+        }
+
+        void run() {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
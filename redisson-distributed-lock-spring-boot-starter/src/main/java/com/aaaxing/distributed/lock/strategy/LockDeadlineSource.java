@@ -0,0 +1,27 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+/**
+ * 调用截止时间来源，为开启了deadline的锁提供当前调用剩余的时间预算
+ *
+ * <br>注册为bean后替换默认的ThreadLocalLockDeadlineSource，可从请求属性、线程变量或gRPC、HTTP的超时头读取截止时间。
+ * 在开始加锁的线程上调用，不应阻塞
+ *
+ * @author axing
+ * @date 2026-10-18
+ * @see ThreadLocalLockDeadlineSource
+ */
+@FunctionalInterface
+public interface LockDeadlineSource {
+    /**
+     * 没有截止时间
+     */
+    long NO_DEADLINE = Long.MAX_VALUE;
+
+    /**
+     * 获取当前调用剩余的时间预算
+     *
+     * @return 剩余时间（纳秒），小于等于0为已耗尽，没有截止时间时为NO_DEADLINE
+     */
+    long remainingNanos();
+}
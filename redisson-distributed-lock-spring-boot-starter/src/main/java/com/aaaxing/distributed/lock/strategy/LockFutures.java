@@ -0,0 +1,71 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 锁异步结果工具类，同步等待异步加锁、释放锁的结果并还原原始异常
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public final class LockFutures {
+    private LockFutures() {
+    }
+
+    /**
+     * 不可中断地等待结果
+     *
+     * @param future 异步结果
+     * @return 结果
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw rethrow(e.getCause() == null ? e : e.getCause());
+        }
+    }
+
+    /**
+     * 可中断地等待结果
+     *
+     * @param future 异步结果
+     * @return 结果
+     * @throws InterruptedException 等待时被中断
+     */
+    public static <T> T get(CompletableFuture<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause() == null ? e : e.getCause());
+        }
+    }
+
+    /**
+     * 取出CompletionException、ExecutionException包装的原始异常
+     *
+     * @param throwable 异常
+     * @return 原始异常
+     */
+    public static Throwable unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new CompletionException(cause);
+    }
+}
@@ -0,0 +1,73 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 锁层级：去掉前缀后以“:”分隔的锁名自根向下逐层划分，如order:42的各层为order、order:42
+ *
+ * <br>层级锁对锁名本身加读（S）或写（X）锁，对各祖先层加对应的意向锁（IS、IX），
+ * 对order:42加写锁的调用之间互不阻塞，对order加写锁时与order下的全部读写互斥
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+final class LockHierarchy {
+    private final String prefix;
+
+    /**
+     * @param prefix 锁名前缀，不参与层级划分
+     */
+    LockHierarchy(String prefix) {
+        this.prefix = prefix == null ? "" : prefix;
+    }
+
+    /**
+     * 获取锁名自根向下的各层锁名，最后一层为锁名本身
+     *
+     * @param lockName 锁名
+     * @return 各层锁名，均带有前缀
+     */
+    List<String> levels(String lockName) {
+        int start = lockName.startsWith(prefix) ? prefix.length() : 0;
+        List<String> levels = new ArrayList<>();
+        int index = lockName.indexOf(':', start);
+        while (index > start) {
+            levels.add(lockName.substring(0, index));
+            index = lockName.indexOf(':', index + 1);
+        }
+        levels.add(lockName);
+        return levels;
+    }
+
+    /**
+     * 获取锁名的根层锁名，同一层级树的各层锁名的根层相同
+     *
+     * @param lockName 锁名
+     * @return 根层锁名
+     */
+    String root(String lockName) {
+        return levels(lockName).get(0);
+    }
+
+    /**
+     * 获取层级锁名去掉前缀后的部分
+     *
+     * @param levelName 层级锁名
+     * @return 不含前缀的层级路径
+     */
+    String path(String levelName) {
+        return levelName.startsWith(prefix) ? levelName.substring(prefix.length()) : levelName;
+    }
+
+    /**
+     * 获取锁名的前缀部分
+     *
+     * @param levelName 层级锁名
+     * @return 前缀，锁名不以前缀开头时为空串
+     */
+    String prefix(String levelName) {
+        return levelName.startsWith(prefix) ? prefix : "";
+    }
+}
@@ -0,0 +1,29 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 锁持有者id生成器
+ *
+ * <br>redisson默认以线程id标识锁持有者，异步加锁与本地排队锁的持有者不绑定线程，使用此处生成的持有者id。
+ * 生成的id均为负数，不会与线程id冲突，且在JVM内唯一。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public final class LockOwnerIds {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private LockOwnerIds() {
+    }
+
+    /**
+     * 生成新的锁持有者id
+     *
+     * @return 持有者id，负数
+     */
+    public static long next() {
+        return -SEQUENCE.incrementAndGet();
+    }
+}
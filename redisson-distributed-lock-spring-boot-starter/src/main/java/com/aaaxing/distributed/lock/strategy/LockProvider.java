@@ -0,0 +1,71 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+
+/**
+ * 锁提供者，切面与DistributedLocks工具类经锁策略注册表访问锁的后端
+ *
+ * <br>内置基于redisson的RedissonLockProvider（默认）与JVM内存中的LocalLockProvider，
+ * 可通过application.properties选择：distributed-lock.provider=redisson|local；也可注册自定义的LockProvider bean
+ *
+ * @author axing
+ * @date 2026-10-18
+ * @see LockStrategyRegistry
+ */
+public interface LockProvider {
+
+    /**
+     * 获取锁类型对应的锁策略
+     *
+     * @param type 锁类型
+     * @return 锁策略
+     */
+    LockStrategy getLockStrategy(Type type);
+
+    /**
+     * 获取批量锁策略，与LOCK类型的同名锁互斥
+     *
+     * @return 批量锁策略
+     */
+    BatchLockStrategy getBatchLockStrategy();
+
+    /**
+     * 获取信号量策略
+     *
+     * @return 信号量策略，不支持信号量的提供者为null
+     */
+    default SemaphoreStrategy getSemaphoreStrategy() {
+        return null;
+    }
+
+    /**
+     * 获取跨节点共享的单飞结果存储
+     *
+     * @return 结果存储，仅在单个JVM内加锁的提供者为null
+     */
+    default SingleFlightResults getSingleFlightResults() {
+        return null;
+    }
+
+    /**
+     * 获取跨节点共享的幂等结果存储
+     *
+     * @return 结果存储，仅在单个JVM内加锁的提供者为null
+     */
+    default IdempotentResults getIdempotentResults() {
+        return null;
+    }
+
+    /**
+     * 预热：预先加载锁脚本、建立连接等，使首批加锁请求不再承担冷启动开销。容器启动后在后台调用，失败不影响加锁
+     */
+    default void warmUp() {
+    }
+
+    /**
+     * 释放提供者持有的资源，容器关闭时调用
+     */
+    default void close() {
+    }
+}
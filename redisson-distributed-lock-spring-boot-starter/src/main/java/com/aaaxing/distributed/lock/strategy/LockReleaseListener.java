@@ -0,0 +1,23 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+/**
+ * 异步释放锁失败监听器
+ *
+ * <br>注册为bean后在异步释放（asyncUnlock）失败时回调，未注册时仅打印告警日志。
+ * 异步释放失败不再抛出status=4的异常，回调在释放完成的线程中执行，不应阻塞。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+@FunctionalInterface
+public interface LockReleaseListener {
+
+    /**
+     * 释放失败
+     *
+     * @param lockName 锁名
+     * @param cause 异常，如锁已过期或不由当前线程持有时的IllegalMonitorStateException
+     */
+    void onReleaseFailed(String lockName, Throwable cause);
+}
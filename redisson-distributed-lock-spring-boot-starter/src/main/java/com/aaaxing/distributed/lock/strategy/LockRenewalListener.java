@@ -0,0 +1,37 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+/**
+ * 锁续期失败监听器
+ *
+ * <br>注册为bean后由批量续期服务在续期失败时回调，未注册时仅打印告警日志。
+ * 回调在续期线程中执行，不应阻塞。
+ *
+ * @author axing
+ * @date 2026-10-18
+ * @see LockRenewalService
+ */
+@FunctionalInterface
+public interface LockRenewalListener {
+
+    /**
+     * 续期失败
+     *
+     * @param lockName 锁名
+     * @param ownerId 持有者id，同步加锁时为线程id
+     * @param cause 续期请求异常，锁已不由该持有者持有（已过期或被删除）时为null；
+     *              请求异常时下一轮仍会继续续期，锁已不被持有时不再续期
+     */
+    void onRenewalFailed(String lockName, long ownerId, Throwable cause);
+
+    /**
+     * 信号量许可续期失败，默认以持有者id为0回调onRenewalFailed
+     *
+     * @param name 信号量名
+     * @param permitId 许可id
+     * @param cause 续期请求异常，许可已过期或已释放时为null
+     */
+    default void onPermitRenewalFailed(String name, String permitId, Throwable cause) {
+        onRenewalFailed(name, 0, cause);
+    }
+}
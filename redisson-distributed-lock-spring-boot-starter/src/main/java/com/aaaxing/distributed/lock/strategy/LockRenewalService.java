@@ -0,0 +1,406 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import org.redisson.Redisson;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 锁批量续期服务
+ *
+ * <br>redisson的看门狗为每把自动续期的锁单独发送续期命令，持有大量锁时续期流量可观。
+ * 经此服务加锁时以看门狗超时时间作为锁持有时间，由本服务登记，每隔看门狗超时时间的1/3
+ * 将全部登记的锁放入一个批量请求（pipeline）续期，每轮只有一次往返，与持有的锁数量无关。
+ *
+ * <br>锁的存储结构与redisson可重入锁（RLock）一致，持有者字段为“节点id:持有者id”。
+ * 同一持有者重入时累计持有次数，全部释放后取消登记；释放时先取消登记再解锁，避免把正常释放误报为续期失败。
+ *
+ * <br>同样续期信号量的许可：许可与锁放入同一个批量请求，由脚本直接更新redisson许可过期有序集合中的过期时间。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class LockRenewalService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LockRenewalService.class);
+
+    /**
+     * KEYS[1]：锁名，KEYS[2]：持有者的存活有序集合（可选）；ARGV[1]：锁持有时间（毫秒），ARGV[2]：持有者，
+     * ARGV[3]：新的存活期限（毫秒时间戳，有KEYS[2]时）。续期成功返回1
+     */
+    private static final LockScript RENEW_SCRIPT = new LockScript(""
+            + "if (redis.call('hexists', KEYS[1], ARGV[2]) == 1) then "
+            + "redis.call('pexpire', KEYS[1], ARGV[1]); "
+            + "if #KEYS > 1 then "
+            + "redis.call('zadd', KEYS[2], ARGV[3], ARGV[2]); "
+            + "redis.call('pexpire', KEYS[2], ARGV[1]); "
+            + "end; "
+            + "return 1; "
+            + "end; "
+            + "return 0;");
+
+    /**
+     * KEYS[1]：redisson许可过期有序集合；ARGV[1]：许可id，ARGV[2]：新的过期时间戳（毫秒），ARGV[3]：当前时间戳（毫秒）。
+     * 许可存在且未过期时续期并返回1；已过期的许可留给redisson回收
+     */
+    private static final LockScript RENEW_PERMIT_SCRIPT = new LockScript(""
+            + "local expiresAt = redis.call('zscore', KEYS[1], ARGV[1]); "
+            + "if (expiresAt ~= false) and (tonumber(expiresAt) > tonumber(ARGV[3])) then "
+            + "redis.call('zadd', KEYS[1], ARGV[2], ARGV[1]); "
+            + "return 1; "
+            + "end; "
+            + "return 0;");
+
+    /**
+     * 本类使用的全部lua脚本，启动预热时预先加载
+     */
+    static final List<LockScript> SCRIPTS = Arrays.asList(RENEW_SCRIPT, RENEW_PERMIT_SCRIPT);
+
+    private final RedissonClient redisson;
+    private final String nodeId;
+    private final long leaseMillis;
+    private final LockRenewalListener listener;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<PermitKey> permits = ConcurrentHashMap.newKeySet();
+    private volatile ScheduledFuture<?> task;
+
+    /**
+     * @param redisson redisson客户端
+     * @param listener 续期失败监听器，为null时仅打印告警日志
+     */
+    public LockRenewalService(RedissonClient redisson, LockRenewalListener listener) {
+        this.redisson = redisson;
+        // 与redisson可重入锁使用相同的节点id，同一线程经redisson直接持有的锁与经本服务持有的锁可以重入
+        UUID uuid = redisson instanceof Redisson ? ((Redisson) redisson).getConnectionManager().getId()
+                : UUID.randomUUID();
+        this.nodeId = uuid.toString();
+        this.leaseMillis = redisson.getConfig().getLockWatchdogTimeout();
+        this.listener = listener;
+    }
+
+    /**
+     * 自动续期的锁的持有时间，即redisson的看门狗超时时间
+     *
+     * @return 毫秒
+     */
+    public long getLeaseMillis() {
+        return leaseMillis;
+    }
+
+    /**
+     * 获取持有者在锁中的字段名
+     *
+     * @param ownerId 持有者id
+     * @return 字段名
+     */
+    public String getOwnerField(long ownerId) {
+        return nodeId + ":" + ownerId;
+    }
+
+    /**
+     * 登记自动续期的加锁，重入时累计持有次数
+     *
+     * @param lockName 锁名
+     * @param ownerId 持有者id
+     */
+    public void register(String lockName, long ownerId) {
+        register(lockName, null, ownerId);
+    }
+
+    /**
+     * 登记自动续期的加锁，续期时同时把持有者在存活有序集合中的存活期限推后，重入时累计持有次数
+     *
+     * @param lockName 锁名
+     * @param aliveName 持有者的存活有序集合，与锁名位于同一slot，为null时只续期锁
+     * @param ownerId 持有者id
+     */
+    public void register(String lockName, String aliveName, long ownerId) {
+        entries.compute(new Key(lockName, ownerId), (key, entry) -> {
+            Entry current = entry == null ? new Entry(aliveName) : entry;
+            current.holds++;
+            return current;
+        });
+        if (task == null) {
+            start();
+        }
+    }
+
+    /**
+     * 登记指定了持有时间的重入加锁：已登记自动续期时累计持有次数，否则忽略
+     *
+     * @param lockName 锁名
+     * @param ownerId 持有者id
+     */
+    public void retain(String lockName, long ownerId) {
+        entries.computeIfPresent(new Key(lockName, ownerId), (key, entry) -> {
+            entry.holds++;
+            return entry;
+        });
+    }
+
+    /**
+     * 释放一次持有，全部释放后不再续期。应在解锁前调用
+     *
+     * @param lockName 锁名
+     * @param ownerId 持有者id
+     */
+    public void release(String lockName, long ownerId) {
+        entries.computeIfPresent(new Key(lockName, ownerId), (key, entry) -> --entry.holds > 0 ? entry : null);
+    }
+
+    /**
+     * 登记自动续期的信号量许可
+     *
+     * @param name 信号量名
+     * @param permitId 许可id
+     */
+    public void registerPermit(String name, String permitId) {
+        permits.add(new PermitKey(name, permitId));
+        if (task == null) {
+            start();
+        }
+    }
+
+    /**
+     * 不再续期信号量许可。应在释放许可前调用
+     *
+     * @param name 信号量名
+     * @param permitId 许可id
+     */
+    public void releasePermit(String name, String permitId) {
+        permits.remove(new PermitKey(name, permitId));
+    }
+
+    /**
+     * 停止续期
+     */
+    public synchronized void shutdown() {
+        if (task != null) {
+            task.cancel(false);
+        }
+        entries.clear();
+        permits.clear();
+    }
+
+    private synchronized void start() {
+        if (task == null) {
+            long period = Math.max(1, leaseMillis / 3);
+            task = RenewalScheduler.EXECUTOR.scheduleWithFixedDelay(this::renewAll, period, period,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 一次批量请求续期全部登记的锁与许可
+     */
+    void renewAll() {
+        if (entries.isEmpty() && permits.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Key, Entry>> snapshot = new ArrayList<>(entries.entrySet());
+        List<PermitKey> permitSnapshot = new ArrayList<>(permits);
+        List<RFuture<Boolean>> futures = new ArrayList<>(snapshot.size());
+        List<RFuture<Boolean>> permitFutures = new ArrayList<>(permitSnapshot.size());
+
+        try {
+            try {
+                executeBatch(snapshot, permitSnapshot, futures, permitFutures);
+            } catch (RuntimeException e) {
+                if (!LockScript.isNoScript(e)) {
+                    throw e;
+                }
+                // 批量请求中无法逐条回退为EVAL，脚本不在redis中时加载后重试一次
+                RScript script = redisson.getScript(StringCodec.INSTANCE);
+                for (LockScript lockScript : SCRIPTS) {
+                    script.scriptLoad(lockScript.getLua());
+                }
+                executeBatch(snapshot, permitSnapshot, futures, permitFutures);
+            }
+        } catch (Exception e) {
+            // 请求失败时保留登记，下一轮继续续期
+            for (Map.Entry<Key, Entry> entry : snapshot) {
+                notifyFailed(entry.getKey(), e);
+            }
+            for (PermitKey key : permitSnapshot) {
+                notifyPermitFailed(key, e);
+            }
+            return;
+        }
+
+        for (int i = 0; i < snapshot.size(); i++) {
+            Map.Entry<Key, Entry> entry = snapshot.get(i);
+            if (!Boolean.TRUE.equals(futures.get(i).getNow()) && entries.remove(entry.getKey(), entry.getValue())) {
+                notifyFailed(entry.getKey(), null);
+            }
+        }
+        for (int i = 0; i < permitSnapshot.size(); i++) {
+            PermitKey key = permitSnapshot.get(i);
+            if (!Boolean.TRUE.equals(permitFutures.get(i).getNow()) && permits.remove(key)) {
+                notifyPermitFailed(key, null);
+            }
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Renewed {} locks and {} semaphore permits in one batch.", snapshot.size(),
+                    permitSnapshot.size());
+        }
+    }
+
+    /**
+     * 以EVALSHA把全部续期放入一个批量请求执行，结果依次放入futures与permitFutures
+     */
+    private void executeBatch(List<Map.Entry<Key, Entry>> snapshot, List<PermitKey> permitSnapshot,
+                              List<RFuture<Boolean>> futures, List<RFuture<Boolean>> permitFutures) {
+        futures.clear();
+        permitFutures.clear();
+        RBatch batch = redisson.createBatch(BatchOptions.defaults());
+        RScriptAsync script = batch.getScript(StringCodec.INSTANCE);
+        // 与redisson的updateLeaseTime一致，以客户端时间计算许可的过期时间与持有者的存活期限
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Key, Entry> entry : snapshot) {
+            Key key = entry.getKey();
+            String aliveName = entry.getValue().aliveName;
+            if (aliveName == null) {
+                futures.add(script.evalShaAsync(key.lockName, RScript.Mode.READ_WRITE, RENEW_SCRIPT.getSha(),
+                        RScript.ReturnType.BOOLEAN, Collections.singletonList(key.lockName), leaseMillis,
+                        getOwnerField(key.ownerId)));
+            } else {
+                futures.add(script.evalShaAsync(key.lockName, RScript.Mode.READ_WRITE, RENEW_SCRIPT.getSha(),
+                        RScript.ReturnType.BOOLEAN, Arrays.asList(key.lockName, aliveName), leaseMillis,
+                        getOwnerField(key.ownerId), now + leaseMillis));
+            }
+        }
+        for (PermitKey key : permitSnapshot) {
+            String timeoutName = permitTimeoutName(key.name);
+            permitFutures.add(script.evalShaAsync(timeoutName, RScript.Mode.READ_WRITE, RENEW_PERMIT_SCRIPT.getSha(),
+                    RScript.ReturnType.BOOLEAN, Collections.singletonList(timeoutName), key.permitId,
+                    now + leaseMillis, now));
+        }
+        batch.execute();
+    }
+
+    /**
+     * 与redisson可过期许可信号量的过期有序集合同名
+     */
+    private static String permitTimeoutName(String name) {
+        return name.contains("{") ? name + ":timeout" : "{" + name + "}:timeout";
+    }
+
+    private void notifyPermitFailed(PermitKey key, Throwable cause) {
+        if (listener == null) {
+            LOGGER.warn("Failed to renew the expiration of semaphore permit: {}, permit: {}", key.name, key.permitId,
+                    cause);
+            return;
+        }
+        try {
+            listener.onPermitRenewalFailed(key.name, key.permitId, cause);
+        } catch (Exception e) {
+            LOGGER.warn("An exception occurred in the lock renewal listener.", e);
+        }
+    }
+
+    private void notifyFailed(Key key, Throwable cause) {
+        if (listener == null) {
+            LOGGER.warn("Failed to renew the expiration of lock: {}, owner: {}", key.lockName, key.ownerId, cause);
+            return;
+        }
+        try {
+            listener.onRenewalFailed(key.lockName, key.ownerId, cause);
+        } catch (Exception e) {
+            LOGGER.warn("An exception occurred in the lock renewal listener.", e);
+        }
+    }
+
+    private static final class Key {
+        private final String lockName;
+        private final long ownerId;
+
+        Key(String lockName, long ownerId) {
+            this.lockName = lockName;
+            this.ownerId = ownerId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return ownerId == key.ownerId && lockName.equals(key.lockName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lockName, ownerId);
+        }
+    }
+
+    private static final class PermitKey {
+        private final String name;
+        private final String permitId;
+
+        PermitKey(String name, String permitId) {
+            this.name = name;
+            this.permitId = permitId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PermitKey)) {
+                return false;
+            }
+            PermitKey key = (PermitKey) o;
+            return permitId.equals(key.permitId) && name.equals(key.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, permitId);
+        }
+    }
+
+    /**
+     * 持有次数，仅在ConcurrentHashMap.compute中修改；aliveName为同时续期的存活有序集合
+     */
+    private static final class Entry {
+        private final String aliveName;
+        private int holds;
+
+        Entry(String aliveName) {
+            this.aliveName = aliveName;
+        }
+    }
+
+    private static final class RenewalScheduler {
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "distributed-lock-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,110 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import org.redisson.api.RFuture;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptAsync;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 本组件的lua脚本，以EVALSHA调用
+ *
+ * <br>脚本的SHA1在本地计算，调用时只发送摘要；redis中不存在该脚本（未预热、重启或SCRIPT FLUSH）时以EVAL重试一次，
+ * EVAL同时把脚本加入redis的脚本缓存。只影响本组件的脚本，不修改redisson客户端的配置
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+final class LockScript {
+    private final String lua;
+    private final String sha;
+
+    LockScript(String lua) {
+        this.lua = lua;
+        this.sha = sha1(lua);
+    }
+
+    /**
+     * 脚本内容，用于SCRIPT LOAD
+     */
+    String getLua() {
+        return lua;
+    }
+
+    /**
+     * 脚本的SHA1摘要
+     */
+    String getSha() {
+        return sha;
+    }
+
+    /**
+     * 以EVALSHA异步执行，脚本不存在时以EVAL重试
+     *
+     * @param script redisson脚本对象
+     * @param key 决定请求发往的节点的键。redisson不带键的EVALSHA不使用脚本对象的编解码器，因此总是按键路由
+     * @param mode 读写模式
+     * @param returnType 返回值类型
+     * @param keys KEYS
+     * @param values ARGV
+     * @return 异步结果
+     */
+    <R> CompletableFuture<R> evalAsync(RScriptAsync script, String key, RScript.Mode mode,
+                                       RScript.ReturnType returnType, List<Object> keys, Object... values) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        RFuture<R> evalSha = script.evalShaAsync(key, mode, sha, returnType, keys, values);
+        evalSha.whenComplete((value, e) -> {
+            if (e == null) {
+                result.complete(value);
+            } else if (isNoScript(e)) {
+                RFuture<R> eval = script.evalAsync(key, mode, lua, returnType, keys, values);
+                eval.whenComplete((retried, ex) -> {
+                    if (ex == null) {
+                        result.complete(retried);
+                    } else {
+                        result.completeExceptionally(ex);
+                    }
+                });
+            } else {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 是否为脚本不存在的错误
+     *
+     * @param throwable 异常
+     * @return 是否为NOSCRIPT错误
+     */
+    static boolean isNoScript(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static String sha1(String lua) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(lua.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not supported", e);
+        }
+    }
+}
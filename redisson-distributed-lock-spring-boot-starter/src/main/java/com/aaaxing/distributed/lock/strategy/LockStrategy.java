@@ -0,0 +1,90 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 锁策略，封装某一锁类型的加锁与释放锁操作
+ *
+ * <br>同步方法的锁持有者为当前线程；异步方法的锁持有者由ownerId指定，可在任意线程加锁、释放锁
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public interface LockStrategy {
+
+    /**
+     * 阻断等待获取锁
+     *
+     * @param lockName 锁名
+     * @param leaseTime 锁持有时间，-1为自动续期
+     * @param unit 时间单位
+     */
+    void lock(String lockName, long leaseTime, TimeUnit unit);
+
+    /**
+     * 尝试获取锁
+     *
+     * @param lockName 锁名
+     * @param waitTime 锁等待时间
+     * @param leaseTime 锁持有时间，-1为自动续期
+     * @param unit 时间单位
+     * @return 是否获取成功
+     * @throws InterruptedException 等待时被中断
+     */
+    boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * 释放锁
+     *
+     * @param lockName 锁名
+     */
+    void unlock(String lockName);
+
+    /**
+     * 异步阻断等待获取锁
+     *
+     * @param lockName 锁名
+     * @param leaseTime 锁持有时间，-1为自动续期
+     * @param unit 时间单位
+     * @param ownerId 锁持有者id
+     * @return 获取到锁时完成
+     */
+    CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId);
+
+    /**
+     * 异步尝试获取锁
+     *
+     * @param lockName 锁名
+     * @param waitTime 锁等待时间
+     * @param leaseTime 锁持有时间，-1为自动续期
+     * @param unit 时间单位
+     * @param ownerId 锁持有者id
+     * @return 是否获取成功
+     */
+    CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                            long ownerId);
+
+    /**
+     * 异步释放锁
+     *
+     * @param lockName 锁名
+     * @param ownerId 锁持有者id
+     * @return 释放完成时完成
+     */
+    CompletableFuture<Void> unlockAsync(String lockName, long ownerId);
+
+    /**
+     * 异步释放当前线程以同步方法持有的锁，不等待释放完成即返回
+     *
+     * <br>返回前已完成本地状态的释放，当前线程随后可立即重新加锁：重新加锁先于释放到达redis时只是一次重入，
+     * 持有者不变
+     *
+     * @param lockName 锁名
+     * @return 释放完成时完成
+     */
+    default CompletableFuture<Void> releaseAsync(String lockName) {
+        return unlockAsync(lockName, Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,227 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
+import org.redisson.api.RedissonClient;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+
+/**
+ * 锁策略注册表，按锁类型持有锁提供者的锁策略，由切面与DistributedLocks工具类共用
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class LockStrategyRegistry {
+    private final LockProvider lockProvider;
+    private final Map<Type, LockStrategy> lockStrategies = new EnumMap<>(Type.class);
+    private final Map<Type, LockStrategy> localQueueLockStrategies = new EnumMap<>(Type.class);
+    private final LockStripes lockStripes;
+    private final LockCombiner lockCombiner;
+    private final LockCircuitBreaker circuitBreaker;
+    private final LockProvider fallbackProvider;
+    private final IdempotentResults idempotentResults;
+
+    /**
+     * @param redisson redisson客户端，为null时不提供锁策略
+     * @param properties 分布式锁配置
+     */
+    public LockStrategyRegistry(RedissonClient redisson, DistributedLockProperties properties) {
+        this(redisson, properties, null);
+    }
+
+    /**
+     * @param redisson redisson客户端，为null时不提供锁策略
+     * @param properties 分布式锁配置
+     * @param renewalListener 锁续期失败监听器，为null时仅打印告警日志
+     */
+    public LockStrategyRegistry(RedissonClient redisson, DistributedLockProperties properties,
+                                LockRenewalListener renewalListener) {
+        this(redisson == null ? null : new RedissonLockProvider(redisson, properties, renewalListener), properties);
+    }
+
+    /**
+     * @param lockProvider 锁提供者，为null时不提供锁策略
+     * @param properties 分布式锁配置
+     */
+    public LockStrategyRegistry(LockProvider lockProvider, DistributedLockProperties properties) {
+        this.lockProvider = lockProvider;
+        this.lockStripes = new LockStripes(properties.getPrefix());
+        if (lockProvider == null) {
+            this.lockCombiner = null;
+            this.circuitBreaker = null;
+            this.fallbackProvider = null;
+            this.idempotentResults = null;
+            return;
+        }
+        this.idempotentResults = new NearCachedIdempotentResults(lockProvider.getIdempotentResults(),
+                properties.getIdempotentNearCacheSize(), properties.getIdempotentNearCacheTtl().toMillis());
+        this.circuitBreaker = createCircuitBreaker(lockProvider.getLockStrategy(Type.LOCK), properties);
+        this.fallbackProvider = new LocalLockProvider();
+        this.lockCombiner = new LockCombiner(lockProvider.getLockStrategy(Type.LOCK),
+                properties.getCombinerMaxBatchSize(), properties.getCombinerMaxBatchTime().toNanos(),
+                TimeUnit.NANOSECONDS);
+        for (Type type : Type.values()) {
+            if (Type.SEMAPHORE.equals(type)) {
+                continue;
+            }
+            LockStrategy lockStrategy = lockProvider.getLockStrategy(type);
+            // 本地排队锁自身在本地锁上重入，只为直接访问锁提供者的锁策略增加线程内重入快速路径
+            lockStrategies.put(type, properties.isLocalReentrancy()
+                    ? new ThreadLocalReentrancyLockStrategy(lockStrategy) : lockStrategy);
+            if (!Type.READ_LOCK.equals(type) && !Type.HIERARCHICAL_READ_LOCK.equals(type)) {
+                boolean fair = Type.FAIR_LOCK.equals(type) || Type.HANDOFF_LOCK.equals(type);
+                localQueueLockStrategies.put(type, new LocalQueueLockStrategy(lockStrategy, fair,
+                        properties.getLocalQueueMaxHandoffs()));
+            }
+        }
+    }
+
+    /**
+     * 锁提供者是否可用
+     */
+    public boolean isAvailable() {
+        return lockProvider != null;
+    }
+
+    /**
+     * 获取锁类型对应的锁策略
+     *
+     * @param type 锁类型
+     * @return 锁策略，锁提供者不可用时为null
+     */
+    public LockStrategy getLockStrategy(Type type) {
+        return lockStrategies.get(type);
+    }
+
+    /**
+     * 获取锁类型对应的本地排队锁策略
+     *
+     * @param type 锁类型，不支持读锁
+     * @return 本地排队锁策略，锁提供者不可用时为null
+     * @see LocalQueueLockStrategy
+     */
+    public LockStrategy getLocalQueueLockStrategy(Type type) {
+        return localQueueLockStrategies.get(type);
+    }
+
+    /**
+     * 获取锁分段，注解与工具类共用，同一锁名得到同一分段
+     *
+     * @return 锁分段
+     */
+    public LockStripes getLockStripes() {
+        return lockStripes;
+    }
+
+    /**
+     * 获取锁合并执行器，同一JVM内同名锁的任务合并到一次加锁中执行
+     *
+     * @return 锁合并执行器，锁提供者不可用时为null
+     */
+    public LockCombiner getLockCombiner() {
+        return lockCombiner;
+    }
+
+    /**
+     * 获取锁后端熔断器，由全部配置了degrade的锁共用
+     *
+     * @return 熔断器，锁提供者不可用时为null
+     */
+    public LockCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * 获取锁后端熔断期间降级使用的本地锁策略
+     *
+     * @param type 锁类型
+     * @return 本地锁策略，锁提供者不可用时为null
+     */
+    public LockStrategy getFallbackLockStrategy(Type type) {
+        return fallbackProvider == null ? null : fallbackProvider.getLockStrategy(type);
+    }
+
+    /**
+     * 获取批量锁策略，获取或释放多个可重入锁
+     *
+     * @return 批量锁策略，锁提供者不可用时为null
+     */
+    public BatchLockStrategy getBatchLockStrategy() {
+        return lockProvider == null ? null : lockProvider.getBatchLockStrategy();
+    }
+
+    /**
+     * 获取信号量策略
+     *
+     * @return 信号量策略，锁提供者不可用或不支持信号量时为null
+     */
+    public SemaphoreStrategy getSemaphoreStrategy() {
+        return lockProvider == null ? null : lockProvider.getSemaphoreStrategy();
+    }
+
+    /**
+     * 获取单飞模式的结果存储
+     *
+     * @return 结果存储，锁提供者不可用或仅在单个JVM内加锁时为null
+     */
+    public SingleFlightResults getSingleFlightResults() {
+        return lockProvider == null ? null : lockProvider.getSingleFlightResults();
+    }
+
+    /**
+     * 获取幂等模式的结果存储，先查本地近缓存，再查锁提供者的共享存储
+     *
+     * @return 结果存储，锁提供者不可用时为null
+     */
+    public IdempotentResults getIdempotentResults() {
+        return idempotentResults;
+    }
+
+    /**
+     * 预热锁提供者
+     *
+     * @see LockProvider#warmUp()
+     */
+    public void warmUp() {
+        if (lockProvider != null) {
+            lockProvider.warmUp();
+        }
+    }
+
+    /**
+     * 关闭锁提供者，容器关闭时调用
+     */
+    public void close() {
+        if (lockCombiner != null) {
+            lockCombiner.shutdown();
+        }
+        if (lockProvider != null) {
+            lockProvider.close();
+        }
+    }
+
+    /**
+     * 创建锁后端熔断器，探测时以本节点独有的锁名对锁提供者的可重入锁加锁、释放锁一次
+     */
+    private static LockCircuitBreaker createCircuitBreaker(LockStrategy lockStrategy,
+                                                           DistributedLockProperties properties) {
+        String probeName = properties.getPrefix() + "circuit-breaker-probe:" + UUID.randomUUID();
+        long leaseMillis = Math.max(1000, properties.getCircuitBreakerOpenDuration().toMillis());
+        return new LockCircuitBreaker(properties.getCircuitBreakerFailureRate(),
+                properties.getCircuitBreakerSlowCallDuration().toNanos(), properties.getCircuitBreakerSlowCallRate(),
+                properties.getCircuitBreakerMinimumCalls(), properties.getCircuitBreakerWindow().toNanos(),
+                properties.getCircuitBreakerOpenDuration().toNanos(), () -> {
+                    long ownerId = LockOwnerIds.next();
+                    return lockStrategy.tryLockAsync(probeName, 0, leaseMillis, TimeUnit.MILLISECONDS, ownerId)
+                            .thenCompose(locked -> locked ? lockStrategy.unlockAsync(probeName, ownerId)
+                                    : CompletableFuture.completedFuture(null));
+                });
+    }
+}
@@ -0,0 +1,79 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+
+/**
+ * 锁分段：将转换后的锁名哈希到固定数量的分段锁名之一，锁名基数很高（如用户id）时把redis中的锁键与通知频道限制在固定集合内
+ *
+ * <br>分段锁名为“前缀stripe:锁类型:分段数:序号”，只由锁类型、锁名与分段数决定，各节点、注解与工具类对同一锁名得到同一分段；
+ * 同一资源的所有加锁处必须使用相同的分段数。不同锁类型的键结构不同，各自使用独立的分段，读锁与写锁共用读写锁的分段以互斥。
+ * 不同锁名落到同一分段时互相阻塞（误冲突），以此换取有界的锁键集合。
+ *
+ * <br>误冲突也会造成死锁：两个线程以相反顺序嵌套获取两个分段锁时，即使锁名不同也可能互相等待，嵌套的分段锁应按固定顺序获取。
+ *
+ * <br>记录本节点各分段当前持有的锁名，加锁时分段已被本节点以其他锁名持有即为一次误冲突，
+ * 其他节点持有造成的误冲突不可见，因此误冲突计数是实际误冲突的下界
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class LockStripes {
+    private final String prefix;
+    private final ConcurrentHashMap<String, String> holders = new ConcurrentHashMap<>();
+
+    /**
+     * @param prefix 锁名前缀，分段锁名以其开头
+     */
+    public LockStripes(String prefix) {
+        this.prefix = prefix == null ? "" : prefix;
+    }
+
+    /**
+     * 获取锁名所在的分段锁名
+     *
+     * @param type 锁类型
+     * @param lockName 转换后的锁名
+     * @param stripes 分段数
+     * @return 分段锁名
+     */
+    public String stripeName(Type type, String lockName, int stripes) {
+        int index = (int) Long.remainderUnsigned(ConsistentHashRing.hash(lockName), stripes);
+        return prefix + "stripe:" + namespace(type) + ":" + stripes + ":" + index;
+    }
+
+    /**
+     * 分段的命名空间：读锁与写锁共用读写锁的键，其他锁类型各自独立
+     */
+    private static String namespace(Type type) {
+        return Type.READ_LOCK.equals(type) || Type.WRITE_LOCK.equals(type) ? "READ_WRITE_LOCK" : type.name();
+    }
+
+    /**
+     * 分段是否正被本节点以其他锁名持有
+     *
+     * @param stripeName 分段锁名
+     * @param lockName 锁名
+     * @return 是否误冲突
+     */
+    boolean isCollision(String stripeName, String lockName) {
+        String holder = holders.get(stripeName);
+        return holder != null && !holder.equals(lockName);
+    }
+
+    /**
+     * 记录分段由锁名持有
+     */
+    void acquired(String stripeName, String lockName) {
+        holders.put(stripeName, lockName);
+    }
+
+    /**
+     * 分段不再由锁名持有；同一线程嵌套持有同一分段的其他锁名时，以最近一次加锁的锁名为准
+     */
+    void released(String stripeName, String lockName) {
+        holders.remove(stripeName, lockName);
+    }
+}
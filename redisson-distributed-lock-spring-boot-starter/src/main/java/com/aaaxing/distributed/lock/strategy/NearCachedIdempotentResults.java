@@ -0,0 +1,87 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 带本地近缓存的幂等结果存储：先查本地最近使用的结果，未命中再查共享存储，命中后放入本地
+ *
+ * <br>本地最多保留maxSize个结果（最近最少使用的先淘汰），每个结果在本地最多保留nearCacheTtl，且不超过其保留时间。
+ * 共享存储为null（仅在单个JVM内加锁的提供者）时，本地缓存即为结果存储，结果按保留时间过期。
+ * 近缓存的结果在调用之间共享同一个对象，方法返回值应不可变
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class NearCachedIdempotentResults implements IdempotentResults {
+    private final IdempotentResults delegate;
+    private final long nearCacheNanos;
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * @param delegate 跨节点共享的结果存储，为null时只在本地保存
+     * @param maxSize 本地最多保留的结果数，0为不缓存
+     * @param nearCacheMillis 结果在本地的最长保留时间（毫秒），共享存储为null时不生效
+     */
+    public NearCachedIdempotentResults(IdempotentResults delegate, int maxSize, long nearCacheMillis) {
+        this.delegate = delegate;
+        this.nearCacheNanos = delegate == null ? Long.MAX_VALUE : nearCacheMillis * 1_000_000L;
+        int capacity = delegate == null ? Math.max(1, maxSize) : Math.max(0, maxSize);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public Result get(String lockName) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry entry = entries.get(lockName);
+            if (entry != null) {
+                if (entry.expiresAt - now > 0) {
+                    return entry.result;
+                }
+                entries.remove(lockName);
+            }
+        }
+        if (delegate == null) {
+            return null;
+        }
+        Result result = delegate.get(lockName);
+        if (result != null) {
+            cache(lockName, result, nearCacheNanos);
+        }
+        return result;
+    }
+
+    @Override
+    public void put(String lockName, Object value, long ttlMillis) {
+        if (delegate != null) {
+            delegate.put(lockName, value, ttlMillis);
+        }
+        cache(lockName, new Result(value), Math.min(nearCacheNanos, ttlMillis * 1_000_000L));
+    }
+
+    private void cache(String lockName, Result result, long ttlNanos) {
+        Entry entry = new Entry(result, System.nanoTime() + ttlNanos);
+        synchronized (entries) {
+            entries.put(lockName, entry);
+        }
+    }
+
+    private static final class Entry {
+        private final Result result;
+        private final long expiresAt;
+
+        Entry(Result result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import org.redisson.api.RScript;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.LongCodec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.pubsub.LockPubSub;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于redisson的批量锁策略，一次往返原子地获取或释放多个可重入锁
+ *
+ * <br>锁名排序去重后由一个lua脚本全部加锁：任一锁被其他持有者占用时一个都不加，避免多把锁交叉等待导致的死锁。
+ * 锁的存储结构与redisson可重入锁（RLock）一致，同名锁与DistributedLocks.lock等单锁操作互斥，释放时同样通知单锁的等待者。
+ * 加锁失败后订阅阻塞的那把锁的解锁通知频道，在其释放或剩余时间到期时重试；阻塞的锁变化时改订新的锁。
+ * 配置了共享通知频道时，通知频道与消息同共享频道的可重入锁一致。自动续期的锁逐个登记到批量续期服务，与单锁一起续期。
+ *
+ * <br>redis集群模式下，同一批锁名需位于同一个slot。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class RedissonBatchLockStrategy implements BatchLockStrategy {
+    /**
+     * KEYS：锁名；ARGV[1]：锁持有时间（毫秒），ARGV[2]：持有者。
+     * 加锁成功返回nil，否则返回{被占用锁在KEYS中的序号, 其剩余时间（毫秒）}
+     */
+    private static final LockScript LOCK_SCRIPT = new LockScript(""
+            + "for i = 1, #KEYS do "
+            + "if (redis.call('exists', KEYS[i]) == 1) and (redis.call('hexists', KEYS[i], ARGV[2]) == 0) then "
+            + "return {i, redis.call('pttl', KEYS[i])}; "
+            + "end; "
+            + "end; "
+            + "for i = 1, #KEYS do "
+            + "redis.call('hincrby', KEYS[i], ARGV[2], 1); "
+            + "redis.call('pexpire', KEYS[i], ARGV[1]); "
+            + "end; "
+            + "return nil;");
+
+    /**
+     * KEYS：锁名；ARGV[1]：锁持有时间（毫秒），ARGV[2]：持有者，ARGV[1 + 2i]、ARGV[2 + 2i]：KEYS[i]的解锁通知频道与消息。
+     * 返回不由该持有者持有的锁数量
+     */
+    private static final LockScript UNLOCK_SCRIPT = new LockScript(""
+            + "local missing = 0; "
+            + "for i = 1, #KEYS do "
+            + "if (redis.call('hexists', KEYS[i], ARGV[2]) == 0) then "
+            + "missing = missing + 1; "
+            + "else "
+            + "local counter = redis.call('hincrby', KEYS[i], ARGV[2], -1); "
+            + "if (counter > 0) then "
+            + "redis.call('pexpire', KEYS[i], ARGV[1]); "
+            + "else "
+            + "redis.call('del', KEYS[i]); "
+            + "redis.call('publish', ARGV[1 + 2 * i], ARGV[2 + 2 * i]); "
+            + "end; "
+            + "end; "
+            + "end; "
+            + "return missing;");
+
+    /**
+     * 本类使用的全部lua脚本，启动预热时预先加载
+     */
+    static final List<LockScript> SCRIPTS = Arrays.asList(LOCK_SCRIPT, UNLOCK_SCRIPT);
+
+    private final RedissonClient redisson;
+    private final LockRenewalService renewalService;
+    private final int sharedChannels;
+
+    public RedissonBatchLockStrategy(RedissonClient redisson, LockRenewalService renewalService) {
+        this(redisson, renewalService, 0);
+    }
+
+    /**
+     * @param redisson redisson客户端
+     * @param renewalService 批量续期服务
+     * @param sharedChannels 共享通知频道数，与可重入锁的配置一致；0为redisson可重入锁的通知频道
+     */
+    public RedissonBatchLockStrategy(RedissonClient redisson, LockRenewalService renewalService, int sharedChannels) {
+        this.redisson = redisson;
+        this.renewalService = renewalService;
+        this.sharedChannels = sharedChannels;
+    }
+
+    @Override
+    public void lockAll(Collection<String> lockNames, long leaseTime, TimeUnit unit) {
+        List<Object> keys = sortedKeys(lockNames);
+        if (keys.isEmpty()) {
+            return;
+        }
+        String owner = owner();
+        boolean interrupted = false;
+
+        try (Wakeup wakeup = new Wakeup()) {
+            while (true) {
+                List<Long> blocked = tryAcquire(keys, leaseTime, unit, owner);
+                if (blocked == null) {
+                    break;
+                }
+                if (wakeup.watch(keys, blocked)) {
+                    continue;
+                }
+                try {
+                    wakeup.await(blocked.get(1), Long.MAX_VALUE);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean tryLockAll(Collection<String> lockNames, long waitTime, long leaseTime, TimeUnit unit)
+            throws InterruptedException {
+        List<Object> keys = sortedKeys(lockNames);
+        if (keys.isEmpty()) {
+            return true;
+        }
+        String owner = owner();
+        long deadline = System.nanoTime() + unit.toNanos(waitTime);
+
+        try (Wakeup wakeup = new Wakeup()) {
+            while (true) {
+                List<Long> blocked = tryAcquire(keys, leaseTime, unit, owner);
+                if (blocked == null) {
+                    return true;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                if (wakeup.watch(keys, blocked)) {
+                    continue;
+                }
+                wakeup.await(blocked.get(1), remaining);
+            }
+        }
+    }
+
+    @Override
+    public void unlockAll(Collection<String> lockNames) {
+        List<Object> keys = sortedKeys(lockNames);
+        if (keys.isEmpty()) {
+            return;
+        }
+        long threadId = Thread.currentThread().getId();
+        String owner = renewalService.getOwnerField(threadId);
+
+        Object[] args = new Object[2 + 2 * keys.size()];
+        args[0] = renewalService.getLeaseMillis();
+        args[1] = owner;
+        for (int i = 0; i < keys.size(); i++) {
+            String lockName = (String) keys.get(i);
+            args[2 + 2 * i] = channelName(lockName);
+            args[3 + 2 * i] = sharedChannels > 0 ? lockName : LockPubSub.UNLOCK_MESSAGE;
+        }
+
+        // 先取消续期登记再解锁，解锁失败时也不再续期
+        for (Object key : keys) {
+            renewalService.release((String) key, threadId);
+        }
+        Long missing = LockFutures.join(UNLOCK_SCRIPT.evalAsync(script(), (String) keys.get(0),
+                RScript.Mode.READ_WRITE, RScript.ReturnType.INTEGER, keys, args));
+        if (missing != null && missing > 0) {
+            throw new IllegalMonitorStateException("attempt to unlock lock, not locked by current thread by owner: "
+                    + owner + ", locks: " + keys);
+        }
+    }
+
+    /**
+     * @return 加锁成功返回null，否则返回{被占用锁的序号（从1开始）, 其剩余时间（毫秒）}
+     */
+    private List<Long> tryAcquire(List<Object> keys, long leaseTime, TimeUnit unit, String owner) {
+        long leaseMillis = leaseTime == -1 ? renewalService.getLeaseMillis() : unit.toMillis(leaseTime);
+        List<Long> blocked = LockFutures.join(LOCK_SCRIPT.evalAsync(script(), (String) keys.get(0),
+                RScript.Mode.READ_WRITE, RScript.ReturnType.MULTI, keys, leaseMillis, owner));
+        if (blocked == null) {
+            long threadId = Thread.currentThread().getId();
+            for (Object key : keys) {
+                if (leaseTime == -1) {
+                    renewalService.register((String) key, threadId);
+                } else {
+                    renewalService.retain((String) key, threadId);
+                }
+            }
+        }
+        return blocked;
+    }
+
+    private RScript script() {
+        return redisson.getScript(StringCodec.INSTANCE);
+    }
+
+    private String owner() {
+        return renewalService.getOwnerField(Thread.currentThread().getId());
+    }
+
+    private static List<Object> sortedKeys(Collection<String> lockNames) {
+        return new ArrayList<>(new TreeSet<>(lockNames));
+    }
+
+    /**
+     * 锁的解锁通知频道：配置了共享通知频道时为锁名所属的共享频道，否则与redisson可重入锁一致
+     */
+    private String channelName(String lockName) {
+        if (sharedChannels > 0) {
+            return SharedChannelLockStrategy.channelName(lockName, sharedChannels);
+        }
+        return lockName.contains("{") ? "redisson_lock__channel:" + lockName
+                : "redisson_lock__channel:{" + lockName + "}";
+    }
+
+    /**
+     * 一次批量加锁的唤醒器：订阅阻塞的那把锁的解锁通知频道，收到其释放通知时唤醒加锁线程
+     *
+     * <br>redisson锁频道的消息以LongCodec编解码，与redisson可重入锁的订阅一致；共享频道的消息为锁名，只认本锁的通知
+     */
+    private final class Wakeup implements MessageListener<Object>, AutoCloseable {
+        private final Semaphore signals = new Semaphore(0);
+        private volatile String lockName;
+        private RTopic topic;
+        private int listenerId;
+
+        /**
+         * 确保已订阅阻塞的锁的通知频道
+         *
+         * @return true表示新订阅了频道，订阅前发布的通知收不到，应立即重试
+         */
+        boolean watch(List<Object> keys, List<Long> blocked) {
+            String blocking = (String) keys.get(blocked.get(0).intValue() - 1);
+            if (blocking.equals(lockName)) {
+                return false;
+            }
+            close();
+            lockName = blocking;
+            signals.drainPermits();
+            topic = sharedChannels > 0
+                    ? redisson.getTopic(channelName(blocking), StringCodec.INSTANCE)
+                    : redisson.getTopic(channelName(blocking), LongCodec.INSTANCE);
+            listenerId = topic.addListener(Object.class, this);
+            return true;
+        }
+
+        /**
+         * 等待释放通知，至多等到锁的剩余时间到期或等待截止
+         *
+         * @param ttl 锁的剩余时间（毫秒），负数表示没有过期时间
+         * @param remainingNanos 剩余等待时间（纳秒）
+         */
+        void await(long ttl, long remainingNanos) throws InterruptedException {
+            long nanos = ttl < 0 ? remainingNanos : Math.min(TimeUnit.MILLISECONDS.toNanos(Math.max(1, ttl)),
+                    remainingNanos);
+            if (signals.tryAcquire(nanos, TimeUnit.NANOSECONDS)) {
+                signals.drainPermits();
+            }
+        }
+
+        @Override
+        public void onMessage(CharSequence channel, Object message) {
+            if (sharedChannels == 0 || message.equals(lockName)) {
+                signals.release();
+            }
+        }
+
+        @Override
+        public void close() {
+            if (topic != null) {
+                topic.removeListenerAsync(listenerId);
+                topic = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于redisson的幂等（IDEMPOTENT）结果存储
+ *
+ * <br>结果写入按保留时间过期的redis桶，桶名为锁名加“:idempotent”后缀，结果包装为单元素列表，以区分null结果与未保存。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class RedissonIdempotentResults implements IdempotentResults {
+    private static final String SUFFIX = ":idempotent";
+
+    private final RedissonClient redisson;
+    private final Codec codec;
+
+    /**
+     * @param redisson redisson客户端
+     * @param codec 结果编解码器，为null时使用redisson配置的编解码器
+     */
+    public RedissonIdempotentResults(RedissonClient redisson, Codec codec) {
+        this.redisson = redisson;
+        this.codec = codec;
+    }
+
+    @Override
+    public Result get(String lockName) {
+        List<Object> holder = bucket(lockName).get();
+        return holder == null || holder.isEmpty() ? null : new Result(holder.get(0));
+    }
+
+    @Override
+    public void put(String lockName, Object value, long ttlMillis) {
+        List<Object> holder = new ArrayList<>(1);
+        holder.add(value);
+        bucket(lockName).set(holder, ttlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private RBucket<List<Object>> bucket(String lockName) {
+        return codec == null ? redisson.getBucket(lockName + SUFFIX) : redisson.getBucket(lockName + SUFFIX, codec);
+    }
+}
@@ -0,0 +1,191 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
+import com.aaaxing.distributed.lock.exception.DistributedLockException;
+import org.redisson.api.Node;
+import org.redisson.api.NodesGroup;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+
+/**
+ * 基于redisson的锁提供者（默认）
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class RedissonLockProvider implements LockProvider {
+    /**
+     * 预热加锁的持有时间，预热失败未释放的锁在此时间后过期
+     */
+    private static final long WARM_UP_LEASE_MILLIS = 10_000;
+
+    /**
+     * 本组件的全部锁脚本
+     */
+    private static final List<List<LockScript>> SCRIPTS = Arrays.asList(RedissonBatchLockStrategy.SCRIPTS,
+            LockRenewalService.SCRIPTS, TicketFairLockStrategy.SCRIPTS, HandoffLockStrategy.SCRIPTS,
+            SharedChannelLockStrategy.SCRIPTS, HierarchicalLockStrategy.SCRIPTS);
+
+    private final RedissonClient redisson;
+    private final String prefix;
+    private final int warmUpConnections;
+    private final Map<Type, LockStrategy> lockStrategies = new EnumMap<>(Type.class);
+    private final LockRenewalService renewalService;
+    private final BatchLockStrategy batchLockStrategy;
+    private final SemaphoreStrategy semaphoreStrategy;
+    private final SingleFlightResults singleFlightResults;
+    private final IdempotentResults idempotentResults;
+    private final SharedChannelLockStrategy sharedChannelLockStrategy;
+
+    /**
+     * @param redisson redisson客户端
+     * @param properties 分布式锁配置
+     * @param renewalListener 锁续期失败监听器，为null时仅打印告警日志
+     */
+    public RedissonLockProvider(RedissonClient redisson, DistributedLockProperties properties,
+                                LockRenewalListener renewalListener) {
+        this.redisson = redisson;
+        this.prefix = properties.getPrefix() == null ? "" : properties.getPrefix();
+        this.warmUpConnections = properties.getWarmUpConnections();
+        this.renewalService = new LockRenewalService(redisson, renewalListener);
+        this.batchLockStrategy = new RedissonBatchLockStrategy(redisson, renewalService,
+                properties.getSharedChannels());
+        // redisson不为信号量许可续期，许可总是由批量续期服务续期
+        this.semaphoreStrategy = new RedissonSemaphoreStrategy(redisson, renewalService);
+        this.singleFlightResults = new RedissonSingleFlightResults(redisson, singleFlightCodec(properties),
+                properties.getSingleFlightResultTtl().toMillis());
+        this.idempotentResults = new RedissonIdempotentResults(redisson, singleFlightCodec(properties));
+        // 批量锁总是由批量续期服务续期，单锁可通过配置关闭
+        LockRenewalService lockRenewalService = properties.isBatchRenewal() ? renewalService : null;
+        for (Type type : Type.values()) {
+            if (!Type.SEMAPHORE.equals(type) && !Type.HANDOFF_LOCK.equals(type) && !isHierarchical(type)) {
+                lockStrategies.put(type, RedissonLockStrategy.of(redisson, type, lockRenewalService));
+            }
+        }
+        // 移交锁没有redisson看门狗，总是由批量续期服务续期
+        lockStrategies.put(Type.HANDOFF_LOCK, new HandoffLockStrategy(redisson, renewalService,
+                properties.getHandoffWaiterTtl().toMillis()));
+        // 层级锁没有redisson看门狗，总是由批量续期服务续期
+        lockStrategies.put(Type.HIERARCHICAL_READ_LOCK, new HierarchicalLockStrategy(redisson, renewalService,
+                prefix, false));
+        lockStrategies.put(Type.HIERARCHICAL_WRITE_LOCK, new HierarchicalLockStrategy(redisson, renewalService,
+                prefix, true));
+        // 取号公平锁没有redisson看门狗，总是由批量续期服务续期
+        if (properties.getFairLock() == DistributedLockProperties.FairLock.TICKET) {
+            lockStrategies.put(Type.FAIR_LOCK, new TicketFairLockStrategy(redisson, renewalService));
+        }
+        // 共享通知频道的可重入锁没有redisson看门狗，总是由批量续期服务续期
+        if (properties.getSharedChannels() > 0) {
+            this.sharedChannelLockStrategy = new SharedChannelLockStrategy(redisson, renewalService,
+                    properties.getSharedChannels());
+            lockStrategies.put(Type.LOCK, sharedChannelLockStrategy);
+        } else {
+            this.sharedChannelLockStrategy = null;
+        }
+    }
+
+    @Override
+    public LockStrategy getLockStrategy(Type type) {
+        return lockStrategies.get(type);
+    }
+
+    @Override
+    public BatchLockStrategy getBatchLockStrategy() {
+        return batchLockStrategy;
+    }
+
+    @Override
+    public SemaphoreStrategy getSemaphoreStrategy() {
+        return semaphoreStrategy;
+    }
+
+    @Override
+    public SingleFlightResults getSingleFlightResults() {
+        return singleFlightResults;
+    }
+
+    @Override
+    public IdempotentResults getIdempotentResults() {
+        return idempotentResults;
+    }
+
+    /**
+     * 向全部主节点SCRIPT LOAD本组件的锁脚本（本组件的脚本总是以EVALSHA调用，不修改redisson客户端的配置）；
+     * 对每个节点并发往返，建立最小空闲连接；再以本节点独有的锁名走一遍各锁类型的加锁、释放锁，
+     * 加锁路径上的类与订阅连接也一并就绪
+     */
+    @Override
+    public void warmUp() {
+        RScript script = redisson.getScript(StringCodec.INSTANCE);
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (List<LockScript> scripts : SCRIPTS) {
+            for (LockScript lockScript : scripts) {
+                futures.add(script.scriptLoadAsync(lockScript.getLua()).toCompletableFuture());
+            }
+        }
+        for (Node node : nodes()) {
+            for (int i = 0; i < warmUpConnections; i++) {
+                futures.add(node.pingAsync().toCompletableFuture());
+            }
+        }
+        LockFutures.join(CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])));
+
+        String warmUpName = prefix + "warm-up:" + UUID.randomUUID() + ":";
+        long ownerId = LockOwnerIds.next();
+        for (Map.Entry<Type, LockStrategy> entry : lockStrategies.entrySet()) {
+            LockStrategy lockStrategy = entry.getValue();
+            String lockName = warmUpName + entry.getKey().name().toLowerCase();
+            LockFutures.join(lockStrategy.tryLockAsync(lockName, 0, WARM_UP_LEASE_MILLIS, TimeUnit.MILLISECONDS,
+                    ownerId).thenCompose(locked -> locked ? lockStrategy.unlockAsync(lockName, ownerId)
+                    : CompletableFuture.completedFuture(null)));
+        }
+    }
+
+    /**
+     * 停止批量续期，取消共享通知频道的订阅
+     */
+    @Override
+    public void close() {
+        renewalService.shutdown();
+        if (sharedChannelLockStrategy != null) {
+            sharedChannelLockStrategy.close();
+        }
+    }
+
+    private static boolean isHierarchical(Type type) {
+        return Type.HIERARCHICAL_READ_LOCK.equals(type) || Type.HIERARCHICAL_WRITE_LOCK.equals(type);
+    }
+
+    private Collection<? extends Node> nodes() {
+        NodesGroup<? extends Node> nodesGroup = redisson.getConfig().isClusterConfig()
+                ? redisson.getClusterNodesGroup() : redisson.getNodesGroup();
+        return nodesGroup.getNodes();
+    }
+
+    private static Codec singleFlightCodec(DistributedLockProperties properties) {
+        Class<? extends Codec> codecClass = properties.getSingleFlightCodec();
+        if (codecClass == null) {
+            return null;
+        }
+        try {
+            return codecClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new DistributedLockException(1, "Failed to create the single flight codec: " + codecClass, e);
+        }
+    }
+}
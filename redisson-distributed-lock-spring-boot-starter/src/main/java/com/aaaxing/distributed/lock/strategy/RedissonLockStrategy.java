@@ -0,0 +1,201 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.exception.DistributedLockException;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+
+/**
+ * 基于redisson的锁策略，创建时即确定锁类型对应的RLock获取方式
+ *
+ * <br>指定了批量续期服务时，自动续期的加锁以看门狗超时时间作为锁持有时间，由批量续期服务统一续期，
+ * 不再由redisson为每把锁单独续期
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class RedissonLockStrategy implements LockStrategy {
+    private final Function<String, RLock> lockGetter;
+    private final LockRenewalService renewalService;
+
+    public RedissonLockStrategy(Function<String, RLock> lockGetter) {
+        this(lockGetter, null);
+    }
+
+    /**
+     * @param lockGetter RLock获取方式
+     * @param renewalService 批量续期服务，为null时由redisson看门狗续期
+     */
+    public RedissonLockStrategy(Function<String, RLock> lockGetter, LockRenewalService renewalService) {
+        this.lockGetter = lockGetter;
+        this.renewalService = renewalService;
+    }
+
+    /**
+     * 创建锁类型对应的锁策略
+     *
+     * @param redisson redisson客户端
+     * @param type 锁类型
+     * @return 锁策略
+     */
+    public static RedissonLockStrategy of(RedissonClient redisson, Type type) {
+        return of(redisson, type, null);
+    }
+
+    /**
+     * 创建锁类型对应的锁策略
+     *
+     * <br>批量续期仅用于可重入锁与公平锁；读锁续期时还需续期每次持有对应的超时键，读写锁仍由redisson看门狗续期
+     *
+     * @param redisson redisson客户端
+     * @param type 锁类型
+     * @param renewalService 批量续期服务，为null时由redisson看门狗续期
+     * @return 锁策略
+     */
+    public static RedissonLockStrategy of(RedissonClient redisson, Type type, LockRenewalService renewalService) {
+        switch (type) {
+            case LOCK:
+                return new RedissonLockStrategy(redisson::getLock, renewalService);
+            case FAIR_LOCK:
+                return new RedissonLockStrategy(redisson::getFairLock, renewalService);
+            case READ_LOCK:
+                return new RedissonLockStrategy(name -> redisson.getReadWriteLock(name).readLock());
+            case WRITE_LOCK:
+                return new RedissonLockStrategy(name -> redisson.getReadWriteLock(name).writeLock());
+            default:
+                throw new DistributedLockException(0, "Unsupported distributed lock type: " + type);
+        }
+    }
+
+    @Override
+    public void lock(String lockName, long leaseTime, TimeUnit unit) {
+        if (renewalService == null) {
+            getLock(lockName).lock(leaseTime, unit);
+            return;
+        }
+        if (leaseTime == -1) {
+            getLock(lockName).lock(renewalService.getLeaseMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            getLock(lockName).lock(leaseTime, unit);
+        }
+        registerRenewal(lockName, leaseTime, Thread.currentThread().getId());
+    }
+
+    @Override
+    public boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        if (renewalService == null) {
+            return getLock(lockName).tryLock(waitMillis(waitTime, unit), leaseMillis(leaseTime, unit),
+                    TimeUnit.MILLISECONDS);
+        }
+        boolean locked = getLock(lockName).tryLock(waitMillis(waitTime, unit), renewedLeaseMillis(leaseTime, unit),
+                TimeUnit.MILLISECONDS);
+        if (locked) {
+            registerRenewal(lockName, leaseTime, Thread.currentThread().getId());
+        }
+        return locked;
+    }
+
+    @Override
+    public void unlock(String lockName) {
+        if (renewalService != null) {
+            renewalService.release(lockName, Thread.currentThread().getId());
+        }
+        getLock(lockName).unlock();
+    }
+
+    @Override
+    public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+        if (renewalService == null) {
+            return getLock(lockName).lockAsync(leaseTime, unit, ownerId).toCompletableFuture();
+        }
+        CompletableFuture<Void> future = leaseTime == -1
+                ? getLock(lockName).lockAsync(renewalService.getLeaseMillis(), TimeUnit.MILLISECONDS, ownerId)
+                .toCompletableFuture()
+                : getLock(lockName).lockAsync(leaseTime, unit, ownerId).toCompletableFuture();
+        return future.thenRun(() -> registerRenewal(lockName, leaseTime, ownerId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                                   long ownerId) {
+        if (renewalService == null) {
+            return getLock(lockName).tryLockAsync(waitMillis(waitTime, unit), leaseMillis(leaseTime, unit),
+                    TimeUnit.MILLISECONDS, ownerId).toCompletableFuture();
+        }
+        CompletableFuture<Boolean> future = getLock(lockName).tryLockAsync(waitMillis(waitTime, unit),
+                renewedLeaseMillis(leaseTime, unit), TimeUnit.MILLISECONDS, ownerId).toCompletableFuture();
+        return future.thenApply(locked -> {
+            if (locked) {
+                registerRenewal(lockName, leaseTime, ownerId);
+            }
+            return locked;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> unlockAsync(String lockName, long ownerId) {
+        if (renewalService != null) {
+            renewalService.release(lockName, ownerId);
+        }
+        return getLock(lockName).unlockAsync(ownerId).toCompletableFuture();
+    }
+
+    /**
+     * 自动续期的加锁登记续期；指定了持有时间的加锁只累计已登记的重入次数
+     */
+    private void registerRenewal(String lockName, long leaseTime, long ownerId) {
+        if (leaseTime == -1) {
+            renewalService.register(lockName, ownerId);
+        } else {
+            renewalService.retain(lockName, ownerId);
+        }
+    }
+
+    /**
+     * 等待时间换算为毫秒，不足1毫秒的部分向上取整
+     *
+     * <br>redisson按毫秒计算等待时间，直接截断会把不足1毫秒的等待变为不等待、把1.5毫秒变为1毫秒；
+     * 非正数（含-1）原样返回
+     *
+     * @param waitTime 等待时间
+     * @param unit 时间单位
+     * @return 等待毫秒数
+     */
+    static long waitMillis(long waitTime, TimeUnit unit) {
+        if (waitTime <= 0) {
+            return waitTime;
+        }
+        long millis = unit.toMillis(waitTime);
+        return unit.toNanos(waitTime) > TimeUnit.MILLISECONDS.toNanos(millis) ? millis + 1 : millis;
+    }
+
+    /**
+     * 锁持有时间换算为毫秒，-1（自动续期）原样返回
+     */
+    private static long leaseMillis(long leaseTime, TimeUnit unit) {
+        return leaseTime == -1 ? -1 : unit.toMillis(leaseTime);
+    }
+
+    /**
+     * 由批量续期服务续期时的锁持有时间（毫秒），自动续期的加锁以看门狗超时时间作为持有时间
+     */
+    private long renewedLeaseMillis(long leaseTime, TimeUnit unit) {
+        return leaseTime == -1 ? renewalService.getLeaseMillis() : unit.toMillis(leaseTime);
+    }
+
+    /**
+     * 获取锁名对应的RLock
+     *
+     * @param lockName 锁名
+     * @return RLock
+     */
+    public RLock getLock(String lockName) {
+        return lockGetter.apply(lockName);
+    }
+}
@@ -0,0 +1,95 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import org.redisson.api.RPermitExpirableSemaphore;
+import org.redisson.api.RedissonClient;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于redisson可过期许可信号量（RPermitExpirableSemaphore）的信号量策略
+ *
+ * <br>每个许可在redis中带有过期时间，持有节点宕机后许可到期自动归还。
+ * 自动续期的许可以看门狗超时时间作为持有时间，由批量续期服务统一续期（redisson不为许可续期）
+ *
+ * <br>许可总数在信号量首次使用时以trySetPermits设置，已设置的信号量不再修改；
+ * 已设置过的信号量名缓存在本地，避免每次获取许可多一次往返
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class RedissonSemaphoreStrategy implements SemaphoreStrategy {
+    /**
+     * 本地缓存的已设置信号量名的上限，超过后清空重新设置
+     */
+    private static final int MAX_INITIALIZED = 10000;
+
+    private final RedissonClient redisson;
+    private final LockRenewalService renewalService;
+    private final Set<String> initialized = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param redisson redisson客户端
+     * @param renewalService 批量续期服务，续期自动续期的许可
+     */
+    public RedissonSemaphoreStrategy(RedissonClient redisson, LockRenewalService renewalService) {
+        this.redisson = redisson;
+        this.renewalService = renewalService;
+    }
+
+    @Override
+    public String acquire(String name, int permits, long leaseTime, TimeUnit unit) throws InterruptedException {
+        RPermitExpirableSemaphore semaphore = getSemaphore(name, permits);
+        String permitId = leaseTime == -1
+                ? semaphore.acquire(renewalService.getLeaseMillis(), TimeUnit.MILLISECONDS)
+                : semaphore.acquire(leaseTime, unit);
+        registerRenewal(name, permitId, leaseTime);
+        return permitId;
+    }
+
+    @Override
+    public String tryAcquire(String name, int permits, long waitTime, long leaseTime, TimeUnit unit)
+            throws InterruptedException {
+        RPermitExpirableSemaphore semaphore = getSemaphore(name, permits);
+        long leaseMillis = leaseTime == -1 ? renewalService.getLeaseMillis() : unit.toMillis(leaseTime);
+        String permitId = semaphore.tryAcquire(RedissonLockStrategy.waitMillis(waitTime, unit), leaseMillis,
+                TimeUnit.MILLISECONDS);
+        if (permitId != null) {
+            registerRenewal(name, permitId, leaseTime);
+        }
+        return permitId;
+    }
+
+    @Override
+    public void release(String name, String permitId) {
+        renewalService.releasePermit(name, permitId);
+        redisson.getPermitExpirableSemaphore(name).release(permitId);
+    }
+
+    @Override
+    public CompletableFuture<Void> releaseAsync(String name, String permitId) {
+        renewalService.releasePermit(name, permitId);
+        return redisson.getPermitExpirableSemaphore(name).releaseAsync(permitId).toCompletableFuture();
+    }
+
+    private RPermitExpirableSemaphore getSemaphore(String name, int permits) {
+        RPermitExpirableSemaphore semaphore = redisson.getPermitExpirableSemaphore(name);
+        if (!initialized.contains(name)) {
+            semaphore.trySetPermits(permits);
+            if (initialized.size() >= MAX_INITIALIZED) {
+                initialized.clear();
+            }
+            initialized.add(name);
+        }
+        return semaphore;
+    }
+
+    private void registerRenewal(String name, String permitId, long leaseTime) {
+        if (leaseTime == -1) {
+            renewalService.registerPermit(name, permitId);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于redisson的单飞（SINGLE_FLIGHT）结果存储
+ *
+ * <br>结果写入短期过期的redis桶，桶名为锁名加“:result”后缀，结果包装为单元素列表，以区分null结果与未发布。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class RedissonSingleFlightResults implements SingleFlightResults {
+    private static final String SUFFIX = ":result";
+
+    private final RedissonClient redisson;
+    private final Codec codec;
+    private final long ttlMillis;
+
+    /**
+     * @param redisson redisson客户端
+     * @param codec 结果编解码器，为null时使用redisson配置的编解码器
+     * @param ttlMillis 结果保留时间（毫秒）
+     */
+    public RedissonSingleFlightResults(RedissonClient redisson, Codec codec, long ttlMillis) {
+        this.redisson = redisson;
+        this.codec = codec;
+        this.ttlMillis = ttlMillis;
+    }
+
+    @Override
+    public Result get(String lockName) {
+        List<Object> holder = bucket(lockName).get();
+        return holder == null || holder.isEmpty() ? null : new Result(holder.get(0));
+    }
+
+    @Override
+    public void publish(String lockName, Object value) {
+        List<Object> holder = new ArrayList<>(1);
+        holder.add(value);
+        bucket(lockName).set(holder, ttlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void clear(String lockName) {
+        bucket(lockName).delete();
+    }
+
+    private RBucket<List<Object>> bucket(String lockName) {
+        return codec == null ? redisson.getBucket(lockName + SUFFIX) : redisson.getBucket(lockName + SUFFIX, codec);
+    }
+}
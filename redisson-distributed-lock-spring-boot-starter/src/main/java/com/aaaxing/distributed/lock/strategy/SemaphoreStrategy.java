@@ -0,0 +1,70 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 信号量策略，限制同名资源的并发持有数
+ *
+ * <br>每次获取得到一个许可id，释放时凭许可id归还，因此许可可以在线程之间传递。
+ * 许可带有持有时间，持有节点宕机后许可到期自动归还，不会永久泄漏
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public interface SemaphoreStrategy {
+
+    /**
+     * 阻断等待获取一个许可
+     *
+     * @param name 信号量名
+     * @param permits 许可总数，信号量首次使用时设置，已存在时不修改
+     * @param leaseTime 许可持有时间，-1为自动续期
+     * @param unit 时间单位
+     * @return 许可id
+     * @throws InterruptedException 等待被中断
+     */
+    String acquire(String name, int permits, long leaseTime, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * 尝试获取一个许可
+     *
+     * @param name 信号量名
+     * @param permits 许可总数，信号量首次使用时设置，已存在时不修改
+     * @param waitTime 等待时间
+     * @param leaseTime 许可持有时间，-1为自动续期
+     * @param unit 时间单位
+     * @return 许可id，等待超时为null
+     * @throws InterruptedException 等待被中断
+     */
+    String tryAcquire(String name, int permits, long waitTime, long leaseTime, TimeUnit unit)
+            throws InterruptedException;
+
+    /**
+     * 释放许可
+     *
+     * @param name 信号量名
+     * @param permitId 许可id
+     * @throws IllegalArgumentException 许可已释放或已过期
+     */
+    void release(String name, String permitId);
+
+    /**
+     * 释放许可，不等待释放完成
+     *
+     * @param name 信号量名
+     * @param permitId 许可id
+     * @return 释放完成的结果
+     */
+    default CompletableFuture<Void> releaseAsync(String name, String permitId) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            release(name, permitId);
+            future.complete(null);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
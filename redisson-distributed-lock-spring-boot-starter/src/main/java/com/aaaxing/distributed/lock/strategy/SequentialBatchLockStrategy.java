@@ -0,0 +1,93 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 逐个加锁的批量锁策略，锁名排序去重后按顺序经单锁策略加锁，多批锁名交叉时按相同顺序等待，不会死锁
+ *
+ * <br>加锁失败或异常时按相反顺序释放已获取的锁。适用于没有原子批量加锁能力的锁提供者
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class SequentialBatchLockStrategy implements BatchLockStrategy {
+    private final LockStrategy lockStrategy;
+
+    public SequentialBatchLockStrategy(LockStrategy lockStrategy) {
+        this.lockStrategy = lockStrategy;
+    }
+
+    @Override
+    public void lockAll(Collection<String> lockNames, long leaseTime, TimeUnit unit) {
+        List<String> names = sortedNames(lockNames);
+        int locked = 0;
+        try {
+            for (String name : names) {
+                lockStrategy.lock(name, leaseTime, unit);
+                locked++;
+            }
+        } finally {
+            if (locked < names.size()) {
+                release(names, locked);
+            }
+        }
+    }
+
+    @Override
+    public boolean tryLockAll(Collection<String> lockNames, long waitTime, long leaseTime, TimeUnit unit)
+            throws InterruptedException {
+        List<String> names = sortedNames(lockNames);
+        long deadline = System.nanoTime() + unit.toNanos(waitTime);
+        long leaseNanos = leaseTime == -1 ? -1 : unit.toNanos(leaseTime);
+        int locked = 0;
+        try {
+            for (String name : names) {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                if (!lockStrategy.tryLock(name, remaining, leaseNanos, TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+                locked++;
+            }
+            return true;
+        } finally {
+            if (locked < names.size()) {
+                release(names, locked);
+            }
+        }
+    }
+
+    @Override
+    public void unlockAll(Collection<String> lockNames) {
+        List<String> names = sortedNames(lockNames);
+        List<String> missing = null;
+        for (int i = names.size() - 1; i >= 0; i--) {
+            try {
+                lockStrategy.unlock(names.get(i));
+            } catch (IllegalMonitorStateException e) {
+                if (missing == null) {
+                    missing = new ArrayList<>();
+                }
+                missing.add(names.get(i));
+            }
+        }
+        if (missing != null) {
+            throw new IllegalMonitorStateException("attempt to unlock lock, not locked by current thread by thread-id: "
+                    + Thread.currentThread().getId() + ", locks: " + missing);
+        }
+    }
+
+    private void release(List<String> names, int locked) {
+        for (int i = locked - 1; i >= 0; i--) {
+            lockStrategy.unlock(names.get(i));
+        }
+    }
+
+    private static List<String> sortedNames(Collection<String> lockNames) {
+        return new ArrayList<>(new TreeSet<>(lockNames));
+    }
+}
@@ -0,0 +1,392 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+
+/**
+ * 分片锁提供者，按锁名以一致性哈希（带虚拟节点）路由到多个锁提供者，突破单个redis主节点的吞吐上限
+ *
+ * <br>同一锁名总是路由到同一分片，各锁类型使用相同的路由。增加分片时只有约1/分片数的锁名改变归属，
+ * 变更分片期间新旧归属的节点可能同时持有同名锁，应在无锁持有时变更。
+ *
+ * <br>层级锁按锁名的根层路由，同一层级树的各层位于同一分片。
+ *
+ * <br>集合占位符的多个锁名按分片分组，按分片名称顺序逐组原子加锁，失败时释放已获取的分组；
+ * 信号量与单飞结果写入名称所在的分片
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class ShardedLockProvider implements LockProvider {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardedLockProvider.class);
+
+    /**
+     * 默认每个分片的虚拟节点数
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+    private final Map<String, LockProvider> shards;
+    private final Map<Type, LockStrategy> lockStrategies = new EnumMap<>(Type.class);
+    private final BatchLockStrategy batchLockStrategy;
+    private final SemaphoreStrategy semaphoreStrategy;
+    private final SingleFlightResults singleFlightResults;
+    private final IdempotentResults idempotentResults;
+    private final List<RedissonClient> ownedClients;
+
+    /**
+     * @param shards 分片名称与分片的锁提供者，分片名称决定其在哈希环上的位置
+     * @param virtualNodes 每个分片的虚拟节点数
+     */
+    public ShardedLockProvider(Map<String, ? extends LockProvider> shards, int virtualNodes) {
+        this(shards, virtualNodes, "", Collections.emptyList());
+    }
+
+    /**
+     * @param prefix 锁名前缀，层级锁去掉前缀后划分层级，按根层路由
+     */
+    private ShardedLockProvider(Map<String, ? extends LockProvider> shards, int virtualNodes, String prefix,
+                                List<RedissonClient> ownedClients) {
+        this.shards = new LinkedHashMap<>(shards);
+        this.ownedClients = ownedClients;
+        LockHierarchy hierarchy = new LockHierarchy(prefix);
+        for (Type type : Type.values()) {
+            if (!Type.SEMAPHORE.equals(type)) {
+                boolean hierarchical = Type.HIERARCHICAL_READ_LOCK.equals(type)
+                        || Type.HIERARCHICAL_WRITE_LOCK.equals(type);
+                lockStrategies.put(type, new ShardedLockStrategy(ring(shards, virtualNodes,
+                        provider -> provider.getLockStrategy(type)),
+                        hierarchical ? hierarchy::root : Function.identity()));
+            }
+        }
+        this.batchLockStrategy = new ShardedBatchLockStrategy(ring(shards, virtualNodes,
+                LockProvider::getBatchLockStrategy));
+        boolean semaphores = shards.values().stream().allMatch(provider -> provider.getSemaphoreStrategy() != null);
+        this.semaphoreStrategy = semaphores
+                ? new ShardedSemaphoreStrategy(ring(shards, virtualNodes, LockProvider::getSemaphoreStrategy))
+                : null;
+        boolean sharedResults = shards.values().stream().allMatch(provider -> provider.getSingleFlightResults() != null);
+        this.singleFlightResults = sharedResults
+                ? new ShardedSingleFlightResults(ring(shards, virtualNodes, LockProvider::getSingleFlightResults))
+                : null;
+        boolean idempotentResults = shards.values().stream()
+                .allMatch(provider -> provider.getIdempotentResults() != null);
+        this.idempotentResults = idempotentResults
+                ? new ShardedIdempotentResults(ring(shards, virtualNodes, LockProvider::getIdempotentResults))
+                : null;
+    }
+
+    /**
+     * 以多个redisson客户端创建分片锁提供者，关闭时一并关闭这些客户端
+     *
+     * @param clients 分片名称与redisson客户端
+     * @param properties 分布式锁配置
+     * @param renewalListener 锁续期失败监听器，为null时仅打印告警日志
+     * @return 分片锁提供者
+     */
+    public static ShardedLockProvider ofRedisson(Map<String, RedissonClient> clients,
+                                                 DistributedLockProperties properties,
+                                                 LockRenewalListener renewalListener) {
+        Map<String, LockProvider> shards = new LinkedHashMap<>();
+        clients.forEach((name, client) -> shards.put(name,
+                new RedissonLockProvider(client, properties, renewalListener)));
+        return new ShardedLockProvider(shards, properties.getShardVirtualNodes(), properties.getPrefix(),
+                new ArrayList<>(clients.values()));
+    }
+
+    @Override
+    public LockStrategy getLockStrategy(Type type) {
+        return lockStrategies.get(type);
+    }
+
+    @Override
+    public BatchLockStrategy getBatchLockStrategy() {
+        return batchLockStrategy;
+    }
+
+    @Override
+    public SemaphoreStrategy getSemaphoreStrategy() {
+        return semaphoreStrategy;
+    }
+
+    @Override
+    public SingleFlightResults getSingleFlightResults() {
+        return singleFlightResults;
+    }
+
+    @Override
+    public IdempotentResults getIdempotentResults() {
+        return idempotentResults;
+    }
+
+    /**
+     * 预热全部分片
+     */
+    @Override
+    public void warmUp() {
+        for (LockProvider shard : shards.values()) {
+            shard.warmUp();
+        }
+    }
+
+    /**
+     * 关闭全部分片，以及由本提供者创建的redisson客户端
+     */
+    @Override
+    public void close() {
+        for (LockProvider shard : shards.values()) {
+            shard.close();
+        }
+        for (RedissonClient client : ownedClients) {
+            try {
+                client.shutdown();
+            } catch (Exception e) {
+                LOGGER.warn("Failed to shutdown the redisson client of lock shard.", e);
+            }
+        }
+    }
+
+    private static <T> ConsistentHashRing<T> ring(Map<String, ? extends LockProvider> shards, int virtualNodes,
+                                                  Function<LockProvider, T> component) {
+        Map<String, T> nodes = new LinkedHashMap<>();
+        shards.forEach((name, provider) -> nodes.put(name, component.apply(provider)));
+        return new ConsistentHashRing<>(nodes, virtualNodes);
+    }
+
+    /**
+     * 按锁名路由到分片的锁策略
+     */
+    private static final class ShardedLockStrategy implements LockStrategy {
+        private final ConsistentHashRing<LockStrategy> ring;
+        private final Function<String, String> routeKey;
+
+        /**
+         * @param routeKey 锁名到路由键的映射
+         */
+        ShardedLockStrategy(ConsistentHashRing<LockStrategy> ring, Function<String, String> routeKey) {
+            this.ring = ring;
+            this.routeKey = routeKey;
+        }
+
+        @Override
+        public void lock(String lockName, long leaseTime, TimeUnit unit) {
+            route(lockName).lock(lockName, leaseTime, unit);
+        }
+
+        @Override
+        public boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit)
+                throws InterruptedException {
+            return route(lockName).tryLock(lockName, waitTime, leaseTime, unit);
+        }
+
+        @Override
+        public void unlock(String lockName) {
+            route(lockName).unlock(lockName);
+        }
+
+        @Override
+        public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+            return route(lockName).lockAsync(lockName, leaseTime, unit, ownerId);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                                       long ownerId) {
+            return route(lockName).tryLockAsync(lockName, waitTime, leaseTime, unit, ownerId);
+        }
+
+        @Override
+        public CompletableFuture<Void> unlockAsync(String lockName, long ownerId) {
+            return route(lockName).unlockAsync(lockName, ownerId);
+        }
+
+        @Override
+        public CompletableFuture<Void> releaseAsync(String lockName) {
+            return route(lockName).releaseAsync(lockName);
+        }
+
+        private LockStrategy route(String lockName) {
+            return ring.route(routeKey.apply(lockName));
+        }
+    }
+
+    /**
+     * 按分片分组的批量锁策略，按分片编号（名称顺序）逐组加锁，多批锁名交叉时不会死锁
+     */
+    private static final class ShardedBatchLockStrategy implements BatchLockStrategy {
+        private final ConsistentHashRing<BatchLockStrategy> ring;
+
+        ShardedBatchLockStrategy(ConsistentHashRing<BatchLockStrategy> ring) {
+            this.ring = ring;
+        }
+
+        @Override
+        public void lockAll(Collection<String> lockNames, long leaseTime, TimeUnit unit) {
+            List<Map.Entry<Integer, List<String>>> groups = group(lockNames);
+            int locked = 0;
+            try {
+                for (Map.Entry<Integer, List<String>> group : groups) {
+                    ring.get(group.getKey()).lockAll(group.getValue(), leaseTime, unit);
+                    locked++;
+                }
+            } finally {
+                if (locked < groups.size()) {
+                    release(groups, locked);
+                }
+            }
+        }
+
+        @Override
+        public boolean tryLockAll(Collection<String> lockNames, long waitTime, long leaseTime, TimeUnit unit)
+                throws InterruptedException {
+            List<Map.Entry<Integer, List<String>>> groups = group(lockNames);
+            long deadline = System.nanoTime() + unit.toNanos(waitTime);
+            long leaseNanos = leaseTime == -1 ? -1 : unit.toNanos(leaseTime);
+            int locked = 0;
+            try {
+                for (Map.Entry<Integer, List<String>> group : groups) {
+                    long remaining = Math.max(0, deadline - System.nanoTime());
+                    if (!ring.get(group.getKey()).tryLockAll(group.getValue(), remaining, leaseNanos,
+                            TimeUnit.NANOSECONDS)) {
+                        return false;
+                    }
+                    locked++;
+                }
+                return true;
+            } finally {
+                if (locked < groups.size()) {
+                    release(groups, locked);
+                }
+            }
+        }
+
+        @Override
+        public void unlockAll(Collection<String> lockNames) {
+            List<Map.Entry<Integer, List<String>>> groups = group(lockNames);
+            IllegalMonitorStateException failure = null;
+            for (int i = groups.size() - 1; i >= 0; i--) {
+                try {
+                    ring.get(groups.get(i).getKey()).unlockAll(groups.get(i).getValue());
+                } catch (IllegalMonitorStateException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private void release(List<Map.Entry<Integer, List<String>>> groups, int locked) {
+            for (int i = locked - 1; i >= 0; i--) {
+                ring.get(groups.get(i).getKey()).unlockAll(groups.get(i).getValue());
+            }
+        }
+
+        private List<Map.Entry<Integer, List<String>>> group(Collection<String> lockNames) {
+            TreeMap<Integer, List<String>> groups = new TreeMap<>();
+            for (String lockName : lockNames) {
+                groups.computeIfAbsent(ring.indexOf(lockName), index -> new ArrayList<>()).add(lockName);
+            }
+            return new ArrayList<>(groups.entrySet());
+        }
+    }
+
+    /**
+     * 按信号量名路由到分片的信号量策略
+     */
+    private static final class ShardedSemaphoreStrategy implements SemaphoreStrategy {
+        private final ConsistentHashRing<SemaphoreStrategy> ring;
+
+        ShardedSemaphoreStrategy(ConsistentHashRing<SemaphoreStrategy> ring) {
+            this.ring = ring;
+        }
+
+        @Override
+        public String acquire(String name, int permits, long leaseTime, TimeUnit unit) throws InterruptedException {
+            return ring.route(name).acquire(name, permits, leaseTime, unit);
+        }
+
+        @Override
+        public String tryAcquire(String name, int permits, long waitTime, long leaseTime, TimeUnit unit)
+                throws InterruptedException {
+            return ring.route(name).tryAcquire(name, permits, waitTime, leaseTime, unit);
+        }
+
+        @Override
+        public void release(String name, String permitId) {
+            ring.route(name).release(name, permitId);
+        }
+
+        @Override
+        public CompletableFuture<Void> releaseAsync(String name, String permitId) {
+            return ring.route(name).releaseAsync(name, permitId);
+        }
+    }
+
+    /**
+     * 写入锁名所在分片的单飞结果存储
+     */
+    private static final class ShardedSingleFlightResults implements SingleFlightResults {
+        private final ConsistentHashRing<SingleFlightResults> ring;
+
+        ShardedSingleFlightResults(ConsistentHashRing<SingleFlightResults> ring) {
+            this.ring = ring;
+        }
+
+        @Override
+        public Result get(String lockName) {
+            return ring.route(lockName).get(lockName);
+        }
+
+        @Override
+        public void publish(String lockName, Object value) {
+            ring.route(lockName).publish(lockName, value);
+        }
+
+        @Override
+        public void clear(String lockName) {
+            ring.route(lockName).clear(lockName);
+        }
+    }
+
+    /**
+     * 写入锁名所在分片的幂等结果存储
+     */
+    private static final class ShardedIdempotentResults implements IdempotentResults {
+        private final ConsistentHashRing<IdempotentResults> ring;
+
+        ShardedIdempotentResults(ConsistentHashRing<IdempotentResults> ring) {
+            this.ring = ring;
+        }
+
+        @Override
+        public Result get(String lockName) {
+            return ring.route(lockName).get(lockName);
+        }
+
+        @Override
+        public void put(String lockName, Object value, long ttlMillis) {
+            ring.route(lockName).put(lockName, value, ttlMillis);
+        }
+    }
+}
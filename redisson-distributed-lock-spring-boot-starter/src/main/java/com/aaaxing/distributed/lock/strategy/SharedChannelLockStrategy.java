@@ -0,0 +1,452 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import org.redisson.api.RScript;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 共享通知频道的可重入锁策略
+ *
+ * <br>redisson的可重入锁每次竞争加锁都订阅以该锁命名的频道，加锁后再退订，锁名很多时订阅、退订请求与订阅连接池成为瓶颈。
+ * 本策略的锁释放时把锁名发布到固定数量的共享频道之一（按锁名哈希），每个JVM对每个频道只保持一个长期订阅，
+ * 收到通知后按锁名在本地的等待者表中唤醒一个等待者；没有等待者时记下通知，下一个等待者立即重试，不会丢失唤醒。
+ *
+ * <br>锁的存储结构与redisson可重入锁（RLock）一致，自动续期的锁由批量续期服务续期；
+ * 但释放时不再向redisson的锁频道发布消息，同一把锁的各节点须使用相同的实现
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class SharedChannelLockStrategy implements LockStrategy {
+    /**
+     * 共享频道名前缀，后接频道序号
+     */
+    public static final String CHANNEL_PREFIX = "distributed_lock_shared__channel:";
+
+    /**
+     * KEYS[1]：锁名；ARGV[1]：锁持有时间（毫秒），ARGV[2]：持有者。加锁成功返回nil，否则返回锁的剩余存活时间（毫秒）
+     */
+    private static final LockScript ACQUIRE_SCRIPT = new LockScript(""
+            + "if (redis.call('exists', KEYS[1]) == 0) "
+            + "or (redis.call('hexists', KEYS[1], ARGV[2]) == 1) then "
+            + "redis.call('hincrby', KEYS[1], ARGV[2], 1); "
+            + "redis.call('pexpire', KEYS[1], ARGV[1]); "
+            + "return nil; "
+            + "end; "
+            + "return redis.call('pttl', KEYS[1]);");
+
+    /**
+     * KEYS[1]：锁名；ARGV[1]：锁持有时间（毫秒），ARGV[2]：持有者，ARGV[3]：共享频道，ARGV[4]：通知内容（锁名）。
+     * 共享频道不属于任何键，以参数传入，redis集群下不受slot限制。
+     * 不由该持有者持有时返回nil，仍持有（重入）返回0，释放返回1
+     */
+    private static final LockScript RELEASE_SCRIPT = new LockScript(""
+            + "if (redis.call('hexists', KEYS[1], ARGV[2]) == 0) then "
+            + "return nil; "
+            + "end; "
+            + "if (redis.call('hincrby', KEYS[1], ARGV[2], -1) > 0) then "
+            + "redis.call('pexpire', KEYS[1], ARGV[1]); "
+            + "return 0; "
+            + "end; "
+            + "redis.call('del', KEYS[1]); "
+            + "redis.call('publish', ARGV[3], ARGV[4]); "
+            + "return 1;");
+
+    /**
+     * 本类使用的全部lua脚本，启动预热时预先加载
+     */
+    static final List<LockScript> SCRIPTS = Arrays.asList(ACQUIRE_SCRIPT, RELEASE_SCRIPT);
+
+    private final RedissonClient redisson;
+    private final LockRenewalService renewalService;
+    private final Channel[] channels;
+    private final ConcurrentHashMap<String, Waiters> waiters = new ConcurrentHashMap<>();
+
+    /**
+     * @param redisson redisson客户端
+     * @param renewalService 批量续期服务，续期自动续期的锁
+     * @param channelCount 共享频道数，各节点须一致
+     */
+    public SharedChannelLockStrategy(RedissonClient redisson, LockRenewalService renewalService, int channelCount) {
+        if (channelCount < 1) {
+            throw new IllegalArgumentException("The shared lock channels must be positive: " + channelCount);
+        }
+        this.redisson = redisson;
+        this.renewalService = renewalService;
+        this.channels = new Channel[channelCount];
+        for (int i = 0; i < channelCount; i++) {
+            channels[i] = new Channel(CHANNEL_PREFIX + i);
+        }
+    }
+
+    @Override
+    public void lock(String lockName, long leaseTime, TimeUnit unit) {
+        LockFutures.join(lockAsync(lockName, leaseTime, unit, Thread.currentThread().getId()));
+    }
+
+    @Override
+    public boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        Acquisition acquisition = new Acquisition(lockName, unit.toNanos(waitTime), leaseTime, unit,
+                Thread.currentThread().getId());
+        try {
+            return LockFutures.get(acquisition.start());
+        } catch (InterruptedException e) {
+            acquisition.cancel();
+            throw e;
+        }
+    }
+
+    @Override
+    public void unlock(String lockName) {
+        LockFutures.join(unlockAsync(lockName, Thread.currentThread().getId()));
+    }
+
+    @Override
+    public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+        return new Acquisition(lockName, -1, leaseTime, unit, ownerId).start().thenApply(locked -> null);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                                   long ownerId) {
+        return new Acquisition(lockName, unit.toNanos(waitTime), leaseTime, unit, ownerId).start();
+    }
+
+    @Override
+    public CompletableFuture<Void> unlockAsync(String lockName, long ownerId) {
+        renewalService.release(lockName, ownerId);
+        String owner = renewalService.getOwnerField(ownerId);
+        return RELEASE_SCRIPT.<Long>evalAsync(script(), lockName, RScript.Mode.READ_WRITE, RScript.ReturnType.INTEGER,
+                Collections.singletonList(lockName), renewalService.getLeaseMillis(), owner,
+                channel(lockName).name, lockName)
+                .thenApply(released -> {
+                    if (released == null) {
+                        throw new IllegalMonitorStateException("attempt to unlock lock, not locked by current owner: "
+                                + owner + ", lock: " + lockName);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * 取消全部共享频道的订阅，锁提供者关闭时调用
+     */
+    public void close() {
+        for (Channel channel : channels) {
+            channel.unsubscribe();
+        }
+    }
+
+    private RScript script() {
+        return redisson.getScript(StringCodec.INSTANCE);
+    }
+
+    private Channel channel(String lockName) {
+        return channels[channelIndex(lockName, channels.length)];
+    }
+
+    /**
+     * 锁名所属的共享频道名，批量锁释放时向同一频道发布通知
+     *
+     * @param lockName 锁名
+     * @param channelCount 共享频道数
+     * @return 共享频道名
+     */
+    static String channelName(String lockName, int channelCount) {
+        return CHANNEL_PREFIX + channelIndex(lockName, channelCount);
+    }
+
+    private static int channelIndex(String lockName, int channelCount) {
+        return (int) Long.remainderUnsigned(ConsistentHashRing.hash(lockName), channelCount);
+    }
+
+    private Waiters join(String lockName) {
+        return waiters.compute(lockName, (name, current) -> {
+            Waiters joined = current == null ? new Waiters() : current;
+            joined.refs++;
+            return joined;
+        });
+    }
+
+    private void leave(String lockName, Waiters joined) {
+        waiters.computeIfPresent(lockName, (name, current) -> {
+            if (current != joined) {
+                return current;
+            }
+            return --current.refs == 0 ? null : current;
+        });
+    }
+
+    /**
+     * 共享频道，首次有等待者时订阅，此后一直保持订阅
+     */
+    private final class Channel implements MessageListener<String> {
+        private final String name;
+        private final RTopic topic;
+        private CompletableFuture<Integer> subscription;
+
+        Channel(String name) {
+            this.name = name;
+            this.topic = redisson.getTopic(name, StringCodec.INSTANCE);
+        }
+
+        synchronized CompletableFuture<Integer> subscribe() {
+            if (subscription == null || subscription.isCompletedExceptionally()) {
+                subscription = topic.addListenerAsync(String.class, this).toCompletableFuture();
+            }
+            return subscription;
+        }
+
+        synchronized void unsubscribe() {
+            if (subscription != null) {
+                subscription.thenAccept(topic::removeListenerAsync);
+                subscription = null;
+            }
+        }
+
+        @Override
+        public void onMessage(CharSequence channel, String lockName) {
+            Waiters lockWaiters = waiters.get(lockName);
+            if (lockWaiters != null) {
+                lockWaiters.signal();
+            }
+        }
+    }
+
+    /**
+     * 本地同一锁名的等待者，refs为进行中的加锁数，由等待者表的compute维护
+     */
+    private static final class Waiters {
+        private final ArrayDeque<Acquisition> queue = new ArrayDeque<>();
+        private int refs;
+        private boolean signalled;
+
+        /**
+         * 唤醒一个等待者，没有等待者时记下通知
+         */
+        void signal() {
+            while (true) {
+                Acquisition next;
+                synchronized (this) {
+                    next = queue.poll();
+                    if (next == null) {
+                        signalled = true;
+                        return;
+                    }
+                }
+                if (next.wake()) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 进入等待队列
+         *
+         * @return false表示已有未消费的通知，不进入队列，应立即重试
+         */
+        synchronized boolean park(Acquisition acquisition) {
+            if (signalled) {
+                signalled = false;
+                return false;
+            }
+            queue.add(acquisition);
+            return true;
+        }
+
+        synchronized void remove(Acquisition acquisition) {
+            queue.remove(acquisition);
+        }
+    }
+
+    /**
+     * 一次加锁：首次加锁失败后加入本地等待者表并确保共享频道已订阅，再重试；此后在收到通知或锁的剩余存活时间后重试
+     *
+     * <br>waiting为true表示正在等待，由通知、定时器或放弃操作之一将其置为false并继续
+     */
+    private final class Acquisition {
+        private final String lockName;
+        private final String owner;
+        private final long ownerId;
+        private final long leaseTime;
+        private final long leaseMillis;
+        private final long waitNanos;
+        private final long deadline;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        private final AtomicBoolean waiting = new AtomicBoolean();
+        private volatile boolean cancelled;
+        private volatile Waiters lockWaiters;
+        private volatile ScheduledFuture<?> timer;
+
+        /**
+         * @param waitNanos 等待时间（纳秒），负数为一直等待
+         */
+        Acquisition(String lockName, long waitNanos, long leaseTime, TimeUnit unit, long ownerId) {
+            this.lockName = lockName;
+            this.owner = renewalService.getOwnerField(ownerId);
+            this.ownerId = ownerId;
+            this.leaseTime = leaseTime;
+            this.leaseMillis = leaseTime == -1 ? renewalService.getLeaseMillis() : unit.toMillis(leaseTime);
+            this.waitNanos = waitNanos;
+            this.deadline = System.nanoTime() + Math.max(0, waitNanos);
+        }
+
+        CompletableFuture<Boolean> start() {
+            attempt();
+            return result;
+        }
+
+        /**
+         * 放弃等待；加锁请求进行中时在其完成后放弃或释放锁
+         */
+        void cancel() {
+            cancelled = true;
+            if (waiting.compareAndSet(true, false)) {
+                cancelTimer();
+                lockWaiters.remove(this);
+                finish(false);
+            }
+        }
+
+        /**
+         * 收到通知
+         *
+         * @return 是否正在等待并已被唤醒
+         */
+        boolean wake() {
+            if (waiting.compareAndSet(true, false)) {
+                cancelTimer();
+                attempt();
+                return true;
+            }
+            return false;
+        }
+
+        private void attempt() {
+            ACQUIRE_SCRIPT.<Long>evalAsync(script(), lockName, RScript.Mode.READ_WRITE, RScript.ReturnType.INTEGER,
+                    Collections.singletonList(lockName), leaseMillis, owner)
+                    .whenComplete((ttl, e) -> {
+                        if (e != null) {
+                            fail(e);
+                        } else if (ttl == null) {
+                            acquired();
+                        } else {
+                            contended(ttl);
+                        }
+                    });
+        }
+
+        private void contended(long ttl) {
+            if (waitNanos == 0) {
+                finish(false);
+                return;
+            }
+            if (lockWaiters == null) {
+                // 订阅前发布的通知收不到，订阅完成后再重试一次
+                lockWaiters = join(lockName);
+                channel(lockName).subscribe().whenComplete((id, e) -> {
+                    if (e != null) {
+                        fail(e);
+                    } else {
+                        attempt();
+                    }
+                });
+                return;
+            }
+            await(ttl);
+        }
+
+        private void await(long ttl) {
+            long remaining = waitNanos < 0 ? Long.MAX_VALUE : deadline - System.nanoTime();
+            if (cancelled || remaining <= 0) {
+                finish(false);
+                return;
+            }
+            waiting.set(true);
+            if (!lockWaiters.park(this)) {
+                if (waiting.compareAndSet(true, false)) {
+                    attempt();
+                }
+                return;
+            }
+            if (cancelled) {
+                cancel();
+                return;
+            }
+            long delayMillis = Math.min(Math.max(1, ttl), Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+            timer = SharedChannelScheduler.EXECUTOR.schedule(this::timeout, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * 锁到期或等待超时时重试，等待超时由下一次加锁失败后结束
+         */
+        private void timeout() {
+            if (waiting.compareAndSet(true, false)) {
+                lockWaiters.remove(this);
+                attempt();
+            }
+        }
+
+        private void acquired() {
+            if (cancelled) {
+                unlockAsync(lockName, ownerId);
+                finish(false);
+                return;
+            }
+            if (leaseTime == -1) {
+                renewalService.register(lockName, ownerId);
+            } else {
+                renewalService.retain(lockName, ownerId);
+            }
+            finish(true);
+        }
+
+        private void fail(Throwable e) {
+            leaveWaiters();
+            result.completeExceptionally(LockFutures.unwrap(e));
+        }
+
+        private void finish(boolean locked) {
+            leaveWaiters();
+            result.complete(locked);
+        }
+
+        private void leaveWaiters() {
+            Waiters joined = lockWaiters;
+            if (joined != null) {
+                lockWaiters = null;
+                leave(lockName, joined);
+            }
+        }
+
+        private void cancelTimer() {
+            ScheduledFuture<?> scheduled = timer;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+
+    private static final class SharedChannelScheduler {
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "distributed-lock-shared-channel-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,51 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+/**
+ * 单飞（SINGLE_FLIGHT）模式的结果存储
+ *
+ * <br>执行方法的节点在释放锁前发布结果，其他节点等待到锁后读取结果，不再重复执行方法
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public interface SingleFlightResults {
+
+    /**
+     * 获取已发布的结果
+     *
+     * @param lockName 锁名
+     * @return 结果，未发布或已过期时为null
+     */
+    Result get(String lockName);
+
+    /**
+     * 发布结果
+     *
+     * @param lockName 锁名
+     * @param value 方法返回值
+     */
+    void publish(String lockName, Object value);
+
+    /**
+     * 清除上一次执行发布的结果
+     *
+     * @param lockName 锁名
+     */
+    void clear(String lockName);
+
+    /**
+     * 已发布的结果
+     */
+    final class Result {
+        private final Object value;
+
+        public Result(Object value) {
+            this.value = value;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.metrics.LockMeters;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+
+/**
+ * 分段锁策略：以锁名所在的分段锁名加锁、释放锁，每次加锁记录一次分段加锁及是否误冲突
+ *
+ * @author axing
+ * @date 2026-10-18
+ * @see LockStripes
+ */
+public class StripedLockStrategy implements LockStrategy {
+    private final LockStrategy delegate;
+    private final Type type;
+    private final int stripes;
+    private final LockStripes lockStripes;
+    private final LockMeters meters;
+
+    /**
+     * @param delegate 被装饰的锁策略
+     * @param type 被装饰的锁策略的锁类型，不同锁类型使用独立的分段
+     * @param stripes 分段数
+     * @param lockStripes 锁分段
+     * @param meters 记录分段加锁与误冲突的指标
+     */
+    public StripedLockStrategy(LockStrategy delegate, Type type, int stripes, LockStripes lockStripes,
+                               LockMeters meters) {
+        this.delegate = delegate;
+        this.type = type;
+        this.stripes = stripes;
+        this.lockStripes = lockStripes;
+        this.meters = meters;
+    }
+
+    @Override
+    public void lock(String lockName, long leaseTime, TimeUnit unit) {
+        String stripeName = stripeName(lockName);
+        delegate.lock(stripeName, leaseTime, unit);
+        lockStripes.acquired(stripeName, lockName);
+    }
+
+    @Override
+    public boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        String stripeName = stripeName(lockName);
+        if (!delegate.tryLock(stripeName, waitTime, leaseTime, unit)) {
+            return false;
+        }
+        lockStripes.acquired(stripeName, lockName);
+        return true;
+    }
+
+    @Override
+    public void unlock(String lockName) {
+        String stripeName = lockStripes.stripeName(type, lockName, stripes);
+        lockStripes.released(stripeName, lockName);
+        delegate.unlock(stripeName);
+    }
+
+    @Override
+    public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+        String stripeName = stripeName(lockName);
+        return delegate.lockAsync(stripeName, leaseTime, unit, ownerId)
+                .thenRun(() -> lockStripes.acquired(stripeName, lockName));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                                   long ownerId) {
+        String stripeName = stripeName(lockName);
+        return delegate.tryLockAsync(stripeName, waitTime, leaseTime, unit, ownerId).thenApply(locked -> {
+            if (locked) {
+                lockStripes.acquired(stripeName, lockName);
+            }
+            return locked;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> unlockAsync(String lockName, long ownerId) {
+        String stripeName = lockStripes.stripeName(type, lockName, stripes);
+        lockStripes.released(stripeName, lockName);
+        return delegate.unlockAsync(stripeName, ownerId);
+    }
+
+    @Override
+    public CompletableFuture<Void> releaseAsync(String lockName) {
+        String stripeName = lockStripes.stripeName(type, lockName, stripes);
+        lockStripes.released(stripeName, lockName);
+        return delegate.releaseAsync(stripeName);
+    }
+
+    /**
+     * 获取分段锁名并记录一次分段加锁
+     */
+    private String stripeName(String lockName) {
+        String stripeName = lockStripes.stripeName(type, lockName, stripes);
+        meters.recordStripe(lockStripes.isCollision(stripeName, lockName));
+        return stripeName;
+    }
+}
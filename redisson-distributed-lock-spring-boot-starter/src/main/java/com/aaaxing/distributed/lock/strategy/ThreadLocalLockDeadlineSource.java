@@ -0,0 +1,56 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于线程变量的调用截止时间来源，默认的LockDeadlineSource
+ *
+ * <br>在请求入口（如过滤器、拦截器）按请求的超时设置截止时间，请求结束时清除：
+ * <pre>
+ * ThreadLocalLockDeadlineSource.setTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+ * try {
+ *     chain.doFilter(request, response);
+ * } finally {
+ *     ThreadLocalLockDeadlineSource.clear();
+ * }
+ * </pre>
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class ThreadLocalLockDeadlineSource implements LockDeadlineSource {
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    /**
+     * 以剩余时间设置当前线程的截止时间
+     *
+     * @param timeout 剩余时间
+     * @param unit 时间单位
+     */
+    public static void setTimeout(long timeout, TimeUnit unit) {
+        setDeadline(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * 设置当前线程的截止时间
+     *
+     * @param deadlineNanos 截止时间，与System.nanoTime()可比较
+     */
+    public static void setDeadline(long deadlineNanos) {
+        DEADLINE.set(deadlineNanos);
+    }
+
+    /**
+     * 清除当前线程的截止时间
+     */
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    @Override
+    public long remainingNanos() {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? NO_DEADLINE : deadline - System.nanoTime();
+    }
+}
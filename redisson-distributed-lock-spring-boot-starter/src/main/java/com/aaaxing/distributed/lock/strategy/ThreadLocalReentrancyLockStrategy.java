@@ -0,0 +1,142 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程内重入快速路径的锁策略
+ *
+ * <br>按线程记录已持有的锁名与持有次数：当前线程已持有自动续期（leaseTime为-1）的同名锁时，
+ * 嵌套的加锁、释放只在本地计数，不再访问redis；只有最外层的加锁与最后一次释放经过被装饰的锁策略。
+ *
+ * <br>最外层指定了持有时间的锁仍逐次经过被装饰的锁策略，与redisson一致由重入加锁重新计算过期时间，
+ * 并能发现锁已过期。异步加锁以持有者id标识，不经过快速路径。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class ThreadLocalReentrancyLockStrategy implements LockStrategy {
+    private final LockStrategy delegate;
+    private final ThreadLocal<Map<String, Hold>> holds = ThreadLocal.withInitial(HashMap::new);
+
+    /**
+     * @param delegate 被装饰的锁策略
+     */
+    public ThreadLocalReentrancyLockStrategy(LockStrategy delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void lock(String lockName, long leaseTime, TimeUnit unit) {
+        Map<String, Hold> threadHolds = holds.get();
+        Hold hold = threadHolds.get(lockName);
+        if (hold != null && hold.autoRenewed) {
+            hold.local++;
+            return;
+        }
+        delegate.lock(lockName, leaseTime, unit);
+        acquired(threadHolds, hold, lockName, leaseTime);
+    }
+
+    @Override
+    public boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        Map<String, Hold> threadHolds = holds.get();
+        Hold hold = threadHolds.get(lockName);
+        if (hold != null && hold.autoRenewed) {
+            hold.local++;
+            return true;
+        }
+        if (!delegate.tryLock(lockName, waitTime, leaseTime, unit)) {
+            return false;
+        }
+        acquired(threadHolds, hold, lockName, leaseTime);
+        return true;
+    }
+
+    @Override
+    public void unlock(String lockName) {
+        if (releaseLocally(lockName)) {
+            return;
+        }
+        delegate.unlock(lockName);
+    }
+
+    @Override
+    public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+        return delegate.lockAsync(lockName, leaseTime, unit, ownerId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                                   long ownerId) {
+        return delegate.tryLockAsync(lockName, waitTime, leaseTime, unit, ownerId);
+    }
+
+    @Override
+    public CompletableFuture<Void> unlockAsync(String lockName, long ownerId) {
+        return delegate.unlockAsync(lockName, ownerId);
+    }
+
+    @Override
+    public CompletableFuture<Void> releaseAsync(String lockName) {
+        if (releaseLocally(lockName)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return delegate.releaseAsync(lockName);
+    }
+
+    /**
+     * 释放一次本地计数的持有
+     *
+     * @return 是否只在本地释放，false时需经过被装饰的锁策略释放
+     */
+    private boolean releaseLocally(String lockName) {
+        Map<String, Hold> threadHolds = holds.get();
+        Hold hold = threadHolds.get(lockName);
+        if (hold == null) {
+            return false;
+        }
+        if (hold.local > 0) {
+            hold.local--;
+            return true;
+        }
+        // 经过被装饰的锁策略的持有，无论释放是否成功都不再计数
+        if (--hold.remote == 0) {
+            threadHolds.remove(lockName);
+        }
+        return false;
+    }
+
+    private static void acquired(Map<String, Hold> threadHolds, Hold hold, String lockName, long leaseTime) {
+        if (hold == null) {
+            hold = new Hold(leaseTime == -1);
+            threadHolds.put(lockName, hold);
+        }
+        hold.remote++;
+    }
+
+    /**
+     * 当前线程对一个锁名的持有次数
+     */
+    private static final class Hold {
+        /**
+         * 最外层加锁是否自动续期，决定嵌套加锁能否只在本地计数
+         */
+        private final boolean autoRenewed;
+        /**
+         * 经过被装饰的锁策略的持有次数
+         */
+        private int remote;
+        /**
+         * 只在本地计数的持有次数
+         */
+        private int local;
+
+        Hold(boolean autoRenewed) {
+            this.autoRenewed = autoRenewed;
+        }
+    }
+}
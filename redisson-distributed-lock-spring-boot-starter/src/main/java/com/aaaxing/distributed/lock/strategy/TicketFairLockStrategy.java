@@ -0,0 +1,435 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import org.redisson.api.RScript;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 基于取号、叫号计数器的公平锁策略
+ *
+ * <br>redisson的公平锁每次加锁都要在lua脚本中遍历、清理等待队列与超时有序集合，同一把锁的等待者很多时redis CPU飙升、加锁变慢。
+ * 本策略的等待者先取号（INCR），锁空闲且叫号等于自己的号码时加锁；释放时叫号加一，并在通知频道上发布新的叫号，
+ * 只有持有该号码的等待者重试加锁。加锁、释放与清理放弃的号码都不遍历队列。
+ *
+ * <br>等待者每隔号码存活时间的1/3刷新一次存活时间，同时作为通知丢失时的兜底重试；
+ * 放弃等待或宕机的号码在叫到时被跳过，每个号码至多被跳过一次，均摊为常数时间。
+ *
+ * <br>锁的存储结构与redisson可重入锁（RLock）一致（锁名为hash，持有者字段为“节点id:持有者id”），
+ * 自动续期的锁由批量续期服务续期。计数器、号码存活时间与通知频道带有锁名的hash tag，redis集群下与锁位于同一slot。
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public class TicketFairLockStrategy implements LockStrategy {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TicketFairLockStrategy.class);
+
+    /**
+     * 叫号后移：跳过已放弃或已过期的号码（均摊常数时间），全部号码都已叫过时删除计数器，否则发布新的叫号。
+     * 需先定义serving（新的叫号）、now（当前时间毫秒）、ttl（计数器存活时间毫秒）
+     */
+    private static final String ADVANCE = ""
+            + "local last = tonumber(redis.call('get', KEYS[2]) or '0'); "
+            + "while serving <= last do "
+            + "local expiresAt = redis.call('hget', KEYS[4], serving); "
+            + "if expiresAt and tonumber(expiresAt) > now then break; end; "
+            + "redis.call('hdel', KEYS[4], serving); "
+            + "serving = serving + 1; "
+            + "end; "
+            + "if serving > last then "
+            + "redis.call('del', KEYS[2], KEYS[3], KEYS[4]); "
+            + "else "
+            + "redis.call('set', KEYS[3], serving, 'px', ttl); "
+            + "redis.call('pexpire', KEYS[2], ttl); "
+            + "redis.call('publish', KEYS[5], serving); "
+            + "end; ";
+
+    /**
+     * KEYS[1]：锁名，KEYS[2]：取号计数器，KEYS[3]：叫号计数器，KEYS[4]：等待中号码的存活期限，KEYS[5]：通知频道；
+     * ARGV[1]：锁持有时间（毫秒），ARGV[2]：持有者，ARGV[3]：已取的号码（0为未取号），ARGV[4]：当前时间（毫秒），
+     * ARGV[5]：号码存活时间（毫秒），ARGV[6]：未加锁时是否保留号码排队（0为归还号码）。
+     * 加锁成功返回0，否则返回号码
+     */
+    private static final LockScript ACQUIRE_SCRIPT = new LockScript(""
+            + "if (redis.call('hexists', KEYS[1], ARGV[2]) == 1) then "
+            + "redis.call('hincrby', KEYS[1], ARGV[2], 1); "
+            + "redis.call('pexpire', KEYS[1], ARGV[1]); "
+            + "return 0; "
+            + "end; "
+            + "local now = tonumber(ARGV[4]); "
+            + "local ticket = tonumber(ARGV[3]); "
+            + "local serving = tonumber(redis.call('get', KEYS[3]) or '1'); "
+            // 号码已被越过（计数器过期后重建）时重新取号
+            + "local taken = false; "
+            + "if (ticket == 0) or (ticket < serving) then "
+            + "ticket = redis.call('incr', KEYS[2]); "
+            + "taken = true; "
+            + "if ticket < serving then "
+            + "redis.call('set', KEYS[2], serving); "
+            + "ticket = serving; "
+            + "end; "
+            + "end; "
+            + "if (redis.call('exists', KEYS[1]) == 0) then "
+            + "local first = serving; "
+            + "while serving < ticket do "
+            + "local expiresAt = redis.call('hget', KEYS[4], serving); "
+            + "if expiresAt and tonumber(expiresAt) > now then break; end; "
+            + "redis.call('hdel', KEYS[4], serving); "
+            + "serving = serving + 1; "
+            + "end; "
+            + "redis.call('set', KEYS[3], serving, 'px', ARGV[5]); "
+            + "if serving == ticket then "
+            + "redis.call('hdel', KEYS[4], ticket); "
+            + "redis.call('pexpire', KEYS[2], ARGV[5]); "
+            + "redis.call('hset', KEYS[1], ARGV[2], 1); "
+            + "redis.call('pexpire', KEYS[1], ARGV[1]); "
+            + "return 0; "
+            + "end; "
+            // 持有者未释放而过期时无人发布叫号，叫号后移到其他存活的等待者时通知它
+            + "if serving ~= first then redis.call('publish', KEYS[5], serving); end; "
+            + "end; "
+            + "if ARGV[6] == '0' then "
+            + "if taken and (redis.call('decr', KEYS[2]) <= 0) then redis.call('del', KEYS[2]); end; "
+            + "return ticket; "
+            + "end; "
+            + "redis.call('hset', KEYS[4], ticket, now + tonumber(ARGV[5])); "
+            + "redis.call('pexpire', KEYS[2], ARGV[5]); "
+            + "redis.call('pexpire', KEYS[3], ARGV[5]); "
+            + "redis.call('pexpire', KEYS[4], ARGV[5]); "
+            + "return ticket;");
+
+    /**
+     * KEYS同加锁脚本；ARGV[1]：锁持有时间（毫秒），ARGV[2]：持有者，ARGV[3]：当前时间（毫秒），ARGV[4]：号码存活时间（毫秒）。
+     * 不由该持有者持有时返回nil，仍持有（重入）返回0，释放返回1
+     */
+    private static final LockScript RELEASE_SCRIPT = new LockScript(""
+            + "if (redis.call('hexists', KEYS[1], ARGV[2]) == 0) then "
+            + "return nil; "
+            + "end; "
+            + "if (redis.call('hincrby', KEYS[1], ARGV[2], -1) > 0) then "
+            + "redis.call('pexpire', KEYS[1], ARGV[1]); "
+            + "return 0; "
+            + "end; "
+            + "redis.call('del', KEYS[1]); "
+            + "local now = tonumber(ARGV[3]); "
+            + "local ttl = ARGV[4]; "
+            // 持有期间计数器已过期（其间无人等待）时，新的等待者从1号开始取号
+            + "local current = redis.call('get', KEYS[3]); "
+            + "local serving = current and (tonumber(current) + 1) or 1; "
+            + ADVANCE
+            + "return 1;");
+
+    /**
+     * KEYS同加锁脚本；ARGV[1]：放弃的号码，ARGV[2]：未使用，ARGV[3]：当前时间（毫秒），ARGV[4]：号码存活时间（毫秒）。
+     * 锁空闲且正叫到放弃的号码时叫号后移
+     */
+    private static final LockScript ABANDON_SCRIPT = new LockScript(""
+            + "redis.call('hdel', KEYS[4], ARGV[1]); "
+            + "if (redis.call('exists', KEYS[1]) == 0) "
+            + "and (tonumber(redis.call('get', KEYS[3]) or '1') == tonumber(ARGV[1])) then "
+            + "local now = tonumber(ARGV[3]); "
+            + "local ttl = ARGV[4]; "
+            + "local serving = tonumber(ARGV[1]) + 1; "
+            + ADVANCE
+            + "end; "
+            + "return 1;");
+
+    /**
+     * 本类使用的全部lua脚本，启动预热时预先加载
+     */
+    static final List<LockScript> SCRIPTS = Arrays.asList(ACQUIRE_SCRIPT, RELEASE_SCRIPT, ABANDON_SCRIPT);
+
+    private final RedissonClient redisson;
+    private final LockRenewalService renewalService;
+    private final long ticketTtlMillis;
+
+    /**
+     * @param redisson redisson客户端
+     * @param renewalService 批量续期服务，续期自动续期的锁；其锁持有时间同时作为号码存活时间
+     */
+    public TicketFairLockStrategy(RedissonClient redisson, LockRenewalService renewalService) {
+        this.redisson = redisson;
+        this.renewalService = renewalService;
+        this.ticketTtlMillis = renewalService.getLeaseMillis();
+    }
+
+    @Override
+    public void lock(String lockName, long leaseTime, TimeUnit unit) {
+        LockFutures.join(lockAsync(lockName, leaseTime, unit, Thread.currentThread().getId()));
+    }
+
+    @Override
+    public boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit) throws InterruptedException {
+        Acquisition acquisition = new Acquisition(lockName, unit.toNanos(waitTime), leaseTime, unit,
+                Thread.currentThread().getId());
+        try {
+            return LockFutures.get(acquisition.start());
+        } catch (InterruptedException e) {
+            acquisition.cancel();
+            throw e;
+        }
+    }
+
+    @Override
+    public void unlock(String lockName) {
+        LockFutures.join(unlockAsync(lockName, Thread.currentThread().getId()));
+    }
+
+    @Override
+    public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+        return new Acquisition(lockName, -1, leaseTime, unit, ownerId).start().thenApply(locked -> null);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                                   long ownerId) {
+        return new Acquisition(lockName, unit.toNanos(waitTime), leaseTime, unit, ownerId).start();
+    }
+
+    @Override
+    public CompletableFuture<Void> unlockAsync(String lockName, long ownerId) {
+        renewalService.release(lockName, ownerId);
+        String owner = renewalService.getOwnerField(ownerId);
+        return RELEASE_SCRIPT.<Long>evalAsync(script(), lockName, RScript.Mode.READ_WRITE, RScript.ReturnType.INTEGER,
+                keys(lockName), renewalService.getLeaseMillis(), owner, System.currentTimeMillis(), ticketTtlMillis)
+                .thenApply(released -> {
+                    if (released == null) {
+                        throw new IllegalMonitorStateException("attempt to unlock lock, not locked by current owner: "
+                                + owner + ", lock: " + lockName);
+                    }
+                    return null;
+                });
+    }
+
+    private RScript script() {
+        return redisson.getScript(StringCodec.INSTANCE);
+    }
+
+    private static List<Object> keys(String lockName) {
+        return Arrays.asList(lockName, suffixName(lockName, "ticket"), suffixName(lockName, "serving"),
+                suffixName(lockName, "tickets"), channelName(lockName));
+    }
+
+    /**
+     * 与redisson的命名方式一致，附加的键带有锁名的hash tag
+     */
+    private static String suffixName(String lockName, String suffix) {
+        return lockName.contains("{") ? lockName + ":" + suffix : "{" + lockName + "}:" + suffix;
+    }
+
+    private static String channelName(String lockName) {
+        return lockName.contains("{") ? "distributed_lock_ticket__channel:" + lockName
+                : "distributed_lock_ticket__channel:{" + lockName + "}";
+    }
+
+    /**
+     * 一次加锁：取号后等待叫号，收到自己号码的通知或到达兜底重试时间时重试加锁
+     *
+     * <br>重试在前一次请求完成后才发出，ticket等字段仅在请求回调中修改
+     */
+    private final class Acquisition implements MessageListener<String> {
+        private final String lockName;
+        private final List<Object> keys;
+        private final String owner;
+        private final long ownerId;
+        private final long leaseTime;
+        private final long leaseMillis;
+        private final long waitNanos;
+        private final long deadline;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        private final AtomicBoolean waiting = new AtomicBoolean();
+        private volatile long ticket;
+        private volatile boolean notified;
+        private volatile boolean cancelled;
+        private RTopic topic;
+        private Integer listenerId;
+        private volatile ScheduledFuture<?> timer;
+
+        /**
+         * @param waitNanos 等待时间（纳秒），负数为一直等待
+         */
+        Acquisition(String lockName, long waitNanos, long leaseTime, TimeUnit unit, long ownerId) {
+            this.lockName = lockName;
+            this.keys = keys(lockName);
+            this.owner = renewalService.getOwnerField(ownerId);
+            this.ownerId = ownerId;
+            this.leaseTime = leaseTime;
+            this.leaseMillis = leaseTime == -1 ? renewalService.getLeaseMillis() : unit.toMillis(leaseTime);
+            this.waitNanos = waitNanos;
+            this.deadline = System.nanoTime() + Math.max(0, waitNanos);
+        }
+
+        CompletableFuture<Boolean> start() {
+            attempt();
+            return result;
+        }
+
+        /**
+         * 放弃等待；加锁请求已发出时在其完成后释放或归还号码
+         */
+        void cancel() {
+            cancelled = true;
+            if (waiting.compareAndSet(true, false)) {
+                cancelTimer();
+                abandon();
+            }
+            // 放弃前刚好加锁成功时释放
+            result.thenAccept(locked -> {
+                if (locked) {
+                    unlockAsync(lockName, ownerId);
+                }
+            });
+        }
+
+        @Override
+        public void onMessage(CharSequence channel, String serving) {
+            if (Long.toString(ticket).equals(serving)) {
+                notified = true;
+                wake();
+            }
+        }
+
+        private void attempt() {
+            boolean queue = waitNanos != 0;
+            ACQUIRE_SCRIPT.<Long>evalAsync(script(), lockName, RScript.Mode.READ_WRITE, RScript.ReturnType.INTEGER,
+                    keys, leaseMillis, owner, ticket, System.currentTimeMillis(), ticketTtlMillis, queue ? 1 : 0)
+                    .whenComplete((value, e) -> {
+                        if (e != null) {
+                            fail(e);
+                        } else if (value == 0) {
+                            acquired();
+                        } else {
+                            ticket = value;
+                            await();
+                        }
+                    });
+        }
+
+        private void await() {
+            if (waitNanos == 0) {
+                finish(false);
+                return;
+            }
+            long remaining = waitNanos < 0 ? Long.MAX_VALUE : deadline - System.nanoTime();
+            if (cancelled || remaining <= 0) {
+                abandon();
+                return;
+            }
+            if (listenerId == null) {
+                subscribe();
+                return;
+            }
+            waiting.set(true);
+            if (cancelled) {
+                cancel();
+                return;
+            }
+            long pollMillis = Math.max(1, ticketTtlMillis / 3);
+            timer = TicketScheduler.EXECUTOR.schedule(this::wake,
+                    Math.min(pollMillis, Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining))), TimeUnit.MILLISECONDS);
+            // 通知在请求进行中到达时立即重试
+            if (notified) {
+                wake();
+            }
+        }
+
+        private void wake() {
+            if (waiting.compareAndSet(true, false)) {
+                notified = false;
+                cancelTimer();
+                attempt();
+            }
+        }
+
+        /**
+         * 订阅通知频道后再重试一次，覆盖订阅完成前发布的叫号
+         */
+        private void subscribe() {
+            topic = redisson.getTopic(channelName(lockName), StringCodec.INSTANCE);
+            topic.addListenerAsync(String.class, this).toCompletableFuture().whenComplete((id, e) -> {
+                if (e != null) {
+                    fail(e);
+                    return;
+                }
+                listenerId = id;
+                notified = false;
+                attempt();
+            });
+        }
+
+        private void acquired() {
+            if (cancelled) {
+                unlockAsync(lockName, ownerId);
+                finish(false);
+                return;
+            }
+            if (leaseTime == -1) {
+                renewalService.register(lockName, ownerId);
+            } else {
+                renewalService.retain(lockName, ownerId);
+            }
+            finish(true);
+        }
+
+        private void abandon() {
+            ABANDON_SCRIPT.<Long>evalAsync(script(), lockName, RScript.Mode.READ_WRITE, RScript.ReturnType.INTEGER,
+                    keys, ticket, 0, System.currentTimeMillis(), ticketTtlMillis)
+                    .whenComplete((value, e) -> {
+                        if (e != null) {
+                            // 号码到期后会被跳过
+                            LOGGER.debug("Failed to abandon the ticket of fair lock: {}", lockName, e);
+                        }
+                        finish(false);
+                    });
+        }
+
+        private void fail(Throwable e) {
+            if (ticket != 0) {
+                ABANDON_SCRIPT.evalAsync(script(), lockName, RScript.Mode.READ_WRITE, RScript.ReturnType.INTEGER,
+                        keys, ticket, 0, System.currentTimeMillis(), ticketTtlMillis);
+            }
+            unsubscribe();
+            result.completeExceptionally(LockFutures.unwrap(e));
+        }
+
+        private void finish(boolean locked) {
+            unsubscribe();
+            result.complete(locked);
+        }
+
+        private void unsubscribe() {
+            if (listenerId != null) {
+                topic.removeListenerAsync(listenerId);
+                listenerId = null;
+            }
+        }
+
+        private void cancelTimer() {
+            ScheduledFuture<?> scheduled = timer;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+
+    private static final class TicketScheduler {
+        private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "distributed-lock-ticket-poll");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -2,10 +2,36 @@
 package com.aaaxing.distributed.lock.utils;
 
 import com.aaaxing.distributed.lock.annotation.DistributedLock;
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
 import com.aaaxing.distributed.lock.exception.DistributedLockException;
+import com.aaaxing.distributed.lock.metrics.LockMeters;
+import com.aaaxing.distributed.lock.metrics.LockMetrics;
+import com.aaaxing.distributed.lock.strategy.LockOwnerIds;
+import com.aaaxing.distributed.lock.strategy.LockProvider;
+import com.aaaxing.distributed.lock.strategy.LockStrategy;
+import com.aaaxing.distributed.lock.strategy.LockStrategyRegistry;
+import com.aaaxing.distributed.lock.strategy.SemaphoreStrategy;
+import com.aaaxing.distributed.lock.strategy.StripedLockStrategy;
 import org.redisson.api.RedissonClient;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Mode;
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
 
 /**
  * 分布式锁操作类，封装了redisson的常用锁API
@@ -16,33 +42,74 @@ import java.util.concurrent.TimeUnit;
  * @date 2024-04-11
  */
 public class DistributedLocks {
-    private static RedissonClient redisson;
+    private static LockStrategyRegistry lockStrategyRegistry;
     private static String prefix = "";
+    /**
+     * 按锁类型、锁模式预先获取的指标，未启用指标时均为LockMeters.NOOP
+     */
+    private static LockMeters[][] facadeMeters = facadeMeters(LockMetrics.NOOP);
+    /**
+     * 按分段数缓存的分段锁策略，每个分段数按锁模式各一个；更换锁策略注册表或指标时重建
+     */
+    private static ConcurrentHashMap<Integer, LockStrategy[]> stripedStrategies = new ConcurrentHashMap<>();
+    /**
+     * 分组并行批处理默认同时在途的组数
+     */
+    private static final int DEFAULT_PROCESS_PARALLELISM = 128;
 
     public static void setRedisson(RedissonClient redisson) {
-        DistributedLocks.redisson = redisson;
+        DistributedLocks.lockStrategyRegistry = new LockStrategyRegistry(redisson, new DistributedLockProperties());
+        DistributedLocks.stripedStrategies = new ConcurrentHashMap<>();
+    }
+
+    public static void setLockProvider(LockProvider lockProvider) {
+        DistributedLocks.lockStrategyRegistry = new LockStrategyRegistry(lockProvider, new DistributedLockProperties());
+        DistributedLocks.stripedStrategies = new ConcurrentHashMap<>();
+    }
+
+    public static void setLockStrategyRegistry(LockStrategyRegistry lockStrategyRegistry) {
+        DistributedLocks.lockStrategyRegistry = lockStrategyRegistry;
+        DistributedLocks.stripedStrategies = new ConcurrentHashMap<>();
     }
 
     public static void setPrefix(String prefix) {
         DistributedLocks.prefix = prefix;
     }
 
+    /**
+     * 设置锁指标，工具类的指标以LockMetrics.FACADE_NAME作为锁名标签
+     */
+    public static void setLockMetrics(LockMetrics lockMetrics) {
+        DistributedLocks.facadeMeters = facadeMeters(lockMetrics);
+        DistributedLocks.stripedStrategies = new ConcurrentHashMap<>();
+    }
+
+    private static LockMeters[][] facadeMeters(LockMetrics lockMetrics) {
+        LockMeters[][] meters = new LockMeters[Type.values().length][Mode.values().length];
+        for (Type type : Type.values()) {
+            for (Mode mode : Mode.values()) {
+                meters[type.ordinal()][mode.ordinal()] = lockMetrics.meters(type, mode, LockMetrics.FACADE_NAME);
+            }
+        }
+        return meters;
+    }
+
 
 
     public static void lock(String name) {
-        redisson.getLock(prefix + name).lock();
+        lock(name, -1, TimeUnit.SECONDS);
     }
 
     public static void lock(String name, long leaseTime) {
-        redisson.getLock(prefix + name).lock(leaseTime, TimeUnit.SECONDS);
+        lock(name, leaseTime, TimeUnit.SECONDS);
     }
 
     public static void lock(String name, long leaseTime, TimeUnit unit) {
-        redisson.getLock(prefix + name).lock(leaseTime, unit);
+        lock(Type.LOCK, strategy(Type.LOCK), name, leaseTime, unit);
     }
 
     public static boolean tryLock(String name) {
-        return redisson.getLock(prefix + name).tryLock();
+        return tryLock(name, 0, -1, TimeUnit.SECONDS);
     }
 
     public static boolean tryLock(String name, long waitTime) {
@@ -58,33 +125,29 @@ public class DistributedLocks {
     }
 
     public static boolean tryLock(String name, long waitTime, long leaseTime, TimeUnit unit) {
-        try {
-            return redisson.getLock(prefix + name).tryLock(waitTime, leaseTime, unit);
-        } catch (InterruptedException e) {
-            throw new DistributedLockException(3, e.getMessage(), e.getCause());
-        }
+        return tryLock(Type.LOCK, strategy(Type.LOCK), name, waitTime, leaseTime, unit);
     }
 
     public static void unlock(String name) {
-        redisson.getLock(prefix + name).unlock();
+        unlock(Type.LOCK, strategy(Type.LOCK), name);
     }
 
 
 
     public static void lockFairLock(String name) {
-        redisson.getFairLock(prefix + name).lock();
+        lockFairLock(name, -1, TimeUnit.SECONDS);
     }
 
     public static void lockFairLock(String name, long leaseTime) {
-        redisson.getFairLock(prefix + name).lock(leaseTime, TimeUnit.SECONDS);
+        lockFairLock(name, leaseTime, TimeUnit.SECONDS);
     }
 
     public static void lockFairLock(String name, long leaseTime, TimeUnit unit) {
-        redisson.getFairLock(prefix + name).lock(leaseTime, unit);
+        lock(Type.FAIR_LOCK, strategy(Type.FAIR_LOCK), name, leaseTime, unit);
     }
 
     public static boolean tryLockFairLock(String name) {
-        return redisson.getFairLock(prefix + name).tryLock();
+        return tryLockFairLock(name, 0, -1, TimeUnit.SECONDS);
     }
 
     public static boolean tryLockFairLock(String name, long waitTime) {
@@ -100,21 +163,17 @@ public class DistributedLocks {
     }
 
     public static boolean tryLockFairLock(String name, long waitTime, long leaseTime, TimeUnit unit) {
-        try {
-            return redisson.getFairLock(prefix + name).tryLock(waitTime, leaseTime, unit);
-        } catch (InterruptedException e) {
-            throw new DistributedLockException(3, e.getMessage(), e.getCause());
-        }
+        return tryLock(Type.FAIR_LOCK, strategy(Type.FAIR_LOCK), name, waitTime, leaseTime, unit);
     }
 
     public static void unlockFairLock(String name) {
-        redisson.getFairLock(prefix + name).unlock();
+        unlock(Type.FAIR_LOCK, strategy(Type.FAIR_LOCK), name);
     }
 
 
 
     public static void lockReadLock(String name) {
-        redisson.getReadWriteLock(prefix + name).readLock().lock();
+        lockReadLock(name, -1, TimeUnit.SECONDS);
     }
 
     public static void lockReadLock(String name, long leaseTime) {
@@ -122,11 +181,11 @@ public class DistributedLocks {
     }
 
     public static void lockReadLock(String name, long leaseTime, TimeUnit unit) {
-        redisson.getReadWriteLock(prefix + name).readLock().lock(leaseTime, unit);
+        lock(Type.READ_LOCK, strategy(Type.READ_LOCK), name, leaseTime, unit);
     }
 
     public static boolean tryLockReadLock(String name) {
-        return redisson.getReadWriteLock(prefix + name).readLock().tryLock();
+        return tryLockReadLock(name, 0, -1, TimeUnit.SECONDS);
     }
 
     public static boolean tryLockReadLock(String name, long waitTime) {
@@ -142,21 +201,17 @@ public class DistributedLocks {
     }
 
     public static boolean tryLockReadLock(String name, long waitTime, long leaseTime, TimeUnit unit) {
-        try {
-            return redisson.getReadWriteLock(prefix + name).readLock().tryLock(waitTime, leaseTime, unit);
-        } catch (InterruptedException e) {
-            throw new DistributedLockException(3, e.getMessage(), e.getCause());
-        }
+        return tryLock(Type.READ_LOCK, strategy(Type.READ_LOCK), name, waitTime, leaseTime, unit);
     }
 
     public static void unLockReadLock(String name) {
-        redisson.getReadWriteLock(prefix + name).readLock().unlock();
+        unlock(Type.READ_LOCK, strategy(Type.READ_LOCK), name);
     }
 
 
 
     public static void lockWriteLock(String name) {
-        redisson.getReadWriteLock(prefix + name).writeLock().lock();
+        lockWriteLock(name, -1, TimeUnit.SECONDS);
     }
 
     public static void lockWriteLock(String name, long leaseTime) {
@@ -164,11 +219,11 @@ public class DistributedLocks {
     }
 
     public static void lockWriteLock(String name, long leaseTime, TimeUnit unit) {
-        redisson.getReadWriteLock(prefix + name).writeLock().lock(leaseTime, unit);
+        lock(Type.WRITE_LOCK, strategy(Type.WRITE_LOCK), name, leaseTime, unit);
     }
 
     public static boolean tryLockWriteLock(String name) {
-        return redisson.getReadWriteLock(prefix + name).writeLock().tryLock();
+        return tryLockWriteLock(name, 0, -1, TimeUnit.SECONDS);
     }
 
     public static boolean tryLockWriteLock(String name, long waitTime) {
@@ -184,14 +239,592 @@ public class DistributedLocks {
     }
 
     public static boolean tryLockWriteLock(String name, long waitTime, long leaseTime, TimeUnit unit) {
+        return tryLock(Type.WRITE_LOCK, strategy(Type.WRITE_LOCK), name, waitTime, leaseTime, unit);
+    }
+
+    public static void unlockWriteLock(String name) {
+        unlock(Type.WRITE_LOCK, strategy(Type.WRITE_LOCK), name);
+    }
+
+
+
+    /**
+     * 移交锁，释放时只唤醒下一个等待者并直接将锁交给它
+     *
+     * @see Type#HANDOFF_LOCK
+     */
+    public static void lockHandoffLock(String name) {
+        lockHandoffLock(name, -1, TimeUnit.SECONDS);
+    }
+
+    public static void lockHandoffLock(String name, long leaseTime) {
+        lockHandoffLock(name, leaseTime, TimeUnit.SECONDS);
+    }
+
+    public static void lockHandoffLock(String name, long leaseTime, TimeUnit unit) {
+        lock(Type.HANDOFF_LOCK, strategy(Type.HANDOFF_LOCK), name, leaseTime, unit);
+    }
+
+    public static boolean tryLockHandoffLock(String name) {
+        return tryLockHandoffLock(name, 0, -1, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockHandoffLock(String name, long waitTime) {
+        return tryLockHandoffLock(name, waitTime, -1, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockHandoffLock(String name, long waitTime, TimeUnit unit) {
+        return tryLockHandoffLock(name, waitTime, -1, unit);
+    }
+
+    public static boolean tryLockHandoffLock(String name, long waitTime, long leaseTime) {
+        return tryLockHandoffLock(name, waitTime, leaseTime, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockHandoffLock(String name, long waitTime, long leaseTime, TimeUnit unit) {
+        return tryLock(Type.HANDOFF_LOCK, strategy(Type.HANDOFF_LOCK), name, waitTime, leaseTime, unit);
+    }
+
+    public static void unlockHandoffLock(String name) {
+        unlock(Type.HANDOFF_LOCK, strategy(Type.HANDOFF_LOCK), name);
+    }
+
+
+
+    /**
+     * 层级读锁，对锁名加读锁，对以“:”分隔的各祖先层加读意向锁
+     *
+     * @see Type#HIERARCHICAL_READ_LOCK
+     */
+    public static void lockHierarchicalReadLock(String name) {
+        lockHierarchicalReadLock(name, -1, TimeUnit.SECONDS);
+    }
+
+    public static void lockHierarchicalReadLock(String name, long leaseTime) {
+        lockHierarchicalReadLock(name, leaseTime, TimeUnit.SECONDS);
+    }
+
+    public static void lockHierarchicalReadLock(String name, long leaseTime, TimeUnit unit) {
+        lock(Type.HIERARCHICAL_READ_LOCK, strategy(Type.HIERARCHICAL_READ_LOCK), name, leaseTime, unit);
+    }
+
+    public static boolean tryLockHierarchicalReadLock(String name) {
+        return tryLockHierarchicalReadLock(name, 0, -1, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockHierarchicalReadLock(String name, long waitTime) {
+        return tryLockHierarchicalReadLock(name, waitTime, -1, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockHierarchicalReadLock(String name, long waitTime, TimeUnit unit) {
+        return tryLockHierarchicalReadLock(name, waitTime, -1, unit);
+    }
+
+    public static boolean tryLockHierarchicalReadLock(String name, long waitTime, long leaseTime) {
+        return tryLockHierarchicalReadLock(name, waitTime, leaseTime, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockHierarchicalReadLock(String name, long waitTime, long leaseTime, TimeUnit unit) {
+        return tryLock(Type.HIERARCHICAL_READ_LOCK, strategy(Type.HIERARCHICAL_READ_LOCK), name, waitTime, leaseTime,
+                unit);
+    }
+
+    public static void unlockHierarchicalReadLock(String name) {
+        unlock(Type.HIERARCHICAL_READ_LOCK, strategy(Type.HIERARCHICAL_READ_LOCK), name);
+    }
+
+
+
+    /**
+     * 层级写锁，对锁名加写锁，对以“:”分隔的各祖先层加写意向锁，不同子层的写锁互不阻塞
+     *
+     * @see Type#HIERARCHICAL_WRITE_LOCK
+     */
+    public static void lockHierarchicalWriteLock(String name) {
+        lockHierarchicalWriteLock(name, -1, TimeUnit.SECONDS);
+    }
+
+    public static void lockHierarchicalWriteLock(String name, long leaseTime) {
+        lockHierarchicalWriteLock(name, leaseTime, TimeUnit.SECONDS);
+    }
+
+    public static void lockHierarchicalWriteLock(String name, long leaseTime, TimeUnit unit) {
+        lock(Type.HIERARCHICAL_WRITE_LOCK, strategy(Type.HIERARCHICAL_WRITE_LOCK), name, leaseTime, unit);
+    }
+
+    public static boolean tryLockHierarchicalWriteLock(String name) {
+        return tryLockHierarchicalWriteLock(name, 0, -1, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockHierarchicalWriteLock(String name, long waitTime) {
+        return tryLockHierarchicalWriteLock(name, waitTime, -1, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockHierarchicalWriteLock(String name, long waitTime, TimeUnit unit) {
+        return tryLockHierarchicalWriteLock(name, waitTime, -1, unit);
+    }
+
+    public static boolean tryLockHierarchicalWriteLock(String name, long waitTime, long leaseTime) {
+        return tryLockHierarchicalWriteLock(name, waitTime, leaseTime, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockHierarchicalWriteLock(String name, long waitTime, long leaseTime, TimeUnit unit) {
+        return tryLock(Type.HIERARCHICAL_WRITE_LOCK, strategy(Type.HIERARCHICAL_WRITE_LOCK), name, waitTime, leaseTime,
+                unit);
+    }
+
+    public static void unlockHierarchicalWriteLock(String name) {
+        unlock(Type.HIERARCHICAL_WRITE_LOCK, strategy(Type.HIERARCHICAL_WRITE_LOCK), name);
+    }
+
+
+
+    /**
+     * 本地排队加锁（两级锁），同一JVM内的竞争者先在本地排队，redis锁在本地线程之间移交
+     *
+     * @see DistributedLock#localQueue()
+     */
+    public static void lockWithLocalQueue(String name) {
+        lockWithLocalQueue(name, -1, TimeUnit.SECONDS);
+    }
+
+    public static void lockWithLocalQueue(String name, long leaseTime) {
+        lockWithLocalQueue(name, leaseTime, TimeUnit.SECONDS);
+    }
+
+    public static void lockWithLocalQueue(String name, long leaseTime, TimeUnit unit) {
+        lock(Type.LOCK, localQueueStrategy(Type.LOCK), name, leaseTime, unit);
+    }
+
+    public static boolean tryLockWithLocalQueue(String name) {
+        return tryLockWithLocalQueue(name, 0, -1, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockWithLocalQueue(String name, long waitTime) {
+        return tryLockWithLocalQueue(name, waitTime, -1, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockWithLocalQueue(String name, long waitTime, TimeUnit unit) {
+        return tryLockWithLocalQueue(name, waitTime, -1, unit);
+    }
+
+    public static boolean tryLockWithLocalQueue(String name, long waitTime, long leaseTime) {
+        return tryLockWithLocalQueue(name, waitTime, leaseTime, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockWithLocalQueue(String name, long waitTime, long leaseTime, TimeUnit unit) {
+        return tryLock(Type.LOCK, localQueueStrategy(Type.LOCK), name, waitTime, leaseTime, unit);
+    }
+
+    public static void unlockWithLocalQueue(String name) {
+        unlock(Type.LOCK, localQueueStrategy(Type.LOCK), name);
+    }
+
+
+
+    /**
+     * 分段加锁，锁名哈希到stripes个固定的分段锁名之一，不同锁名落到同一分段时互相阻塞；同一资源的所有加锁处需使用相同的分段数
+     *
+     * @see DistributedLock#stripes()
+     */
+    public static void lockStriped(String name, int stripes) {
+        lockStriped(name, stripes, -1, TimeUnit.SECONDS);
+    }
+
+    public static void lockStriped(String name, int stripes, long leaseTime) {
+        lockStriped(name, stripes, leaseTime, TimeUnit.SECONDS);
+    }
+
+    public static void lockStriped(String name, int stripes, long leaseTime, TimeUnit unit) {
+        lock(Type.LOCK, stripedStrategy(stripes, Mode.LOCK), name, leaseTime, unit);
+    }
+
+    public static boolean tryLockStriped(String name, int stripes) {
+        return tryLockStriped(name, stripes, 0, -1, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockStriped(String name, int stripes, long waitTime) {
+        return tryLockStriped(name, stripes, waitTime, -1, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockStriped(String name, int stripes, long waitTime, TimeUnit unit) {
+        return tryLockStriped(name, stripes, waitTime, -1, unit);
+    }
+
+    public static boolean tryLockStriped(String name, int stripes, long waitTime, long leaseTime) {
+        return tryLockStriped(name, stripes, waitTime, leaseTime, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockStriped(String name, int stripes, long waitTime, long leaseTime, TimeUnit unit) {
+        return tryLock(Type.LOCK, stripedStrategy(stripes, Mode.TRY_LOCK), name, waitTime, leaseTime, unit);
+    }
+
+    public static void unlockStriped(String name, int stripes) {
+        unlock(Type.LOCK, stripedStrategy(stripes, Mode.LOCK), name);
+    }
+
+
+
+    /**
+     * 批量加锁，全部锁名排序后一次往返原子地加锁，避免逐个加锁的多次往返与加锁顺序不一致导致的死锁
+     */
+    public static void lockAll(Collection<String> names) {
+        lockAll(names, -1, TimeUnit.SECONDS);
+    }
+
+    public static void lockAll(Collection<String> names, long leaseTime) {
+        lockAll(names, leaseTime, TimeUnit.SECONDS);
+    }
+
+    public static void lockAll(Collection<String> names, long leaseTime, TimeUnit unit) {
+        LockMeters meters = meters(Type.LOCK, Mode.LOCK);
+        long start = meters.isEnabled() ? System.nanoTime() : 0L;
+        lockStrategyRegistry.getBatchLockStrategy().lockAll(prefixed(names), leaseTime, unit);
+        recordWait(meters, start);
+    }
+
+    public static boolean tryLockAll(Collection<String> names) {
+        return tryLockAll(names, 0, -1, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockAll(Collection<String> names, long waitTime) {
+        return tryLockAll(names, waitTime, -1, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockAll(Collection<String> names, long waitTime, TimeUnit unit) {
+        return tryLockAll(names, waitTime, -1, unit);
+    }
+
+    public static boolean tryLockAll(Collection<String> names, long waitTime, long leaseTime) {
+        return tryLockAll(names, waitTime, leaseTime, TimeUnit.SECONDS);
+    }
+
+    public static boolean tryLockAll(Collection<String> names, long waitTime, long leaseTime, TimeUnit unit) {
+        LockMeters meters = meters(Type.LOCK, Mode.TRY_LOCK);
+        long start = meters.isEnabled() ? System.nanoTime() : 0L;
+        boolean locked;
         try {
-            return redisson.getReadWriteLock(prefix + name).writeLock().tryLock(waitTime, leaseTime, unit);
+            locked = lockStrategyRegistry.getBatchLockStrategy().tryLockAll(prefixed(names), waitTime, leaseTime, unit);
         } catch (InterruptedException e) {
             throw new DistributedLockException(3, e.getMessage(), e.getCause());
         }
+        recordTryLock(meters, start, locked);
+        return locked;
     }
 
-    public static void unlockWriteLock(String name) {
-        redisson.getReadWriteLock(prefix + name).writeLock().unlock();
+    public static void unlockAll(Collection<String> names) {
+        try {
+            lockStrategyRegistry.getBatchLockStrategy().unlockAll(prefixed(names));
+        } catch (RuntimeException e) {
+            meters(Type.LOCK, Mode.LOCK).unlockFailed();
+            throw e;
+        }
+    }
+
+
+
+    /**
+     * 合并执行：同一JVM内同名锁的任务排队，由合并线程加一次锁后批量执行（任务数与持锁时间有上限）再释放锁，
+     * 适用于库存计数等大量极短的临界区。任务在合并线程上按提交顺序执行，不应再对同名锁加锁
+     *
+     * @return 任务完成时完成，任务抛出异常时异常完成，加锁失败时以status=3的异常完成
+     */
+    public static CompletableFuture<Void> submit(String name, Runnable task) {
+        return submit(name, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * 合并执行并返回任务的结果
+     *
+     * @see #submit(String, Runnable)
+     */
+    public static <T> CompletableFuture<T> submit(String name, Supplier<T> task) {
+        return lockStrategyRegistry.getLockCombiner().submit(prefix + name, task);
+    }
+
+
+
+    /**
+     * 分组并行批处理：按keyFunction得到的锁名将元素分组，每组各自加锁、在executor上处理（同组元素按原顺序依次处理）、
+     * 处理完立即释放，至多parallelism组同时在途
+     * <p>
+     *     <br/>各组的加锁、释放锁请求异步发出，在同一连接上流水线传输，不为每个元素等待一次往返；
+     *     <br/>同一锁名同一时刻只有一个线程处理，某个锁名被占用只推迟该组，不阻塞其他组；
+     *     <br/>某组处理失败时不再开始新的组，已在途的组处理完并释放锁后抛出该异常
+     * </p>
+     *
+     * @param items 待处理的元素
+     * @param keyFunction 元素到锁名的映射
+     * @param processor 在锁内处理单个元素
+     * @param executor 处理元素的线程池，由调用方提供并限定大小，如专用的ForkJoinPool或虚拟线程执行器
+     */
+    public static <T> void processAll(Collection<T> items, Function<? super T, String> keyFunction,
+                                      Consumer<? super T> processor, Executor executor) {
+        processAll(items, keyFunction, processor, executor, DEFAULT_PROCESS_PARALLELISM);
+    }
+
+    /**
+     * 分组并行批处理，指定同时在途的组数
+     *
+     * @see #processAll(Collection, Function, Consumer, Executor)
+     */
+    public static <T> void processAll(Collection<T> items, Function<? super T, String> keyFunction,
+                                      Consumer<? super T> processor, Executor executor, int parallelism) {
+        if (executor == null) {
+            throw new IllegalArgumentException("The executor of processAll must not be null");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be positive: " + parallelism);
+        }
+        Map<String, List<T>> groups = new LinkedHashMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(prefix + keyFunction.apply(item), name -> new ArrayList<>()).add(item);
+        }
+        LockStrategy lockStrategy = strategy(Type.LOCK);
+        LockMeters meters = meters(Type.LOCK, Mode.LOCK);
+        Semaphore inFlight = new Semaphore(parallelism);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try {
+            for (Map.Entry<String, List<T>> group : groups.entrySet()) {
+                inFlight.acquire();
+                if (failure.get() != null) {
+                    inFlight.release();
+                    break;
+                }
+                processGroup(lockStrategy, group.getKey(), group.getValue(), processor, executor, meters)
+                        .whenComplete((ignored, e) -> {
+                            if (e != null) {
+                                failure.compareAndSet(null, e instanceof CompletionException ? e.getCause() : e);
+                            }
+                            inFlight.release();
+                        });
+            }
+            inFlight.acquire(parallelism);
+        } catch (InterruptedException e) {
+            throw new DistributedLockException(3, e.getMessage(), e.getCause());
+        }
+        Throwable cause = failure.get();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        if (cause != null) {
+            throw new CompletionException(cause);
+        }
+    }
+
+
+
+    /**
+     * 获取信号量许可，同名信号量最多有permits个许可同时被持有；许可带有持有时间，持有节点宕机后到期自动归还
+     *
+     * @return 许可id，释放许可时使用
+     * @see Type#SEMAPHORE
+     */
+    public static String acquirePermit(String name, int permits) {
+        return acquirePermit(name, permits, -1, TimeUnit.SECONDS);
+    }
+
+    public static String acquirePermit(String name, int permits, long leaseTime) {
+        return acquirePermit(name, permits, leaseTime, TimeUnit.SECONDS);
+    }
+
+    public static String acquirePermit(String name, int permits, long leaseTime, TimeUnit unit) {
+        LockMeters meters = meters(Type.SEMAPHORE, Mode.LOCK);
+        long start = meters.isEnabled() ? System.nanoTime() : 0L;
+        String permitId;
+        try {
+            permitId = semaphoreStrategy().acquire(prefix + name, permits, leaseTime, unit);
+        } catch (InterruptedException e) {
+            throw new DistributedLockException(3, e.getMessage(), e.getCause());
+        }
+        recordWait(meters, start);
+        return permitId;
+    }
+
+    /**
+     * 尝试获取信号量许可
+     *
+     * @return 许可id，获取失败时为null
+     */
+    public static String tryAcquirePermit(String name, int permits) {
+        return tryAcquirePermit(name, permits, 0, -1, TimeUnit.SECONDS);
+    }
+
+    public static String tryAcquirePermit(String name, int permits, long waitTime) {
+        return tryAcquirePermit(name, permits, waitTime, -1, TimeUnit.SECONDS);
+    }
+
+    public static String tryAcquirePermit(String name, int permits, long waitTime, TimeUnit unit) {
+        return tryAcquirePermit(name, permits, waitTime, -1, unit);
+    }
+
+    public static String tryAcquirePermit(String name, int permits, long waitTime, long leaseTime) {
+        return tryAcquirePermit(name, permits, waitTime, leaseTime, TimeUnit.SECONDS);
+    }
+
+    public static String tryAcquirePermit(String name, int permits, long waitTime, long leaseTime, TimeUnit unit) {
+        LockMeters meters = meters(Type.SEMAPHORE, Mode.TRY_LOCK);
+        long start = meters.isEnabled() ? System.nanoTime() : 0L;
+        String permitId;
+        try {
+            permitId = semaphoreStrategy().tryAcquire(prefix + name, permits, waitTime, leaseTime, unit);
+        } catch (InterruptedException e) {
+            throw new DistributedLockException(3, e.getMessage(), e.getCause());
+        }
+        recordTryLock(meters, start, permitId != null);
+        return permitId;
+    }
+
+    /**
+     * 凭许可id释放信号量许可
+     */
+    public static void releasePermit(String name, String permitId) {
+        try {
+            semaphoreStrategy().release(prefix + name, permitId);
+        } catch (RuntimeException e) {
+            meters(Type.SEMAPHORE, Mode.LOCK).unlockFailed();
+            throw e;
+        }
+    }
+
+
+
+    private static void lock(Type type, LockStrategy lockStrategy, String name, long leaseTime, TimeUnit unit) {
+        LockMeters meters = meters(type, Mode.LOCK);
+        long start = meters.isEnabled() ? System.nanoTime() : 0L;
+        lockStrategy.lock(prefix + name, leaseTime, unit);
+        recordWait(meters, start);
+    }
+
+    private static boolean tryLock(Type type, LockStrategy lockStrategy, String name, long waitTime, long leaseTime,
+                                   TimeUnit unit) {
+        LockMeters meters = meters(type, Mode.TRY_LOCK);
+        long start = meters.isEnabled() ? System.nanoTime() : 0L;
+        boolean locked;
+        try {
+            locked = lockStrategy.tryLock(prefix + name, waitTime, leaseTime, unit);
+        } catch (InterruptedException e) {
+            throw new DistributedLockException(3, e.getMessage(), e.getCause());
+        }
+        recordTryLock(meters, start, locked);
+        return locked;
+    }
+
+    /**
+     * 释放锁，解锁异常计入锁模式为LOCK的指标
+     */
+    private static void unlock(Type type, LockStrategy lockStrategy, String name) {
+        try {
+            lockStrategy.unlock(prefix + name);
+        } catch (RuntimeException e) {
+            meters(type, Mode.LOCK).unlockFailed();
+            throw e;
+        }
+    }
+
+    /**
+     * 为一组元素的锁名加锁，在executor上依次处理后释放
+     *
+     * @return 释放锁后完成，处理或释放锁失败时异常完成
+     */
+    private static <T> CompletableFuture<Void> processGroup(LockStrategy lockStrategy, String lockName, List<T> group,
+                                                            Consumer<? super T> processor, Executor executor,
+                                                            LockMeters meters) {
+        long ownerId = LockOwnerIds.next();
+        long start = meters.isEnabled() ? System.nanoTime() : 0L;
+        return lockStrategy.lockAsync(lockName, -1, TimeUnit.SECONDS, ownerId).thenCompose(locked -> {
+            recordWait(meters, start);
+            CompletableFuture<Void> processed;
+            try {
+                processed = CompletableFuture.runAsync(() -> group.forEach(processor), executor);
+            } catch (RuntimeException e) {
+                processed = new CompletableFuture<>();
+                processed.completeExceptionally(e);
+            }
+            CompletableFuture<Void> released = new CompletableFuture<>();
+            processed.whenComplete((ignored, e) -> lockStrategy.unlockAsync(lockName, ownerId)
+                    .whenComplete((unlocked, unlockError) -> {
+                        if (unlockError != null) {
+                            meters.unlockFailed();
+                        }
+                        if (e != null || unlockError != null) {
+                            released.completeExceptionally(e != null ? e : unlockError);
+                        } else {
+                            released.complete(null);
+                        }
+                    }));
+            return released;
+        });
+    }
+
+    private static void recordWait(LockMeters meters, long start) {
+        if (meters.isEnabled()) {
+            meters.recordWait(System.nanoTime() - start);
+        }
+    }
+
+    private static void recordTryLock(LockMeters meters, long start, boolean locked) {
+        if (locked) {
+            recordWait(meters, start);
+        } else {
+            meters.tryLockFailed();
+        }
+    }
+
+    private static LockMeters meters(Type type, Mode mode) {
+        return facadeMeters[type.ordinal()][mode.ordinal()];
+    }
+
+    private static LockStrategy strategy(Type type) {
+        return lockStrategyRegistry.getLockStrategy(type);
+    }
+
+    private static SemaphoreStrategy semaphoreStrategy() {
+        SemaphoreStrategy semaphoreStrategy = lockStrategyRegistry.getSemaphoreStrategy();
+        if (semaphoreStrategy == null) {
+            throw new DistributedLockException(1, "The lock provider does not support the SEMAPHORE type.");
+        }
+        return semaphoreStrategy;
+    }
+
+    private static LockStrategy localQueueStrategy(Type type) {
+        return lockStrategyRegistry.getLocalQueueLockStrategy(type);
+    }
+
+    /**
+     * 分段锁策略，分段加锁与误冲突计入对应锁模式的指标
+     */
+    private static LockStrategy stripedStrategy(int stripes, Mode mode) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("The stripes of the striped lock must be positive: " + stripes);
+        }
+        LockStrategy[] strategies = stripedStrategies.get(stripes);
+        if (strategies == null) {
+            strategies = stripedStrategies.computeIfAbsent(stripes, DistributedLocks::newStripedStrategies);
+        }
+        return strategies[mode.ordinal()];
+    }
+
+    private static LockStrategy[] newStripedStrategies(int stripes) {
+        LockStrategy[] strategies = new LockStrategy[Mode.values().length];
+        for (Mode mode : Mode.values()) {
+            strategies[mode.ordinal()] = new StripedLockStrategy(strategy(Type.LOCK), Type.LOCK, stripes,
+                    lockStrategyRegistry.getLockStripes(), meters(Type.LOCK, mode));
+        }
+        return strategies;
+    }
+
+    private static List<String> prefixed(Collection<String> names) {
+        List<String> lockNames = new ArrayList<>(names.size());
+        for (String name : names) {
+            lockNames.add(prefix + name);
+        }
+        return lockNames;
     }
 }
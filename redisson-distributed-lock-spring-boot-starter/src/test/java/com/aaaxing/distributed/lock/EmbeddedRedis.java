@@ -0,0 +1,93 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock;
+
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
+/**
+ * 测试用的内嵌redis，同一JVM内的全部测试共用一个redis进程与redisson客户端，JVM退出时关闭
+ *
+ * <br>看门狗超时时间缩短为{@link #WATCHDOG_TIMEOUT_MILLIS}，自动续期与过期的用例无需等待默认的30秒
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public final class EmbeddedRedis {
+    /**
+     * 测试客户端的看门狗超时时间（毫秒）
+     */
+    public static final long WATCHDOG_TIMEOUT_MILLIS = 1500;
+
+    private static RedisServer server;
+    private static String address;
+    private static RedissonClient redisson;
+
+    private EmbeddedRedis() {
+    }
+
+    /**
+     * 获取共用的redisson客户端，首次调用时启动redis
+     *
+     * @return redisson客户端
+     */
+    public static synchronized RedissonClient redisson() {
+        if (redisson == null) {
+            redisson = newClient();
+            Runtime.getRuntime().addShutdownHook(new Thread(EmbeddedRedis::shutdown, "embedded-redis-shutdown"));
+        }
+        return redisson;
+    }
+
+    /**
+     * 创建连接到同一redis的新客户端，模拟另一个节点，由调用方关闭
+     *
+     * @return redisson客户端
+     */
+    public static synchronized RedissonClient newClient() {
+        start();
+        Config config = new Config();
+        config.setLockWatchdogTimeout(WATCHDOG_TIMEOUT_MILLIS);
+        config.useSingleServer().setAddress(address).setConnectionMinimumIdleSize(2);
+        return Redisson.create(config);
+    }
+
+    private static void start() {
+        if (server != null) {
+            return;
+        }
+        try {
+            int port = freePort();
+            server = RedisServer.newRedisServer().port(port).bind("127.0.0.1").setting("save \"\"")
+                    .setting("appendonly no").build();
+            server.start();
+            address = "redis://127.0.0.1:" + port;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start the embedded redis", e);
+        }
+    }
+
+    private static synchronized void shutdown() {
+        if (redisson != null) {
+            redisson.shutdown();
+        }
+        if (server != null) {
+            try {
+                server.stop();
+            } catch (IOException ignored) {
+                // JVM退出时redis进程随之结束
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
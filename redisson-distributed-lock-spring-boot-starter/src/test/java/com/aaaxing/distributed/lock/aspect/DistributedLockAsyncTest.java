@@ -0,0 +1,134 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.aspect;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import com.aaaxing.distributed.lock.annotation.DistributedLock;
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
+import com.aaaxing.distributed.lock.converter.DefaultLockNamePreConverter;
+import com.aaaxing.distributed.lock.converter.LockNameCoreConverter;
+import com.aaaxing.distributed.lock.metrics.LockMetrics;
+import com.aaaxing.distributed.lock.strategy.LockStrategyRegistry;
+import com.aaaxing.distributed.lock.strategy.ThreadLocalLockDeadlineSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 返回CompletableFuture的方法加锁：由redisson异步完成的加锁在异步执行器上调用方法，不在redisson IO线程上执行方法体；
+ * 执行器拒绝执行时释放锁
+ *
+ * <br>以AspectJ代理在redisson锁提供者上执行切面，由同名的另一异步方法持有锁制造等待
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class DistributedLockAsyncTest {
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> new Thread(r, "lock-async"));
+    private static LockStrategyRegistry registry;
+
+    @BeforeAll
+    static void setUp() {
+        registry = new LockStrategyRegistry(EmbeddedRedis.redisson(), new DistributedLockProperties());
+    }
+
+    @AfterAll
+    static void shutdown() {
+        EXECUTOR.shutdown();
+        registry.close();
+    }
+
+    @Test
+    void uncontendedMethodDoesNotRunOnRedissonThread() throws Exception {
+        Jobs jobs = proxy(null);
+
+        String thread = jobs.run(id()).get(5, TimeUnit.SECONDS);
+        assertFalse(thread.startsWith("redisson-netty"), thread);
+    }
+
+    @Test
+    void waitingMethodDoesNotRunOnRedissonThread() throws Exception {
+        Jobs jobs = proxy(null);
+        String id = id();
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        jobs.hold(id, release);
+
+        CompletableFuture<String> waiting = jobs.run(id);
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+        release.complete(null);
+        String thread = waiting.get(5, TimeUnit.SECONDS);
+        assertFalse(thread.startsWith("redisson-netty"), thread);
+    }
+
+    @Test
+    void waitingMethodRunsOnConfiguredExecutor() throws Exception {
+        Jobs jobs = proxy(EXECUTOR);
+        String id = id();
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        jobs.hold(id, release);
+
+        CompletableFuture<String> waiting = jobs.run(id);
+        release.complete(null);
+        assertEquals("lock-async", waiting.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void rejectedExecutionReleasesLock() throws Exception {
+        Jobs jobs = proxy(command -> {
+            throw new RejectedExecutionException("executor is shut down");
+        });
+        String id = id();
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        jobs.hold(id, release);
+
+        CompletableFuture<String> waiting = jobs.run(id);
+        release.complete(null);
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+        assertTrue(thrown.getCause() instanceof RejectedExecutionException);
+        // 锁已释放
+        assertEquals("lock-async", proxy(EXECUTOR).run(id).get(5, TimeUnit.SECONDS));
+    }
+
+    private static String id() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static Jobs proxy(Executor asyncExecutor) {
+        DistributedLockProperties properties = new DistributedLockProperties();
+        DistributedLockAspect aspect = new DistributedLockAspect(
+                new LockNameCoreConverter(properties, new DefaultLockNamePreConverter()), registry, LockMetrics.NOOP,
+                properties, null, new ThreadLocalLockDeadlineSource(), asyncExecutor);
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Jobs());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    public static class Jobs {
+
+        @DistributedLock(name = "job:{id}")
+        public CompletableFuture<Void> hold(String id, CompletableFuture<Void> release) {
+            return release;
+        }
+
+        @DistributedLock(name = "job:{id}")
+        public CompletableFuture<String> run(String id) {
+            return CompletableFuture.completedFuture(Thread.currentThread().getName());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.aspect;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import com.aaaxing.distributed.lock.annotation.DistributedLock;
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
+import com.aaaxing.distributed.lock.converter.DefaultLockNamePreConverter;
+import com.aaaxing.distributed.lock.converter.LockNameCoreConverter;
+import com.aaaxing.distributed.lock.metrics.LockMeters;
+import com.aaaxing.distributed.lock.strategy.LockReleaseListener;
+import com.aaaxing.distributed.lock.strategy.LockStrategyRegistry;
+import com.aaaxing.distributed.lock.strategy.ThreadLocalLockDeadlineSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 同步方法异步释放锁（asyncUnlock）：同一线程随后立即重新加锁；释放失败回调监听器并计入释放失败指标，不抛出status=4的异常
+ *
+ * <br>以AspectJ代理在redisson锁提供者上执行切面，锁在方法执行期间过期制造释放失败
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class DistributedLockAsyncUnlockTest {
+    private static LockStrategyRegistry registry;
+
+    private final CountingMeters meters = new CountingMeters();
+    private final CompletableFuture<String> failedLockName = new CompletableFuture<>();
+    private final CompletableFuture<Throwable> failure = new CompletableFuture<>();
+
+    @BeforeAll
+    static void setUp() {
+        registry = new LockStrategyRegistry(EmbeddedRedis.redisson(), new DistributedLockProperties());
+    }
+
+    @AfterAll
+    static void shutdown() {
+        registry.close();
+    }
+
+    @Test
+    void sameThreadRelocksBeforeReleaseLands() {
+        Jobs target = new Jobs();
+        Jobs jobs = proxy(target);
+        String id = UUID.randomUUID().toString();
+
+        // 等待时间为0，上一次的释放尚未到达redis时重新加锁只是一次重入，不会加锁失败
+        for (int i = 0; i < 20; i++) {
+            jobs.run(id);
+            jobs.queued(id);
+        }
+        assertEquals(0, meters.unlockFailed.get());
+        assertEquals(40, target.runs.get());
+    }
+
+    @Test
+    void failedReleaseReachesListenerAndMeter() throws Exception {
+        Jobs jobs = proxy(new Jobs());
+        String id = UUID.randomUUID().toString();
+
+        // 锁已过期，释放失败不抛出异常
+        jobs.expire(id);
+        assertEquals("lock:job:" + id, failedLockName.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.get(5, TimeUnit.SECONDS) instanceof IllegalMonitorStateException);
+        assertEquals(1, meters.unlockFailed.get());
+    }
+
+    private Jobs proxy(Jobs target) {
+        DistributedLockProperties properties = new DistributedLockProperties();
+        LockReleaseListener listener = (lockName, cause) -> {
+            failure.complete(cause);
+            failedLockName.complete(lockName);
+        };
+        DistributedLockAspect aspect = new DistributedLockAspect(
+                new LockNameCoreConverter(properties, new DefaultLockNamePreConverter()), registry,
+                (type, mode, name) -> meters, properties, listener, new ThreadLocalLockDeadlineSource());
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    public static class Jobs {
+        private final AtomicInteger runs = new AtomicInteger();
+
+        @DistributedLock(name = "job:{id}", asyncUnlock = true)
+        public void run(String id) {
+            runs.incrementAndGet();
+        }
+
+        @DistributedLock(name = "queued:{id}", asyncUnlock = true, localQueue = true)
+        public void queued(String id) {
+            runs.incrementAndGet();
+        }
+
+        @DistributedLock(name = "job:{id}", asyncUnlock = true, leaseTime = 100, timeUnit = TimeUnit.MILLISECONDS)
+        public void expire(String id) throws InterruptedException {
+            Thread.sleep(300);
+        }
+    }
+
+    /**
+     * 记录释放失败次数的指标
+     */
+    private static final class CountingMeters implements LockMeters {
+        private final AtomicInteger unlockFailed = new AtomicInteger();
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public void recordWait(long nanos) {
+        }
+
+        @Override
+        public void recordHold(long nanos) {
+        }
+
+        @Override
+        public void tryLockFailed() {
+        }
+
+        @Override
+        public void unlockFailed() {
+            unlockFailed.incrementAndGet();
+        }
+    }
+}
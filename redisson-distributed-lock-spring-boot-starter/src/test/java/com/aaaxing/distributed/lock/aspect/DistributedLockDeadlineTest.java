@@ -0,0 +1,212 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.aspect;
+
+import com.aaaxing.distributed.lock.annotation.DistributedLock;
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
+import com.aaaxing.distributed.lock.converter.DefaultLockNamePreConverter;
+import com.aaaxing.distributed.lock.converter.LockNameCoreConverter;
+import com.aaaxing.distributed.lock.exception.DistributedLockException;
+import com.aaaxing.distributed.lock.metrics.LockMetrics;
+import com.aaaxing.distributed.lock.strategy.LocalLockProvider;
+import com.aaaxing.distributed.lock.strategy.LockDeadlineSource;
+import com.aaaxing.distributed.lock.strategy.LockStrategyRegistry;
+import com.aaaxing.distributed.lock.strategy.ThreadLocalLockDeadlineSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Mode;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 按调用截止时间等待锁：剩余时间已耗尽时不加锁立即失败，LOCK最多等待剩余时间，TRY_LOCK等待waitTime与剩余时间的较小值，
+ * 均以status=5失败；没有截止时间或未开启deadline时行为不变
+ *
+ * <br>以AspectJ代理在JVM内存锁提供者上执行切面，由另一线程在方法内持有锁制造竞争
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class DistributedLockDeadlineTest {
+    private static final long BUDGET_MILLIS = 200;
+
+    private final Orders target = new Orders();
+    private final Orders orders = proxy(target);
+
+    @AfterEach
+    void clearDeadline() {
+        ThreadLocalLockDeadlineSource.clear();
+    }
+
+    @Test
+    void exhaustedBudgetFailsBeforeLocking() {
+        ThreadLocalLockDeadlineSource.setTimeout(0, TimeUnit.MILLISECONDS);
+
+        assertStatus(5, assertThrows(DistributedLockException.class, orders::pay));
+        ExecutionException thrown = assertThrows(ExecutionException.class,
+                () -> orders.payAsync().toCompletableFuture().get(5, TimeUnit.SECONDS));
+        assertStatus(5, thrown.getCause());
+        assertEquals(0, target.calls.get());
+    }
+
+    @Test
+    void lockWaitsOnlyForRemainingBudget() throws Exception {
+        CountDownLatch release = holdLock();
+        try {
+            ThreadLocalLockDeadlineSource.setTimeout(BUDGET_MILLIS, TimeUnit.MILLISECONDS);
+            long start = System.nanoTime();
+            assertStatus(5, assertThrows(DistributedLockException.class, orders::pay));
+            assertElapsedAboutBudget(start);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void tryLockWaitsForSmallerOfWaitTimeAndBudget() throws Exception {
+        CountDownLatch release = holdLock();
+        try {
+            ThreadLocalLockDeadlineSource.setTimeout(BUDGET_MILLIS, TimeUnit.MILLISECONDS);
+            long start = System.nanoTime();
+            assertStatus(5, assertThrows(DistributedLockException.class, orders::refund));
+            assertElapsedAboutBudget(start);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void withoutDeadlineLockWaitsAsBefore() throws Exception {
+        CountDownLatch release = holdLock();
+        CompletableFuture.runAsync(() -> {
+            sleep(BUDGET_MILLIS);
+            release.countDown();
+        });
+
+        orders.pay();
+        assertEquals(2, target.calls.get());
+    }
+
+    @Test
+    void budgetIsIgnoredWhenDeadlineIsDisabled() {
+        ThreadLocalLockDeadlineSource.setTimeout(0, TimeUnit.MILLISECONDS);
+
+        orders.ship();
+        assertEquals(1, target.calls.get());
+    }
+
+    @Test
+    void singleFlightRejectsDeadline() {
+        assertStatus(0, assertThrows(DistributedLockException.class, orders::query));
+    }
+
+    @Test
+    void threadLocalSourceReportsRemainingTime() {
+        LockDeadlineSource source = new ThreadLocalLockDeadlineSource();
+        assertEquals(LockDeadlineSource.NO_DEADLINE, source.remainingNanos());
+
+        ThreadLocalLockDeadlineSource.setTimeout(1, TimeUnit.SECONDS);
+        long remaining = source.remainingNanos();
+        assertTrue(remaining > 0 && remaining <= TimeUnit.SECONDS.toNanos(1));
+        ThreadLocalLockDeadlineSource.setDeadline(System.nanoTime() - 1);
+        assertTrue(source.remainingNanos() < 0);
+
+        ThreadLocalLockDeadlineSource.clear();
+        assertEquals(LockDeadlineSource.NO_DEADLINE, source.remainingNanos());
+    }
+
+    /**
+     * 在另一线程调用加锁方法并在方法内持有锁，直到返回的门闩打开
+     */
+    private CountDownLatch holdLock() throws InterruptedException {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        target.holding = holding;
+        target.release = release;
+        CompletableFuture.runAsync(orders::pay);
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+        target.holding = null;
+        target.release = null;
+        return release;
+    }
+
+    private static void assertElapsedAboutBudget(long start) {
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsed >= BUDGET_MILLIS / 2 && elapsed < 5000, () -> "waited " + elapsed + "ms");
+    }
+
+    private static void assertStatus(int status, Throwable thrown) {
+        assertTrue(thrown instanceof DistributedLockException, () -> "unexpected " + thrown);
+        assertEquals(status, ((DistributedLockException) thrown).getStatus());
+    }
+
+    private static Orders proxy(Orders target) {
+        DistributedLockProperties properties = new DistributedLockProperties();
+        DistributedLockAspect aspect = new DistributedLockAspect(
+                new LockNameCoreConverter(properties, new DefaultLockNamePreConverter()),
+                new LockStrategyRegistry(new LocalLockProvider(), properties), LockMetrics.NOOP, properties, null,
+                new ThreadLocalLockDeadlineSource());
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static class Orders {
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile CountDownLatch holding;
+        private volatile CountDownLatch release;
+
+        @DistributedLock(name = "order:deadline", deadline = true)
+        public void pay() {
+            calls.incrementAndGet();
+            CountDownLatch holding = this.holding;
+            CountDownLatch release = this.release;
+            if (holding != null) {
+                holding.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @DistributedLock(name = "order:deadline", deadline = true)
+        public CompletableFuture<Void> payAsync() {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @DistributedLock(name = "order:deadline", mode = Mode.TRY_LOCK, waitTime = 10, deadline = true)
+        public void refund() {
+            calls.incrementAndGet();
+        }
+
+        @DistributedLock(name = "order:deadline")
+        public void ship() {
+            calls.incrementAndGet();
+        }
+
+        @DistributedLock(name = "order:deadline", mode = Mode.SINGLE_FLIGHT, deadline = true)
+        public String query() {
+            return "order";
+        }
+    }
+}
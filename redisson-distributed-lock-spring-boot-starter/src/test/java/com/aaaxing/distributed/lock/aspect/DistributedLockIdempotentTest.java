@@ -0,0 +1,137 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.aspect;
+
+import com.aaaxing.distributed.lock.annotation.DistributedLock;
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
+import com.aaaxing.distributed.lock.converter.DefaultLockNamePreConverter;
+import com.aaaxing.distributed.lock.converter.LockNameCoreConverter;
+import com.aaaxing.distributed.lock.metrics.LockMetrics;
+import com.aaaxing.distributed.lock.strategy.LocalLockProvider;
+import com.aaaxing.distributed.lock.strategy.LockStrategyRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Mode;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 幂等模式：同一锁名的调用只执行一次方法，并发等待锁的调用返回已保存的结果；结果按保留时间过期，方法异常不保存结果
+ *
+ * <br>以AspectJ代理在JVM内存锁提供者上执行切面，结果保存在本地
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class DistributedLockIdempotentTest {
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(8);
+
+    private final Payments target = new Payments();
+    private final Payments payments = proxy(target);
+
+    @AfterAll
+    static void shutdown() {
+        EXECUTOR.shutdown();
+    }
+
+    @Test
+    void repeatedCallReturnsSavedResult() {
+        String first = payments.pay("order-1");
+
+        assertSame(first, payments.pay("order-1"));
+        assertEquals(1, target.calls.get());
+        payments.pay("order-2");
+        assertEquals(2, target.calls.get());
+    }
+
+    @Test
+    void concurrentCallsExecuteOnce() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(EXECUTOR.submit(() -> {
+                start.await();
+                return payments.pay("order-3");
+            }));
+        }
+        start.countDown();
+
+        String expected = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<String> result : results) {
+            assertSame(expected, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, target.calls.get());
+    }
+
+    @Test
+    void resultExpiresAfterTtl() throws Exception {
+        payments.payBriefly("order-4");
+        payments.payBriefly("order-4");
+        assertEquals(1, target.calls.get());
+
+        Thread.sleep(300);
+        payments.payBriefly("order-4");
+        assertEquals(2, target.calls.get());
+    }
+
+    @Test
+    void failureIsNotSaved() {
+        assertThrows(IllegalStateException.class, () -> payments.refund("order-5"));
+        assertThrows(IllegalStateException.class, () -> payments.refund("order-5"));
+        assertEquals(2, target.calls.get());
+    }
+
+    private static Payments proxy(Payments target) {
+        DistributedLockProperties properties = new DistributedLockProperties();
+        DistributedLockAspect aspect = new DistributedLockAspect(
+                new LockNameCoreConverter(properties, new DefaultLockNamePreConverter()),
+                new LockStrategyRegistry(new LocalLockProvider(), properties), LockMetrics.NOOP, properties, null);
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    public static class Payments {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @DistributedLock(name = "payment:{orderId}", mode = Mode.IDEMPOTENT)
+        public String pay(String orderId) {
+            calls.incrementAndGet();
+            sleep(50);
+            return new String("paid:" + orderId);
+        }
+
+        @DistributedLock(name = "payment:brief:{orderId}", mode = Mode.IDEMPOTENT, resultTtl = 100,
+                timeUnit = TimeUnit.MILLISECONDS)
+        public String payBriefly(String orderId) {
+            calls.incrementAndGet();
+            return "paid:" + orderId;
+        }
+
+        @DistributedLock(name = "refund:{orderId}", mode = Mode.IDEMPOTENT)
+        public String refund(String orderId) {
+            calls.incrementAndGet();
+            throw new IllegalStateException("refund failed: " + orderId);
+        }
+
+        private static void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.aspect;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import com.aaaxing.distributed.lock.annotation.DistributedLock;
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
+import com.aaaxing.distributed.lock.converter.DefaultLockNamePreConverter;
+import com.aaaxing.distributed.lock.converter.LockNameCoreConverter;
+import com.aaaxing.distributed.lock.metrics.LockMetrics;
+import com.aaaxing.distributed.lock.strategy.LockStrategyRegistry;
+import com.aaaxing.distributed.lock.strategy.ThreadLocalLockDeadlineSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Mode;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 单飞模式：同一JVM内的跟随者共享领头者的结果或异常、领头者重入时直接执行；
+ * 其他节点等待到锁后读取领头者发布的结果，领头者加锁执行前清除上一次的结果
+ *
+ * <br>以AspectJ代理在redisson锁提供者上执行切面，每个切面实例模拟一个节点，另一节点使用独立的redisson客户端；
+ * 领头者在方法内等待放行，制造并发的跟随者与等待者
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class DistributedLockSingleFlightTest {
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool();
+    private static RedissonClient otherClient;
+    private static LockStrategyRegistry registry;
+    private static LockStrategyRegistry otherRegistry;
+
+    @BeforeAll
+    static void setUp() {
+        otherClient = EmbeddedRedis.newClient();
+        registry = new LockStrategyRegistry(EmbeddedRedis.redisson(), new DistributedLockProperties());
+        otherRegistry = new LockStrategyRegistry(otherClient, new DistributedLockProperties());
+    }
+
+    @AfterAll
+    static void shutdown() {
+        EXECUTOR.shutdown();
+        registry.close();
+        otherRegistry.close();
+        otherClient.shutdown();
+    }
+
+    @Test
+    void followersShareLeaderResult() throws Exception {
+        Reports target = new Reports();
+        Reports reports = proxy(target, registry);
+        String id = id();
+        target.release = new CountDownLatch(1);
+
+        Future<String> leader = EXECUTOR.submit(() -> reports.build(id));
+        assertTrue(target.started.await(5, TimeUnit.SECONDS));
+        List<Future<String>> followers = follow(reports, id);
+        Thread.sleep(100);
+        target.release.countDown();
+
+        String value = leader.get(5, TimeUnit.SECONDS);
+        for (Future<String> follower : followers) {
+            assertSame(value, follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, target.calls.get());
+    }
+
+    @Test
+    void followersShareLeaderException() throws Exception {
+        Reports target = new Reports();
+        Reports reports = proxy(target, registry);
+        String id = id();
+        target.release = new CountDownLatch(1);
+        target.failure = new IllegalStateException("report failed");
+
+        Future<String> leader = EXECUTOR.submit(() -> reports.build(id));
+        assertTrue(target.started.await(5, TimeUnit.SECONDS));
+        List<Future<String>> followers = follow(reports, id);
+        Thread.sleep(100);
+        target.release.countDown();
+
+        assertSame(target.failure, assertThrows(ExecutionException.class,
+                () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+        for (Future<String> follower : followers) {
+            assertSame(target.failure, assertThrows(ExecutionException.class,
+                    () -> follower.get(5, TimeUnit.SECONDS)).getCause());
+        }
+        assertEquals(1, target.calls.get());
+    }
+
+    @Test
+    void leaderReentryExecutesDirectly() throws Exception {
+        Reports target = new Reports();
+        Reports reports = proxy(target, registry);
+        target.self = reports;
+        String id = id();
+
+        // 领头者在执行期间再次调用同名锁的单飞方法，不等待自己的结果
+        assertEquals("report:" + id + ":2", EXECUTOR.submit(() -> reports.rebuild(id)).get(5, TimeUnit.SECONDS));
+        assertEquals(2, target.calls.get());
+    }
+
+    @Test
+    void crossNodeWaiterReadsPublishedResult() throws Exception {
+        Reports target = new Reports();
+        Reports reports = proxy(target, registry);
+        Reports otherTarget = new Reports();
+        Reports otherNode = proxy(otherTarget, otherRegistry);
+        String id = id();
+        target.release = new CountDownLatch(1);
+
+        Future<String> leader = EXECUTOR.submit(() -> reports.build(id));
+        assertTrue(target.started.await(5, TimeUnit.SECONDS));
+        Future<String> waiter = EXECUTOR.submit(() -> otherNode.build(id));
+        Thread.sleep(200);
+        assertFalse(waiter.isDone());
+        target.release.countDown();
+
+        // 等待者获得锁后读取领头者发布的结果，不再执行方法
+        assertEquals(leader.get(5, TimeUnit.SECONDS), waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1, target.calls.get());
+        assertEquals(0, otherTarget.calls.get());
+    }
+
+    @Test
+    void leaderClearsStaleResultBeforeExecuting() throws Exception {
+        Reports target = new Reports();
+        Reports reports = proxy(target, registry);
+        Reports otherTarget = new Reports();
+        Reports otherNode = proxy(otherTarget, otherRegistry);
+        String id = id();
+        registry.getSingleFlightResults().publish("lock:report:" + id, "stale");
+        target.release = new CountDownLatch(1);
+        target.failure = new IllegalStateException("report failed");
+
+        Future<String> leader = EXECUTOR.submit(() -> reports.build(id));
+        assertTrue(target.started.await(5, TimeUnit.SECONDS));
+        Future<String> waiter = EXECUTOR.submit(() -> otherNode.build(id));
+        Thread.sleep(200);
+        target.release.countDown();
+
+        // 领头者抛出异常不发布结果，上一次的结果已在其加锁后清除，等待者自行执行
+        assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+        assertEquals("report:" + id + ":1", waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1, otherTarget.calls.get());
+    }
+
+    private static List<Future<String>> follow(Reports reports, String id) {
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            followers.add(EXECUTOR.submit(() -> reports.build(id)));
+        }
+        return followers;
+    }
+
+    private static String id() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static Reports proxy(Reports target, LockStrategyRegistry registry) {
+        DistributedLockProperties properties = new DistributedLockProperties();
+        DistributedLockAspect aspect = new DistributedLockAspect(
+                new LockNameCoreConverter(properties, new DefaultLockNamePreConverter()), registry, LockMetrics.NOOP,
+                properties, null, new ThreadLocalLockDeadlineSource());
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    public static class Reports {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch started = new CountDownLatch(1);
+        private volatile CountDownLatch release = new CountDownLatch(0);
+        private volatile RuntimeException failure;
+        private volatile Reports self;
+
+        @DistributedLock(name = "report:{id}", mode = Mode.SINGLE_FLIGHT)
+        public String build(String id) throws InterruptedException {
+            int call = calls.incrementAndGet();
+            started.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            if (failure != null) {
+                throw failure;
+            }
+            return new String("report:" + id + ":" + call);
+        }
+
+        @DistributedLock(name = "report:{id}", mode = Mode.SINGLE_FLIGHT)
+        public String rebuild(String id) throws InterruptedException {
+            calls.incrementAndGet();
+            return self.build(id);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.converter;
+
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 锁名模板
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class LockNameTemplateTest {
+    private static final HttpServletRequest REQUEST = (HttpServletRequest) Proxy.newProxyInstance(
+            LockNameTemplateTest.class.getClassLoader(), new Class<?>[]{HttpServletRequest.class},
+            (proxy, method, args) -> null);
+
+    @Test
+    void rendersParametersAndFields() {
+        LockNameTemplate template = compile("order:{order.id}:{userId}", new String[]{"order", "userId"},
+                Order.class, Long.class);
+
+        assertEquals("lock:order:42:7", template.render(new Object[]{new Order(42L), 7L}));
+        assertEquals("lock:order:null:7", template.render(new Object[]{null, 7L}));
+    }
+
+    @Test
+    void singleParameterResolvesFieldsDirectly() {
+        LockNameTemplate template = compile("order:{id}", new String[]{"order"}, Order.class);
+
+        assertEquals("lock:order:42", template.render(new Object[]{new Order(42L)}));
+    }
+
+    @Test
+    void declaredServletParametersAreExcluded() {
+        LockNameTemplate template = compile("order:{id}", new String[]{"order", "request"}, Order.class,
+                HttpServletRequest.class);
+
+        assertEquals("lock:order:42", template.render(new Object[]{new Order(42L), REQUEST}));
+        // 与逐次解析一致，值为null的servlet参数不排除
+        assertEquals("lock:order:null", template.render(new Object[]{new Order(42L), null}));
+    }
+
+    @Test
+    void servletValuesOfOtherDeclaredTypesAreExcluded() {
+        LockNameTemplate template = compile("order:{id}", new String[]{"order", "context"}, Order.class,
+                Object.class);
+
+        assertEquals("lock:order:42", template.render(new Object[]{new Order(42L), REQUEST}));
+        assertEquals("lock:order:null", template.render(new Object[]{new Order(42L), "context"}));
+        assertEquals("lock:order:42", template.render(new Object[]{new Order(42L), REQUEST}));
+    }
+
+    @Test
+    void collectionPlaceholderExpandsSortedAndDistinct() {
+        LockNameTemplate template = compile("sku:{skus[*]}", new String[]{"skus"}, List.class);
+
+        assertEquals(Arrays.asList("lock:sku:a", "lock:sku:b"),
+                template.renderAll(new Object[]{Arrays.asList("b", "a", "b")}));
+        assertEquals(Collections.emptyList(), template.renderAll(new Object[]{null}));
+    }
+
+    @Test
+    void derivedTemplatesShareCompiledSplitAcrossValues() {
+        LockNameTemplate template = compile("order:{@userId}:{order.id}", new String[]{"order"}, Order.class);
+
+        for (int userId = 0; userId < 1000; userId++) {
+            assertEquals("lock:order:" + userId + ":42",
+                    template.derive("order:" + userId + ":{order.id}").render(new Object[]{new Order(42L)}));
+        }
+        // 按替换区间的位置缓存，不按每个请求预转换后的锁名缓存
+        assertEquals(1, template.derivedCount());
+        assertEquals("lock:order:null:42", template.derive("order:null:{order.id}").render(new Object[]{new Order(42L)}));
+        assertEquals(1, template.derivedCount());
+    }
+
+    @Test
+    void derivedReplacementMayContainPlaceholders() {
+        LockNameTemplate template = compile("order:{@tenant}:{order.id}", new String[]{"order", "userId"},
+                Order.class, Long.class);
+
+        assertEquals("lock:order:t1:7:42",
+                template.derive("order:t1:{userId}:{order.id}").render(new Object[]{new Order(42L), 7L}));
+        // 替换区间的边界不落在占位符内，与完整编译的结果一致
+        for (String converted : new String[]{"order:{userId}:{order.id}", "order:{o:{order.id}", "order:}{userId}"}) {
+            Object[] args = {new Order(42L), 7L};
+            assertEquals(compile(converted, new String[]{"order", "userId"}, Order.class, Long.class).render(args),
+                    template.derive(converted).render(args));
+        }
+    }
+
+    private static LockNameTemplate compile(String rawLockName, String[] parameterNames, Class<?>... types) {
+        return LockNameTemplate.compile(rawLockName, "lock:", parameterNames, types);
+    }
+
+    static class Order {
+        private final Long id;
+
+        Order(Long id) {
+            this.id = id;
+        }
+    }
+}
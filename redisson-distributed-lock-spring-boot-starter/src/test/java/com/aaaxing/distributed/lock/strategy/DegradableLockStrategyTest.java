@@ -0,0 +1,325 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.exception.DistributedLockException;
+import com.aaaxing.distributed.lock.metrics.LockMeters;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.tryLock;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.unlock;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 熔断与降级：失败率与慢请求率达到阈值时熔断，熔断时长过后探测恢复；熔断期间快速失败或降级为本地锁，
+ * 降级加锁的锁由本地锁释放
+ *
+ * <br>锁后端以另一个JVM内存锁提供者模拟，可切换为失败
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class DegradableLockStrategyTest {
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long OPEN_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Backend backend = new Backend(new LocalLockProvider().getLockStrategy(Type.LOCK));
+    private final LockStrategy fallback = new LocalLockProvider().getLockStrategy(Type.LOCK);
+    private final AtomicInteger probes = new AtomicInteger();
+    private final AtomicInteger degraded = new AtomicInteger();
+    private final LockMeters meters = new LockMeters() {
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public void recordWait(long nanos) {
+        }
+
+        @Override
+        public void recordHold(long nanos) {
+        }
+
+        @Override
+        public void tryLockFailed() {
+        }
+
+        @Override
+        public void unlockFailed() {
+        }
+
+        @Override
+        public void degraded() {
+            degraded.incrementAndGet();
+        }
+    };
+
+    @Test
+    void opensWhenFailureRateIsReached() {
+        LockCircuitBreaker breaker = breaker(4, 1000, successfulProbe());
+        breaker.recordSuccess(-1);
+        breaker.recordFailure();
+        breaker.recordSuccess(-1);
+        assertFalse(breaker.isOpen());
+
+        breaker.recordFailure();
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.allowRequest());
+        assertEquals(0, probes.get());
+    }
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        LockCircuitBreaker breaker = breaker(4, 1000, successfulProbe());
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        assertFalse(breaker.isOpen());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void opensWhenSlowCallRateIsReached() {
+        LockCircuitBreaker breaker = breaker(4, 1, successfulProbe());
+        long slow = TimeUnit.MILLISECONDS.toNanos(5);
+        breaker.recordSuccess(slow);
+        breaker.recordSuccess(-1);
+        breaker.recordSuccess(-1);
+        breaker.recordSuccess(-1);
+        assertFalse(breaker.isOpen());
+
+        breaker.recordSuccess(slow);
+        breaker.recordSuccess(slow);
+        assertTrue(breaker.isOpen());
+    }
+
+    @Test
+    void successfulProbeClosesAfterOpenDuration() throws Exception {
+        LockCircuitBreaker breaker = breaker(1, 1000, successfulProbe());
+        breaker.recordFailure();
+        assertFalse(breaker.allowRequest());
+        assertEquals(0, probes.get());
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(OPEN_NANOS) + 50);
+        // 触发探测的请求仍被拒绝，探测完成后恢复
+        assertFalse(breaker.allowRequest());
+        assertEquals(1, probes.get());
+        assertFalse(breaker.isOpen());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void failedProbeKeepsOpenForAnotherDuration() throws Exception {
+        LockCircuitBreaker breaker = breaker(1, 1000, () -> {
+            probes.incrementAndGet();
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("backend unavailable"));
+            return future;
+        });
+        breaker.recordFailure();
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(OPEN_NANOS) + 50);
+
+        assertFalse(breaker.allowRequest());
+        assertEquals(1, probes.get());
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.allowRequest());
+        assertEquals(1, probes.get());
+    }
+
+    @Test
+    void backendFailuresDegradeToLocalLock() throws Exception {
+        LockCircuitBreaker breaker = breaker(2, 1000, successfulProbe());
+        LockStrategy strategy = new DegradableLockStrategy(backend, fallback, breaker, meters);
+        String name = lockName();
+        backend.failing = true;
+        for (int i = 0; i < 2; i++) {
+            assertThrows(ExecutionException.class, () -> strategy.tryLockAsync(name, 0, -1, TimeUnit.SECONDS,
+                    LockOwnerIds.next()).get(5, TimeUnit.SECONDS));
+        }
+        assertTrue(breaker.isOpen());
+
+        long owner = LockOwnerIds.next();
+        assertTrue(tryLock(strategy, name, owner));
+        assertEquals(1, degraded.get());
+        // 降级期间在本节点内互斥
+        assertFalse(tryLock(strategy, name, LockOwnerIds.next()));
+        unlock(strategy, name, owner);
+        assertEquals(0, backend.unlocks.get());
+        assertTrue(tryLock(fallback, name, owner));
+        unlock(fallback, name, owner);
+    }
+
+    @Test
+    void failsFastWithoutFallback() {
+        LockCircuitBreaker breaker = breaker(1, 1000, successfulProbe());
+        LockStrategy strategy = new DegradableLockStrategy(backend, null, breaker, meters);
+        breaker.recordFailure();
+
+        DistributedLockException thrown = assertThrows(DistributedLockException.class,
+                () -> strategy.tryLock(lockName(), 0, -1, TimeUnit.SECONDS));
+        assertEquals(3, thrown.getStatus());
+        ExecutionException async = assertThrows(ExecutionException.class, () -> strategy.lockAsync(lockName(), -1,
+                TimeUnit.SECONDS, LockOwnerIds.next()).get(5, TimeUnit.SECONDS));
+        assertTrue(async.getCause() instanceof DistributedLockException);
+        assertEquals(0, backend.locks.get());
+    }
+
+    @Test
+    void nestedHoldsAreReleasedToTheirOwnBackends() throws Exception {
+        LockCircuitBreaker breaker = breaker(1, 1000, successfulProbe());
+        LockStrategy strategy = new DegradableLockStrategy(backend, fallback, breaker, meters);
+        String name = lockName();
+        long owner = LockOwnerIds.next();
+        breaker.recordFailure();
+        assertTrue(tryLock(strategy, name, owner));
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(OPEN_NANOS) + 50);
+        breaker.allowRequest();
+        assertFalse(breaker.isOpen());
+        assertTrue(tryLock(strategy, name, owner));
+        assertEquals(1, backend.locks.get());
+
+        // 后进先出：先释放后端的嵌套加锁，再释放降级的本地锁
+        unlock(strategy, name, owner);
+        assertEquals(1, backend.unlocks.get());
+        assertFalse(tryLock(fallback, name, LockOwnerIds.next()));
+        unlock(strategy, name, owner);
+        assertEquals(1, backend.unlocks.get());
+        long other = LockOwnerIds.next();
+        assertTrue(tryLock(fallback, name, other));
+        unlock(fallback, name, other);
+    }
+
+    @Test
+    void recoveredBackendExcludesRemainingLocalHolders() throws Exception {
+        LockCircuitBreaker breaker = breaker(1, 1000, successfulProbe());
+        LockStrategy strategy = new DegradableLockStrategy(backend, fallback, breaker, meters);
+        String name = lockName();
+        long holder = LockOwnerIds.next();
+        breaker.recordFailure();
+        assertTrue(tryLock(strategy, name, holder));
+
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(OPEN_NANOS) + 50);
+        breaker.allowRequest();
+        assertFalse(breaker.isOpen());
+        // 本地持有仍在，新的加锁先获取本地锁，不会与其同时持有
+        long other = LockOwnerIds.next();
+        assertFalse(tryLock(strategy, name, other));
+        assertEquals(0, backend.locks.get());
+        CompletableFuture<Boolean> waiting = strategy.tryLockAsync(name, 5, -1, TimeUnit.SECONDS, other);
+        Thread.sleep(50);
+        assertFalse(waiting.isDone());
+
+        unlock(strategy, name, holder);
+        assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(1, backend.locks.get());
+        assertFalse(tryLock(fallback, name, LockOwnerIds.next()));
+        unlock(strategy, name, other);
+        assertEquals(1, backend.unlocks.get());
+
+        // 本地持有全部释放后只请求后端
+        long next = LockOwnerIds.next();
+        assertTrue(tryLock(strategy, name, next));
+        assertEquals(2, backend.locks.get());
+        long local = LockOwnerIds.next();
+        assertTrue(tryLock(fallback, name, local));
+        unlock(fallback, name, local);
+        unlock(strategy, name, next);
+    }
+
+    @Test
+    void unlockByNonOwnerIsNotBackendFailure() {
+        LockCircuitBreaker breaker = breaker(1, 1000, successfulProbe());
+        LockStrategy strategy = new DegradableLockStrategy(backend, fallback, breaker, meters);
+
+        ExecutionException thrown = assertThrows(ExecutionException.class,
+                () -> strategy.unlockAsync(lockName(), LockOwnerIds.next()).get(5, TimeUnit.SECONDS));
+        assertTrue(thrown.getCause() instanceof IllegalMonitorStateException);
+        assertFalse(breaker.isOpen());
+    }
+
+    /**
+     * 失败率阈值50%，慢请求率阈值50%，统计窗口10秒，熔断时长100毫秒
+     */
+    private static LockCircuitBreaker breaker(int minimumCalls, long slowCallMillis,
+                                              Supplier<CompletableFuture<?>> probe) {
+        return new LockCircuitBreaker(50, TimeUnit.MILLISECONDS.toNanos(slowCallMillis), 50, minimumCalls,
+                WINDOW_NANOS, OPEN_NANOS, probe);
+    }
+
+    private Supplier<CompletableFuture<?>> successfulProbe() {
+        return () -> {
+            probes.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        };
+    }
+
+    private static String lockName() {
+        return "lock:degrade:" + UUID.randomUUID();
+    }
+
+    /**
+     * 模拟的锁后端，failing为true时加锁请求失败
+     */
+    private static final class Backend implements LockStrategy {
+        private final LockStrategy delegate;
+        private final AtomicInteger locks = new AtomicInteger();
+        private final AtomicInteger unlocks = new AtomicInteger();
+        private volatile boolean failing;
+
+        Backend(LockStrategy delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void lock(String lockName, long leaseTime, TimeUnit unit) {
+            LockFutures.join(lockAsync(lockName, leaseTime, unit, Thread.currentThread().getId()));
+        }
+
+        @Override
+        public boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit) {
+            return LockFutures.join(tryLockAsync(lockName, waitTime, leaseTime, unit,
+                    Thread.currentThread().getId()));
+        }
+
+        @Override
+        public void unlock(String lockName) {
+            LockFutures.join(unlockAsync(lockName, Thread.currentThread().getId()));
+        }
+
+        @Override
+        public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+            return tryLockAsync(lockName, -1, leaseTime, unit, ownerId).thenApply(locked -> null);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                                       long ownerId) {
+            locks.incrementAndGet();
+            if (failing) {
+                CompletableFuture<Boolean> future = new CompletableFuture<>();
+                future.completeExceptionally(new IllegalStateException("backend unavailable"));
+                return future;
+            }
+            return waitTime < 0 ? delegate.lockAsync(lockName, leaseTime, unit, ownerId).thenApply(v -> true)
+                    : delegate.tryLockAsync(lockName, waitTime, leaseTime, unit, ownerId);
+        }
+
+        @Override
+        public CompletableFuture<Void> unlockAsync(String lockName, long ownerId) {
+            unlocks.incrementAndGet();
+            return delegate.unlockAsync(lockName, ownerId);
+        }
+    }
+}
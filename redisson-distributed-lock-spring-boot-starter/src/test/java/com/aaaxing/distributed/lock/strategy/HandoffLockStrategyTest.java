@@ -0,0 +1,283 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RScript;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.tryLock;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.unlock;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 移交锁：按到达顺序移交、BLPOP唤醒、移交给宕机的等待者、移交后放弃、本地排队
+ *
+ * <br>宕机或唤醒被阻塞的等待者直接写入等待队列与存活期限模拟，与等待者排队时写入的内容一致；
+ * 同一策略实例的等待者在本地排队，其他节点的等待者以另一策略实例模拟
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class HandoffLockStrategyTest {
+    private static final LockRenewalService RENEWAL_SERVICE = new LockRenewalService(EmbeddedRedis.redisson(), null);
+
+    private final HandoffLockStrategy strategy = node();
+
+    @AfterAll
+    static void shutdown() {
+        RENEWAL_SERVICE.shutdown();
+    }
+
+    @Nested
+    class Contract extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return strategy;
+        }
+    }
+
+    @Test
+    void waitersAcquireInArrivalOrder() throws Exception {
+        String name = lockName();
+        long holder = LockOwnerIds.next();
+        assertTrue(tryLock(strategy, name, holder));
+
+        ConcurrentLinkedQueue<Integer> acquired = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> waiters = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            waiters.add(enqueue(node(), name, i, acquired));
+            awaitQueued(name, i + 1);
+        }
+        unlock(strategy, name, holder);
+        CompletableFuture.allOf(waiters.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(0, 1, 2, 3), new ArrayList<>(acquired));
+    }
+
+    @Test
+    void releaseWakesBlockedWaiter() throws Exception {
+        String name = lockName();
+        long holder = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+        assertTrue(tryLock(strategy, name, holder));
+        CompletableFuture<Boolean> waiting = strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, waiter);
+        awaitQueued(name, 1);
+
+        unlock(strategy, name, holder);
+        // 锁在释放脚本中已移交，其他持有者无法插队
+        assertFalse(tryLock(strategy, name, LockOwnerIds.next()));
+        // BLPOP被唤醒，无需等到1秒的轮询超时
+        assertTrue(waiting.get(300, TimeUnit.MILLISECONDS));
+        unlock(strategy, name, waiter);
+    }
+
+    @Test
+    void handoffToDeadWaiterExpiresWithWaiterTtl() throws Exception {
+        String name = lockName();
+        long holder = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+        String deadOwner = UUID.randomUUID() + ":1";
+        assertTrue(tryLock(strategy, name, holder));
+        queueWaiter(name, "dead", deadOwner);
+        CompletableFuture<Boolean> waiting = strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, waiter);
+        awaitQueued(name, 2);
+
+        unlock(strategy, name, holder);
+        assertTrue(EmbeddedRedis.redisson().getMap(name, StringCodec.INSTANCE).containsKey(deadOwner));
+        Thread.sleep(500);
+        assertFalse(waiting.isDone());
+        // 移交的锁在等待者存活时间后过期，下一个等待者在轮询时接手
+        assertTrue(waiting.get(HandoffLockStrategy.MIN_WAITER_TTL_MILLIS * 2, TimeUnit.MILLISECONDS));
+        unlock(strategy, name, waiter);
+    }
+
+    @Test
+    void abandonAfterHandoffPassesLockToNextWaiter() throws Exception {
+        String name = lockName();
+        long holder = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+        String stalledOwner = UUID.randomUUID() + ":1";
+        assertTrue(tryLock(strategy, name, holder));
+        queueWaiter(name, "stalled", stalledOwner);
+        CompletableFuture<Boolean> waiting = strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, waiter);
+        awaitQueued(name, 2);
+
+        unlock(strategy, name, holder);
+        assertTrue(EmbeddedRedis.redisson().getMap(name, StringCodec.INSTANCE).containsKey(stalledOwner));
+        strategy.abandonAsync(name, stalledOwner, "stalled").get(5, TimeUnit.SECONDS);
+        assertTrue(waiting.get(300, TimeUnit.MILLISECONDS));
+        unlock(strategy, name, waiter);
+    }
+
+    @Test
+    void abandonBeforeHandoffIsSkipped() throws Exception {
+        String name = lockName();
+        long holder = LockOwnerIds.next();
+        long abandoned = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+        assertTrue(tryLock(strategy, name, holder));
+        CompletableFuture<Boolean> timingOut = strategy.tryLockAsync(name, 300, -1, TimeUnit.MILLISECONDS,
+                abandoned);
+        awaitQueued(name, 1);
+        HandoffLockStrategy otherNode = node();
+        CompletableFuture<Boolean> waiting = otherNode.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, waiter);
+        awaitQueued(name, 2);
+
+        assertFalse(timingOut.get(5, TimeUnit.SECONDS));
+        unlock(strategy, name, holder);
+        assertTrue(waiting.get(300, TimeUnit.MILLISECONDS));
+        unlock(otherNode, name, waiter);
+    }
+
+    @Test
+    void localWaitersShareOneRemoteWaiter() throws Exception {
+        String name = lockName();
+        long holder = LockOwnerIds.next();
+        assertTrue(tryLock(strategy, name, holder));
+
+        ConcurrentLinkedQueue<Integer> acquired = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> waiters = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            waiters.add(enqueue(strategy, name, i, acquired));
+        }
+        awaitQueued(name, 1);
+        Thread.sleep(200);
+        // 只有本地队首在redis中等待（BLPOP）
+        assertEquals(1, queueSize(name));
+
+        unlock(strategy, name, holder);
+        CompletableFuture.allOf(waiters.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(8, acquired.size());
+    }
+
+    @Test
+    void localWaiterTimesOutWithoutRemoteWait() throws Exception {
+        String name = lockName();
+        long holder = LockOwnerIds.next();
+        assertTrue(tryLock(strategy, name, holder));
+        CompletableFuture<Boolean> head = strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS,
+                LockOwnerIds.next());
+        awaitQueued(name, 1);
+
+        long start = System.nanoTime();
+        assertFalse(strategy.tryLockAsync(name, 200, -1, TimeUnit.MILLISECONDS, LockOwnerIds.next())
+                .get(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertFalse(head.isDone());
+        unlock(strategy, name, holder);
+        assertTrue(head.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void localHeadLeavingPromotesNextWaiter() throws Exception {
+        String name = lockName();
+        long holder = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+        assertTrue(tryLock(strategy, name, holder));
+        CompletableFuture<Boolean> head = strategy.tryLockAsync(name, 300, -1, TimeUnit.MILLISECONDS,
+                LockOwnerIds.next());
+        awaitQueued(name, 1);
+        CompletableFuture<Boolean> waiting = strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, waiter);
+
+        assertFalse(head.get(5, TimeUnit.SECONDS));
+        unlock(strategy, name, holder);
+        assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        unlock(strategy, name, waiter);
+    }
+
+    @Test
+    void reentryDoesNotQueueBehindLocalWaiters() throws Exception {
+        String name = lockName();
+        long holder = LockOwnerIds.next();
+        assertTrue(tryLock(strategy, name, holder));
+        CompletableFuture<Boolean> waiting = strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS,
+                LockOwnerIds.next());
+        awaitQueued(name, 1);
+
+        assertTrue(strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, holder).get(1, TimeUnit.SECONDS));
+        unlock(strategy, name, holder);
+        unlock(strategy, name, holder);
+        assertTrue(waiting.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void lateAbandonDoesNotReleaseOwnersNewHold() throws Exception {
+        String name = lockName();
+        long owner = LockOwnerIds.next();
+        assertTrue(tryLock(strategy, name, owner));
+
+        // 放弃等待后才收到的移交按等待者id放弃，锁未移交给该等待者时不影响持有者此后的加锁
+        strategy.abandonAsync(name, RENEWAL_SERVICE.getOwnerField(owner), "stale").get(5, TimeUnit.SECONDS);
+        assertFalse(tryLock(strategy, name, LockOwnerIds.next()));
+        unlock(strategy, name, owner);
+    }
+
+    /**
+     * 等待加锁，加锁后记录序号并释放
+     */
+    private static CompletableFuture<Void> enqueue(HandoffLockStrategy strategy, String name, int index,
+                                                   ConcurrentLinkedQueue<Integer> acquired) {
+        long owner = LockOwnerIds.next();
+        return strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, owner).thenCompose(locked -> {
+            assertTrue(locked);
+            acquired.add(index);
+            return strategy.unlockAsync(name, owner);
+        });
+    }
+
+    /**
+     * 一个节点的移交锁策略，本地队列按实例划分
+     */
+    private static HandoffLockStrategy node() {
+        return new HandoffLockStrategy(EmbeddedRedis.redisson(), RENEWAL_SERVICE,
+                HandoffLockStrategy.MIN_WAITER_TTL_MILLIS);
+    }
+
+    private static String lockName() {
+        return "lock:handoff:" + UUID.randomUUID();
+    }
+
+    /**
+     * 写入一个不会响应唤醒的等待者
+     */
+    private static void queueWaiter(String name, String waiterId, String owner) {
+        long expiresAt = System.currentTimeMillis() + HandoffLockStrategy.MIN_WAITER_TTL_MILLIS;
+        EmbeddedRedis.redisson().getScript(StringCodec.INSTANCE).eval(name, RScript.Mode.READ_WRITE, ""
+                        + "redis.call('rpush', KEYS[1], ARGV[1]); "
+                        + "redis.call('hset', KEYS[2], ARGV[1], ARGV[2]); "
+                        + "return 1;", RScript.ReturnType.INTEGER,
+                Arrays.asList(queueName(name), "{" + name + "}:handoff_waiters"), waiterId,
+                expiresAt + ":" + EmbeddedRedis.WATCHDOG_TIMEOUT_MILLIS + ":" + owner);
+    }
+
+    /**
+     * 等待队列达到指定长度，即前面的等待者都已排队
+     */
+    private static void awaitQueued(String name, int waiters) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (queueSize(name) != waiters) {
+            assertTrue(System.currentTimeMillis() < deadline, "waiters not queued");
+            Thread.sleep(10);
+        }
+    }
+
+    private static int queueSize(String name) {
+        return EmbeddedRedis.redisson().getList(queueName(name), StringCodec.INSTANCE).size();
+    }
+
+    private static String queueName(String name) {
+        return "{" + name + "}:handoff_queue";
+    }
+}
@@ -0,0 +1,185 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.tryLock;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.unlock;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 层级锁：redis与JVM内存两种实现的兼容关系一致，宕机持有者在下次加锁时被清理，续期期间的持有者不被清理
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class HierarchicalLockStrategyTest {
+    private static final LockRenewalService RENEWAL_SERVICE = new LockRenewalService(EmbeddedRedis.redisson(), null);
+    private static final LocalLockProvider LOCAL_PROVIDER = new LocalLockProvider();
+
+    private final HierarchicalLockStrategy read = new HierarchicalLockStrategy(EmbeddedRedis.redisson(),
+            RENEWAL_SERVICE, "", false);
+    private final HierarchicalLockStrategy write = new HierarchicalLockStrategy(EmbeddedRedis.redisson(),
+            RENEWAL_SERVICE, "", true);
+
+    @AfterAll
+    static void shutdown() {
+        RENEWAL_SERVICE.shutdown();
+    }
+
+    @Nested
+    class Contract extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return write;
+        }
+    }
+
+    @Nested
+    class Redis extends Compatibility {
+        @Override
+        LockStrategy strategy(boolean exclusive) {
+            return exclusive ? write : read;
+        }
+    }
+
+    @Nested
+    class Local extends Compatibility {
+        @Override
+        LockStrategy strategy(boolean exclusive) {
+            return LOCAL_PROVIDER.getLockStrategy(exclusive ? Type.HIERARCHICAL_WRITE_LOCK
+                    : Type.HIERARCHICAL_READ_LOCK);
+        }
+    }
+
+    abstract static class Compatibility {
+        /**
+         * 持有的锁名与请求的锁名（相对于根层），以及两者是否在同一条祖先链上
+         */
+        private static final Object[][] RELATIONS = {
+                {"", "", true},
+                {"", ":1", true},
+                {"", ":1:2", true},
+                {":1", "", true},
+                {":1:2", ":1", true},
+                {":1", ":2", false},
+                {":1:2", ":1:3", false},
+        };
+
+        /**
+         * @param exclusive true为写锁，false为读锁
+         */
+        abstract LockStrategy strategy(boolean exclusive);
+
+        @Test
+        void modesFollowCompatibilityMatrix() {
+            for (Object[] relation : RELATIONS) {
+                for (boolean heldExclusive : new boolean[]{false, true}) {
+                    for (boolean requestedExclusive : new boolean[]{false, true}) {
+                        String root = "tree" + UUID.randomUUID();
+                        String held = root + relation[0];
+                        String requested = root + relation[1];
+                        boolean expected = !(Boolean) relation[2] || !heldExclusive && !requestedExclusive;
+                        long holder = LockOwnerIds.next();
+                        long requester = LockOwnerIds.next();
+
+                        assertTrue(tryLock(strategy(heldExclusive), held, holder));
+                        boolean acquired = tryLock(strategy(requestedExclusive), requested, requester);
+                        assertEquals(expected, acquired, () -> (heldExclusive ? "write " : "read ") + held + " then "
+                                + (requestedExclusive ? "write " : "read ") + requested);
+                        if (acquired) {
+                            unlock(strategy(requestedExclusive), requested, requester);
+                        }
+                        unlock(strategy(heldExclusive), held, holder);
+                    }
+                }
+            }
+        }
+
+        @Test
+        void ownerDoesNotConflictWithItself() {
+            String root = "tree" + UUID.randomUUID();
+            long owner = LockOwnerIds.next();
+            assertTrue(tryLock(strategy(false), root + ":1", owner));
+            assertTrue(tryLock(strategy(true), root, owner));
+            assertTrue(tryLock(strategy(true), root + ":1", owner));
+            assertFalse(tryLock(strategy(false), root + ":2", LockOwnerIds.next()));
+
+            unlock(strategy(true), root + ":1", owner);
+            unlock(strategy(true), root, owner);
+            unlock(strategy(false), root + ":1", owner);
+            long other = LockOwnerIds.next();
+            assertTrue(tryLock(strategy(true), root, other));
+            unlock(strategy(true), root, other);
+        }
+    }
+
+    @Test
+    void waiterWakesOnDescendantRelease() throws Exception {
+        String root = "tree" + UUID.randomUUID();
+        long holder = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+        assertTrue(tryLock(write, root + ":1", holder));
+        CompletableFuture<Boolean> waiting = write.tryLockAsync(root, 10, -1, TimeUnit.SECONDS, waiter);
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+
+        unlock(write, root + ":1", holder);
+        // 由释放通知唤醒，无需等到兜底重试
+        assertTrue(waiting.get(EmbeddedRedis.WATCHDOG_TIMEOUT_MILLIS / 2, TimeUnit.MILLISECONDS));
+        unlock(write, root, waiter);
+        assertLevelRemoved(root);
+    }
+
+    @Test
+    void renewedHolderIsNotExpired() throws Exception {
+        String root = "tree" + UUID.randomUUID();
+        long holder = LockOwnerIds.next();
+        LockFutures.join(write.lockAsync(root + ":1", -1, TimeUnit.SECONDS, holder));
+
+        // 续期服务推后存活期限，超过锁持有时间后仍不能被当作宕机清理
+        Thread.sleep(EmbeddedRedis.WATCHDOG_TIMEOUT_MILLIS * 2);
+        assertFalse(tryLock(write, root, LockOwnerIds.next()));
+        assertTrue(tryLock(write, root + ":2", LockOwnerIds.next()));
+        unlock(write, root + ":1", holder);
+    }
+
+    @Test
+    void crashedHolderIsExpiredOnNextAcquire() throws Exception {
+        String root = "tree" + UUID.randomUUID();
+        long waiter = LockOwnerIds.next();
+        RedissonClient crashed = EmbeddedRedis.newClient();
+        LockRenewalService crashedRenewal = new LockRenewalService(crashed, null);
+        LockFutures.join(new HierarchicalLockStrategy(crashed, crashedRenewal, "", true).lockAsync(root + ":1", -1,
+                TimeUnit.SECONDS, LockOwnerIds.next()));
+
+        // 节点宕机：不再推后存活期限，也不会释放
+        crashedRenewal.shutdown();
+        crashed.shutdown();
+        CompletableFuture<Boolean> waiting = write.tryLockAsync(root, 10, -1, TimeUnit.SECONDS, waiter);
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+        assertTrue(waiting.get(EmbeddedRedis.WATCHDOG_TIMEOUT_MILLIS * 3, TimeUnit.MILLISECONDS));
+        unlock(write, root, waiter);
+        assertLevelRemoved(root);
+    }
+
+    /**
+     * 全部释放后层与其存活有序集合均被删除，宕机持有者的计数也已减去
+     */
+    private static void assertLevelRemoved(String root) {
+        assertEquals(0, EmbeddedRedis.redisson().getKeys().countExists("hierarchy:{" + root + "}",
+                "hierarchy_alive:{" + root + "}"));
+    }
+}
@@ -0,0 +1,152 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 幂等结果存储：redis中区分null结果与未保存、按保留时间过期；近缓存命中不查共享存储，按近缓存时间与保留时间的较小值过期，
+ * 超过容量时淘汰最近最少使用的结果；没有共享存储时本地缓存即为结果存储
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class IdempotentResultsTest {
+    private final CountingResults redis = new CountingResults(
+            new RedissonIdempotentResults(EmbeddedRedis.redisson(), null));
+
+    @Test
+    void redisDistinguishesNullResultFromMissing() {
+        String name = lockName();
+        assertNull(redis.get(name));
+
+        redis.put(name, null, 10_000);
+        IdempotentResults.Result result = redis.get(name);
+        assertNotNull(result);
+        assertNull(result.getValue());
+    }
+
+    @Test
+    void redisResultExpiresAfterTtl() throws Exception {
+        String name = lockName();
+        redis.put(name, "paid", 200);
+        assertEquals("paid", redis.get(name).getValue());
+
+        Thread.sleep(400);
+        assertNull(redis.get(name));
+    }
+
+    @Test
+    void nearCacheHitSkipsSharedStore() {
+        NearCachedIdempotentResults results = new NearCachedIdempotentResults(redis, 16, 10_000);
+        String name = lockName();
+        results.put(name, "paid", 10_000);
+
+        assertEquals("paid", results.get(name).getValue());
+        assertEquals("paid", results.get(name).getValue());
+        assertEquals(0, redis.gets.get());
+    }
+
+    @Test
+    void sharedResultIsCachedNearAfterFirstRead() {
+        NearCachedIdempotentResults writer = new NearCachedIdempotentResults(redis, 16, 10_000);
+        NearCachedIdempotentResults reader = new NearCachedIdempotentResults(redis, 16, 10_000);
+        String name = lockName();
+        writer.put(name, "paid", 10_000);
+
+        assertEquals("paid", reader.get(name).getValue());
+        assertEquals("paid", reader.get(name).getValue());
+        assertEquals(1, redis.gets.get());
+    }
+
+    @Test
+    void nearCacheExpiresBeforeSharedStore() throws Exception {
+        NearCachedIdempotentResults results = new NearCachedIdempotentResults(redis, 16, 100);
+        String name = lockName();
+        results.put(name, "paid", 10_000);
+
+        Thread.sleep(200);
+        assertEquals("paid", results.get(name).getValue());
+        assertEquals(1, redis.gets.get());
+    }
+
+    @Test
+    void nearCacheDoesNotOutliveResultTtl() throws Exception {
+        NearCachedIdempotentResults results = new NearCachedIdempotentResults(redis, 16, 10_000);
+        String name = lockName();
+        results.put(name, "paid", 200);
+
+        Thread.sleep(400);
+        assertNull(results.get(name));
+    }
+
+    @Test
+    void zeroNearCacheSizeAlwaysReadsSharedStore() {
+        NearCachedIdempotentResults results = new NearCachedIdempotentResults(redis, 0, 10_000);
+        String name = lockName();
+        results.put(name, "paid", 10_000);
+
+        assertEquals("paid", results.get(name).getValue());
+        assertEquals("paid", results.get(name).getValue());
+        assertEquals(2, redis.gets.get());
+    }
+
+    @Test
+    void localOnlyStoreEvictsLeastRecentlyUsed() {
+        NearCachedIdempotentResults results = new NearCachedIdempotentResults(null, 2, 100);
+        results.put("a", 1, 10_000);
+        results.put("b", 2, 10_000);
+        assertEquals(1, results.get("a").getValue());
+
+        results.put("c", 3, 10_000);
+        assertEquals(1, results.get("a").getValue());
+        assertNull(results.get("b"));
+        assertEquals(3, results.get("c").getValue());
+    }
+
+    @Test
+    void localOnlyStoreKeepsResultForItsTtl() throws Exception {
+        NearCachedIdempotentResults results = new NearCachedIdempotentResults(null, 16, 100);
+        results.put("a", 1, 400);
+
+        // 没有共享存储时近缓存时间不生效
+        Thread.sleep(200);
+        assertEquals(1, results.get("a").getValue());
+        Thread.sleep(400);
+        assertNull(results.get("a"));
+    }
+
+    private static String lockName() {
+        return "lock:idempotent:" + UUID.randomUUID();
+    }
+
+    /**
+     * 统计读取次数的结果存储
+     */
+    private static final class CountingResults implements IdempotentResults {
+        private final IdempotentResults delegate;
+        private final AtomicInteger gets = new AtomicInteger();
+
+        CountingResults(IdempotentResults delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Result get(String lockName) {
+            gets.incrementAndGet();
+            return delegate.get(lockName);
+        }
+
+        @Override
+        public void put(String lockName, Object value, long ttlMillis) {
+            delegate.put(lockName, value, ttlMillis);
+        }
+    }
+}
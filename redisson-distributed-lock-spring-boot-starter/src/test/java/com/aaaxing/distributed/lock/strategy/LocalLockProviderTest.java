@@ -0,0 +1,195 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.tryLock;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.unlock;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JVM内存中的锁提供者
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class LocalLockProviderTest {
+    private static final LocalLockProvider PROVIDER = new LocalLockProvider();
+
+    @Nested
+    class Lock extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return PROVIDER.getLockStrategy(Type.LOCK);
+        }
+    }
+
+    @Nested
+    class FairLock extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return PROVIDER.getLockStrategy(Type.FAIR_LOCK);
+        }
+    }
+
+    @Nested
+    class WriteLock extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return PROVIDER.getLockStrategy(Type.WRITE_LOCK);
+        }
+    }
+
+    @Nested
+    class HandoffLock extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return PROVIDER.getLockStrategy(Type.HANDOFF_LOCK);
+        }
+    }
+
+    @Nested
+    class HierarchicalWriteLock extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return PROVIDER.getLockStrategy(Type.HIERARCHICAL_WRITE_LOCK);
+        }
+    }
+
+    @Test
+    void readLocksAreSharedAndExcludeWriters() throws Exception {
+        LockStrategy read = PROVIDER.getLockStrategy(Type.READ_LOCK);
+        LockStrategy write = PROVIDER.getLockStrategy(Type.WRITE_LOCK);
+        String name = "lock:read:" + UUID.randomUUID();
+        long firstReader = LockOwnerIds.next();
+        long secondReader = LockOwnerIds.next();
+        long writer = LockOwnerIds.next();
+
+        assertTrue(tryLock(read, name, firstReader));
+        assertTrue(tryLock(read, name, secondReader));
+        assertFalse(tryLock(write, name, writer));
+        unlock(read, name, firstReader);
+        CompletableFuture<Boolean> waiting = write.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, writer);
+        unlock(read, name, secondReader);
+        assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        assertFalse(tryLock(read, name, firstReader));
+        unlock(write, name, writer);
+    }
+
+    @Test
+    void fairLockGrantsInArrivalOrder() throws Exception {
+        LockStrategy fair = PROVIDER.getLockStrategy(Type.FAIR_LOCK);
+        String name = "lock:fair:" + UUID.randomUUID();
+        long owner = LockOwnerIds.next();
+        long first = LockOwnerIds.next();
+        long second = LockOwnerIds.next();
+
+        assertTrue(tryLock(fair, name, owner));
+        CompletableFuture<Boolean> firstWaiting = fair.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, first);
+        Thread.sleep(50);
+        CompletableFuture<Boolean> secondWaiting = fair.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, second);
+        Thread.sleep(50);
+        unlock(fair, name, owner);
+        assertTrue(firstWaiting.get(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertFalse(secondWaiting.isDone());
+        unlock(fair, name, first);
+        assertTrue(secondWaiting.get(5, TimeUnit.SECONDS));
+        unlock(fair, name, second);
+    }
+
+    @Test
+    void asyncWaitersDoNotOccupyThreads() throws Exception {
+        LockStrategy fair = PROVIDER.getLockStrategy(Type.FAIR_LOCK);
+        String name = "lock:async:" + UUID.randomUUID();
+        long owner = LockOwnerIds.next();
+        int threads = Thread.activeCount();
+
+        assertTrue(tryLock(fair, name, owner));
+        List<Long> order = Collections.synchronizedList(new ArrayList<>());
+        List<Long> expected = new ArrayList<>();
+        List<CompletableFuture<Void>> waiting = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long waiter = LockOwnerIds.next();
+            expected.add(waiter);
+            // 每个等待者加锁后立即释放，由释放交给下一个等待者
+            waiting.add(fair.lockAsync(name, -1, TimeUnit.SECONDS, waiter).thenRun(() -> {
+                order.add(waiter);
+                unlock(fair, name, waiter);
+            }));
+        }
+        assertTrue(Thread.activeCount() - threads < 10);
+        unlock(fair, name, owner);
+        CompletableFuture.allOf(waiting.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(expected, order);
+        assertTrue(tryLock(fair, name, owner));
+        unlock(fair, name, owner);
+    }
+
+    @Test
+    void cancelledAsyncWaiterLeavesFairQueue() throws Exception {
+        LockStrategy fair = PROVIDER.getLockStrategy(Type.FAIR_LOCK);
+        String name = "lock:cancel:" + UUID.randomUUID();
+        long owner = LockOwnerIds.next();
+        long cancelled = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+
+        assertTrue(tryLock(fair, name, owner));
+        CompletableFuture<Boolean> abandoned = fair.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, cancelled);
+        CompletableFuture<Boolean> waiting = fair.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, waiter);
+        assertTrue(abandoned.cancel(false));
+        unlock(fair, name, owner);
+        assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        unlock(fair, name, waiter);
+        assertTrue(tryLock(fair, name, cancelled));
+        unlock(fair, name, cancelled);
+    }
+
+    @Test
+    void asyncWaiterAcquiresWhenLaterHolderExpires() throws Exception {
+        LockStrategy read = PROVIDER.getLockStrategy(Type.READ_LOCK);
+        LockStrategy write = PROVIDER.getLockStrategy(Type.WRITE_LOCK);
+        String name = "lock:expiry:" + UUID.randomUUID();
+        long firstReader = LockOwnerIds.next();
+        long secondReader = LockOwnerIds.next();
+        long writer = LockOwnerIds.next();
+
+        // 写锁等待者加入时读锁不会到期，之后加入的读锁指定了持有时间，到期时须由定时任务为等待者加锁
+        assertTrue(tryLock(read, name, firstReader));
+        CompletableFuture<Boolean> waiting = write.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, writer);
+        assertTrue(LockFutures.join(read.tryLockAsync(name, 0, 300, TimeUnit.MILLISECONDS, secondReader)));
+        unlock(read, name, firstReader);
+        Thread.sleep(50);
+        assertFalse(waiting.isDone());
+        assertTrue(waiting.get(2, TimeUnit.SECONDS));
+        unlock(write, name, writer);
+    }
+
+    @Test
+    void hierarchicalAsyncWaiterWakesOnAncestorRelease() throws Exception {
+        LockStrategy write = PROVIDER.getLockStrategy(Type.HIERARCHICAL_WRITE_LOCK);
+        String root = "lock:tree:" + UUID.randomUUID();
+        long owner = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+
+        assertTrue(tryLock(write, root, owner));
+        CompletableFuture<Boolean> waiting = write.tryLockAsync(root + ":child", 10, -1, TimeUnit.SECONDS, waiter);
+        Thread.sleep(50);
+        assertFalse(waiting.isDone());
+        unlock(write, root, owner);
+        assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        assertFalse(tryLock(write, root, owner));
+        unlock(write, root + ":child", waiter);
+    }
+}
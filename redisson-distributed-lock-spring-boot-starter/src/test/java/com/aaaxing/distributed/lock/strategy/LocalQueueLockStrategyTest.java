@@ -0,0 +1,273 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.tryLock;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.unlock;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 本地排队锁：释放时移交给本地等待者、连续移交达到上限后释放redis锁、移交给已放弃的等待者时由最后离开的线程释放、
+ * 等待redis锁时被中断、指定了持有时间的锁不移交、异步释放到达redis前当前线程重新加锁
+ *
+ * <br>redis锁策略外包一层计数，统计加锁与释放redis锁的次数；本地等待者以线程模拟
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class LocalQueueLockStrategyTest {
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool();
+
+    private final CountingStrategy remote = new CountingStrategy(
+            RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.LOCK));
+
+    @AfterAll
+    static void shutdown() {
+        EXECUTOR.shutdown();
+    }
+
+    @Test
+    void releaseHandsRemoteLockToLocalWaiter() throws Exception {
+        LocalQueueLockStrategy strategy = new LocalQueueLockStrategy(remote, true, 16);
+        String name = lockName();
+        strategy.lock(name, -1, TimeUnit.SECONDS);
+        Future<?> waiter = EXECUTOR.submit(() -> {
+            strategy.lock(name, -1, TimeUnit.SECONDS);
+            assertEquals(0, remote.unlocks.get());
+            strategy.unlock(name);
+        });
+        Thread.sleep(100);
+
+        strategy.unlock(name);
+        waiter.get(5, TimeUnit.SECONDS);
+        // 本地等待者沿用redis锁，最后一个持有者释放时才释放redis锁
+        assertEquals(1, remote.locks.get());
+        assertEquals(1, remote.unlocks.get());
+        assertRemoteFree(name);
+    }
+
+    @Test
+    void remoteLockIsReleasedAfterMaxHandoffs() throws Exception {
+        LocalQueueLockStrategy strategy = new LocalQueueLockStrategy(remote, true, 2);
+        String name = lockName();
+        strategy.lock(name, -1, TimeUnit.SECONDS);
+        CountDownLatch firstHolding = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        Future<?> first = EXECUTOR.submit(() -> {
+            strategy.lock(name, -1, TimeUnit.SECONDS);
+            firstHolding.countDown();
+            await(releaseFirst);
+            strategy.unlock(name);
+        });
+        Thread.sleep(100);
+        Future<?> second = EXECUTOR.submit(() -> {
+            strategy.lock(name, -1, TimeUnit.SECONDS);
+            strategy.unlock(name);
+        });
+        Thread.sleep(100);
+
+        strategy.unlock(name);
+        assertTrue(firstHolding.await(5, TimeUnit.SECONDS));
+        assertEquals(1, remote.locks.get());
+        assertEquals(0, remote.unlocks.get());
+        // 第2次移交达到上限，释放redis锁，下一个本地等待者重新加锁
+        releaseFirst.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(2, remote.locks.get());
+        assertEquals(2, remote.unlocks.get());
+        assertRemoteFree(name);
+    }
+
+    @Test
+    void orphanedHandoffIsReleasedByLastLeavingThread() throws Exception {
+        LocalQueueLockStrategy strategy = new LocalQueueLockStrategy(remote, false, 16);
+        String name = lockName();
+        // 持有者释放时等待者恰好超时，redis锁移交后无人持有；多次重复以覆盖两种先后顺序
+        for (int i = 0; i < 50; i++) {
+            strategy.lock(name, -1, TimeUnit.SECONDS);
+            Future<?> waiter = EXECUTOR.submit(() -> {
+                if (strategy.tryLock(name, 20, -1, TimeUnit.MILLISECONDS)) {
+                    strategy.unlock(name);
+                }
+                return null;
+            });
+            Thread.sleep(20);
+            strategy.unlock(name);
+            waiter.get(5, TimeUnit.SECONDS);
+            assertEquals(remote.locks.get(), remote.unlocks.get());
+            assertRemoteFree(name);
+        }
+    }
+
+    @Test
+    void interruptedRemoteWaitReleasesLateAcquisition() throws Exception {
+        LocalQueueLockStrategy strategy = new LocalQueueLockStrategy(remote, true, 16);
+        String name = lockName();
+        long otherNode = LockOwnerIds.next();
+        assertTrue(tryLock(remote, name, otherNode));
+
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            started.countDown();
+            try {
+                strategy.tryLock(name, 30, -1, TimeUnit.SECONDS);
+            } catch (Throwable e) {
+                thrown.set(e);
+            }
+        });
+        thread.start();
+        started.await();
+        Thread.sleep(100);
+        thread.interrupt();
+        thread.join(5000);
+        assertTrue(thrown.get() instanceof InterruptedException);
+
+        // 被中断后仍在进行的redis加锁完成时立即释放，本地锁也已释放
+        unlock(remote, name, otherNode);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (remote.unlocks.get() < 2) {
+            assertTrue(System.currentTimeMillis() < deadline, "late acquisition not released");
+            Thread.sleep(10);
+        }
+        assertRemoteFree(name);
+        assertTrue(EXECUTOR.submit(() -> {
+            boolean locked = strategy.tryLock(name, 0, -1, TimeUnit.SECONDS);
+            strategy.unlock(name);
+            return locked;
+        }).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void leasedLockIsNeverHandedOff() throws Exception {
+        LocalQueueLockStrategy strategy = new LocalQueueLockStrategy(remote, true, 16);
+        String name = lockName();
+        strategy.lock(name, 10, TimeUnit.SECONDS);
+        Future<?> waiter = EXECUTOR.submit(() -> {
+            strategy.lock(name, 10, TimeUnit.SECONDS);
+            strategy.unlock(name);
+        });
+        Thread.sleep(100);
+
+        strategy.unlock(name);
+        waiter.get(5, TimeUnit.SECONDS);
+        // 每个持有者都重新加锁、释放redis锁，不会超出各自的持有时间
+        assertEquals(2, remote.locks.get());
+        assertEquals(2, remote.unlocks.get());
+        assertRemoteFree(name);
+    }
+
+    @Test
+    void relockBeforeAsyncReleaseLandsIsReentry() throws Exception {
+        LocalQueueLockStrategy strategy = new LocalQueueLockStrategy(remote, true, 16);
+        String name = lockName();
+        strategy.lock(name, -1, TimeUnit.SECONDS);
+        CompletableFuture<Void> gate = new CompletableFuture<>();
+        remote.unlockGate = gate;
+        CompletableFuture<Void> released = strategy.releaseAsync(name);
+        assertFalse(released.isDone());
+
+        // 释放尚未到达redis，当前线程沿用同一持有者id重新加锁，只是一次重入
+        assertTrue(strategy.tryLock(name, 0, -1, TimeUnit.SECONDS));
+        gate.complete(null);
+        released.get(5, TimeUnit.SECONDS);
+        assertFalse(tryLock(remote, name, LockOwnerIds.next()));
+
+        strategy.unlock(name);
+        assertEquals(2, remote.locks.get());
+        assertEquals(2, remote.unlocks.get());
+        assertRemoteFree(name);
+    }
+
+    /**
+     * redis锁未被持有：其他持有者可以加锁
+     */
+    private void assertRemoteFree(String name) {
+        long other = LockOwnerIds.next();
+        assertTrue(tryLock(remote, name, other));
+        unlock(remote, name, other);
+        remote.locks.decrementAndGet();
+        remote.unlocks.decrementAndGet();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String lockName() {
+        return "lock:local-queue:" + UUID.randomUUID();
+    }
+
+    /**
+     * 统计加锁、释放次数的redis锁策略，释放可暂缓到unlockGate完成后才发出
+     */
+    private static final class CountingStrategy implements LockStrategy {
+        private final LockStrategy delegate;
+        private final AtomicInteger locks = new AtomicInteger();
+        private final AtomicInteger unlocks = new AtomicInteger();
+        private volatile CompletableFuture<Void> unlockGate = CompletableFuture.completedFuture(null);
+
+        CountingStrategy(LockStrategy delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void lock(String lockName, long leaseTime, TimeUnit unit) {
+            LockFutures.join(lockAsync(lockName, leaseTime, unit, Thread.currentThread().getId()));
+        }
+
+        @Override
+        public boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit) {
+            return LockFutures.join(tryLockAsync(lockName, waitTime, leaseTime, unit,
+                    Thread.currentThread().getId()));
+        }
+
+        @Override
+        public void unlock(String lockName) {
+            LockFutures.join(unlockAsync(lockName, Thread.currentThread().getId()));
+        }
+
+        @Override
+        public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+            return delegate.lockAsync(lockName, leaseTime, unit, ownerId).thenRun(locks::incrementAndGet);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                                       long ownerId) {
+            return delegate.tryLockAsync(lockName, waitTime, leaseTime, unit, ownerId).thenApply(locked -> {
+                if (locked) {
+                    locks.incrementAndGet();
+                }
+                return locked;
+            });
+        }
+
+        @Override
+        public CompletableFuture<Void> unlockAsync(String lockName, long ownerId) {
+            return unlockGate.thenCompose(gate -> delegate.unlockAsync(lockName, ownerId))
+                    .thenRun(unlocks::incrementAndGet);
+        }
+    }
+}
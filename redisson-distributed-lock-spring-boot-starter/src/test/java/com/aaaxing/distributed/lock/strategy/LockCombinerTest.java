@@ -0,0 +1,219 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import com.aaaxing.distributed.lock.exception.DistributedLockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.tryLock;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.unlock;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 锁合并执行器：按提交顺序在锁内执行、单轮任务数与持锁时间上限、任务异常互不影响、加锁失败时任务以status=3失败
+ *
+ * <br>先由其他持有者占用锁，使任务在第一轮加锁前全部排队，轮数由加锁次数确定
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class LockCombinerTest {
+    private final CountingLockStrategy strategy = new CountingLockStrategy(
+            RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.LOCK));
+    private final List<LockCombiner> combiners = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        combiners.forEach(LockCombiner::shutdown);
+    }
+
+    @Test
+    void tasksRunInSubmissionOrderWhileHoldingTheLock() throws Exception {
+        LockCombiner combiner = combiner(strategy, 16, 1, TimeUnit.SECONDS);
+        String name = lockName();
+        List<Integer> executed = new ArrayList<>();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int index = i;
+            results.add(combiner.submit(name, () -> {
+                assertFalse(tryLock(strategy, name, LockOwnerIds.next()));
+                executed.add(index);
+                return index;
+            }));
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).get(10, TimeUnit.SECONDS));
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, executed);
+        // 最后一轮执行完任务后异步释放锁
+        long other = LockOwnerIds.next();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!tryLock(strategy, name, other)) {
+            assertTrue(System.currentTimeMillis() < deadline, "combined lock not released");
+            Thread.sleep(10);
+        }
+        unlock(strategy, name, other);
+    }
+
+    @Test
+    void roundIsLimitedByBatchSize() throws Exception {
+        LockCombiner combiner = combiner(strategy, 4, 10, TimeUnit.SECONDS);
+        String name = lockName();
+        CompletableFuture<?>[] results = submitWhileHeld(combiner, name, 10, 0);
+
+        CompletableFuture.allOf(results).get(10, TimeUnit.SECONDS);
+        assertEquals(3, strategy.locks.get());
+    }
+
+    @Test
+    void roundIsLimitedByBatchTime() throws Exception {
+        LockCombiner combiner = combiner(strategy, 100, 1, TimeUnit.MILLISECONDS);
+        String name = lockName();
+        CompletableFuture<?>[] results = submitWhileHeld(combiner, name, 5, 5);
+
+        CompletableFuture.allOf(results).get(10, TimeUnit.SECONDS);
+        // 每轮执行完第一个任务即超过持锁时间上限
+        assertEquals(5, strategy.locks.get());
+    }
+
+    @Test
+    void failingTaskDoesNotAffectOthers() throws Exception {
+        LockCombiner combiner = combiner(strategy, 16, 1, TimeUnit.SECONDS);
+        String name = lockName();
+        IllegalStateException failure = new IllegalStateException("task failed");
+        CompletableFuture<Integer> first = combiner.submit(name, () -> 1);
+        CompletableFuture<Integer> failed = combiner.submit(name, () -> {
+            throw failure;
+        });
+        CompletableFuture<Integer> last = combiner.submit(name, () -> 3);
+
+        assertEquals(1, first.get(10, TimeUnit.SECONDS));
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> failed.get(10, TimeUnit.SECONDS));
+        assertSame(failure, thrown.getCause());
+        assertEquals(3, last.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void lockFailureFailsQueuedTasks() {
+        IllegalStateException failure = new IllegalStateException("backend unavailable");
+        LockCombiner combiner = combiner(new CountingLockStrategy(strategy) {
+            @Override
+            public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+                CompletableFuture<Void> future = new CompletableFuture<>();
+                future.completeExceptionally(failure);
+                return future;
+            }
+        }, 16, 1, TimeUnit.SECONDS);
+        AtomicInteger executed = new AtomicInteger();
+
+        CompletableFuture<Integer> result = combiner.submit(lockName(), executed::incrementAndGet);
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+        assertTrue(thrown.getCause() instanceof DistributedLockException);
+        assertEquals(3, ((DistributedLockException) thrown.getCause()).getStatus());
+        assertSame(failure, thrown.getCause().getCause());
+        assertEquals(0, executed.get());
+    }
+
+    private LockCombiner combiner(LockStrategy lockStrategy, int maxBatchSize, long maxBatchTime, TimeUnit unit) {
+        LockCombiner combiner = new LockCombiner(lockStrategy, maxBatchSize, maxBatchTime, unit);
+        combiners.add(combiner);
+        return combiner;
+    }
+
+    /**
+     * 由其他持有者占用锁时提交任务，全部排队后释放锁，加锁计数只含合并执行器的加锁
+     */
+    private CompletableFuture<?>[] submitWhileHeld(LockCombiner combiner, String name, int tasks, long taskMillis)
+            throws Exception {
+        long holder = LockOwnerIds.next();
+        assertTrue(tryLock(strategy.delegate, name, holder));
+        CompletableFuture<?>[] results = new CompletableFuture<?>[tasks];
+        for (int i = 0; i < tasks; i++) {
+            results[i] = combiner.submit(name, () -> {
+                sleep(taskMillis);
+                return null;
+            });
+        }
+        Thread.sleep(100);
+        assertEquals(1, strategy.locks.get());
+        unlock(strategy.delegate, name, holder);
+        return results;
+    }
+
+    private static String lockName() {
+        return "lock:combiner:" + UUID.randomUUID();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 统计异步加锁次数的锁策略
+     */
+    private static class CountingLockStrategy implements LockStrategy {
+        private final LockStrategy delegate;
+        private final AtomicInteger locks = new AtomicInteger();
+
+        CountingLockStrategy(LockStrategy delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void lock(String lockName, long leaseTime, TimeUnit unit) {
+            delegate.lock(lockName, leaseTime, unit);
+        }
+
+        @Override
+        public boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit)
+                throws InterruptedException {
+            return delegate.tryLock(lockName, waitTime, leaseTime, unit);
+        }
+
+        @Override
+        public void unlock(String lockName) {
+            delegate.unlock(lockName);
+        }
+
+        @Override
+        public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+            locks.incrementAndGet();
+            return delegate.lockAsync(lockName, leaseTime, unit, ownerId);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                                       long ownerId) {
+            return delegate.tryLockAsync(lockName, waitTime, leaseTime, unit, ownerId);
+        }
+
+        @Override
+        public CompletableFuture<Void> unlockAsync(String lockName, long ownerId) {
+            return delegate.unlockAsync(lockName, ownerId);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.tryLock;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.unlock;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 锁脚本以EVALSHA调用：脚本不在redis中时回退为EVAL，预热只加载本组件的脚本、不修改redisson客户端的配置
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class LockScriptTest {
+
+    @Test
+    void missingScriptFallsBackToEval() {
+        RScript script = EmbeddedRedis.redisson().getScript(StringCodec.INSTANCE);
+        LockScript lockScript = new LockScript("return ARGV[1] .. '" + UUID.randomUUID() + "';");
+
+        assertFalse(script.scriptExists(lockScript.getSha()).get(0));
+        String value = LockFutures.join(lockScript.evalAsync(script, "lock:script", RScript.Mode.READ_ONLY,
+                RScript.ReturnType.VALUE, Collections.emptyList(), "value:"));
+        assertTrue(value.startsWith("value:"));
+        assertTrue(script.scriptExists(lockScript.getSha()).get(0));
+        assertEquals(script.scriptLoad(lockScript.getLua()), lockScript.getSha());
+    }
+
+    @Test
+    void renewalReloadsFlushedScripts() throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        LockRenewalService renewalService = new LockRenewalService(EmbeddedRedis.redisson(),
+                (lockName, ownerId, cause) -> failures.incrementAndGet());
+        LockStrategy strategy = RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.LOCK, renewalService);
+        String name = "lock:script:" + UUID.randomUUID();
+        long owner = LockOwnerIds.next();
+        try {
+            assertTrue(strategy.tryLockAsync(name, 0, -1, TimeUnit.SECONDS, owner).get(5, TimeUnit.SECONDS));
+            EmbeddedRedis.redisson().getScript().scriptFlush();
+            renewalService.renewAll();
+            assertEquals(0, failures.get());
+            assertTrue(EmbeddedRedis.redisson().getScript(StringCodec.INSTANCE).scriptExists(
+                    LockRenewalService.SCRIPTS.get(0).getSha()).get(0));
+            unlock(strategy, name, owner);
+        } finally {
+            renewalService.shutdown();
+        }
+    }
+
+    @Test
+    void warmUpLoadsScriptsWithoutChangingClientConfig() {
+        RedissonClient redisson = EmbeddedRedis.newClient();
+        RedissonLockProvider provider = new RedissonLockProvider(redisson, new DistributedLockProperties(), null);
+        try {
+            redisson.getScript().scriptFlush();
+            provider.warmUp();
+
+            assertFalse(((Redisson) redisson).getConnectionManager().getCfg().isUseScriptCache());
+            RScript script = redisson.getScript(StringCodec.INSTANCE);
+            for (LockScript lockScript : HandoffLockStrategy.SCRIPTS) {
+                assertTrue(script.scriptExists(lockScript.getSha()).get(0));
+            }
+            String name = "lock:script:" + UUID.randomUUID();
+            long owner = LockOwnerIds.next();
+            LockStrategy handoff = provider.getLockStrategy(Type.HANDOFF_LOCK);
+            assertTrue(tryLock(handoff, name, owner));
+            unlock(handoff, name, owner);
+        } finally {
+            provider.close();
+            redisson.shutdown();
+        }
+    }
+}
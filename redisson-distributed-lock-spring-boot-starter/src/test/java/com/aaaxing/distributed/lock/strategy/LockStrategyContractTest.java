@@ -0,0 +1,241 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 互斥锁策略的公共用例：加锁、重入、释放、持有时间过期、自动续期、等待者放弃（超时与中断）
+ *
+ * <br>不同持有者以异步接口的持有者id区分，同步接口的持有者为当前线程
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+public abstract class LockStrategyContractTest {
+
+    /**
+     * 被测的锁策略
+     */
+    protected abstract LockStrategy strategy();
+
+    /**
+     * 本次用例独有的锁名
+     */
+    protected String lockName() {
+        return "lock:contract:" + UUID.randomUUID();
+    }
+
+    @Test
+    void acquireExcludesOtherOwners() {
+        LockStrategy strategy = strategy();
+        String name = lockName();
+        long first = LockOwnerIds.next();
+        long second = LockOwnerIds.next();
+
+        assertTrue(tryLock(strategy, name, first));
+        assertFalse(tryLock(strategy, name, second));
+        unlock(strategy, name, first);
+        assertTrue(tryLock(strategy, name, second));
+        unlock(strategy, name, second);
+    }
+
+    @Test
+    void reentrantAcquireNeedsMatchingReleases() {
+        LockStrategy strategy = strategy();
+        String name = lockName();
+        long owner = LockOwnerIds.next();
+        long other = LockOwnerIds.next();
+
+        assertTrue(tryLock(strategy, name, owner));
+        assertTrue(tryLock(strategy, name, owner));
+        unlock(strategy, name, owner);
+        assertFalse(tryLock(strategy, name, other));
+        unlock(strategy, name, owner);
+        assertTrue(tryLock(strategy, name, other));
+        unlock(strategy, name, other);
+    }
+
+    @Test
+    void releaseByOtherOwnerFails() {
+        LockStrategy strategy = strategy();
+        String name = lockName();
+        long owner = LockOwnerIds.next();
+        long other = LockOwnerIds.next();
+
+        assertTrue(tryLock(strategy, name, owner));
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> strategy.unlockAsync(name, other).get(5, TimeUnit.SECONDS));
+        assertTrue(LockFutures.unwrap(e) instanceof IllegalMonitorStateException);
+        assertFalse(tryLock(strategy, name, other));
+        unlock(strategy, name, owner);
+    }
+
+    @Test
+    void waiterAcquiresAfterRelease() throws Exception {
+        LockStrategy strategy = strategy();
+        String name = lockName();
+        long owner = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+
+        assertTrue(tryLock(strategy, name, owner));
+        CompletableFuture<Boolean> waiting = strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, waiter);
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+        unlock(strategy, name, owner);
+        assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        unlock(strategy, name, waiter);
+    }
+
+    @Test
+    void blockingLockWaitsForRelease() throws Exception {
+        LockStrategy strategy = strategy();
+        String name = lockName();
+        long owner = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+
+        assertTrue(tryLock(strategy, name, owner));
+        CompletableFuture<Void> waiting = strategy.lockAsync(name, -1, TimeUnit.SECONDS, waiter);
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+        unlock(strategy, name, owner);
+        waiting.get(5, TimeUnit.SECONDS);
+        assertFalse(tryLock(strategy, name, owner));
+        unlock(strategy, name, waiter);
+    }
+
+    @Test
+    void leaseExpires() throws Exception {
+        LockStrategy strategy = strategy();
+        String name = lockName();
+        long owner = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+
+        assertTrue(LockFutures.join(strategy.tryLockAsync(name, 0, 300, TimeUnit.MILLISECONDS, owner)));
+        long start = System.nanoTime();
+        assertTrue(strategy.tryLockAsync(name, 5, 30, TimeUnit.SECONDS, waiter).get(10, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(150));
+        unlock(strategy, name, waiter);
+    }
+
+    @Test
+    void autoRenewedLeaseOutlivesWatchdogTimeout() throws Exception {
+        LockStrategy strategy = strategy();
+        String name = lockName();
+        long owner = LockOwnerIds.next();
+        long other = LockOwnerIds.next();
+
+        strategy.lockAsync(name, -1, TimeUnit.SECONDS, owner).get(5, TimeUnit.SECONDS);
+        Thread.sleep(EmbeddedRedis.WATCHDOG_TIMEOUT_MILLIS * 2);
+        assertFalse(tryLock(strategy, name, other));
+        unlock(strategy, name, owner);
+        assertTrue(tryLock(strategy, name, other));
+        unlock(strategy, name, other);
+    }
+
+    @Test
+    void synchronousLockIsOwnedByCurrentThread() throws Exception {
+        LockStrategy strategy = strategy();
+        String name = lockName();
+
+        strategy.lock(name, -1, TimeUnit.SECONDS);
+        try {
+            assertFalse(inOtherThread(() -> strategy.tryLock(name, 0, -1, TimeUnit.SECONDS)));
+            assertTrue(strategy.tryLock(name, 0, -1, TimeUnit.SECONDS));
+            strategy.unlock(name);
+        } finally {
+            strategy.unlock(name);
+        }
+        assertTrue(inOtherThread(() -> {
+            boolean locked = strategy.tryLock(name, 0, -1, TimeUnit.SECONDS);
+            strategy.unlock(name);
+            return locked;
+        }));
+    }
+
+    @Test
+    void timedOutWaiterDoesNotBlockLaterWaiters() throws Exception {
+        LockStrategy strategy = strategy();
+        String name = lockName();
+        long owner = LockOwnerIds.next();
+        long abandoned = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+
+        assertTrue(tryLock(strategy, name, owner));
+        assertFalse(strategy.tryLockAsync(name, 200, -1, TimeUnit.MILLISECONDS, abandoned).get(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> waiting = strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, waiter);
+        unlock(strategy, name, owner);
+        assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        unlock(strategy, name, waiter);
+    }
+
+    @Test
+    void interruptedWaiterGivesUp() throws Exception {
+        LockStrategy strategy = strategy();
+        String name = lockName();
+        long owner = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+        assertTrue(tryLock(strategy, name, owner));
+
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            started.countDown();
+            try {
+                strategy.tryLock(name, 30, -1, TimeUnit.SECONDS);
+            } catch (Throwable e) {
+                thrown.set(e);
+            }
+        });
+        thread.start();
+        started.await();
+        Thread.sleep(100);
+        thread.interrupt();
+        thread.join(5000);
+        assertFalse(thread.isAlive());
+        assertTrue(thrown.get() instanceof InterruptedException);
+
+        // redisson公平锁在被中断的等待者的排队超时（默认5秒）后才跳过它
+        CompletableFuture<Boolean> waiting = strategy.tryLockAsync(name, 30, -1, TimeUnit.SECONDS, waiter);
+        unlock(strategy, name, owner);
+        assertTrue(waiting.get(20, TimeUnit.SECONDS));
+        unlock(strategy, name, waiter);
+    }
+
+    static boolean tryLock(LockStrategy strategy, String name, long ownerId) {
+        return LockFutures.join(strategy.tryLockAsync(name, 0, -1, TimeUnit.SECONDS, ownerId));
+    }
+
+    static void unlock(LockStrategy strategy, String name, long ownerId) {
+        LockFutures.join(strategy.unlockAsync(name, ownerId));
+    }
+
+    static <T> T inOtherThread(Task<T> task) throws Exception {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                result.complete(task.run());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        thread.start();
+        return result.get(10, TimeUnit.SECONDS);
+    }
+
+    @FunctionalInterface
+    interface Task<T> {
+        T run() throws Exception;
+    }
+}
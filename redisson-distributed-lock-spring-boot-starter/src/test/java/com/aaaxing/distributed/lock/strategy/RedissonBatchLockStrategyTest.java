@@ -0,0 +1,263 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.inOtherThread;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.tryLock;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.unlock;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 基于redisson的批量锁：与同名单锁互斥，等待者由对方释放锁时的通知唤醒，而不是等到锁过期
+ *
+ * <br>持有者的锁持有时间远长于断言的唤醒时间，等待者只能经解锁通知及时加锁
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class RedissonBatchLockStrategyTest {
+    private static final long LEASE_SECONDS = 30;
+    private static final long WAKE_UP_MILLIS = 2000;
+    private static final LockRenewalService RENEWAL_SERVICE = new LockRenewalService(EmbeddedRedis.redisson(), null);
+    private static final SharedChannelLockStrategy SHARED_CHANNEL_LOCK = new SharedChannelLockStrategy(
+            EmbeddedRedis.redisson(), RENEWAL_SERVICE, 4);
+
+    @AfterAll
+    static void shutdown() {
+        SHARED_CHANNEL_LOCK.close();
+        RENEWAL_SERVICE.shutdown();
+    }
+
+    @Nested
+    class RedissonChannels extends Contract {
+        @Override
+        BatchLockStrategy batch() {
+            return new RedissonBatchLockStrategy(EmbeddedRedis.redisson(), RENEWAL_SERVICE);
+        }
+
+        @Override
+        LockStrategy single() {
+            return RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.LOCK);
+        }
+    }
+
+    @Nested
+    class SharedChannels extends Contract {
+        @Override
+        BatchLockStrategy batch() {
+            return new RedissonBatchLockStrategy(EmbeddedRedis.redisson(), RENEWAL_SERVICE, 4);
+        }
+
+        @Override
+        LockStrategy single() {
+            return SHARED_CHANNEL_LOCK;
+        }
+    }
+
+    abstract static class Contract {
+        abstract BatchLockStrategy batch();
+
+        /**
+         * 与批量锁同一存储结构、同一通知频道的单锁
+         */
+        abstract LockStrategy single();
+
+        @Test
+        void batchExcludesOtherOwnersAndIsReentrant() throws Exception {
+            BatchLockStrategy batch = batch();
+            List<String> names = names(2);
+
+            batch.lockAll(names, -1, TimeUnit.SECONDS);
+            batch.lockAll(names, -1, TimeUnit.SECONDS);
+            assertFalse(inOtherThread(() -> batch.tryLockAll(names, 0, -1, TimeUnit.SECONDS)));
+            batch.unlockAll(names);
+            assertFalse(inOtherThread(() -> batch.tryLockAll(names, 0, -1, TimeUnit.SECONDS)));
+            batch.unlockAll(names);
+            assertTrue(inOtherThread(() -> tryLockAndUnlock(batch, names, 0)));
+        }
+
+        @Test
+        void batchWaiterWakesOnSingleRelease() throws Exception {
+            BatchLockStrategy batch = batch();
+            LockStrategy single = single();
+            List<String> names = names(3);
+            long owner = LockOwnerIds.next();
+            assertTrue(LockFutures.join(single.tryLockAsync(names.get(1), 0, LEASE_SECONDS, TimeUnit.SECONDS,
+                    owner)));
+
+            CompletableFuture<Long> acquiredAt = waitInOtherThread(batch, names);
+            Thread.sleep(300);
+            assertFalse(acquiredAt.isDone());
+            long releasedAt = System.nanoTime();
+            unlock(single, names.get(1), owner);
+            assertTrue(acquiredAt.get(LEASE_SECONDS, TimeUnit.SECONDS) - releasedAt
+                    < TimeUnit.MILLISECONDS.toNanos(WAKE_UP_MILLIS));
+        }
+
+        @Test
+        void batchWaiterFollowsTheBlockingLock() throws Exception {
+            BatchLockStrategy batch = batch();
+            LockStrategy single = single();
+            List<String> names = names(2);
+            long first = LockOwnerIds.next();
+            long second = LockOwnerIds.next();
+            assertTrue(LockFutures.join(single.tryLockAsync(names.get(0), 0, LEASE_SECONDS, TimeUnit.SECONDS,
+                    first)));
+            assertTrue(LockFutures.join(single.tryLockAsync(names.get(1), 0, LEASE_SECONDS, TimeUnit.SECONDS,
+                    second)));
+
+            CompletableFuture<Long> acquiredAt = waitInOtherThread(batch, names);
+            Thread.sleep(300);
+            unlock(single, names.get(0), first);
+            Thread.sleep(300);
+            assertFalse(acquiredAt.isDone());
+            long releasedAt = System.nanoTime();
+            unlock(single, names.get(1), second);
+            assertTrue(acquiredAt.get(LEASE_SECONDS, TimeUnit.SECONDS) - releasedAt
+                    < TimeUnit.MILLISECONDS.toNanos(WAKE_UP_MILLIS));
+        }
+
+        @Test
+        void singleWaiterWakesOnBatchRelease() throws Exception {
+            BatchLockStrategy batch = batch();
+            LockStrategy single = single();
+            List<String> names = names(2);
+            long waiter = LockOwnerIds.next();
+            batch.lockAll(names, LEASE_SECONDS, TimeUnit.SECONDS);
+
+            CompletableFuture<Boolean> waiting = single.tryLockAsync(names.get(1), LEASE_SECONDS, -1,
+                    TimeUnit.SECONDS, waiter);
+            Thread.sleep(300);
+            assertFalse(waiting.isDone());
+            batch.unlockAll(names);
+            assertTrue(waiting.get(WAKE_UP_MILLIS, TimeUnit.MILLISECONDS));
+            unlock(single, names.get(1), waiter);
+        }
+
+        @Test
+        void tryLockAllGivesUpAfterWaitTime() throws Exception {
+            BatchLockStrategy batch = batch();
+            LockStrategy single = single();
+            List<String> names = names(2);
+            long owner = LockOwnerIds.next();
+            assertTrue(LockFutures.join(single.tryLockAsync(names.get(0), 0, LEASE_SECONDS, TimeUnit.SECONDS,
+                    owner)));
+
+            long start = System.nanoTime();
+            assertFalse(batch.tryLockAll(names, 200, -1, TimeUnit.MILLISECONDS));
+            long elapsed = System.nanoTime() - start;
+            assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(200));
+            assertTrue(elapsed < TimeUnit.MILLISECONDS.toNanos(WAKE_UP_MILLIS));
+            // 一个都没有加上
+            assertTrue(tryLock(single, names.get(1), LockOwnerIds.next()));
+            unlock(single, names.get(0), owner);
+        }
+
+        @Test
+        void interruptedBatchWaiterGivesUp() throws Exception {
+            BatchLockStrategy batch = batch();
+            LockStrategy single = single();
+            List<String> names = names(2);
+            long owner = LockOwnerIds.next();
+            assertTrue(tryLock(single, names.get(0), owner));
+
+            CountDownLatch started = new CountDownLatch(1);
+            AtomicReference<Throwable> thrown = new AtomicReference<>();
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                try {
+                    batch.tryLockAll(names, LEASE_SECONDS, -1, TimeUnit.SECONDS);
+                } catch (Throwable e) {
+                    thrown.set(e);
+                }
+            });
+            thread.start();
+            started.await();
+            Thread.sleep(300);
+            thread.interrupt();
+            thread.join(5000);
+            assertFalse(thread.isAlive());
+            assertTrue(thrown.get() instanceof InterruptedException);
+            unlock(single, names.get(0), owner);
+        }
+
+        @Test
+        void blockingLockAllKeepsInterruptStatus() throws Exception {
+            BatchLockStrategy batch = batch();
+            LockStrategy single = single();
+            List<String> names = names(1);
+            long owner = LockOwnerIds.next();
+            assertTrue(tryLock(single, names.get(0), owner));
+
+            CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+            Thread thread = new Thread(() -> {
+                batch.lockAll(names, -1, TimeUnit.SECONDS);
+                // redisson的同步命令在线程已中断时失败，解锁前清除中断标记
+                interrupted.complete(Thread.interrupted());
+                batch.unlockAll(names);
+            });
+            thread.start();
+            Thread.sleep(300);
+            thread.interrupt();
+            Thread.sleep(300);
+            assertFalse(interrupted.isDone());
+            unlock(single, names.get(0), owner);
+            assertTrue(interrupted.get(WAKE_UP_MILLIS, TimeUnit.MILLISECONDS));
+        }
+
+        private static List<String> names(int count) {
+            String prefix = "lock:batch:" + UUID.randomUUID() + ":";
+            String[] names = new String[count];
+            for (int i = 0; i < count; i++) {
+                names[i] = prefix + i;
+            }
+            return Collections.unmodifiableList(Arrays.asList(names));
+        }
+
+        private static boolean tryLockAndUnlock(BatchLockStrategy batch, List<String> names, long waitSeconds)
+                throws InterruptedException {
+            boolean locked = batch.tryLockAll(names, waitSeconds, -1, TimeUnit.SECONDS);
+            if (locked) {
+                batch.unlockAll(names);
+            }
+            return locked;
+        }
+
+        /**
+         * 在另一线程等待批量加锁
+         *
+         * @return 加锁成功的时刻（纳秒），批量锁随后在同一线程释放
+         */
+        private static CompletableFuture<Long> waitInOtherThread(BatchLockStrategy batch, List<String> names) {
+            CompletableFuture<Long> acquiredAt = new CompletableFuture<>();
+            new Thread(() -> {
+                try {
+                    if (!batch.tryLockAll(names, LEASE_SECONDS, -1, TimeUnit.SECONDS)) {
+                        acquiredAt.completeExceptionally(new AssertionError("Batch lock timed out"));
+                        return;
+                    }
+                    acquiredAt.complete(System.nanoTime());
+                    batch.unlockAll(names);
+                } catch (Throwable e) {
+                    acquiredAt.completeExceptionally(e);
+                }
+            }).start();
+            return acquiredAt;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.inOtherThread;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.tryLock;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.unlock;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 基于redisson的锁策略，分别由redisson看门狗与批量续期服务续期
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class RedissonLockStrategyTest {
+    private static final LockRenewalService RENEWAL_SERVICE = new LockRenewalService(EmbeddedRedis.redisson(), null);
+
+    @AfterAll
+    static void shutdown() {
+        RENEWAL_SERVICE.shutdown();
+    }
+
+    @Nested
+    class Lock extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.LOCK);
+        }
+    }
+
+    @Nested
+    class FairLock extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.FAIR_LOCK);
+        }
+    }
+
+    @Nested
+    class WriteLock extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.WRITE_LOCK);
+        }
+    }
+
+    @Nested
+    class BatchRenewedLock extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.LOCK, RENEWAL_SERVICE);
+        }
+    }
+
+    @Nested
+    class BatchRenewedFairLock extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.FAIR_LOCK, RENEWAL_SERVICE);
+        }
+    }
+
+    @Test
+    void readLocksAreSharedAndExcludeWriters() throws Exception {
+        LockStrategy read = RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.READ_LOCK);
+        LockStrategy write = RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.WRITE_LOCK);
+        String name = "lock:read:" + UUID.randomUUID();
+        long firstReader = LockOwnerIds.next();
+        long secondReader = LockOwnerIds.next();
+        long writer = LockOwnerIds.next();
+
+        assertTrue(tryLock(read, name, firstReader));
+        assertTrue(tryLock(read, name, secondReader));
+        assertFalse(tryLock(write, name, writer));
+        unlock(read, name, firstReader);
+        CompletableFuture<Boolean> waiting = write.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, writer);
+        unlock(read, name, secondReader);
+        assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        assertFalse(tryLock(read, name, firstReader));
+        unlock(write, name, writer);
+    }
+
+    @Test
+    void waitTimeIsRoundedUpToMillis() {
+        assertEquals(1, RedissonLockStrategy.waitMillis(500, TimeUnit.MICROSECONDS));
+        assertEquals(2, RedissonLockStrategy.waitMillis(1500, TimeUnit.MICROSECONDS));
+        assertEquals(2, RedissonLockStrategy.waitMillis(2, TimeUnit.MILLISECONDS));
+        assertEquals(3000, RedissonLockStrategy.waitMillis(3, TimeUnit.SECONDS));
+        assertEquals(0, RedissonLockStrategy.waitMillis(0, TimeUnit.SECONDS));
+        assertEquals(-1, RedissonLockStrategy.waitMillis(-1, TimeUnit.SECONDS));
+        assertEquals(Long.MAX_VALUE, RedissonLockStrategy.waitMillis(Long.MAX_VALUE, TimeUnit.DAYS));
+    }
+
+    @Test
+    void subMillisecondWaitAcquiresFreeLock() throws Exception {
+        String name = "lock:sub-millis:" + UUID.randomUUID();
+        for (LockStrategy strategy : new LockStrategy[]{RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.LOCK),
+                RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.LOCK, RENEWAL_SERVICE)}) {
+            long owner = LockOwnerIds.next();
+            assertTrue(strategy.tryLockAsync(name, 500, -1, TimeUnit.MICROSECONDS, owner).get(5, TimeUnit.SECONDS));
+            assertFalse(strategy.tryLockAsync(name, 500, -1, TimeUnit.MICROSECONDS, LockOwnerIds.next())
+                    .get(5, TimeUnit.SECONDS));
+            unlock(strategy, name, owner);
+        }
+    }
+
+    @Test
+    void relockBeforeAsyncReleaseLandsKeepsLockRenewed() throws Exception {
+        for (LockStrategy strategy : new LockStrategy[]{RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.LOCK),
+                RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.LOCK, RENEWAL_SERVICE)}) {
+            String name = "lock:release-async:" + UUID.randomUUID();
+            strategy.lock(name, -1, TimeUnit.SECONDS);
+            CompletableFuture<Void> released = strategy.releaseAsync(name);
+            // 不等待释放完成即重新加锁，无论二者以何种顺序到达redis，当前线程都持有锁且仍在续期
+            assertTrue(strategy.tryLock(name, 0, -1, TimeUnit.SECONDS));
+            released.get(5, TimeUnit.SECONDS);
+            Thread.sleep(EmbeddedRedis.WATCHDOG_TIMEOUT_MILLIS + 500);
+            assertFalse(inOtherThread(() -> strategy.tryLock(name, 0, -1, TimeUnit.SECONDS)));
+
+            strategy.unlock(name);
+            assertTrue(inOtherThread(() -> {
+                boolean locked = strategy.tryLock(name, 0, -1, TimeUnit.SECONDS);
+                strategy.unlock(name);
+                return locked;
+            }));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.inOtherThread;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 信号量策略：许可数上限、释放归还、等待、持有时间过期与自动续期
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class SemaphoreStrategyTest {
+    private static final LockRenewalService RENEWAL_SERVICE = new LockRenewalService(EmbeddedRedis.redisson(), null);
+
+    @AfterAll
+    static void shutdown() {
+        RENEWAL_SERVICE.shutdown();
+    }
+
+    @Nested
+    class Redisson extends Contract {
+        @Override
+        SemaphoreStrategy strategy() {
+            return new RedissonSemaphoreStrategy(EmbeddedRedis.redisson(), RENEWAL_SERVICE);
+        }
+
+        @Test
+        void permitsAndLocksAreRenewedInOneBatch() throws Exception {
+            SemaphoreStrategy strategy = strategy();
+            String name = name();
+            String lockName = "lock:renewal:" + UUID.randomUUID();
+            long owner = LockOwnerIds.next();
+            LockStrategy lock = RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.LOCK, RENEWAL_SERVICE);
+
+            String permitId = strategy.acquire(name, 1, -1, TimeUnit.SECONDS);
+            LockFutures.join(lock.lockAsync(lockName, -1, TimeUnit.SECONDS, owner));
+            Thread.sleep(EmbeddedRedis.WATCHDOG_TIMEOUT_MILLIS * 2);
+            RENEWAL_SERVICE.renewAll();
+            assertNull(strategy.tryAcquire(name, 1, 0, -1, TimeUnit.SECONDS));
+            assertFalse(LockFutures.join(lock.tryLockAsync(lockName, 0, -1, TimeUnit.SECONDS,
+                    LockOwnerIds.next())));
+            strategy.release(name, permitId);
+            LockFutures.join(lock.unlockAsync(lockName, owner));
+        }
+    }
+
+    @Nested
+    class Local extends Contract {
+        @Override
+        SemaphoreStrategy strategy() {
+            return new LocalSemaphoreStrategy(4);
+        }
+    }
+
+    abstract static class Contract {
+        abstract SemaphoreStrategy strategy();
+
+        @Test
+        void permitsAreLimitedAndReturnedOnRelease() throws Exception {
+            SemaphoreStrategy strategy = strategy();
+            String name = name();
+
+            String first = strategy.tryAcquire(name, 2, 0, -1, TimeUnit.SECONDS);
+            String second = strategy.tryAcquire(name, 2, 0, -1, TimeUnit.SECONDS);
+            assertNotNull(first);
+            assertNotNull(second);
+            assertNull(strategy.tryAcquire(name, 2, 0, -1, TimeUnit.SECONDS));
+            strategy.release(name, first);
+            String third = strategy.tryAcquire(name, 2, 0, -1, TimeUnit.SECONDS);
+            assertNotNull(third);
+            strategy.release(name, second);
+            strategy.release(name, third);
+        }
+
+        @Test
+        void releasingUnknownPermitFails() throws Exception {
+            SemaphoreStrategy strategy = strategy();
+            String name = name();
+            String permitId = strategy.tryAcquire(name, 1, 0, -1, TimeUnit.SECONDS);
+
+            strategy.release(name, permitId);
+            // redisson的同步调用把IllegalArgumentException包装为RedisException
+            assertThrows(RuntimeException.class, () -> strategy.release(name, permitId));
+        }
+
+        @Test
+        void waiterAcquiresAfterRelease() throws Exception {
+            SemaphoreStrategy strategy = strategy();
+            String name = name();
+            String permitId = strategy.acquire(name, 1, -1, TimeUnit.SECONDS);
+
+            CompletableFuture<String> waiting = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return strategy.tryAcquire(name, 1, 10, -1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Thread.sleep(100);
+            assertFalse(waiting.isDone());
+            strategy.release(name, permitId);
+            String next = waiting.get(5, TimeUnit.SECONDS);
+            assertNotNull(next);
+            strategy.release(name, next);
+        }
+
+        @Test
+        void waiterGivesUpAfterWaitTime() throws Exception {
+            SemaphoreStrategy strategy = strategy();
+            String name = name();
+            String permitId = strategy.acquire(name, 1, -1, TimeUnit.SECONDS);
+
+            assertNull(inOtherThread(() -> strategy.tryAcquire(name, 1, 200, -1, TimeUnit.MILLISECONDS)));
+            strategy.release(name, permitId);
+        }
+
+        @Test
+        void leasedPermitExpires() throws Exception {
+            SemaphoreStrategy strategy = strategy();
+            String name = name();
+
+            assertNotNull(strategy.tryAcquire(name, 1, 0, 300, TimeUnit.MILLISECONDS));
+            String next = strategy.tryAcquire(name, 1, 5, -1, TimeUnit.SECONDS);
+            assertNotNull(next);
+            strategy.release(name, next);
+        }
+
+        @Test
+        void autoRenewedPermitOutlivesWatchdogTimeout() throws Exception {
+            SemaphoreStrategy strategy = strategy();
+            String name = name();
+
+            String permitId = strategy.acquire(name, 1, -1, TimeUnit.SECONDS);
+            Thread.sleep(EmbeddedRedis.WATCHDOG_TIMEOUT_MILLIS * 2);
+            assertNull(strategy.tryAcquire(name, 1, 0, -1, TimeUnit.SECONDS));
+            strategy.release(name, permitId);
+            String next = strategy.tryAcquire(name, 1, 0, -1, TimeUnit.SECONDS);
+            assertNotNull(next);
+            strategy.release(name, next);
+        }
+
+        static String name() {
+            return "semaphore:contract:" + UUID.randomUUID();
+        }
+    }
+}
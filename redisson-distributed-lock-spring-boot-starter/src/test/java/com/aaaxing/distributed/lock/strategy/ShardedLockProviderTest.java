@@ -0,0 +1,131 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.tryLock;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.unlock;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分片锁提供者：两个本地分片验证路由与批量锁分组，两个redis分片（同一redis的不同客户端）验证锁策略
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class ShardedLockProviderTest {
+    private static final LocalLockProvider FIRST = new LocalLockProvider();
+    private static final LocalLockProvider SECOND = new LocalLockProvider();
+    private static final ShardedLockProvider LOCAL = new ShardedLockProvider(shards(FIRST, SECOND),
+            ShardedLockProvider.DEFAULT_VIRTUAL_NODES);
+    private static final ShardedLockProvider REDISSON = redissonShards();
+
+    @AfterAll
+    static void close() {
+        REDISSON.close();
+    }
+
+    @Nested
+    class RedissonLock extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return REDISSON.getLockStrategy(Type.LOCK);
+        }
+    }
+
+    @Nested
+    class LocalLock extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return LOCAL.getLockStrategy(Type.LOCK);
+        }
+    }
+
+    @Test
+    void lockNamesAreSpreadAcrossShardsAndRoutedConsistently() {
+        LockStrategy sharded = LOCAL.getLockStrategy(Type.LOCK);
+        LocalLockStrategy first = (LocalLockStrategy) FIRST.getLockStrategy(Type.LOCK);
+        LocalLockStrategy second = (LocalLockStrategy) SECOND.getLockStrategy(Type.LOCK);
+        Set<Boolean> owners = new HashSet<>();
+        for (int i = 0; i < 64; i++) {
+            String name = "lock:shard:" + i;
+            long owner = LockOwnerIds.next();
+            assertTrue(tryLock(sharded, name, owner));
+            assertTrue(first.isLocked(name) ^ second.isLocked(name));
+            owners.add(first.isLocked(name));
+            assertFalse(tryLock(sharded, name, LockOwnerIds.next()));
+            unlock(sharded, name, owner);
+        }
+        assertEquals(2, owners.size());
+    }
+
+    @Test
+    void batchLocksEveryNameOnItsShard() throws Exception {
+        BatchLockStrategy batch = LOCAL.getBatchLockStrategy();
+        LockStrategy single = LOCAL.getLockStrategy(Type.LOCK);
+        List<String> names = Arrays.asList("lock:batch:a", "lock:batch:b", "lock:batch:c", "lock:batch:d");
+
+        assertTrue(batch.tryLockAll(names, 0, -1, TimeUnit.SECONDS));
+        for (String name : names) {
+            assertFalse(tryLock(single, name, LockOwnerIds.next()));
+        }
+        batch.unlockAll(names);
+        for (String name : names) {
+            long other = LockOwnerIds.next();
+            assertTrue(tryLock(single, name, other));
+            unlock(single, name, other);
+        }
+    }
+
+    @Test
+    void hierarchicalLocksRouteByRoot() {
+        LockStrategy write = REDISSON.getLockStrategy(Type.HIERARCHICAL_WRITE_LOCK);
+        String root = "lock:tree" + UUID.randomUUID();
+        long owner = LockOwnerIds.next();
+        long child = LockOwnerIds.next();
+
+        assertTrue(tryLock(write, root, owner));
+        assertFalse(tryLock(write, root + ":1", child));
+        unlock(write, root, owner);
+        assertTrue(tryLock(write, root + ":1", child));
+        unlock(write, root + ":1", child);
+    }
+
+    @Test
+    void semaphoresAndResultsAreAvailableOnEveryShard() {
+        assertNotNull(REDISSON.getSemaphoreStrategy());
+        assertNotNull(REDISSON.getSingleFlightResults());
+        assertNotNull(REDISSON.getIdempotentResults());
+    }
+
+    private static Map<String, LockProvider> shards(LockProvider first, LockProvider second) {
+        Map<String, LockProvider> shards = new LinkedHashMap<>();
+        shards.put("first", first);
+        shards.put("second", second);
+        return shards;
+    }
+
+    private static ShardedLockProvider redissonShards() {
+        Map<String, org.redisson.api.RedissonClient> clients = new LinkedHashMap<>();
+        clients.put("first", EmbeddedRedis.newClient());
+        clients.put("second", EmbeddedRedis.newClient());
+        return ShardedLockProvider.ofRedisson(clients, new DistributedLockProperties(), null);
+    }
+}
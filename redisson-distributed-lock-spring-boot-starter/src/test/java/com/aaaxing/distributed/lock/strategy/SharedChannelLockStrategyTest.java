@@ -0,0 +1,204 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.misc.RedissonPromise;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.tryLock;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.unlock;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 共享通知频道的可重入锁：释放经共享频道唤醒等待者、没有等待者时记下通知、在本地等待时放弃
+ *
+ * <br>持有者以另一策略实例加锁，持有时间远长于等待时间，等待者只能由通知唤醒；
+ * 等待者的加锁结果可由暂缓回复的redisson客户端推迟送达，制造通知到达时没有等待者的时机
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class SharedChannelLockStrategyTest {
+    private static final int CHANNELS = 4;
+    private static final LockRenewalService RENEWAL_SERVICE = new LockRenewalService(EmbeddedRedis.redisson(), null);
+
+    private final SharedChannelLockStrategy strategy = new SharedChannelLockStrategy(EmbeddedRedis.redisson(),
+            RENEWAL_SERVICE, CHANNELS);
+    private final SharedChannelLockStrategy holderStrategy = new SharedChannelLockStrategy(EmbeddedRedis.redisson(),
+            RENEWAL_SERVICE, CHANNELS);
+
+    @AfterAll
+    static void shutdown() {
+        RENEWAL_SERVICE.shutdown();
+    }
+
+    @Nested
+    class Contract extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return strategy;
+        }
+    }
+
+    @Test
+    void releaseWakesWaiterThroughSharedChannel() throws Exception {
+        String name = lockName();
+        long holder = hold(name);
+        long waiter = LockOwnerIds.next();
+        CompletableFuture<Boolean> waiting = strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, waiter);
+        Thread.sleep(300);
+        assertFalse(waiting.isDone());
+
+        unlock(holderStrategy, name, holder);
+        assertTrue(waiting.get(1, TimeUnit.SECONDS));
+        unlock(strategy, name, waiter);
+    }
+
+    @Test
+    void signalWithoutParkedWaiterIsRemembered() throws Exception {
+        GatedClient client = new GatedClient();
+        SharedChannelLockStrategy gated = new SharedChannelLockStrategy(client.proxy(), RENEWAL_SERVICE, CHANNELS);
+        String name = lockName();
+        long holder = hold(name);
+        long waiter = LockOwnerIds.next();
+        CompletableFuture<Boolean> waiting = gated.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, waiter);
+        Thread.sleep(300);
+
+        // 通知唤醒等待者，其加锁失败的结果被暂缓，等待者不在队列中
+        CompletableFuture<Void> gate = client.arm();
+        publish(name);
+        Thread.sleep(200);
+        // 释放时的通知没有等待者可唤醒，记下通知
+        unlock(holderStrategy, name, holder);
+        Thread.sleep(200);
+        assertFalse(waiting.isDone());
+
+        // 加锁失败的结果送达后，等待者发现已有通知，不进入队列而立即重试
+        gate.complete(null);
+        assertTrue(waiting.get(1, TimeUnit.SECONDS));
+        unlock(gated, name, waiter);
+        gated.close();
+    }
+
+    @Test
+    void cancelledWaiterDoesNotConsumeSignal() throws Exception {
+        String name = lockName();
+        long holder = hold(name);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            started.countDown();
+            try {
+                strategy.tryLock(name, 10, -1, TimeUnit.SECONDS);
+            } catch (Throwable e) {
+                thrown.set(e);
+            }
+        });
+        thread.start();
+        started.await();
+        Thread.sleep(300);
+        long waiter = LockOwnerIds.next();
+        CompletableFuture<Boolean> waiting = strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, waiter);
+        Thread.sleep(300);
+
+        thread.interrupt();
+        thread.join(5000);
+        assertTrue(thrown.get() instanceof InterruptedException);
+        // 放弃的等待者已离开队列，释放时的通知唤醒下一个等待者
+        unlock(holderStrategy, name, holder);
+        assertTrue(waiting.get(1, TimeUnit.SECONDS));
+        unlock(strategy, name, waiter);
+    }
+
+    /**
+     * 以另一策略实例加锁，持有时间30秒，等待者的定时重试不会在用例内发生
+     */
+    private long hold(String name) {
+        long holder = LockOwnerIds.next();
+        assertTrue(LockFutures.join(holderStrategy.tryLockAsync(name, 0, 30, TimeUnit.SECONDS, holder)));
+        return holder;
+    }
+
+    /**
+     * 向锁名所属的共享频道发布一次通知，与释放锁时的通知相同
+     */
+    private static void publish(String name) {
+        EmbeddedRedis.redisson().getTopic(SharedChannelLockStrategy.channelName(name, CHANNELS),
+                StringCodec.INSTANCE).publish(name);
+    }
+
+    private static String lockName() {
+        return "lock:shared:" + UUID.randomUUID();
+    }
+
+    /**
+     * 可暂缓脚本回复的redisson客户端：arm之后的下一次脚本请求照常执行，回复在返回的future完成后才送达
+     */
+    private static final class GatedClient {
+        private final AtomicReference<CompletableFuture<Void>> gate = new AtomicReference<>();
+
+        CompletableFuture<Void> arm() {
+            CompletableFuture<Void> armed = new CompletableFuture<>();
+            gate.set(armed);
+            return armed;
+        }
+
+        RedissonClient proxy() {
+            RedissonClient redisson = EmbeddedRedis.redisson();
+            return (RedissonClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{RedissonClient.class}, (proxy, method, args) -> {
+                        Object value = invoke(redisson, method, args);
+                        if (!"getScript".equals(method.getName())) {
+                            return value;
+                        }
+                        RScript script = (RScript) value;
+                        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{RScript.class},
+                                (scriptProxy, scriptMethod, scriptArgs) -> delay(invoke(script, scriptMethod,
+                                        scriptArgs)));
+                    });
+        }
+
+        private Object delay(Object value) {
+            if (!(value instanceof RFuture)) {
+                return value;
+            }
+            CompletableFuture<Void> armed = gate.getAndSet(null);
+            if (armed == null) {
+                return value;
+            }
+            RedissonPromise<Object> delayed = new RedissonPromise<>();
+            armed.thenRun(() -> ((RFuture<?>) value).whenComplete((reply, e) -> {
+                if (e != null) {
+                    delayed.tryFailure(e);
+                } else {
+                    delayed.trySuccess(reply);
+                }
+            }));
+            return delayed;
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
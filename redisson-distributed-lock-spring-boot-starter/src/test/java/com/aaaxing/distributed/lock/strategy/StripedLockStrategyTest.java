@@ -0,0 +1,73 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import com.aaaxing.distributed.lock.metrics.LockMeters;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.tryLock;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.unlock;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分段锁：不同锁类型使用独立的分段，互斥锁的释放不会删除同一分段序号上读锁的持有；读锁与写锁共用分段，仍然互斥
+ *
+ * <br>分段数为1，所有锁名落到同一分段序号
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class StripedLockStrategyTest {
+    private final LockStripes lockStripes = new LockStripes("lock:" + UUID.randomUUID() + ":");
+    private final LockStrategy lock = striped(Type.LOCK);
+    private final LockStrategy read = striped(Type.READ_LOCK);
+    private final LockStrategy write = striped(Type.WRITE_LOCK);
+
+    @Test
+    void stripeNameIsScopedByLockType() {
+        assertNotEquals(lockStripes.stripeName(Type.LOCK, "a", 1), lockStripes.stripeName(Type.READ_LOCK, "a", 1));
+        assertNotEquals(lockStripes.stripeName(Type.LOCK, "a", 1), lockStripes.stripeName(Type.FAIR_LOCK, "a", 1));
+        assertEquals(lockStripes.stripeName(Type.READ_LOCK, "a", 1), lockStripes.stripeName(Type.WRITE_LOCK, "b", 1));
+    }
+
+    @Test
+    void lockReleaseDoesNotDropReadHoldOnSameStripe() {
+        long locker = LockOwnerIds.next();
+        long reader = LockOwnerIds.next();
+        assertTrue(tryLock(lock, "b", locker));
+        assertTrue(tryLock(read, "a", reader));
+        unlock(lock, "b", locker);
+
+        long writer = LockOwnerIds.next();
+        assertFalse(tryLock(write, "a", writer));
+        unlock(read, "a", reader);
+        assertTrue(tryLock(write, "a", writer));
+        unlock(write, "a", writer);
+    }
+
+    @Test
+    void readAndWriteShareStripes() {
+        long reader = LockOwnerIds.next();
+        long otherReader = LockOwnerIds.next();
+        long locker = LockOwnerIds.next();
+        assertTrue(tryLock(read, "a", reader));
+        assertTrue(tryLock(read, "b", otherReader));
+        assertFalse(tryLock(write, "c", LockOwnerIds.next()));
+        assertTrue(tryLock(lock, "c", locker));
+
+        unlock(lock, "c", locker);
+        unlock(read, "b", otherReader);
+        unlock(read, "a", reader);
+    }
+
+    private LockStrategy striped(Type type) {
+        return new StripedLockStrategy(RedissonLockStrategy.of(EmbeddedRedis.redisson(), type), type, 1, lockStripes,
+                LockMeters.NOOP);
+    }
+}
@@ -0,0 +1,149 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.inOtherThread;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 线程内重入快速路径：嵌套的自动续期加锁只在本地计数，指定了持有时间的加锁仍逐次经过被装饰的锁策略；
+ * 异步释放到达redis前当前线程可立即重新加锁
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class ThreadLocalReentrancyLockStrategyTest {
+    private static final LocalLockProvider PROVIDER = new LocalLockProvider();
+
+    @Nested
+    class Contract extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return new ThreadLocalReentrancyLockStrategy(PROVIDER.getLockStrategy(Type.LOCK));
+        }
+    }
+
+    @Test
+    void localReentrancyIsOffByDefault() {
+        assertFalse(new DistributedLockProperties().isLocalReentrancy());
+    }
+
+    @Test
+    void nestedAutoRenewedLocksAreCountedLocally() throws Exception {
+        CountingLockStrategy delegate = new CountingLockStrategy(PROVIDER.getLockStrategy(Type.LOCK));
+        LockStrategy strategy = new ThreadLocalReentrancyLockStrategy(delegate);
+        String name = "lock:reentrancy:" + UUID.randomUUID();
+
+        strategy.lock(name, -1, TimeUnit.SECONDS);
+        assertTrue(strategy.tryLock(name, 0, -1, TimeUnit.SECONDS));
+        strategy.lock(name, 10, TimeUnit.SECONDS);
+        assertEquals(1, delegate.calls.get());
+        strategy.unlock(name);
+        strategy.unlock(name);
+        assertEquals(1, delegate.calls.get());
+        assertFalse(inOtherThread(() -> strategy.tryLock(name, 0, -1, TimeUnit.SECONDS)));
+        strategy.unlock(name);
+        // 另一线程的加锁与最后一次释放经过被装饰的锁策略
+        assertEquals(3, delegate.calls.get());
+        assertTrue(inOtherThread(() -> {
+            boolean locked = strategy.tryLock(name, 0, -1, TimeUnit.SECONDS);
+            strategy.unlock(name);
+            return locked;
+        }));
+    }
+
+    @Test
+    void nestedLocksUnderFixedLeaseReachTheDelegate() throws Exception {
+        CountingLockStrategy delegate = new CountingLockStrategy(PROVIDER.getLockStrategy(Type.LOCK));
+        LockStrategy strategy = new ThreadLocalReentrancyLockStrategy(delegate);
+        String name = "lock:reentrancy:" + UUID.randomUUID();
+
+        strategy.lock(name, 10, TimeUnit.SECONDS);
+        strategy.lock(name, -1, TimeUnit.SECONDS);
+        strategy.unlock(name);
+        strategy.unlock(name);
+        assertEquals(4, delegate.calls.get());
+    }
+
+    @Test
+    void relockBeforeAsyncReleaseLandsIsReentry() throws Exception {
+        LockStrategy strategy = new ThreadLocalReentrancyLockStrategy(new LocalQueueLockStrategy(
+                RedissonLockStrategy.of(EmbeddedRedis.redisson(), Type.LOCK), true, 16));
+        String name = "lock:reentrancy:" + UUID.randomUUID();
+
+        strategy.lock(name, -1, TimeUnit.SECONDS);
+        strategy.lock(name, -1, TimeUnit.SECONDS);
+        assertTrue(strategy.releaseAsync(name).isDone());
+        CompletableFuture<Void> released = strategy.releaseAsync(name);
+        // 本地计数已在返回前清除，重新加锁经过被装饰的锁策略，释放尚未到达redis时只是一次重入
+        assertTrue(strategy.tryLock(name, 0, -1, TimeUnit.SECONDS));
+        released.get(5, TimeUnit.SECONDS);
+        assertFalse(inOtherThread(() -> strategy.tryLock(name, 0, -1, TimeUnit.SECONDS)));
+
+        strategy.unlock(name);
+        assertTrue(inOtherThread(() -> {
+            boolean locked = strategy.tryLock(name, 0, -1, TimeUnit.SECONDS);
+            strategy.unlock(name);
+            return locked;
+        }));
+    }
+
+    /**
+     * 记录同步加锁、释放经过被装饰的锁策略的次数
+     */
+    private static final class CountingLockStrategy implements LockStrategy {
+        private final LockStrategy delegate;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        CountingLockStrategy(LockStrategy delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void lock(String lockName, long leaseTime, TimeUnit unit) {
+            calls.incrementAndGet();
+            delegate.lock(lockName, leaseTime, unit);
+        }
+
+        @Override
+        public boolean tryLock(String lockName, long waitTime, long leaseTime, TimeUnit unit)
+                throws InterruptedException {
+            calls.incrementAndGet();
+            return delegate.tryLock(lockName, waitTime, leaseTime, unit);
+        }
+
+        @Override
+        public void unlock(String lockName) {
+            calls.incrementAndGet();
+            delegate.unlock(lockName);
+        }
+
+        @Override
+        public CompletableFuture<Void> lockAsync(String lockName, long leaseTime, TimeUnit unit, long ownerId) {
+            return delegate.lockAsync(lockName, leaseTime, unit, ownerId);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> tryLockAsync(String lockName, long waitTime, long leaseTime, TimeUnit unit,
+                                                       long ownerId) {
+            return delegate.tryLockAsync(lockName, waitTime, leaseTime, unit, ownerId);
+        }
+
+        @Override
+        public CompletableFuture<Void> unlockAsync(String lockName, long ownerId) {
+            return delegate.unlockAsync(lockName, ownerId);
+        }
+    }
+}
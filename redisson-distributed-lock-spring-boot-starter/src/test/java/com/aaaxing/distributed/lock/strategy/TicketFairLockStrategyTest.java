@@ -0,0 +1,257 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.strategy;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.tryLock;
+import static com.aaaxing.distributed.lock.strategy.LockStrategyContractTest.unlock;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 取号公平锁：按取号顺序加锁、放弃等待（tryLock(0)、超时、中断）与宕机的等待者被跳过、持有期间计数器过期
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class TicketFairLockStrategyTest {
+    private static final LockRenewalService RENEWAL_SERVICE = new LockRenewalService(EmbeddedRedis.redisson(), null);
+
+    private final LockStrategy strategy = new TicketFairLockStrategy(EmbeddedRedis.redisson(), RENEWAL_SERVICE);
+
+    @AfterAll
+    static void shutdown() {
+        RENEWAL_SERVICE.shutdown();
+    }
+
+    @Nested
+    class Contract extends LockStrategyContractTest {
+        @Override
+        protected LockStrategy strategy() {
+            return strategy;
+        }
+    }
+
+    @Test
+    void waitersAcquireInTicketOrder() throws Exception {
+        String name = lockName();
+        long holder = LockOwnerIds.next();
+        assertTrue(tryLock(strategy, name, holder));
+
+        List<Integer> order = new ArrayList<>();
+        ConcurrentLinkedQueue<Integer> acquired = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> waiters = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            order.add(i);
+            waiters.add(enqueue(name, i, acquired));
+            awaitTickets(name, i + 2);
+        }
+        unlock(strategy, name, holder);
+        CompletableFuture.allOf(waiters.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(order, new ArrayList<>(acquired));
+        assertCountersRemoved(name);
+    }
+
+    @Test
+    void concurrentOwnersExcludeEachOther() throws Exception {
+        String name = lockName();
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        int threads = 8;
+        int rounds = 20;
+        CountDownLatch done = new CountDownLatch(threads);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    for (int j = 0; j < rounds; j++) {
+                        strategy.lock(name, -1, TimeUnit.SECONDS);
+                        if (inside.incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        inside.decrementAndGet();
+                        strategy.unlock(name);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        assertTrue(failures.isEmpty(), () -> "failures: " + failures);
+        assertEquals(0, overlaps.get());
+        assertCountersRemoved(name);
+    }
+
+    @Test
+    void tryLockWithoutWaitDoesNotKeepTicket() throws Exception {
+        String name = lockName();
+        long holder = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+        assertTrue(tryLock(strategy, name, holder));
+        CompletableFuture<Boolean> waiting = strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, waiter);
+        awaitTickets(name, 2);
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(tryLock(strategy, name, LockOwnerIds.next()));
+        }
+        assertEquals("2", ticketCounter(name));
+        unlock(strategy, name, holder);
+        // 通知即时送达，无需等到兜底重试
+        assertTrue(waiting.get(400, TimeUnit.MILLISECONDS));
+        unlock(strategy, name, waiter);
+        assertCountersRemoved(name);
+    }
+
+    @Test
+    void timedOutWaiterIsSkippedWithoutDelay() throws Exception {
+        String name = lockName();
+        long holder = LockOwnerIds.next();
+        long abandoned = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+        assertTrue(tryLock(strategy, name, holder));
+        CompletableFuture<Boolean> timingOut = strategy.tryLockAsync(name, 300, -1, TimeUnit.MILLISECONDS,
+                abandoned);
+        awaitTickets(name, 2);
+        CompletableFuture<Boolean> waiting = strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, waiter);
+        awaitTickets(name, 3);
+
+        assertFalse(timingOut.get(5, TimeUnit.SECONDS));
+        unlock(strategy, name, holder);
+        // 放弃的号码已删除，叫号直接越过它；否则要等到号码存活时间结束
+        assertTrue(waiting.get(800, TimeUnit.MILLISECONDS));
+        unlock(strategy, name, waiter);
+        assertCountersRemoved(name);
+    }
+
+    @Test
+    void interruptedWaiterIsSkippedWithoutDelay() throws Exception {
+        String name = lockName();
+        long holder = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+        assertTrue(tryLock(strategy, name, holder));
+        CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                interrupted.complete(strategy.tryLock(name, 10, -1, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                interrupted.complete(null);
+            } catch (Throwable e) {
+                interrupted.completeExceptionally(e);
+            }
+        });
+        thread.start();
+        awaitTickets(name, 2);
+        CompletableFuture<Boolean> waiting = strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, waiter);
+        awaitTickets(name, 3);
+
+        thread.interrupt();
+        assertNull(interrupted.get(5, TimeUnit.SECONDS));
+        // 等待放弃的请求完成
+        Thread.sleep(100);
+        unlock(strategy, name, holder);
+        assertTrue(waiting.get(800, TimeUnit.MILLISECONDS));
+        unlock(strategy, name, waiter);
+        assertCountersRemoved(name);
+    }
+
+    @Test
+    void crashedWaiterIsSkippedAfterItsTicketExpires() throws Exception {
+        String name = lockName();
+        long holder = LockOwnerIds.next();
+        long waiter = LockOwnerIds.next();
+        assertTrue(tryLock(strategy, name, holder));
+        RedissonClient crashed = EmbeddedRedis.newClient();
+        LockRenewalService crashedRenewal = new LockRenewalService(crashed, null);
+        new TicketFairLockStrategy(crashed, crashedRenewal).tryLockAsync(name, 30, -1, TimeUnit.SECONDS,
+                LockOwnerIds.next());
+        awaitTickets(name, 2);
+        CompletableFuture<Boolean> waiting = strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, waiter);
+        awaitTickets(name, 3);
+
+        // 节点宕机：不再刷新号码，也不会响应叫号
+        crashedRenewal.shutdown();
+        crashed.shutdown();
+        unlock(strategy, name, holder);
+        assertFalse(waiting.isDone());
+        assertTrue(waiting.get(EmbeddedRedis.WATCHDOG_TIMEOUT_MILLIS * 3, TimeUnit.MILLISECONDS));
+        unlock(strategy, name, waiter);
+        assertCountersRemoved(name);
+    }
+
+    @Test
+    void countersExpiringWhileHeldAreRebuilt() throws Exception {
+        String name = lockName();
+        long holder = LockOwnerIds.next();
+        LockFutures.join(strategy.lockAsync(name, -1, TimeUnit.SECONDS, holder));
+        // 无人等待时计数器在号码存活时间后过期，锁由续期服务续期
+        Thread.sleep(EmbeddedRedis.WATCHDOG_TIMEOUT_MILLIS * 2);
+        assertNull(ticketCounter(name));
+        assertFalse(tryLock(strategy, name, LockOwnerIds.next()));
+
+        ConcurrentLinkedQueue<Integer> acquired = new ConcurrentLinkedQueue<>();
+        CompletableFuture<Void> first = enqueue(name, 0, acquired);
+        awaitTickets(name, 1);
+        CompletableFuture<Void> second = enqueue(name, 1, acquired);
+        awaitTickets(name, 2);
+        unlock(strategy, name, holder);
+        CompletableFuture.allOf(first, second).get(10, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList(0, 1), new ArrayList<>(acquired));
+        assertCountersRemoved(name);
+    }
+
+    /**
+     * 等待加锁，加锁后记录序号并释放
+     */
+    private CompletableFuture<Void> enqueue(String name, int index, ConcurrentLinkedQueue<Integer> acquired) {
+        long owner = LockOwnerIds.next();
+        return strategy.tryLockAsync(name, 10, -1, TimeUnit.SECONDS, owner).thenCompose(locked -> {
+            assertTrue(locked);
+            acquired.add(index);
+            return strategy.unlockAsync(name, owner);
+        });
+    }
+
+    private static String lockName() {
+        return "lock:ticket:" + UUID.randomUUID();
+    }
+
+    /**
+     * 等待取号计数器达到指定值，即前面的等待者都已排队
+     */
+    private static void awaitTickets(String name, long tickets) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Long.toString(tickets).equals(ticketCounter(name))) {
+            assertTrue(System.currentTimeMillis() < deadline, "tickets taken: " + ticketCounter(name));
+            Thread.sleep(10);
+        }
+    }
+
+    private static String ticketCounter(String name) {
+        return EmbeddedRedis.redisson().<String>getBucket("{" + name + "}:ticket", StringCodec.INSTANCE).get();
+    }
+
+    private static void assertCountersRemoved(String name) {
+        assertEquals(0, EmbeddedRedis.redisson().getKeys().countExists("{" + name + "}:ticket",
+                "{" + name + "}:serving", "{" + name + "}:tickets"));
+    }
+}
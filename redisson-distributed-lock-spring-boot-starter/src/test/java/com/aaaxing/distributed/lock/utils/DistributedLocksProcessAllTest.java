@@ -0,0 +1,176 @@
+// Copyright 2024 axing
+package com.aaaxing.distributed.lock.utils;
+
+import com.aaaxing.distributed.lock.EmbeddedRedis;
+import com.aaaxing.distributed.lock.config.DistributedLockProperties;
+import com.aaaxing.distributed.lock.strategy.LockOwnerIds;
+import com.aaaxing.distributed.lock.strategy.LockStrategy;
+import com.aaaxing.distributed.lock.strategy.LockStrategyRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.aaaxing.distributed.lock.annotation.DistributedLock.Type;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分组并行批处理：同一锁名不并发、组内保持顺序、在途组数受限、被占用的锁名不阻塞其他组、失败后释放全部锁
+ *
+ * @author axing
+ * @date 2026-10-18
+ */
+class DistributedLocksProcessAllTest {
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(8);
+    private static LockStrategyRegistry registry;
+
+    @BeforeAll
+    static void setUp() {
+        registry = new LockStrategyRegistry(EmbeddedRedis.redisson(), new DistributedLockProperties());
+        DistributedLocks.setLockStrategyRegistry(registry);
+    }
+
+    @AfterAll
+    static void shutdown() {
+        EXECUTOR.shutdown();
+        registry.close();
+    }
+
+    @Test
+    void sameKeyIsProcessedSeriallyInOrder() {
+        String prefix = keyPrefix();
+        List<int[]> items = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            items.add(new int[]{i % 20, i});
+        }
+        Map<Integer, AtomicInteger> inside = new ConcurrentHashMap<>();
+        Map<Integer, List<Integer>> processed = new ConcurrentHashMap<>();
+        AtomicInteger overlaps = new AtomicInteger();
+
+        DistributedLocks.processAll(items, item -> prefix + item[0], item -> {
+            AtomicInteger counter = inside.computeIfAbsent(item[0], key -> new AtomicInteger());
+            if (counter.incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            processed.computeIfAbsent(item[0], key -> Collections.synchronizedList(new ArrayList<>())).add(item[1]);
+            counter.decrementAndGet();
+        }, EXECUTOR, 4);
+
+        assertEquals(0, overlaps.get());
+        assertEquals(20, processed.size());
+        for (Map.Entry<Integer, List<Integer>> group : processed.entrySet()) {
+            List<Integer> expected = new ArrayList<>();
+            for (int i = group.getKey(); i < 400; i += 20) {
+                expected.add(i);
+            }
+            assertEquals(expected, group.getValue());
+        }
+    }
+
+    @Test
+    void groupsInFlightAreBounded() {
+        String prefix = keyPrefix();
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            items.add(i);
+        }
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+
+        DistributedLocks.processAll(items, item -> prefix + item, item -> {
+            maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+            sleep(5);
+            inside.decrementAndGet();
+        }, EXECUTOR, 3);
+
+        assertTrue(maxInside.get() <= 3, () -> "groups in flight: " + maxInside.get());
+    }
+
+    @Test
+    void busyKeyDelaysOnlyItsGroup() throws Exception {
+        String prefix = keyPrefix();
+        LockStrategy lockStrategy = registry.getLockStrategy(Type.LOCK);
+        long holder = LockOwnerIds.next();
+        lockStrategy.lockAsync(prefix + 0, -1, TimeUnit.SECONDS, holder).get(5, TimeUnit.SECONDS);
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(i);
+        }
+        AtomicInteger others = new AtomicInteger();
+
+        CompletableFuture<Void> processing = CompletableFuture.runAsync(() -> DistributedLocks.processAll(items,
+                item -> prefix + item, item -> {
+                    if (item != 0) {
+                        others.incrementAndGet();
+                    }
+                }, EXECUTOR, 4));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (others.get() < 9) {
+            assertTrue(System.currentTimeMillis() < deadline, "other groups blocked: " + others.get());
+            Thread.sleep(10);
+        }
+        assertFalse(processing.isDone());
+
+        lockStrategy.unlockAsync(prefix + 0, holder).get(5, TimeUnit.SECONDS);
+        processing.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void failureReleasesAllLocksAndIsRethrown() throws Exception {
+        String prefix = keyPrefix();
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            items.add(i);
+        }
+        IllegalStateException failure = new IllegalStateException("settle failed");
+
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> DistributedLocks.processAll(
+                items, item -> prefix + item, item -> {
+                    if (item == 5) {
+                        throw failure;
+                    }
+                }, EXECUTOR, 4));
+
+        assertSame(failure, thrown);
+        LockStrategy lockStrategy = registry.getLockStrategy(Type.LOCK);
+        for (Integer item : items) {
+            long owner = LockOwnerIds.next();
+            assertTrue(lockStrategy.tryLockAsync(prefix + item, 0, -1, TimeUnit.SECONDS, owner)
+                    .get(5, TimeUnit.SECONDS));
+            lockStrategy.unlockAsync(prefix + item, owner).get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void executorIsRequired() {
+        assertThrows(IllegalArgumentException.class, () -> DistributedLocks.processAll(
+                Collections.singletonList(1), String::valueOf, item -> { }, null));
+    }
+
+    private static String keyPrefix() {
+        return "lock:process:" + UUID.randomUUID() + ":";
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}